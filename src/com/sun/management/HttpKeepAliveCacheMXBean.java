@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package com.sun.management;
+
+import java.lang.management.PlatformManagedObject;
+
+/**
+ * Management interface for the cache of idle keep-alive connections
+ * used by {@link java.net.HttpURLConnection}.
+ * <p>
+ * Idle connections are pooled per route, that is per protocol, host,
+ * port, proxy and socket factory. The number of idle connections per
+ * route is limited by the system property {@code http.maxConnections},
+ * the number over all routes by {@code http.maxTotalConnections}.
+ * <p>
+ * The {@code ObjectName} for uniquely identifying the MXBean
+ * within an MBeanServer is:
+ * <blockquote>
+ *    {@code com.sun.management:type=HttpKeepAliveCache}
+ * </blockquote>
+ *
+ * @since 11
+ */
+public interface HttpKeepAliveCacheMXBean extends PlatformManagedObject {
+    /**
+     * Returns the number of requests that reused an idle connection
+     * from the cache.
+     *
+     * @return the number of cache hits.
+     */
+    public long getHitCount();
+
+    /**
+     * Returns the number of requests that found no idle connection
+     * for their route in the cache.
+     *
+     * @return the number of cache misses.
+     */
+    public long getMissCount();
+
+    /**
+     * Returns the number of idle connections that were closed because
+     * they stayed idle longer than their keep-alive timeout.
+     *
+     * @return the number of evicted connections.
+     */
+    public long getEvictionCount();
+
+    /**
+     * Returns the number of connections that were closed instead of
+     * being cached, because the per-route or the global limit of idle
+     * connections was reached.
+     *
+     * @return the number of connections rejected by the cache.
+     */
+    public long getOverflowCount();
+
+    /**
+     * Returns the current number of idle connections in the cache.
+     *
+     * @return the number of idle connections.
+     */
+    public int getIdleConnectionCount();
+
+    /**
+     * Returns the current number of routes that have a pool in the cache.
+     *
+     * @return the number of routes.
+     */
+    public int getRouteCount();
+
+    /**
+     * Returns the maximum number of idle connections kept per route.
+     *
+     * @return the per-route limit.
+     */
+    public int getMaxConnectionsPerRoute();
+
+    /**
+     * Returns the maximum number of idle connections kept over all routes,
+     * or {@link Integer#MAX_VALUE} if there is no global limit.
+     *
+     * @return the global limit.
+     */
+    public int getMaxTotalConnections();
+}
@@ -26,6 +26,7 @@ package com.sun.management.internal;
 
 import com.sun.management.DiagnosticCommandMBean;
 import com.sun.management.HotSpotDiagnosticMXBean;
+import com.sun.management.HttpKeepAliveCacheMXBean;
 import com.sun.management.ThreadMXBean;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryManagerMXBean;
@@ -51,6 +52,7 @@ public final class PlatformMBeanProviderImpl extends PlatformMBeanProvider {
     private final List<PlatformComponent<?>> mxbeanList;
     private static HotSpotDiagnostic hsDiagMBean = null;
     private static OperatingSystemMXBean osMBean = null;
+    private static HttpKeepAliveCacheMXBean httpKeepAliveCacheMBean = null;
 
     static {
        AccessController.doPrivileged((PrivilegedAction<Void>) () -> {
@@ -230,6 +232,37 @@ public final class PlatformMBeanProviderImpl extends PlatformMBeanProvider {
             }
         });
 
+        /**
+         * Keep-alive connection cache of HttpURLConnection.
+         */
+        initMBeanList.add(new PlatformComponent<HttpKeepAliveCacheMXBean>() {
+            private final Set<String> httpKeepAliveCacheMXBeanInterfaceNames =
+                    Collections.unmodifiableSet(Collections.<String>singleton(
+                            "com.sun.management.HttpKeepAliveCacheMXBean"));
+
+            @Override
+            public Set<Class<? extends HttpKeepAliveCacheMXBean>> mbeanInterfaces() {
+                return Collections.singleton(HttpKeepAliveCacheMXBean.class);
+            }
+
+            @Override
+            public Set<String> mbeanInterfaceNames() {
+                return httpKeepAliveCacheMXBeanInterfaceNames;
+            }
+
+            @Override
+            public String getObjectNamePattern() {
+                return HttpKeepAliveCacheImpl.HTTP_KEEP_ALIVE_CACHE_MXBEAN_NAME;
+            }
+
+            @Override
+            public Map<String, HttpKeepAliveCacheMXBean> nameToMBeanMap() {
+                return Collections.<String, HttpKeepAliveCacheMXBean>singletonMap(
+                        HttpKeepAliveCacheImpl.HTTP_KEEP_ALIVE_CACHE_MXBEAN_NAME,
+                        getHttpKeepAliveCacheMXBean());
+            }
+        });
+
         /**
          * Diagnostic command MBean
          */
@@ -276,6 +309,13 @@ public final class PlatformMBeanProviderImpl extends PlatformMBeanProvider {
         return hsDiagMBean;
     }
 
+    private static synchronized HttpKeepAliveCacheMXBean getHttpKeepAliveCacheMXBean() {
+        if (httpKeepAliveCacheMBean == null) {
+            httpKeepAliveCacheMBean = new HttpKeepAliveCacheImpl();
+        }
+        return httpKeepAliveCacheMBean;
+    }
+
     private static synchronized OperatingSystemMXBean getOperatingSystemMXBean() {
         if (osMBean == null) {
             osMBean = new OperatingSystemImpl(ManagementFactoryHelper.getVMManagement());
@@ -92,6 +92,16 @@ import com.sun.net.httpserver.spi.HttpServerProvider;
  * rejected (or possibly ignored) by the underlying TCP implementation. Setting the right
  * backlog value is a compromise between efficient resource usage in the TCP layer (not setting
  * it too high) and allowing adequate throughput of incoming requests (not setting it too low).
+ * <p>
+ * <b>Note about dispatcher threads</b><p>
+ * By default the JDK implementation uses a single dispatcher thread which accepts
+ * new connections and waits for requests on all of them. Setting the system property
+ * {@code sun.net.httpserver.multiReactor} to {@code true} selects a mode with one
+ * acceptor thread and several selector threads. Connections are spread across the
+ * selector threads, each of which also runs the idle and request timers for its own
+ * connections. The number of selector threads is given by the system property
+ * {@code sun.net.httpserver.selectorThreads}, which defaults to the number of
+ * available processors.
  * @since 1.6
  */
 
@@ -2490,7 +2490,9 @@ public final class String implements Serializable, Comparable<String>, CharSeque
      */
     // 返回对指定的字符串片段进行格式化之后的结果
     public static String format(String format, Object... args) {
-        return new Formatter().format(format, args).toString();
+        StringBuilder builder = StringBuilder.pooled();
+        new Formatter(builder).format(format, args);
+        return builder.toStringAndClear();
     }
     
     /**
@@ -2519,7 +2521,9 @@ public final class String implements Serializable, Comparable<String>, CharSeque
      */
     // 返回对指定的字符串片段进行格式化之后的结果(会使用指定区域的格式习惯)
     public static String format(Locale locale, String format, Object... args) {
-        return new Formatter(locale).format(format, args).toString();
+        StringBuilder builder = StringBuilder.pooled();
+        new Formatter(builder, locale).format(format, args);
+        return builder.toStringAndClear();
     }
     
     /*▲ 格式化 ████████████████████████████████████████████████████████████████████████████████┛ */
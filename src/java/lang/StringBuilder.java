@@ -91,6 +91,9 @@ public final class StringBuilder extends AbstractStringBuilder implements Serial
     /** use serialVersionUID for interoperability */
     static final long serialVersionUID = 4383685877147921099L;
     
+    // 当前StringBuilder是否取自线程缓存，且尚未交还
+    private transient boolean pooled;
+    
     
     
     /*▼ 构造方法 ████████████████████████████████████████████████████████████████████████████████┓ */
@@ -576,4 +579,108 @@ public final class StringBuilder extends AbstractStringBuilder implements Serial
         return isLatin1() ? StringLatin1.newString(value, 0, count) : StringUTF16.newString(value, 0, count);
     }
     
+    /**
+     * Returns a string representing the data in this sequence, and then
+     * empties this sequence.
+     *
+     * <p>The characters are copied into a right-sized array, as
+     * {@link #toString()} does, and this builder keeps its array for further
+     * use.  The array of a builder is never shared with a string: a builder
+     * may still be reachable from other code, which could otherwise modify
+     * the string after it is returned.
+     *
+     * <p>A builder obtained from {@code pooled()} is returned to the pool of
+     * the calling thread by this method, and must not be used afterwards.
+     *
+     * @return a string representation of this sequence of characters
+     *
+     * @since 11
+     */
+    /*
+     * 返回当前StringBuilder内容的字符串，并清空StringBuilder，内部数组保留以便继续使用
+     *
+     * 字符串总是复制内部数组，而不是直接接管它：
+     * 其他仍持有该StringBuilder的代码可能在移交之后继续写入该数组，从而修改本应不可变的字符串
+     */
+    public String toStringAndClear() {
+        String str = toString();
+        count = 0;
+        if(pooled) {
+            /*
+             * 保留原有的编码：若将UTF16编码的数组重置为LATIN1，
+             * 下次追加非Latin1字符时会按数组长度的两倍重新扩展，导致数组随每次复用而翻倍
+             */
+            pooled = false;
+            Pool.release(this);
+        }
+        return str;
+    }
+    
+    /**
+     * Returns an empty builder for the calling thread, reusing the internal
+     * array of a builder that was returned to the pool of the thread by
+     * {@link #toStringAndClear()}.
+     *
+     * <p>Formatters and loggers that build one string after another can take
+     * their builder from here, so that neither the builder nor the growth of
+     * its array is paid again for each string; the string itself is still
+     * copied out of the array.  Nested uses on the same thread are served by
+     * distinct builders.  A builder that is not returned to the pool, for
+     * instance because an exception was thrown, is simply left to the
+     * garbage collector, and so is a builder that has grown beyond a few tens
+     * of thousands of characters.
+     *
+     * @return an empty builder, to be released with {@code toStringAndClear}
+     *
+     * @since 11
+     */
+    // 返回当前线程缓存的空StringBuilder，用完后应通过toStringAndClear()取出字符串并交还给线程缓存
+    public static StringBuilder pooled() {
+        StringBuilder builder = Pool.acquire();
+        builder.pooled = true;
+        return builder;
+    }
+    
+    // 每个线程缓存的StringBuilder
+    private static final class Pool {
+        // 每个线程缓存的StringBuilder的数量，足以应对少量的嵌套使用
+        static final int SIZE = 4;
+        // 容量超出此值的StringBuilder不再缓存，以免长期占用大块内存
+        static final int MAX_CAPACITY = 1 << 15;
+        
+        static final ThreadLocal<StringBuilder[]> LOCAL = new ThreadLocal<>() {
+            @Override
+            protected StringBuilder[] initialValue() {
+                return new StringBuilder[SIZE];
+            }
+        };
+        
+        // 取出当前线程缓存的StringBuilder，没有缓存时新建
+        static StringBuilder acquire() {
+            StringBuilder[] builders = LOCAL.get();
+            for(int i = SIZE - 1; i >= 0; i--) {
+                StringBuilder builder = builders[i];
+                if(builder != null) {
+                    builders[i] = null;
+                    return builder;
+                }
+            }
+            return new StringBuilder(256);
+        }
+        
+        // 将StringBuilder交还给当前线程的缓存
+        static void release(StringBuilder builder) {
+            if(builder.capacity()>MAX_CAPACITY) {
+                return;
+            }
+            StringBuilder[] builders = LOCAL.get();
+            for(int i = 0; i<SIZE; i++) {
+                if(builders[i] == null) {
+                    builders[i] = builder;
+                    return;
+                }
+            }
+        }
+    }
+    
 }
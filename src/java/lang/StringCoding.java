@@ -26,6 +26,7 @@
 package java.lang;
 
 import jdk.internal.HotSpotIntrinsicCandidate;
+import jdk.internal.util.ArraysSupport;
 import sun.nio.cs.ArrayDecoder;
 import sun.nio.cs.ArrayEncoder;
 import sun.nio.cs.HistoricallyNamedCharset;
@@ -48,7 +49,6 @@ import java.util.Arrays;
 
 import static java.lang.Character.highSurrogate;
 import static java.lang.Character.isSupplementaryCodePoint;
-import static java.lang.Character.isSurrogate;
 import static java.lang.Character.lowSurrogate;
 import static java.lang.String.COMPACT_STRINGS;
 import static java.lang.String.LATIN1;
@@ -793,6 +793,13 @@ class StringCoding {
                 if(b1 >= 0) {
                     dst[dp++] = (byte) b1;
                     sp++;
+                    // 后面仍是ASCII字符时，一次检查8个字节，批量复制其余连续的ASCII字符
+                    if(sp<sl && src[sp] >= 0) {
+                        int n = ArraysSupport.countPositives(src, sp, sl);
+                        System.arraycopy(src, sp, dst, dp, n);
+                        sp += n;
+                        dp += n;
+                    }
                     continue;
                 }
                 if((b1 == (byte) 0xc2 || b1 == (byte) 0xc3) && sp + 1 < sl) {
@@ -824,6 +831,12 @@ class StringCoding {
             int b1 = src[sp++];
             if(b1 >= 0) {
                 putChar(dst, dp++, (char) b1);
+                // 后面仍是ASCII字符时，一次检查8个字节，找出其余连续的ASCII字符
+                if(sp<sl && src[sp] >= 0) {
+                    for(int end = sp + ArraysSupport.countPositives(src, sp, sl); sp<end; ) {
+                        putChar(dst, dp++, (char) src[sp++]);
+                    }
+                }
             } else if((b1 >> 5) == -2 && (b1 & 0x1e) != 0) {
                 if(sp < sl) {
                     int b2 = src[sp++];
@@ -847,7 +860,10 @@ class StringCoding {
                 if(sp + 1 < sl) {
                     int b2 = src[sp++];
                     int b3 = src[sp++];
-                    if(isMalformed3(b1, b2, b3)) {
+                    // 查表一次排除格式错误、非最短形式与代理区的序列
+                    if(sun.nio.cs.UTF_8.isWellFormed3(b1, b2, b3)) {
+                        putChar(dst, dp++, (char) ((b1 << 12) ^ (b2 << 6) ^ (b3 ^ (((byte) 0xE0 << 12) ^ ((byte) 0x80 << 6) ^ ((byte) 0x80 << 0)))));
+                    } else if(isMalformed3(b1, b2, b3)) {
                         if(!doReplace) {
                             throwMalformed(sp - 3, 3);
                         }
@@ -855,15 +871,11 @@ class StringCoding {
                         sp -= 3;
                         sp += malformedN(src, sp, 3);
                     } else {
-                        char c = (char) ((b1 << 12) ^ (b2 << 6) ^ (b3 ^ (((byte) 0xE0 << 12) ^ ((byte) 0x80 << 6) ^ ((byte) 0x80 << 0))));
-                        if(isSurrogate(c)) {
-                            if(!doReplace) {
-                                throwMalformed(sp - 3, 3);
-                            }
-                            putChar(dst, dp++, repl);
-                        } else {
-                            putChar(dst, dp++, c);
+                        // 代理区的字符
+                        if(!doReplace) {
+                            throwMalformed(sp - 3, 3);
                         }
+                        putChar(dst, dp++, repl);
                     }
                     continue;
                 }
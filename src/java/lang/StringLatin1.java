@@ -26,6 +26,7 @@
 package java.lang;
 
 import jdk.internal.HotSpotIntrinsicCandidate;
+import jdk.internal.util.ArraysSupport;
 
 import java.util.Arrays;
 import java.util.Locale;
@@ -493,13 +494,7 @@ final class StringLatin1 {
             // Note: fromIndex might be near -1>>>1.
             return -1;
         }
-        byte c = (byte) ch;
-        for(int i = fromIndex; i < max; i++) {
-            if(value[i] == c) {
-                return i;
-            }
-        }
-        return -1;
+        return ArraysSupport.indexOf(value, fromIndex, max, (byte) ch);
     }
     
     // 返回Unicode符号ch在Latin1-String的字节值value中最后一次出现的下标
@@ -757,11 +752,7 @@ startSearchForLastChar:
     
     
     public static int hashCode(byte[] value) {
-        int h = 0;
-        for(byte v : value) {
-            h = 31 * h + (v & 0xff);
-        }
-        return h;
+        return ArraysSupport.vectorizedHashCode(value, 0, value.length, 0, ArraysSupport.T_BOOLEAN);
     }
     
     
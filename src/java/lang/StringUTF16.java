@@ -26,6 +26,7 @@
 package java.lang;
 
 import jdk.internal.HotSpotIntrinsicCandidate;
+import jdk.internal.util.ArraysSupport;
 
 import java.util.Arrays;
 import java.util.Locale;
@@ -1495,12 +1496,7 @@ startSearchForLastChar:
     
     
     public static int hashCode(byte[] value) {
-        int h = 0;
-        int length = value.length >> 1;
-        for(int i = 0; i < length; i++) {
-            h = 31 * h + getChar(value, i);
-        }
-        return h;
+        return ArraysSupport.vectorizedHashCode(value, 0, value.length >> 1, 0, ArraysSupport.T_CHAR);
     }
     
     
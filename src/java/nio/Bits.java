@@ -132,7 +132,7 @@ class Bits {
     
     // 返回分页数量
     static int pageCount(long size) {
-        return (int) (size + (long) pageSize() - 1L) / pageSize();
+        return (int) ((size + (long) pageSize() - 1L) / pageSize());
     }
     
     // 是否支持对非字节对齐的访问
@@ -30,6 +30,7 @@ import jdk.internal.misc.JavaNioAccess;
 import jdk.internal.misc.SharedSecrets;
 import jdk.internal.misc.Unsafe;
 
+import java.io.FileDescriptor;
 import java.util.Spliterator;
 
 /**
@@ -230,6 +231,9 @@ public abstract class Buffer {
     private int limit;          // 上界。缓冲区的第一个不能被读或写的元素。或者说，缓冲区中现存元素的计数。
     private int capacity;       // 容量。缓冲区能够容纳的数据元素的最大数量。这一容量在缓冲区创建时被设定，并且永远不能被改变。
     
+    // 由ByteBufferAllocator分配的缓冲区及在其上创建的所有视图所共享的租约，其它缓冲区为null
+    ByteBufferAllocator.Lease lease;
+    
     
     static {
         // setup access to this package in SharedSecrets
@@ -248,6 +252,11 @@ public abstract class Buffer {
             public void truncate(Buffer buf) {
                 buf.truncate();
             }
+            
+            @Override
+            public MappedRegion newMappedRegion(long addr, long size, boolean readOnly, FileDescriptor fd, Runnable unmapper) {
+                return new MappedRegion(addr, size, readOnly, fd, unmapper);
+            }
         });
     }
     
@@ -505,6 +514,22 @@ public abstract class Buffer {
         capacity = 0;
     }
     
+    /*
+     * 记录在parent上创建的视图view，由视图缓冲区的构造器或创建视图的方法调用
+     * 视图继承parent的租约，释放租约时随之失效；parent属于映射文件的缓冲区时，解除映射时同样随之失效；
+     * parent是在MappedRegion上创建的缓冲区时，关闭区域时同样随之失效
+     */
+    static void track(Object parent, Buffer view) {
+        if(parent instanceof Buffer) {
+            ByteBufferAllocator.Lease lease = ((Buffer) parent).lease;
+            if(lease != null) {
+                lease.addView(view);
+            }
+        }
+        MappedByteBuffer.trackMapping(parent, view);
+        MappedRegion.trackRegion(parent, view);
+    }
+    
     /*▲ 标记操作 ████████████████████████████████████████████████████████████████████████████████┛ */
     
     
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package java.nio;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+
+/**
+ * The views created on a block of memory, remembered weakly so that they can
+ * all be invalidated when the memory is released.  Not thread-safe; the
+ * owner synchronizes access.
+ */
+// 在同一块内存上创建的视图，以弱引用记录，以便释放内存时使它们全部失效；非线程安全，由持有者负责同步
+class BufferViews {
+    
+    // 视图的弱引用，视图被回收后在下一次清理时移除
+    private final ArrayList<WeakReference<Buffer>> list = new ArrayList<>();
+    
+    // 列表长度达到该值时清理已回收的视图
+    private int purgeAt = 16;
+    
+    // 记录视图
+    final void add(Buffer view) {
+        if(list.size() >= purgeAt) {
+            int live = 0;
+            for(int i = 0; i<list.size(); i++) {
+                WeakReference<Buffer> ref = list.get(i);
+                if(ref.get() != null) {
+                    list.set(live++, ref);
+                }
+            }
+            list.subList(live, list.size()).clear();
+            purgeAt = Math.max(16, live * 2);
+        }
+        list.add(new WeakReference<>(view));
+    }
+    
+    // 将所有仍存活的视图的容量清零，并清空记录
+    final void truncateAll() {
+        for(int i = 0; i<list.size(); i++) {
+            Buffer view = list.get(i).get();
+            if(view != null) {
+                view.truncate();
+            }
+        }
+        list.clear();
+    }
+    
+}
@@ -25,6 +25,8 @@
 
 package java.nio;
 
+import jdk.internal.util.ArraysSupport;
+
 /**
  * A byte buffer.
  *
@@ -1808,11 +1810,9 @@ public abstract class ByteBuffer extends Buffer implements Comparable<ByteBuffer
      * @return The current hash code of this buffer
      */
     public int hashCode() {
-        int h = 1;
         int p = position();
-        for(int i = limit() - 1; i >= p; i--)
-            h = 31 * h + (int) get(i);
-        return h;
+        // 由后向前计算剩余元素的哈希，每次处理8个字节
+        return ArraysSupport.reverseHashCode(base(), address + p, limit() - p, 1);
     }
     
 }
@@ -0,0 +1,659 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package java.nio;
+
+import java.lang.ref.Cleaner;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.internal.misc.Unsafe;
+import jdk.internal.misc.VM;
+import jdk.internal.ref.CleanerFactory;
+import sun.nio.ch.DirectBuffer;
+import sun.security.action.GetPropertyAction;
+
+/**
+ * An allocator of byte buffers that are released explicitly and whose memory
+ * is pooled for reuse.
+ *
+ * <p> A buffer allocated by this class carries a reference count, which is
+ * initially one.  {@link #retain(ByteBuffer)} increments it and
+ * {@link #release(ByteBuffer)} decrements it; when it drops to zero, the
+ * memory of the buffer goes back to the allocator, and a later allocation of
+ * about the same size takes it without reserving new memory.  Memory that is
+ * not taken back, because the allocator already caches as much as it may, is
+ * freed at once rather than when the buffer is garbage-collected.
+ *
+ * <p> Every view of a buffer, whether created by {@link #slice(ByteBuffer)}
+ * and {@link #duplicate(ByteBuffer)} or by the methods of the buffer itself
+ * (such as {@link ByteBuffer#slice()} or {@link ByteBuffer#asIntBuffer()}),
+ * shares the reference count of the buffer, so any of them may be retained
+ * or released.  The memory of a buffer is never reused while the count is
+ * above zero.  When it drops to zero, the buffer and all its views are
+ * truncated to a capacity of zero, so any later attempt to access their
+ * content throws an exception instead of touching memory that may then
+ * belong to another buffer.  The backing array of a released heap buffer
+ * must not be accessed, and a buffer must not be released while another
+ * thread is accessing it or one of its views.  Unlike the buffers of
+ * {@link ByteBuffer#allocate(int)} and {@link ByteBuffer#allocateDirect(int)},
+ * the content of a new buffer is unspecified.
+ *
+ * <p> A buffer that becomes unreachable, together with all its views,
+ * without having been released is reclaimed by the garbage collector as
+ * usual.  When the system property
+ * {@code jdk.nio.ByteBufferAllocator.leakDetection} is {@code true}, the
+ * allocator also records where each buffer was allocated, reports such
+ * buffers on the standard error stream, and takes their memory back.
+ *
+ * <pre>{@code
+ *     ByteBufferAllocator allocator = ByteBufferAllocator.getDefault();
+ *     ByteBuffer buf = allocator.allocateDirect(8192);
+ *     try {
+ *         channel.read(buf);
+ *         ...
+ *     } finally {
+ *         ByteBufferAllocator.release(buf);
+ *     }
+ * }</pre>
+ *
+ * <p> This class is safe for use by multiple concurrent threads.
+ *
+ * @since 11
+ */
+// 字节缓冲区分配器，分配出的缓冲区带有引用计数，计数归零时其内存交还分配器以待复用
+public final class ByteBufferAllocator {
+    
+    // 最小的尺寸级别：64字节
+    private static final int MIN_SHIFT = 6;
+    
+    // 最大的尺寸级别：4MB，更大的缓冲区不缓存，但释放时同样立即回收内存
+    private static final int MAX_SHIFT = 22;
+    
+    // 尺寸级别的数量
+    private static final int CLASSES = MAX_SHIFT - MIN_SHIFT + 1;
+    
+    // 每个分片中每个尺寸级别的槽位数量
+    private static final int SLOTS = 16;
+    
+    // 分片数量，不小于处理器数量的2的幂
+    private static final int STRIPES;
+    
+    // 是否开启泄露检测
+    private static final boolean LEAK_DETECTION = Boolean.parseBoolean(GetPropertyAction.privilegedGetProperty("jdk.nio.ByteBufferAllocator.leakDetection"));
+    
+    private static final Unsafe UNSAFE = Unsafe.getUnsafe();
+    
+    // Lease中refCnt字段的偏移量
+    private static final long REF_CNT = UNSAFE.objectFieldOffset(Lease.class, "refCnt");
+    
+    // 默认的分配器，懒加载
+    private static volatile ByteBufferAllocator defaultAllocator;
+    
+    static {
+        int processors = Math.min(Runtime.getRuntime().availableProcessors(), 64);
+        STRIPES = processors>1 ? Integer.highestOneBit(processors - 1) << 1 : 1;
+    }
+    
+    /*
+     * 缓存的内存，按[堆/直接][分片][尺寸级别][槽位]的次序排列
+     * 堆内存缓存为byte[]，直接内存缓存为DirectByteBuffer，空槽位为null
+     */
+    private final AtomicReferenceArray<Object> slots = new AtomicReferenceArray<>(2 * STRIPES * CLASSES * SLOTS);
+    
+    // 缓存的内存总量上限(bytes)
+    private final long maxCachedMemory;
+    
+    // 缓存的内存总量
+    private final AtomicLong cachedMemory = new AtomicLong();
+    
+    // 泄露的缓冲区数量（仅在开启泄露检测时统计）
+    private final LongAdder leaks = new LongAdder();
+    
+    
+    
+    /*▼ 构造器/工厂方法 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    private ByteBufferAllocator(long maxCachedMemory) {
+        this.maxCachedMemory = maxCachedMemory;
+    }
+    
+    /**
+     * Returns the allocator shared by the whole runtime.  It caches up to
+     * the smaller of 64 MB and a quarter of the maximum direct memory.
+     *
+     * @return The default allocator
+     */
+    // 返回默认的分配器
+    public static ByteBufferAllocator getDefault() {
+        ByteBufferAllocator allocator = defaultAllocator;
+        if(allocator == null) {
+            synchronized(ByteBufferAllocator.class) {
+                allocator = defaultAllocator;
+                if(allocator == null) {
+                    allocator = new ByteBufferAllocator(Math.min(64L << 20, VM.maxDirectMemory() / 4));
+                    defaultAllocator = allocator;
+                }
+            }
+        }
+        return allocator;
+    }
+    
+    /**
+     * Creates a new allocator.
+     *
+     * @param maxCachedMemory The maximum number of bytes of released memory
+     *                        that the allocator keeps for reuse; zero to free
+     *                        all memory on release
+     *
+     * @return The new allocator
+     *
+     * @throws IllegalArgumentException If {@code maxCachedMemory} is negative
+     */
+    // 创建一个分配器，maxCachedMemory为其缓存的内存总量上限
+    public static ByteBufferAllocator newAllocator(long maxCachedMemory) {
+        if(maxCachedMemory<0) {
+            throw new IllegalArgumentException("Negative maxCachedMemory: " + maxCachedMemory);
+        }
+        return new ByteBufferAllocator(maxCachedMemory);
+    }
+    
+    /*▲ 构造器/工厂方法 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 分配 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Allocates a new heap byte buffer.
+     *
+     * <p> The new buffer's position will be zero, its limit will be its
+     * capacity, its mark will be undefined, its reference count will be one,
+     * and its byte order will be {@link ByteOrder#BIG_ENDIAN BIG_ENDIAN}.
+     * It will have a {@link ByteBuffer#array backing array}, which may be
+     * longer than the buffer, and its {@link ByteBuffer#arrayOffset array
+     * offset} will be zero.
+     *
+     * @param capacity The new buffer's capacity, in bytes
+     *
+     * @return The new byte buffer
+     *
+     * @throws IllegalArgumentException If the {@code capacity} is a negative integer
+     */
+    // 分配堆内存缓冲区，优先复用缓存的内存
+    public ByteBuffer allocate(int capacity) {
+        return allocate(capacity, false);
+    }
+    
+    /**
+     * Allocates a new direct byte buffer.
+     *
+     * <p> The new buffer's position will be zero, its limit will be its
+     * capacity, its mark will be undefined, its reference count will be one,
+     * and its byte order will be {@link ByteOrder#BIG_ENDIAN BIG_ENDIAN}.
+     *
+     * @param capacity The new buffer's capacity, in bytes
+     *
+     * @return The new byte buffer
+     *
+     * @throws IllegalArgumentException If the {@code capacity} is a negative integer
+     */
+    // 分配直接内存缓冲区，优先复用缓存的内存
+    public ByteBuffer allocateDirect(int capacity) {
+        return allocate(capacity, true);
+    }
+    
+    // 分配容量为capacity的缓冲区，direct指示是否分配直接内存
+    private ByteBuffer allocate(int capacity, boolean direct) {
+        if(capacity<0) {
+            throw Buffer.createCapacityException(capacity);
+        }
+        
+        int cls = classOf(capacity);
+        Object memory = null;
+        if(cls<CLASSES) {
+            memory = take(direct, cls);
+        } else {
+            // 超出最大的尺寸级别，按实际容量分配，且不缓存
+            cls = -1;
+        }
+        
+        if(memory == null) {
+            int size = cls<0 ? capacity : 1 << (cls + MIN_SHIFT);
+            memory = direct ? ByteBuffer.allocateDirect(size) : new byte[size];
+        }
+        
+        ByteBuffer buf;
+        if(direct) {
+            buf = new DirectByteBuffer((DirectBuffer) memory, -1, 0, capacity, capacity, 0);
+        } else {
+            buf = new HeapByteBuffer((byte[]) memory, -1, 0, capacity, capacity, 0);
+        }
+        buf.lease = new Lease(this, buf, memory, cls, direct);
+        return buf;
+    }
+    
+    /*▲ 分配 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 引用计数 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Increments the reference count of the given buffer.
+     *
+     * @param buf A buffer allocated by a {@code ByteBufferAllocator}, or a
+     *            view of it
+     *
+     * @return The given buffer
+     *
+     * @throws IllegalArgumentException If the buffer was not allocated by a {@code ByteBufferAllocator}
+     * @throws IllegalStateException    If the buffer has already been released
+     */
+    // 递增buf的引用计数
+    public static ByteBuffer retain(ByteBuffer buf) {
+        Lease lease = leaseOf(buf);
+        int cnt;
+        do {
+            cnt = lease.refCnt;
+            if(cnt<=0) {
+                throw new IllegalStateException("Buffer already released");
+            }
+            if(cnt == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Reference count overflow");
+            }
+        } while(!UNSAFE.compareAndSetInt(lease, REF_CNT, cnt, cnt + 1));
+        return buf;
+    }
+    
+    /**
+     * Decrements the reference count of the given buffer.  When it drops to
+     * zero, the buffer and all its views are truncated to a capacity of zero,
+     * and the memory of the buffer is given back to its allocator.
+     *
+     * @param buf A buffer allocated by a {@code ByteBufferAllocator}, or a
+     *            view of it
+     *
+     * @return {@code true} if the reference count dropped to zero
+     *
+     * @throws IllegalArgumentException If the buffer was not allocated by a {@code ByteBufferAllocator}
+     * @throws IllegalStateException    If the buffer has already been released
+     */
+    // 递减buf的引用计数，计数归零时使buf及其所有视图失效，将其内存交还分配器，并返回true
+    public static boolean release(ByteBuffer buf) {
+        Lease lease = leaseOf(buf);
+        int cnt;
+        do {
+            cnt = lease.refCnt;
+            if(cnt<=0) {
+                throw new IllegalStateException("Buffer already released");
+            }
+        } while(!UNSAFE.compareAndSetInt(lease, REF_CNT, cnt, cnt - 1));
+        
+        if(cnt != 1) {
+            return false;
+        }
+        
+        // 先使缓冲区及其所有视图失效，再交还内存
+        lease.invalidate();
+        
+        if(lease.leak != null) {
+            lease.leak.released = true;
+            lease.leak.cleanable.clean();
+        }
+        lease.allocator.recycle(lease.memory, lease.cls, lease.direct);
+        return true;
+    }
+    
+    /**
+     * Returns the reference count of the given buffer, which is zero once
+     * the buffer has been released.
+     *
+     * @param buf A buffer allocated by a {@code ByteBufferAllocator}, or a
+     *            view of it
+     *
+     * @return The reference count
+     *
+     * @throws IllegalArgumentException If the buffer was not allocated by a {@code ByteBufferAllocator}
+     */
+    // 返回buf的引用计数
+    public static int refCount(ByteBuffer buf) {
+        return leaseOf(buf).refCnt;
+    }
+    
+    /**
+     * Tells whether the given buffer was allocated by a
+     * {@code ByteBufferAllocator}, or is a view of such a buffer.
+     *
+     * @param buf A byte buffer
+     *
+     * @return {@code true} if the buffer carries a reference count
+     */
+    // 判断buf是否带有引用计数
+    public static boolean isCounted(ByteBuffer buf) {
+        return buf.lease != null;
+    }
+    
+    /*▲ 引用计数 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 视图 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Creates a new byte buffer whose content is a shared subsequence of the
+     * given buffer's content, as {@link ByteBuffer#slice()} does, and which
+     * shares the reference count of the given buffer, after checking that
+     * the buffer has not been released.  The reference count is not
+     * incremented.
+     *
+     * @param buf A buffer allocated by a {@code ByteBufferAllocator}, or a
+     *            view of it
+     *
+     * @return The new byte buffer
+     *
+     * @throws IllegalArgumentException If the buffer was not allocated by a {@code ByteBufferAllocator}
+     * @throws IllegalStateException    If the buffer has already been released
+     */
+    // 切片，新缓冲区与buf共享引用计数
+    public static ByteBuffer slice(ByteBuffer buf) {
+        liveLeaseOf(buf);
+        return buf.slice();
+    }
+    
+    /**
+     * Creates a new byte buffer that shares the given buffer's content, as
+     * {@link ByteBuffer#duplicate()} does, and which shares the reference
+     * count of the given buffer, after checking that the buffer has not been
+     * released.  The reference count is not incremented.
+     *
+     * @param buf A buffer allocated by a {@code ByteBufferAllocator}, or a
+     *            view of it
+     *
+     * @return The new byte buffer
+     *
+     * @throws IllegalArgumentException If the buffer was not allocated by a {@code ByteBufferAllocator}
+     * @throws IllegalStateException    If the buffer has already been released
+     */
+    // 副本，新缓冲区与buf共享引用计数
+    public static ByteBuffer duplicate(ByteBuffer buf) {
+        liveLeaseOf(buf);
+        return buf.duplicate();
+    }
+    
+    /*▲ 视图 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 缓存 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Frees all the memory that this allocator keeps for reuse.
+     */
+    // 释放缓存的所有内存
+    public void trim() {
+        for(int i = 0; i<slots.length(); i++) {
+            Object memory = slots.getAndSet(i, null);
+            if(memory != null) {
+                cachedMemory.addAndGet(-sizeOf(memory));
+                free(memory);
+            }
+        }
+    }
+    
+    /**
+     * Returns the number of bytes of released memory that this allocator
+     * keeps for reuse.
+     *
+     * @return The cached memory, in bytes
+     */
+    // 返回缓存的内存总量
+    public long cachedMemory() {
+        return cachedMemory.get();
+    }
+    
+    /**
+     * Returns the maximum number of bytes of released memory that this
+     * allocator keeps for reuse.
+     *
+     * @return The limit of the cached memory, in bytes
+     */
+    // 返回缓存的内存总量上限
+    public long maxCachedMemory() {
+        return maxCachedMemory;
+    }
+    
+    /**
+     * Returns the number of buffers of this allocator that became unreachable
+     * without having been released.  Leaks are only detected when the system
+     * property {@code jdk.nio.ByteBufferAllocator.leakDetection} is
+     * {@code true}, otherwise this method returns zero.
+     *
+     * @return The number of leaked buffers
+     */
+    // 返回泄露的缓冲区数量
+    public long leakCount() {
+        return leaks.sum();
+    }
+    
+    // 从缓存中取出尺寸级别为cls的内存，没有时返回null
+    private Object take(boolean direct, int cls) {
+        int stripe = stripe();
+        for(int s = 0; s<STRIPES; s++) {
+            int base = index(direct, (stripe + s) & (STRIPES - 1), cls);
+            for(int i = 0; i<SLOTS; i++) {
+                Object memory;
+                if(slots.get(base + i) != null && (memory = slots.getAndSet(base + i, null)) != null) {
+                    cachedMemory.addAndGet(-sizeOf(memory));
+                    return memory;
+                }
+            }
+        }
+        return null;
+    }
+    
+    // 将释放的内存交还缓存，缓存已满或超出上限时立即释放该内存
+    private void recycle(Object memory, int cls, boolean direct) {
+        if(cls >= 0 && offer(memory, cls, direct)) {
+            return;
+        }
+        free(memory);
+    }
+    
+    // 尝试将内存放入缓存
+    private boolean offer(Object memory, int cls, boolean direct) {
+        int size = sizeOf(memory);
+        
+        // 预留缓存内存，超出上限时拒绝缓存
+        long cached;
+        do {
+            cached = cachedMemory.get();
+            if(cached + size>maxCachedMemory) {
+                return false;
+            }
+        } while(!cachedMemory.compareAndSet(cached, cached + size));
+        
+        int stripe = stripe();
+        for(int s = 0; s<STRIPES; s++) {
+            int base = index(direct, (stripe + s) & (STRIPES - 1), cls);
+            for(int i = 0; i<SLOTS; i++) {
+                if(slots.get(base + i) == null && slots.compareAndSet(base + i, null, memory)) {
+                    return true;
+                }
+            }
+        }
+        
+        // 所有槽位已满
+        cachedMemory.addAndGet(-size);
+        return false;
+    }
+    
+    // 立即释放直接内存；堆内存交给垃圾回收器
+    private static void free(Object memory) {
+        if(memory instanceof DirectBuffer) {
+            ((DirectBuffer) memory).cleaner().clean();
+        }
+    }
+    
+    // 返回缓存的内存的尺寸
+    private static int sizeOf(Object memory) {
+        return memory instanceof byte[] ? ((byte[]) memory).length : ((ByteBuffer) memory).capacity();
+    }
+    
+    // 返回容纳size个字节的尺寸级别
+    private static int classOf(int size) {
+        if(size<=1 << MIN_SHIFT) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SHIFT;
+    }
+    
+    // 返回当前线程所属的分片
+    private static int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1);
+    }
+    
+    // 返回槽位组的起始下标
+    private static int index(boolean direct, int stripe, int cls) {
+        return (((direct ? STRIPES : 0) + stripe) * CLASSES + cls) * SLOTS;
+    }
+    
+    /*▲ 缓存 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    // 返回buf的租约，buf不带引用计数时抛出异常
+    private static Lease leaseOf(ByteBuffer buf) {
+        Lease lease = buf.lease;
+        if(lease == null) {
+            throw new IllegalArgumentException("Buffer not allocated by a ByteBufferAllocator");
+        }
+        return lease;
+    }
+    
+    // 返回buf的租约，buf不带引用计数或已被释放时抛出异常
+    private static Lease liveLeaseOf(ByteBuffer buf) {
+        Lease lease = leaseOf(buf);
+        if(lease.refCnt<=0) {
+            throw new IllegalStateException("Buffer already released");
+        }
+        return lease;
+    }
+    
+    
+    
+    /**
+     * The reference count of a buffer and its views, created for each
+     * allocation, so that a stale view of a previous allocation of the same
+     * memory cannot release the current one.  Every view refers to the lease,
+     * so the lease, and with it the memory, stays reachable while any view
+     * is; the lease refers to the views weakly, to invalidate them on release.
+     */
+    // 租约，记录一次分配的内存及其引用计数，由缓冲区及其所有视图共享（视图强引用租约，租约弱引用视图）
+    static final class Lease {
+        final ByteBufferAllocator allocator;
+        final ByteBuffer buffer;    // 分配出的缓冲区
+        final Object memory;        // byte[]或DirectByteBuffer
+        final int cls;              // 尺寸级别，不缓存时为-1
+        final boolean direct;
+        final Leak leak;            // 未开启泄露检测时为null
+        
+        volatile int refCnt = 1;
+        
+        private BufferViews views;  // 在buffer上创建的视图，懒加载
+        private boolean released;   // 引用计数是否已归零
+        
+        Lease(ByteBufferAllocator allocator, ByteBuffer buffer, Object memory, int cls, boolean direct) {
+            this.allocator = allocator;
+            this.buffer = buffer;
+            this.memory = memory;
+            this.cls = cls;
+            this.direct = direct;
+            if(LEAK_DETECTION) {
+                leak = new Leak(allocator, memory, cls, direct);
+                leak.cleanable = CleanerFactory.cleaner().register(this, leak);
+            } else {
+                leak = null;
+            }
+        }
+        
+        // 记录在buffer上创建的视图；已释放时立即使其失效
+        synchronized void addView(Buffer view) {
+            view.lease = this;
+            if(released) {
+                view.truncate();
+                return;
+            }
+            if(views == null) {
+                views = new BufferViews();
+            }
+            views.add(view);
+        }
+        
+        // 使buffer及其所有视图失效
+        synchronized void invalidate() {
+            released = true;
+            buffer.truncate();
+            if(views != null) {
+                views.truncateAll();
+                views = null;
+            }
+        }
+    }
+    
+    /**
+     * Reports a lease that became unreachable before it was released, and
+     * gives its memory back.  It must not refer to the lease.
+     */
+    // 泄露检测，租约在引用计数归零前变得不可达时报告分配位置，并回收其内存
+    private static final class Leak implements Runnable {
+        final ByteBufferAllocator allocator;
+        final Object memory;
+        final int cls;
+        final boolean direct;
+        final Throwable trace = new Throwable("ByteBuffer allocated here was not released");
+        volatile boolean released;
+        Cleaner.Cleanable cleanable;
+        
+        Leak(ByteBufferAllocator allocator, Object memory, int cls, boolean direct) {
+            this.allocator = allocator;
+            this.memory = memory;
+            this.cls = cls;
+            this.direct = direct;
+        }
+        
+        @Override
+        public void run() {
+            if(released) {
+                return;
+            }
+            allocator.leaks.increment();
+            trace.printStackTrace();
+            allocator.recycle(memory, cls, direct);
+        }
+    }
+    
+}
@@ -50,6 +50,7 @@ class ByteBufferAsCharBufferB extends CharBuffer {
         this.bb = bb;
         address = addr;
         assert address >= bb.address;
+        track(bb, this);
     }
     
     /*▲ 构造器 ████████████████████████████████████████████████████████████████████████████████┛ */
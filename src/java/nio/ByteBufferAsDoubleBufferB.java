@@ -49,6 +49,7 @@ class ByteBufferAsDoubleBufferB extends DoubleBuffer {
         this.bb = bb;
         address = addr;
         assert address >= bb.address;
+        track(bb, this);
     }
     
     /*▲ 构造器 ████████████████████████████████████████████████████████████████████████████████┛ */
@@ -49,6 +49,7 @@ class ByteBufferAsFloatBufferB extends FloatBuffer {
         this.bb = bb;
         address = addr;
         assert address >= bb.address;
+        track(bb, this);
     }
     
     /*▲ 构造器 ████████████████████████████████████████████████████████████████████████████████┛ */
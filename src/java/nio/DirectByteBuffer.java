@@ -119,6 +119,7 @@ class DirectByteBuffer extends MappedByteBuffer implements DirectBuffer {
         address = db.address() + off;
         cleaner = null;
         att = db;
+        track(db, this);
     }
     
     // Invoked only by JNI: NewDirectByteBuffer(void*, long)
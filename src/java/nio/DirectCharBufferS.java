@@ -52,6 +52,7 @@ class DirectCharBufferS extends CharBuffer implements DirectBuffer {
         super(mark, pos, lim, cap);
         address = db.address() + off;
         att = db;
+        track(db, this);
     }
     
     /*▲ 构造器 ████████████████████████████████████████████████████████████████████████████████┛ */
@@ -53,6 +53,7 @@ class DirectCharBufferU extends CharBuffer implements DirectBuffer {
         super(mark, pos, lim, cap);
         address = db.address() + off;   // 新缓冲区【绝对】起始地址 = 旧缓冲区的【绝对】起始地址+新缓冲区相对于旧缓冲区的位移
         att = db;
+        track(db, this);
     }
     
     /*▲ 构造器 ████████████████████████████████████████████████████████████████████████████████┛ */
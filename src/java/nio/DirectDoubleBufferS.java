@@ -54,6 +54,7 @@ class DirectDoubleBufferS extends DoubleBuffer implements DirectBuffer {
         super(mark, pos, lim, cap);
         address = db.address() + off;
         att = db;
+        track(db, this);
     }
     
     /*▲ 构造器 ████████████████████████████████████████████████████████████████████████████████┛ */
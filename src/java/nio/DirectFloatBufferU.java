@@ -54,6 +54,7 @@ class DirectFloatBufferU extends FloatBuffer implements DirectBuffer {
         super(mark, pos, lim, cap);
         address = db.address() + off;
         att = db;
+        track(db, this);
     }
     
     /*▲ 构造器 ████████████████████████████████████████████████████████████████████████████████┛ */
@@ -80,7 +80,9 @@ class HeapByteBuffer extends ByteBuffer {
     
     // 切片，截取旧缓冲区的【活跃区域】，作为新缓冲区的【原始区域】。两个缓冲区标记独立
     public ByteBuffer slice() {
-        return new HeapByteBuffer(hb, -1, 0, this.remaining(), this.remaining(), this.position() + offset);
+        ByteBuffer slice = new HeapByteBuffer(hb, -1, 0, this.remaining(), this.remaining(), this.position() + offset);
+        track(this, slice);
+        return slice;
     }
     
     // 切片，截取旧缓冲区【活跃区域】中pos~lim中的一段，作为新缓冲区的【原始区域】。两个缓冲区标记独立
@@ -88,17 +90,23 @@ class HeapByteBuffer extends ByteBuffer {
         assert (pos >= 0);
         assert (pos <= lim);
         int rem = lim - pos;
-        return new HeapByteBuffer(hb, -1, 0, rem, rem, pos + offset);
+        ByteBuffer slice = new HeapByteBuffer(hb, -1, 0, rem, rem, pos + offset);
+        track(this, slice);
+        return slice;
     }
     
     // 副本，新缓冲区共享旧缓冲区的【原始区域】，且新旧缓冲区【活跃区域】一致。两个缓冲区标记独立。
     public ByteBuffer duplicate() {
-        return new HeapByteBuffer(hb, this.markValue(), this.position(), this.limit(), this.capacity(), offset);
+        ByteBuffer duplicate = new HeapByteBuffer(hb, this.markValue(), this.position(), this.limit(), this.capacity(), offset);
+        track(this, duplicate);
+        return duplicate;
     }
     
     // 只读副本，新缓冲区共享旧缓冲区的【原始区域】，且新旧缓冲区【活跃区域】一致。两个缓冲区标记独立。
     public ByteBuffer asReadOnlyBuffer() {
-        return new HeapByteBufferR(hb, this.markValue(), this.position(), this.limit(), this.capacity(), offset);
+        ByteBuffer duplicate = new HeapByteBufferR(hb, this.markValue(), this.position(), this.limit(), this.capacity(), offset);
+        track(this, duplicate);
+        return duplicate;
     }
     
     /*▲ 创建新缓冲区，新旧缓冲区共享内部的存储容器 ████████████████████████████████████████████████████████████████████████████████┛ */
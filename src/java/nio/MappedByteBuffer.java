@@ -25,10 +25,18 @@
 
 package java.nio;
 
+import jdk.internal.misc.InnocuousThread;
 import jdk.internal.misc.Unsafe;
+import jdk.internal.ref.Cleaner;
+import sun.nio.ch.DirectBuffer;
 
 import java.io.FileDescriptor;
 import java.lang.ref.Reference;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A direct byte buffer whose content is a memory-mapped region of a file.
@@ -39,7 +47,8 @@ import java.lang.ref.Reference;
  * memory-mapped file regions.
  *
  * <p> A mapped byte buffer and the file mapping that it represents remain
- * valid until the buffer itself is garbage-collected.
+ * valid until the buffer itself is garbage-collected, or until the mapping
+ * is released by {@link #unmap()}.
  *
  * <p> The content of a mapped byte buffer can change at any time, for example
  * if the content of the corresponding region of the mapped file is changed by
@@ -77,6 +86,9 @@ public abstract class MappedByteBuffer extends ByteBuffer {
     // For mapped buffers, a FileDescriptor that may be used for mapping operations if valid; null if the buffer is not mapped.
     private final FileDescriptor fd;
     
+    // 映射文件的缓冲区上创建的视图，以及是否已解除映射；仅在映射文件的缓冲区中使用，懒加载
+    private Views views;
+    
     
     
     // This should only be invoked by the DirectByteBuffer constructors
@@ -131,26 +143,11 @@ public abstract class MappedByteBuffer extends ByteBuffer {
             return this;
         long offset = mappingOffset();
         long length = mappingLength(offset);
-        load0(mappingAddress(offset), length);
-        
-        // Read a byte from each page to bring it into memory.
-        // A checksum is computed as we go along to prevent the compiler from otherwise considering the loop as dead code.
-        Unsafe unsafe = Unsafe.getUnsafe();
-        int ps = Bits.pageSize();
-        int count = Bits.pageCount(length);
-        long a = mappingAddress(offset);
-        byte x = 0;
         try {
-            for(int i = 0; i < count; i++) {
-                // TODO consider changing to getByteOpaque thus avoiding dead code elimination and the need to calculate a checksum
-                x ^= unsafe.getByte(a);
-                a += ps;
-            }
+            load(mappingAddress(offset), length, true);
         } finally {
             Reference.reachabilityFence(this);
         }
-        if(unused != 0)
-            unused = x;
         
         return this;
     }
@@ -226,10 +223,245 @@ public abstract class MappedByteBuffer extends ByteBuffer {
         return this;
     }
     
+    /*
+     * 以下方法供MappedRegion使用，address需按页对齐
+     * 由于本地方法是实例方法，MappedRegion借助一个容量为0的缓冲区调用它们
+     */
+    
+    // 建议操作系统预读[address, address+length)中的页面；touch为true时，还会从每个页面读取一个字节，确保页面进入内存
+    final void load(long address, long length, boolean touch) {
+        // 页面数量以int计，超过2GB的范围分段加载
+        long chunk = maxChunk();
+        for(long done = 0; done<length; done += chunk) {
+            loadChunk(address + done, Math.min(chunk, length - done), touch);
+        }
+    }
+    
+    // 加载[address, address+length)中的页面，length不超过maxChunk()
+    private void loadChunk(long address, long length, boolean touch) {
+        load0(address, length);
+        if(!touch) {
+            return;
+        }
+        
+        // Read a byte from each page to bring it into memory.
+        // A checksum is computed as we go along to prevent the compiler from otherwise considering the loop as dead code.
+        Unsafe unsafe = Unsafe.getUnsafe();
+        int ps = Bits.pageSize();
+        int count = Bits.pageCount(length);
+        long a = address;
+        byte x = 0;
+        for(int i = 0; i < count; i++) {
+            // TODO consider changing to getByteOpaque thus avoiding dead code elimination and the need to calculate a checksum
+            x ^= unsafe.getByte(a);
+            a += ps;
+        }
+        if(unused != 0)
+            unused = x;
+    }
+    
+    // 判断[address, address+length)中的页面是否都在物理内存中
+    final boolean isLoaded(long address, long length) {
+        // 本地方法按页面数量分配int长度的向量，超过2GB的范围分段检查
+        long chunk = maxChunk();
+        for(long done = 0; done<length; done += chunk) {
+            long size = Math.min(chunk, length - done);
+            if(!isLoaded0(address + done, size, Bits.pageCount(size))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // 分段加载或检查时每段的最大字节数：不超过Integer.MAX_VALUE的页面大小的最大整数倍，使每段的起始地址仍按页对齐
+    private static long maxChunk() {
+        long ps = Bits.pageSize();
+        return Integer.MAX_VALUE / ps * ps;
+    }
+    
+    // 将[address, address+length)中的修改写回文件
+    final void force(FileDescriptor fd, long address, long length) {
+        force0(fd, address, length);
+    }
+    
+    /**
+     * Starts loading the given part of this buffer's content into physical
+     * memory on a background thread, as {@link #load()} does.
+     *
+     * <p> The returned future completes with this buffer once the pages have
+     * been touched.  If the mapping is {@link #unmap() unmapped} in the
+     * meantime, loading stops and the future completes as well.  If this
+     * buffer is not a mapped buffer, the returned future is already
+     * completed.
+     *
+     * @param index  The index of the first byte to load
+     * @param length The number of bytes to load
+     *
+     * @return A future that completes when the part has been loaded
+     *
+     * @throws IndexOutOfBoundsException If the part lies outside this buffer
+     * @since 11
+     */
+    // 在后台线程中加载index处起length个字节所在的页面，不阻塞调用者
+    public final CompletableFuture<MappedByteBuffer> loadAsync(int index, int length) {
+        Objects.checkFromIndexSize(index, length, capacity());
+        
+        MappedByteBuffer root = mapping();
+        if(root == null || length == 0) {
+            return CompletableFuture.completedFuture(this);
+        }
+        
+        long start = address + index;
+        long delta = start % Bits.pageSize();
+        if(delta<0) {
+            delta += Bits.pageSize();
+        }
+        long pageStart = start - delta;
+        long pageLength = length + delta;
+        Views views = root.views();
+        
+        return CompletableFuture.supplyAsync(() -> {
+            loadPages(views, pageStart, pageLength);
+            return this;
+        }, Loader.EXECUTOR);
+    }
+    
+    /**
+     * Starts loading this buffer's content into physical memory on a
+     * background thread.
+     *
+     * @return A future that completes when the content has been loaded
+     *
+     * @see #loadAsync(int, int)
+     * @since 11
+     */
+    // 在后台线程中加载整个缓冲区所在的页面，不阻塞调用者
+    public final CompletableFuture<MappedByteBuffer> loadAsync() {
+        return loadAsync(0, capacity());
+    }
+    
+    /*
+     * 分批加载[address, address+length)中的页面，每批都在确认映射未被解除后进行
+     * 加载过程中持有views.loadLock，解除映射时会等待当前这一批加载完成
+     */
+    private void loadPages(Views views, long address, long length) {
+        long step = (long) Loader.BATCH_PAGES * Bits.pageSize();
+        for(long done = 0; done<length; done += step) {
+            synchronized(views.loadLock) {
+                if(views.unmapped) {
+                    return;
+                }
+                load(address + done, Math.min(step, length - done), true);
+            }
+        }
+    }
+    
     /*▲ 加载文件 ████████████████████████████████████████████████████████████████████████████████┛ */
     
     
     
+    /*▼ 解除映射 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Unmaps the file mapping of this buffer at once, rather than when the
+     * buffer is garbage-collected.
+     *
+     * <p> The buffer returned by {@link java.nio.channels.FileChannel#map
+     * FileChannel.map} and all the buffers created from it, by slicing,
+     * duplicating or viewing it as a buffer of another type, are truncated
+     * to a capacity of zero, so any later attempt to access their content
+     * throws an exception instead of touching unmapped memory.  Changes made
+     * to a mapping in {@link java.nio.channels.FileChannel.MapMode#READ_WRITE
+     * READ_WRITE} mode are kept in the file, but are not forced to the
+     * storage device.
+     *
+     * <p> This method may be invoked on any of these buffers.  It must not
+     * be invoked while another thread is accessing one of them; doing so has
+     * unspecified results, which may include the abnormal termination of the
+     * Java virtual machine.  If the mapping is already unmapped then invoking
+     * this method has no effect.
+     *
+     * @throws UnsupportedOperationException If this buffer is not a mapped buffer
+     * @since 11
+     */
+    // 立即解除映射，映射文件的缓冲区及在其上创建的所有视图的容量均变为0
+    public final void unmap() {
+        MappedByteBuffer root = mapping();
+        if(root == null) {
+            throw new UnsupportedOperationException("Not a mapped buffer");
+        }
+        
+        Views views;
+        synchronized(root) {
+            views = root.views();
+            if(views.unmapped) {
+                return;
+            }
+            views.unmapped = true;
+            root.truncate();
+            views.truncateAll();
+        }
+        
+        // 等待正在进行的异步加载结束当前这一批
+        synchronized(views.loadLock) {
+        }
+        
+        // 释放映射内存，同时更新"mapped"缓冲池的统计信息
+        Cleaner cleaner = ((DirectBuffer) root).cleaner();
+        if(cleaner != null) {
+            cleaner.clean();
+        }
+    }
+    
+    /*
+     * 记录在parent上创建的视图view，以便解除映射时使其失效
+     * 由Buffer.track()调用，parent不属于任何映射文件的缓冲区时什么也不做
+     */
+    static void trackMapping(Object parent, Buffer view) {
+        MappedByteBuffer root = mappingOf(parent);
+        if(root != null) {
+            root.addView(view);
+        }
+    }
+    
+    // 返回当前缓冲区所属的映射文件的缓冲区，不属于任何映射文件的缓冲区时返回null
+    private MappedByteBuffer mapping() {
+        return mappingOf(this);
+    }
+    
+    // 沿着附件链查找映射文件的缓冲区
+    private static MappedByteBuffer mappingOf(Object buf) {
+        while(buf instanceof DirectBuffer) {
+            if(buf instanceof MappedByteBuffer && ((MappedByteBuffer) buf).fd != null) {
+                return (MappedByteBuffer) buf;
+            }
+            buf = ((DirectBuffer) buf).attachment();
+        }
+        return null;
+    }
+    
+    // 记录视图，已解除映射时立即使其失效
+    private synchronized void addView(Buffer view) {
+        Views views = views();
+        if(views.unmapped) {
+            view.truncate();
+            return;
+        }
+        views.add(view);
+    }
+    
+    // 返回视图记录，没有时创建
+    private synchronized Views views() {
+        if(views == null) {
+            views = new Views();
+        }
+        return views;
+    }
+    
+    /*▲ 解除映射 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
     /*▼ 标记操作 ████████████████████████████████████████████████████████████████████████████████┓ */
     
     /**
@@ -323,6 +555,34 @@ public abstract class MappedByteBuffer extends ByteBuffer {
         return (long) capacity() + mappingOffset;
     }
     
+    
+    
+    // 映射文件的缓冲区上创建的视图
+    private static final class Views extends BufferViews {
+        // 是否已解除映射
+        volatile boolean unmapped;
+        // 异步加载时持有的锁
+        final Object loadLock = new Object();
+    }
+    
+    // 执行异步加载的后台线程池，懒加载
+    private static final class Loader {
+        // 每批加载的页面数量，解除映射最多等待一批加载完成
+        static final int BATCH_PAGES = 256;
+        
+        static final ThreadPoolExecutor EXECUTOR;
+        
+        static {
+            int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+            EXECUTOR = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread t = InnocuousThread.newSystemThread("MappedByteBuffer-Loader", r);
+                t.setDaemon(true);
+                return t;
+            });
+            EXECUTOR.allowCoreThreadTimeOut(true);
+        }
+    }
+    
     private native boolean isLoaded0(long address, long length, int pageCount);
     
     private native void load0(long address, long length);
@@ -0,0 +1,852 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package java.nio;
+
+import java.io.FileDescriptor;
+import java.lang.ref.Reference;
+import java.util.Objects;
+import jdk.internal.misc.Unsafe;
+import jdk.internal.ref.Cleaner;
+import sun.nio.ch.DirectBuffer;
+
+/**
+ * A region of a file mapped into memory, addressed by {@code long} offsets.
+ *
+ * <p> A mapped region is created by the {@link
+ * java.nio.channels.FileChannel#mapRegion FileChannel.mapRegion} method.
+ * Unlike a {@link MappedByteBuffer}, it may be larger than
+ * {@link Integer#MAX_VALUE} bytes, it has no position or limit, and it can be
+ * unmapped deterministically by {@link #close()}; a region that is never
+ * closed is unmapped when it is garbage-collected.
+ *
+ * <p> Primitive values are read and written at absolute offsets, in the
+ * {@link #order() byte order} of the region, which is initially
+ * {@link ByteOrder#BIG_ENDIAN BIG_ENDIAN}.  Parts of the region can be
+ * copied in bulk to and from arrays and buffers, or viewed as byte buffers
+ * with {@link #slice(long, int)}.
+ *
+ * <p> Once a region is closed, its own methods throw
+ * {@link IllegalStateException}, and the buffers returned by
+ * {@link #slice(long, int)}, together with the buffers derived from them,
+ * are truncated to a capacity of zero, so that accessing them throws an
+ * exception.  A region must not be closed while another thread is accessing
+ * it or one of its buffers; doing so has unspecified results, which may
+ * include the abnormal termination of the Java virtual machine.
+ *
+ * @since 11
+ */
+// 文件映射内存区域，使用long型偏移量寻址，容量可以超过Integer.MAX_VALUE，可以显式释放
+public final class MappedRegion implements AutoCloseable {
+    
+    private static final Unsafe UNSAFE = Unsafe.getUnsafe();
+    
+    private static final long ARRAY_BASE_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
+    
+    /**
+     * Access hints for a part of a region, in the manner of
+     * {@code madvise(2)}.  The hints never change the content of the region.
+     *
+     * @since 11
+     */
+    // 访问建议
+    public enum Advice {
+        /**
+         * The part will be accessed sequentially.  This implementation has no
+         * way to pass this hint to the operating system and ignores it.
+         */
+        SEQUENTIAL,
+        
+        /**
+         * The part will be accessed in random order.  This implementation has
+         * no way to pass this hint to the operating system and ignores it.
+         */
+        RANDOM,
+        
+        /**
+         * The part will be accessed soon.  The operating system is asked to
+         * read it ahead, as by {@link MappedRegion#load(long, long)}, but
+         * without waiting for the pages to be loaded.
+         */
+        WILLNEED
+    }
+    
+    // 区域的字节数量
+    private final long size;
+    
+    // 是否只读
+    private final boolean readOnly;
+    
+    // 用于写回修改的文件描述符
+    private final FileDescriptor fd;
+    
+    // 用于释放映射区域的清理器，空区域为null
+    private final Cleaner cleaner;
+    
+    // 容量为0的缓冲区，用于调用MappedByteBuffer中的本地方法
+    private final MappedByteBuffer pages;
+    
+    // 区域的起始地址，关闭后为0
+    private long address;
+    
+    // 是否已关闭
+    private boolean closed;
+    
+    // 在区域上创建的缓冲区及其视图，关闭时使它们全部失效
+    private final BufferViews views = new BufferViews();
+    
+    // 多字节数据是否为大端法存储
+    private boolean bigEndian = true;
+    
+    
+    
+    /*▼ 构造器 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    // Invoked by FileChannelImpl via JavaNioAccess
+    MappedRegion(long address, long size, boolean readOnly, FileDescriptor fd, Runnable unmapper) {
+        this.address = address;
+        this.size = size;
+        this.readOnly = readOnly;
+        this.fd = fd;
+        this.cleaner = unmapper == null ? null : Cleaner.create(this, unmapper);
+        this.pages = new DirectByteBuffer(address, 0, this);
+    }
+    
+    /*▲ 构造器 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 属性 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Returns the size of this region, in bytes.
+     *
+     * @return The size of this region
+     */
+    // 返回区域的字节数量
+    public long size() {
+        return size;
+    }
+    
+    /**
+     * Tells whether or not this region is read-only.
+     *
+     * @return {@code true} if, and only if, this region is read-only
+     */
+    // 判断区域是否只读
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+    
+    /**
+     * Tells whether or not this region is still mapped.
+     *
+     * @return {@code true} if, and only if, this region has not been closed
+     */
+    // 判断区域是否未关闭
+    public synchronized boolean isOpen() {
+        return !closed;
+    }
+    
+    /**
+     * Retrieves this region's byte order.
+     *
+     * @return This region's byte order
+     */
+    // 返回区域的字节序
+    public ByteOrder order() {
+        return bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+    }
+    
+    /**
+     * Modifies this region's byte order.
+     *
+     * @param bo The new byte order
+     *
+     * @return This region
+     */
+    // 修改区域的字节序
+    public MappedRegion order(ByteOrder bo) {
+        bigEndian = (bo == ByteOrder.BIG_ENDIAN);
+        return this;
+    }
+    
+    /*▲ 属性 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ get ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Reads the byte at the given offset.
+     *
+     * @param offset The offset from which the byte will be read
+     *
+     * @return The byte at the given offset
+     *
+     * @throws IndexOutOfBoundsException If {@code offset} is negative or not smaller than the size
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 读取offset处的byte
+    public byte getByte(long offset) {
+        try {
+            return UNSAFE.getByte(ix(offset, 1));
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+    
+    /**
+     * Reads the two bytes at the given offset, composing them into a char
+     * value according to the current byte order.
+     *
+     * @param offset The offset from which the bytes will be read
+     *
+     * @return The char value at the given offset
+     *
+     * @throws IndexOutOfBoundsException If {@code offset} is negative or not smaller than the size minus one
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 读取offset处的char
+    public char getChar(long offset) {
+        try {
+            return UNSAFE.getCharUnaligned(null, ix(offset, 2), bigEndian);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+    
+    /**
+     * Reads the two bytes at the given offset, composing them into a short
+     * value according to the current byte order.
+     *
+     * @param offset The offset from which the bytes will be read
+     *
+     * @return The short value at the given offset
+     *
+     * @throws IndexOutOfBoundsException If {@code offset} is negative or not smaller than the size minus one
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 读取offset处的short
+    public short getShort(long offset) {
+        try {
+            return UNSAFE.getShortUnaligned(null, ix(offset, 2), bigEndian);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+    
+    /**
+     * Reads the four bytes at the given offset, composing them into an int
+     * value according to the current byte order.
+     *
+     * @param offset The offset from which the bytes will be read
+     *
+     * @return The int value at the given offset
+     *
+     * @throws IndexOutOfBoundsException If {@code offset} is negative or not smaller than the size minus three
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 读取offset处的int
+    public int getInt(long offset) {
+        try {
+            return UNSAFE.getIntUnaligned(null, ix(offset, 4), bigEndian);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+    
+    /**
+     * Reads the eight bytes at the given offset, composing them into a long
+     * value according to the current byte order.
+     *
+     * @param offset The offset from which the bytes will be read
+     *
+     * @return The long value at the given offset
+     *
+     * @throws IndexOutOfBoundsException If {@code offset} is negative or not smaller than the size minus seven
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 读取offset处的long
+    public long getLong(long offset) {
+        try {
+            return UNSAFE.getLongUnaligned(null, ix(offset, 8), bigEndian);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+    
+    /**
+     * Reads the four bytes at the given offset, composing them into a float
+     * value according to the current byte order.
+     *
+     * @param offset The offset from which the bytes will be read
+     *
+     * @return The float value at the given offset
+     *
+     * @throws IndexOutOfBoundsException If {@code offset} is negative or not smaller than the size minus three
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 读取offset处的float
+    public float getFloat(long offset) {
+        return Float.intBitsToFloat(getInt(offset));
+    }
+    
+    /**
+     * Reads the eight bytes at the given offset, composing them into a double
+     * value according to the current byte order.
+     *
+     * @param offset The offset from which the bytes will be read
+     *
+     * @return The double value at the given offset
+     *
+     * @throws IndexOutOfBoundsException If {@code offset} is negative or not smaller than the size minus seven
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 读取offset处的double
+    public double getDouble(long offset) {
+        return Double.longBitsToDouble(getLong(offset));
+    }
+    
+    /*▲ get ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ put ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Writes the given byte at the given offset.
+     *
+     * @param offset The offset at which the byte will be written
+     * @param value  The byte value to be written
+     *
+     * @return This region
+     *
+     * @throws IndexOutOfBoundsException If {@code offset} is negative or not smaller than the size
+     * @throws ReadOnlyBufferException   If this region is read-only
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 向offset处写入byte
+    public MappedRegion putByte(long offset, byte value) {
+        try {
+            UNSAFE.putByte(ixw(offset, 1), value);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+        return this;
+    }
+    
+    /**
+     * Writes two bytes containing the given char value, in the current byte
+     * order, at the given offset.
+     *
+     * @param offset The offset at which the bytes will be written
+     * @param value  The char value to be written
+     *
+     * @return This region
+     *
+     * @throws IndexOutOfBoundsException If {@code offset} is negative or not smaller than the size minus one
+     * @throws ReadOnlyBufferException   If this region is read-only
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 向offset处写入char
+    public MappedRegion putChar(long offset, char value) {
+        try {
+            UNSAFE.putCharUnaligned(null, ixw(offset, 2), value, bigEndian);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+        return this;
+    }
+    
+    /**
+     * Writes two bytes containing the given short value, in the current byte
+     * order, at the given offset.
+     *
+     * @param offset The offset at which the bytes will be written
+     * @param value  The short value to be written
+     *
+     * @return This region
+     *
+     * @throws IndexOutOfBoundsException If {@code offset} is negative or not smaller than the size minus one
+     * @throws ReadOnlyBufferException   If this region is read-only
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 向offset处写入short
+    public MappedRegion putShort(long offset, short value) {
+        try {
+            UNSAFE.putShortUnaligned(null, ixw(offset, 2), value, bigEndian);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+        return this;
+    }
+    
+    /**
+     * Writes four bytes containing the given int value, in the current byte
+     * order, at the given offset.
+     *
+     * @param offset The offset at which the bytes will be written
+     * @param value  The int value to be written
+     *
+     * @return This region
+     *
+     * @throws IndexOutOfBoundsException If {@code offset} is negative or not smaller than the size minus three
+     * @throws ReadOnlyBufferException   If this region is read-only
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 向offset处写入int
+    public MappedRegion putInt(long offset, int value) {
+        try {
+            UNSAFE.putIntUnaligned(null, ixw(offset, 4), value, bigEndian);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+        return this;
+    }
+    
+    /**
+     * Writes eight bytes containing the given long value, in the current byte
+     * order, at the given offset.
+     *
+     * @param offset The offset at which the bytes will be written
+     * @param value  The long value to be written
+     *
+     * @return This region
+     *
+     * @throws IndexOutOfBoundsException If {@code offset} is negative or not smaller than the size minus seven
+     * @throws ReadOnlyBufferException   If this region is read-only
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 向offset处写入long
+    public MappedRegion putLong(long offset, long value) {
+        try {
+            UNSAFE.putLongUnaligned(null, ixw(offset, 8), value, bigEndian);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+        return this;
+    }
+    
+    /**
+     * Writes four bytes containing the given float value, in the current byte
+     * order, at the given offset.
+     *
+     * @param offset The offset at which the bytes will be written
+     * @param value  The float value to be written
+     *
+     * @return This region
+     *
+     * @throws IndexOutOfBoundsException If {@code offset} is negative or not smaller than the size minus three
+     * @throws ReadOnlyBufferException   If this region is read-only
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 向offset处写入float
+    public MappedRegion putFloat(long offset, float value) {
+        return putInt(offset, Float.floatToRawIntBits(value));
+    }
+    
+    /**
+     * Writes eight bytes containing the given double value, in the current
+     * byte order, at the given offset.
+     *
+     * @param offset The offset at which the bytes will be written
+     * @param value  The double value to be written
+     *
+     * @return This region
+     *
+     * @throws IndexOutOfBoundsException If {@code offset} is negative or not smaller than the size minus seven
+     * @throws ReadOnlyBufferException   If this region is read-only
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 向offset处写入double
+    public MappedRegion putDouble(long offset, double value) {
+        return putLong(offset, Double.doubleToRawLongBits(value));
+    }
+    
+    /*▲ put ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 批量复制 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Copies {@code length} bytes at the given offset of this region into the
+     * given array.
+     *
+     * @param offset    The offset of the first byte to be read
+     * @param dst       The array into which bytes are to be written
+     * @param dstOffset The offset within the array of the first byte to be written
+     * @param length    The number of bytes to be copied
+     *
+     * @return This region
+     *
+     * @throws IndexOutOfBoundsException If the bytes to be read or written lie outside the region or the array
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 将区域中offset处起length个字节复制到dst中
+    public MappedRegion get(long offset, byte[] dst, int dstOffset, int length) {
+        Objects.checkFromIndexSize(dstOffset, length, dst.length);
+        try {
+            UNSAFE.copyMemory(null, ix(offset, length), dst, ARRAY_BASE_OFFSET + dstOffset, length);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+        return this;
+    }
+    
+    /**
+     * Copies {@code length} bytes of the given array into this region, at
+     * the given offset.
+     *
+     * @param offset    The offset of the first byte to be written
+     * @param src       The array from which bytes are to be read
+     * @param srcOffset The offset within the array of the first byte to be read
+     * @param length    The number of bytes to be copied
+     *
+     * @return This region
+     *
+     * @throws IndexOutOfBoundsException If the bytes to be read or written lie outside the region or the array
+     * @throws ReadOnlyBufferException   If this region is read-only
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 将src中srcOffset处起length个字节复制到区域中offset处
+    public MappedRegion put(long offset, byte[] src, int srcOffset, int length) {
+        Objects.checkFromIndexSize(srcOffset, length, src.length);
+        try {
+            UNSAFE.copyMemory(src, ARRAY_BASE_OFFSET + srcOffset, null, ixw(offset, length), length);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+        return this;
+    }
+    
+    /**
+     * Copies the bytes at the given offset of this region into the given
+     * buffer, filling its remaining elements.  The position of the buffer is
+     * advanced by the number of bytes copied.
+     *
+     * @param offset The offset of the first byte to be read
+     * @param dst    The buffer into which bytes are to be written
+     *
+     * @return This region
+     *
+     * @throws IndexOutOfBoundsException If the bytes to be read lie outside the region
+     * @throws ReadOnlyBufferException   If the buffer is read-only
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 将区域中offset处起的字节复制到dst的剩余空间中，并递增dst的游标
+    public MappedRegion get(long offset, ByteBuffer dst) {
+        if(dst.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        int pos = dst.position();
+        int length = dst.limit() - pos;
+        try {
+            UNSAFE.copyMemory(null, ix(offset, length), dst.hb, bufferOffset(dst, pos), length);
+        } finally {
+            Reference.reachabilityFence(this);
+            Reference.reachabilityFence(dst);
+        }
+        dst.position(pos + length);
+        return this;
+    }
+    
+    /**
+     * Copies the remaining bytes of the given buffer into this region, at
+     * the given offset.  The position of the buffer is advanced by the number
+     * of bytes copied.
+     *
+     * @param offset The offset of the first byte to be written
+     * @param src    The buffer from which bytes are to be read
+     *
+     * @return This region
+     *
+     * @throws IndexOutOfBoundsException If the bytes to be written lie outside the region
+     * @throws ReadOnlyBufferException   If this region is read-only
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 将src中剩余的字节复制到区域中offset处，并递增src的游标
+    public MappedRegion put(long offset, ByteBuffer src) {
+        int pos = src.position();
+        int length = src.limit() - pos;
+        try {
+            UNSAFE.copyMemory(src.hb, bufferOffset(src, pos), null, ixw(offset, length), length);
+        } finally {
+            Reference.reachabilityFence(this);
+            Reference.reachabilityFence(src);
+        }
+        src.position(pos + length);
+        return this;
+    }
+    
+    // 返回缓冲区中pos处的字节相对于其存储容器的偏移量（直接缓冲区为绝对地址）
+    private static long bufferOffset(ByteBuffer buf, int pos) {
+        if(buf.hb != null) {
+            return ARRAY_BASE_OFFSET + buf.offset + pos;
+        }
+        return buf.address + pos;
+    }
+    
+    /*▲ 批量复制 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 视图 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Creates a direct byte buffer whose content is the given part of this
+     * region.  The buffer is read-only if this region is read-only, and its
+     * byte order is {@link ByteOrder#BIG_ENDIAN BIG_ENDIAN}.
+     *
+     * <p> The buffer keeps this region reachable, but does not keep it
+     * mapped: when this region is closed, the buffer and the buffers derived
+     * from it are truncated to a capacity of zero.
+     *
+     * @param offset The offset of the first byte of the buffer
+     * @param length The capacity of the buffer
+     *
+     * @return The new byte buffer
+     *
+     * @throws IndexOutOfBoundsException If the part lies outside the region
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 切片，将区域中offset处起length个字节包装为直接缓冲区
+    public ByteBuffer slice(long offset, int length) {
+        ByteBuffer buf;
+        synchronized(this) {
+            buf = new DirectByteBuffer(ix(offset, length), length, this);
+            addView(buf);
+        }
+        return readOnly ? buf.asReadOnlyBuffer() : buf;
+    }
+    
+    /*
+     * 记录在parent上创建的视图view，以便关闭区域时使其失效
+     * 由Buffer.track()调用，parent不是在区域上创建的缓冲区时什么也不做
+     */
+    static void trackRegion(Object parent, Buffer view) {
+        // 沿着附件链查找区域
+        while(parent instanceof DirectBuffer) {
+            parent = ((DirectBuffer) parent).attachment();
+        }
+        if(parent instanceof MappedRegion) {
+            ((MappedRegion) parent).addView(view);
+        }
+    }
+    
+    // 记录视图，已关闭时立即使其失效
+    private synchronized void addView(Buffer view) {
+        if(closed) {
+            view.truncate();
+            return;
+        }
+        views.add(view);
+    }
+    
+    /*▲ 视图 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 加载文件 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Loads the given part of this region into physical memory, as
+     * {@link MappedByteBuffer#load()} does.
+     *
+     * @param offset The offset of the part
+     * @param length The length of the part
+     *
+     * @return This region
+     *
+     * @throws IndexOutOfBoundsException If the part lies outside the region
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 将区域中offset处起length个字节所在的页面加载到物理内存
+    public MappedRegion load(long offset, long length) {
+        long start = ix(offset, length);
+        if(length != 0) {
+            long delta = pageOffset(start);
+            try {
+                pages.load(start - delta, length + delta, true);
+            } finally {
+                Reference.reachabilityFence(this);
+            }
+        }
+        return this;
+    }
+    
+    /**
+     * Tells whether or not the given part of this region is resident in
+     * physical memory, as {@link MappedByteBuffer#isLoaded()} does.
+     *
+     * @param offset The offset of the part
+     * @param length The length of the part
+     *
+     * @return {@code true} if it is likely that the part is resident in physical memory
+     *
+     * @throws IndexOutOfBoundsException If the part lies outside the region
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 判断区域中offset处起length个字节所在的页面是否都在物理内存中
+    public boolean isLoaded(long offset, long length) {
+        long start = ix(offset, length);
+        if(length == 0) {
+            return true;
+        }
+        long delta = pageOffset(start);
+        try {
+            return pages.isLoaded(start - delta, length + delta);
+        } finally {
+            Reference.reachabilityFence(this);
+        }
+    }
+    
+    /**
+     * Forces the changes made to the given part of this region to be written
+     * to the storage device containing the mapped file, as
+     * {@link MappedByteBuffer#force()} does.  Does nothing if this region is
+     * read-only.
+     *
+     * @param offset The offset of the part
+     * @param length The length of the part
+     *
+     * @return This region
+     *
+     * @throws IndexOutOfBoundsException If the part lies outside the region
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 将区域中offset处起length个字节的修改写回文件
+    public MappedRegion force(long offset, long length) {
+        long start = ix(offset, length);
+        if(length != 0 && !readOnly) {
+            long delta = pageOffset(start);
+            try {
+                pages.force(fd, start - delta, length + delta);
+            } finally {
+                Reference.reachabilityFence(this);
+            }
+        }
+        return this;
+    }
+    
+    /**
+     * Forces all the changes made to this region to be written to the
+     * storage device containing the mapped file.
+     *
+     * @return This region
+     *
+     * @throws IllegalStateException If this region is closed
+     */
+    // 将区域中所有的修改写回文件
+    public MappedRegion force() {
+        return force(0, size);
+    }
+    
+    /**
+     * Gives the operating system a hint about how the given part of this
+     * region will be accessed.
+     *
+     * @param advice The access hint
+     * @param offset The offset of the part
+     * @param length The length of the part
+     *
+     * @return This region
+     *
+     * @throws IndexOutOfBoundsException If the part lies outside the region
+     * @throws IllegalStateException     If this region is closed
+     */
+    // 给出区域中offset处起length个字节的访问建议
+    public MappedRegion advise(Advice advice, long offset, long length) {
+        Objects.requireNonNull(advice);
+        long start = ix(offset, length);
+        if(length != 0 && advice == Advice.WILLNEED) {
+            long delta = pageOffset(start);
+            try {
+                // 只发出预读请求，不等待页面加载
+                pages.load(start - delta, length + delta, false);
+            } finally {
+                Reference.reachabilityFence(this);
+            }
+        }
+        return this;
+    }
+    
+    // 返回address在其所在页面中的偏移量
+    private static long pageOffset(long address) {
+        int ps = Bits.pageSize();
+        long offset = address % ps;
+        return (offset >= 0) ? offset : (ps + offset);
+    }
+    
+    /*▲ 加载文件 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /**
+     * Unmaps this region.  Changes made to a region mapped in
+     * {@link java.nio.channels.FileChannel.MapMode#READ_WRITE READ_WRITE}
+     * mode are kept in the file, but are not forced to the storage device.
+     *
+     * <p> If this region is already closed then invoking this method has no
+     * effect.
+     */
+    // 关闭区域，立即释放映射内存
+    @Override
+    public void close() {
+        synchronized(this) {
+            if(closed) {
+                return;
+            }
+            closed = true;
+            address = 0;
+            views.truncateAll();
+        }
+        if(cleaner != null) {
+            cleaner.clean();
+        }
+    }
+    
+    // 检查区域中offset处起length个字节是否越界，返回offset处的地址
+    private long ix(long offset, long length) {
+        if(offset<0 || length<0 || offset>size - length) {
+            throw new IndexOutOfBoundsException("Offset " + offset + ", length " + length + ", size " + size);
+        }
+        long a = address;
+        if(a == 0 && size != 0) {
+            throw new IllegalStateException("Region closed");
+        }
+        return a + offset;
+    }
+    
+    // 同ix()，用于写入操作
+    private long ixw(long offset, long length) {
+        if(readOnly) {
+            throw new ReadOnlyBufferException();
+        }
+        return ix(offset, length);
+    }
+    
+}
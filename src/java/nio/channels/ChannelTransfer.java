@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package java.nio.channels;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import sun.nio.ch.Util;
+
+/**
+ * Moves bytes from a source channel to a destination channel through a small
+ * window of direct buffers.
+ *
+ * <p> A channel transfer is created by the {@link
+ * Channels#newTransfer(ScatteringByteChannel, GatheringByteChannel)
+ * Channels.newTransfer} method and is typically used to relay data between
+ * two {@link SocketChannel}s, or between a socket channel and a {@link Pipe}
+ * channel, without copying it through the Java heap.  Each step reads from
+ * the source with a single scattering read into the window and drains the
+ * window into the destination with gathering writes.  The direct buffers are
+ * taken from the pool of temporary buffers used by the channel
+ * implementations, and are given back whenever the window is empty, so an
+ * idle transfer holds no direct memory.
+ *
+ * <p> The channels may be in blocking or non-blocking mode, and their mode
+ * may differ.  The {@link #transfer(long)} method stops as soon as the
+ * source has no bytes available or the destination accepts no more bytes.
+ * Bytes that were read but could not yet be written remain in the window;
+ * their number is given by {@link #pending()}, and they are written first by
+ * the next invocation of {@code transfer}.  A selector-driven relay
+ * therefore waits for {@link SelectionKey#OP_WRITE OP_WRITE} on the
+ * destination while {@code pending()} is non-zero, and for {@link
+ * SelectionKey#OP_READ OP_READ} on the source otherwise.
+ *
+ * <p> Closing a transfer discards any pending bytes and gives back its
+ * buffers; it does not close the channels.  Channel transfers are safe for
+ * use by multiple concurrent threads.
+ *
+ * @since 11
+ */
+// 通道间的数据转移，使用一组直接缓冲区做中转：分散读取源通道，聚集写入目标通道
+public final class ChannelTransfer implements Closeable {
+    
+    // 每个中转缓冲区的容量
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    // 中转缓冲区的数量
+    private static final int BUFFER_COUNT = 4;
+    
+    private final ScatteringByteChannel src;    // 源通道
+    private final GatheringByteChannel dst;     // 目标通道
+    
+    private ByteBuffer[] window;    // 中转缓冲区，为空时交还给缓冲池
+    private int pending;            // 已从源通道读取，但尚未写入目标通道的字节数
+    private boolean eof;            // 源通道是否已读到末尾
+    private boolean closed;         // 是否已关闭
+    private long transferred;       // 累计写入目标通道的字节数
+    
+    
+    
+    /*▼ 构造器 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    ChannelTransfer(ScatteringByteChannel src, GatheringByteChannel dst) {
+        this.src = src;
+        this.dst = dst;
+    }
+    
+    /*▲ 构造器 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 转移 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Transfers bytes from the source channel to the destination channel.
+     *
+     * <p> Bytes left pending by a previous invocation are written first.  Then
+     * at most {@code count} bytes are read from the source, each read being
+     * followed by writes that drain the window into the destination.  This
+     * method returns when {@code count} bytes have been read, when the source
+     * reaches end-of-stream, when a read returns no bytes, or when a write
+     * accepts no bytes.  With both channels in blocking mode it therefore
+     * returns only after {@code count} bytes have been transferred or the
+     * source has reached end-of-stream.
+     *
+     * @param count The maximum number of bytes to read from the source;
+     *              must be non-negative
+     *
+     * @return The number of bytes written to the destination, possibly zero,
+     * or {@code -1} if the source has reached end-of-stream and no bytes
+     * were written and none are pending
+     *
+     * @throws IllegalArgumentException If {@code count} is negative
+     * @throws ClosedChannelException   If this transfer is closed
+     * @throws IOException              If an I/O error occurs on either channel;
+     *                                  bytes already read remain pending
+     */
+    // 从源通道读取至多count个字节并写入目标通道，返回本次写入目标通道的字节数；返回-1表示源通道已读完且没有待写入的数据
+    public synchronized long transfer(long count) throws IOException {
+        if(count<0) {
+            throw new IllegalArgumentException("Negative count");
+        }
+        if(closed) {
+            throw new ClosedChannelException();
+        }
+        
+        long written = 0;
+        long read = 0;
+        
+        try {
+            while(true) {
+                // 先将中转缓冲区中的数据写入目标通道
+                if(pending>0) {
+                    long n = dst.write(window);
+                    if(n<=0) {
+                        // 目标通道暂时不能接收更多数据（非阻塞模式）
+                        break;
+                    }
+                    
+                    pending -= (int) n;
+                    written += n;
+                    transferred += n;
+                    continue;
+                }
+                
+                if(eof || read >= count) {
+                    break;
+                }
+                
+                // 分散读取源通道，读取的总量不超过剩余的count
+                long n = fill(count - read);
+                if(n<0) {
+                    eof = true;
+                    break;
+                }
+                if(n == 0) {
+                    // 源通道暂时没有可读的数据（非阻塞模式）
+                    break;
+                }
+                
+                pending = (int) n;
+                read += n;
+            }
+        } finally {
+            // 中转缓冲区为空时交还给缓冲池
+            if(pending == 0) {
+                releaseWindow();
+            }
+        }
+        
+        return (written == 0 && eof && pending == 0) ? -1 : written;
+    }
+    
+    /**
+     * Returns the number of bytes read from the source that have not yet
+     * been written to the destination.
+     *
+     * @return The number of pending bytes
+     */
+    // 返回已从源通道读取，但尚未写入目标通道的字节数
+    public synchronized int pending() {
+        return pending;
+    }
+    
+    /**
+     * Tells whether the source channel has reached end-of-stream.  Bytes may
+     * still be {@link #pending() pending} when this method returns
+     * {@code true}.
+     *
+     * @return {@code true} if, and only if, a read from the source has
+     * returned {@code -1}
+     */
+    // 判断源通道是否已读到末尾（此时可能仍有待写入的数据）
+    public synchronized boolean isEndOfStream() {
+        return eof;
+    }
+    
+    /**
+     * Returns the total number of bytes that this transfer has written to
+     * the destination channel.
+     *
+     * @return The number of bytes transferred
+     */
+    // 返回累计写入目标通道的字节数
+    public synchronized long transferred() {
+        return transferred;
+    }
+    
+    /*▲ 转移 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 关闭 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Closes this transfer.  Pending bytes are discarded and the buffers are
+     * given back; the channels are not closed.  Closing a transfer that is
+     * already closed has no effect.
+     */
+    // 关闭转移，丢弃待写入的数据并交还中转缓冲区，不会关闭通道
+    @Override
+    public synchronized void close() {
+        if(closed) {
+            return;
+        }
+        
+        closed = true;
+        pending = 0;
+        releaseWindow();
+    }
+    
+    /*▲ 关闭 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    // 从源通道分散读取至多max个字节到中转缓冲区，并将中转缓冲区翻转为待写入状态
+    private long fill(long max) throws IOException {
+        if(window == null) {
+            window = new ByteBuffer[BUFFER_COUNT];
+            for(int i = 0; i<BUFFER_COUNT; i++) {
+                window[i] = Util.getTemporaryDirectBuffer(BUFFER_SIZE);
+            }
+        }
+        
+        long room = max;
+        for(ByteBuffer buf : window) {
+            int size = (int) Math.min(BUFFER_SIZE, room);
+            buf.clear().limit(size);
+            room -= size;
+        }
+        
+        long n = src.read(window);
+        
+        for(ByteBuffer buf : window) {
+            buf.flip();
+        }
+        
+        return n;
+    }
+    
+    // 将中转缓冲区交还给缓冲池
+    private void releaseWindow() {
+        if(window == null) {
+            return;
+        }
+        
+        for(ByteBuffer buf : window) {
+            Util.releaseTemporaryDirectBuffer(buf);
+        }
+        window = null;
+    }
+    
+}
@@ -49,7 +49,7 @@ import sun.nio.cs.StreamEncoder;
  *
  * <p> This class defines static methods that support the interoperation of the
  * stream classes of the {@link java.io} package with the channel classes
- * of this package.  </p>
+ * of this package, and the transfer of bytes between channels.  </p>
  *
  *
  * @author Mark Reinhold
@@ -57,7 +57,7 @@ import sun.nio.cs.StreamEncoder;
  * @author JSR-51 Expert Group
  * @since 1.4
  */
-// 通道工具类，主要涉及通道与流的转换
+// 通道工具类，主要涉及通道与流的转换，以及通道间的数据转移
 public final class Channels {
     
     /*▼ 构造器 ████████████████████████████████████████████████████████████████████████████████┓ */
@@ -668,6 +668,75 @@ public final class Channels {
     /*▲ 通道-->字符流 ████████████████████████████████████████████████████████████████████████████████┛ */
     
     
+    
+    /*▼ 通道-->通道 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Constructs a transfer that moves bytes from the given source channel to
+     * the given destination channel.
+     *
+     * <p> The channels may be in blocking or non-blocking mode; the behavior
+     * of the transfer in each mode is described by {@link ChannelTransfer}.
+     * The transfer does not close the channels.  </p>
+     *
+     * @param src The channel from which bytes will be read
+     * @param dst The channel to which bytes will be written
+     *
+     * @return A new channel transfer
+     *
+     * @since 11
+     */
+    // 返回从源通道src到目标通道dst的数据转移，适用于阻塞与非阻塞通道
+    public static ChannelTransfer newTransfer(ScatteringByteChannel src, GatheringByteChannel dst) {
+        Objects.requireNonNull(src, "src");
+        Objects.requireNonNull(dst, "dst");
+        return new ChannelTransfer(src, dst);
+    }
+    
+    /**
+     * Transfers bytes from the given source channel to the given destination
+     * channel until {@code count} bytes have been transferred or the source
+     * reaches end-of-stream.
+     *
+     * <p> The bytes are relayed through a small window of direct buffers, one
+     * scattering read followed by gathering writes at a time, and never pass
+     * through the Java heap.  Both channels must be in blocking mode.  </p>
+     *
+     * @param src   The channel from which bytes will be read
+     * @param dst   The channel to which bytes will be written
+     * @param count The maximum number of bytes to transfer; must be non-negative
+     *
+     * @return The number of bytes transferred, possibly zero, or {@code -1}
+     * if the source had already reached end-of-stream
+     *
+     * @throws IllegalArgumentException     If {@code count} is negative
+     * @throws IllegalBlockingModeException If either channel is selectable and
+     *                                      configured non-blocking
+     * @throws IOException                  If an I/O error occurs; bytes read from
+     *                                      the source but not yet written are lost
+     * @since 11
+     */
+    // 将源通道src中至多count个字节转移到目标通道dst，直到转移完count个字节或源通道读到末尾；两个通道均须处于阻塞模式
+    public static long transfer(ScatteringByteChannel src, GatheringByteChannel dst, long count) throws IOException {
+        Objects.requireNonNull(src, "src");
+        Objects.requireNonNull(dst, "dst");
+        
+        // 非阻塞通道请改用newTransfer()，以便保留尚未写出的数据
+        if(src instanceof SelectableChannel && !((SelectableChannel) src).isBlocking()) {
+            throw new IllegalBlockingModeException();
+        }
+        if(dst instanceof SelectableChannel && !((SelectableChannel) dst).isBlocking()) {
+            throw new IllegalBlockingModeException();
+        }
+        
+        try(ChannelTransfer transfer = new ChannelTransfer(src, dst)) {
+            return transfer.transfer(count);
+        }
+    }
+    
+    /*▲ 通道-->通道 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
     /**
      * Write all remaining bytes in buffer to the given channel.
      *
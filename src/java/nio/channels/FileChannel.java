@@ -28,6 +28,7 @@ package java.nio.channels;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
+import java.nio.MappedRegion;
 import java.nio.channels.spi.AbstractInterruptibleChannel;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
@@ -726,6 +727,48 @@ public abstract class FileChannel extends AbstractInterruptibleChannel implement
      */
     public abstract MappedByteBuffer map(MapMode mode, long position, long size) throws IOException;
     
+    /**
+     * Maps a region of this channel's file directly into memory, as
+     * {@link #map(MapMode, long, long) map} does, without limiting the size
+     * of the region to {@link java.lang.Integer#MAX_VALUE}.
+     *
+     * <p> The returned region is addressed by {@code long} offsets and stays
+     * mapped until it is {@link MappedRegion#close() closed}, or until it is
+     * garbage-collected if it is never closed.  Closing this channel does not
+     * close the region.
+     *
+     * @implSpec The default implementation of this method throws
+     * {@code UnsupportedOperationException}.
+     *
+     * @param mode     One of the constants {@link MapMode#READ_ONLY READ_ONLY}, {@link
+     *                 MapMode#READ_WRITE READ_WRITE}, or {@link MapMode#PRIVATE
+     *                 PRIVATE} defined in the {@link MapMode} class
+     * @param position The position within the file at which the mapped region
+     *                 is to start; must be non-negative
+     * @param size     The size of the region to be mapped; must be non-negative
+     *
+     * @return The mapped region
+     *
+     * @throws NonReadableChannelException   If the {@code mode} is {@link MapMode#READ_ONLY READ_ONLY} but
+     *                                       this channel was not opened for reading
+     * @throws NonWritableChannelException   If the {@code mode} is {@link MapMode#READ_WRITE READ_WRITE} or
+     *                                       {@link MapMode#PRIVATE PRIVATE} but this channel was not opened
+     *                                       for both reading and writing
+     * @throws IllegalArgumentException      If the preconditions on the parameters do not hold
+     * @throws UnsupportedOperationException If this channel does not support mapping regions of this kind
+     * @throws IOException                   If some other I/O error occurs
+     * @see java.nio.MappedRegion
+     * @since 11
+     */
+    /*
+     * 返回一块文件映射内存，容量可以超过Integer.MAX_VALUE
+     *
+     * 映射区域使用long型偏移量寻址，可以通过close()显式释放，未释放时在被GC回收时释放
+     */
+    public MappedRegion mapRegion(MapMode mode, long position, long size) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+    
     /*▲ 内存映射 ████████████████████████████████████████████████████████████████████████████████┛ */
     
     
@@ -1853,6 +1853,524 @@ public class Arrays {
     
     
     
+    /*▼ 基数排序 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Sorts the specified array into ascending numerical order.
+     *
+     * <p>Implementation note: The sorting algorithm is a least significant
+     * digit radix sort, which sorts the elements a byte at a time and skips
+     * the bytes in which all elements are equal. Its running time is linear
+     * in the length of the array whatever the distribution of the values,
+     * which makes it typically faster than {@link #sort(int[]) sort} on large
+     * arrays. It requires a working space of the size of the range to be
+     * sorted. Short ranges are sorted by {@link #sort(int[]) sort}.
+     *
+     * @param a the array to be sorted
+     *
+     * @since 11
+     */
+    // 将数组元素按升序排列（基数排序）
+    public static void radixSort(int[] a) {
+        RadixSort.sort(a, 0, a.length, false);
+    }
+    
+    /**
+     * Sorts the specified range of the array into ascending numerical order.
+     * The range to be sorted extends from the index {@code fromIndex},
+     * inclusive, to the index {@code toIndex}, exclusive. If
+     * {@code fromIndex == toIndex}, the range to be sorted is empty.
+     *
+     * <p>Implementation note: The sorting algorithm is a least significant
+     * digit radix sort, which sorts the elements a byte at a time and skips
+     * the bytes in which all elements are equal. Its running time is linear
+     * in the length of the array whatever the distribution of the values,
+     * which makes it typically faster than {@link #sort(int[]) sort} on large
+     * arrays. It requires a working space of the size of the range to be
+     * sorted. Short ranges are sorted by {@link #sort(int[]) sort}.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     * @since 11
+     */
+    // 将[fromIndex, toIndex)内的数组元素按升序排列（基数排序）
+    public static void radixSort(int[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        RadixSort.sort(a, fromIndex, toIndex, false);
+    }
+    
+    /**
+     * Sorts the specified array into ascending numerical order.
+     *
+     * <p>Implementation note: The sorting algorithm is a least significant
+     * digit radix sort, which sorts the elements a byte at a time and skips
+     * the bytes in which all elements are equal. Its running time is linear
+     * in the length of the array whatever the distribution of the values,
+     * which makes it typically faster than {@link #sort(long[]) sort} on large
+     * arrays. It requires a working space of the size of the range to be
+     * sorted. Short ranges are sorted by {@link #sort(long[]) sort}.
+     *
+     * @param a the array to be sorted
+     *
+     * @since 11
+     */
+    // 将数组元素按升序排列（基数排序）
+    public static void radixSort(long[] a) {
+        RadixSort.sort(a, 0, a.length, false);
+    }
+    
+    /**
+     * Sorts the specified range of the array into ascending numerical order.
+     * The range to be sorted extends from the index {@code fromIndex},
+     * inclusive, to the index {@code toIndex}, exclusive. If
+     * {@code fromIndex == toIndex}, the range to be sorted is empty.
+     *
+     * <p>Implementation note: The sorting algorithm is a least significant
+     * digit radix sort, which sorts the elements a byte at a time and skips
+     * the bytes in which all elements are equal. Its running time is linear
+     * in the length of the array whatever the distribution of the values,
+     * which makes it typically faster than {@link #sort(long[]) sort} on large
+     * arrays. It requires a working space of the size of the range to be
+     * sorted. Short ranges are sorted by {@link #sort(long[]) sort}.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     * @since 11
+     */
+    // 将[fromIndex, toIndex)内的数组元素按升序排列（基数排序）
+    public static void radixSort(long[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        RadixSort.sort(a, fromIndex, toIndex, false);
+    }
+    
+    /**
+     * Sorts the specified array into ascending numerical order.
+     *
+     * <p>The {@code <} relation does not provide a total order on all float
+     * values: {@code -0.0f == 0.0f} is {@code true} and a {@code Float.NaN}
+     * value compares neither less than, greater than, nor equal to any value,
+     * even itself. This method uses the total order imposed by the method
+     * {@link Float#compareTo}: {@code -0.0f} is treated as less than value
+     * {@code 0.0f} and {@code Float.NaN} is considered greater than any
+     * other value and all {@code Float.NaN} values are considered equal.
+     *
+     * <p>Implementation note: The sorting algorithm is a least significant
+     * digit radix sort, which sorts the elements a byte at a time and skips
+     * the bytes in which all elements are equal. Its running time is linear
+     * in the length of the array whatever the distribution of the values,
+     * which makes it typically faster than {@link #sort(float[]) sort} on large
+     * arrays. It requires a working space of the size of the range to be
+     * sorted. Short ranges are sorted by {@link #sort(float[]) sort}.
+     *
+     * @param a the array to be sorted
+     *
+     * @since 11
+     */
+    // 将数组元素按升序排列（基数排序）
+    public static void radixSort(float[] a) {
+        RadixSort.sort(a, 0, a.length, false);
+    }
+    
+    /**
+     * Sorts the specified range of the array into ascending numerical order.
+     * The range to be sorted extends from the index {@code fromIndex},
+     * inclusive, to the index {@code toIndex}, exclusive. If
+     * {@code fromIndex == toIndex}, the range to be sorted is empty.
+     *
+     * <p>The {@code <} relation does not provide a total order on all float
+     * values: {@code -0.0f == 0.0f} is {@code true} and a {@code Float.NaN}
+     * value compares neither less than, greater than, nor equal to any value,
+     * even itself. This method uses the total order imposed by the method
+     * {@link Float#compareTo}: {@code -0.0f} is treated as less than value
+     * {@code 0.0f} and {@code Float.NaN} is considered greater than any
+     * other value and all {@code Float.NaN} values are considered equal.
+     *
+     * <p>Implementation note: The sorting algorithm is a least significant
+     * digit radix sort, which sorts the elements a byte at a time and skips
+     * the bytes in which all elements are equal. Its running time is linear
+     * in the length of the array whatever the distribution of the values,
+     * which makes it typically faster than {@link #sort(float[]) sort} on large
+     * arrays. It requires a working space of the size of the range to be
+     * sorted. Short ranges are sorted by {@link #sort(float[]) sort}.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     * @since 11
+     */
+    // 将[fromIndex, toIndex)内的数组元素按升序排列（基数排序）
+    public static void radixSort(float[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        RadixSort.sort(a, fromIndex, toIndex, false);
+    }
+    
+    /**
+     * Sorts the specified array into ascending numerical order.
+     *
+     * <p>The {@code <} relation does not provide a total order on all double
+     * values: {@code -0.0d == 0.0d} is {@code true} and a {@code Double.NaN}
+     * value compares neither less than, greater than, nor equal to any value,
+     * even itself. This method uses the total order imposed by the method
+     * {@link Double#compareTo}: {@code -0.0d} is treated as less than value
+     * {@code 0.0d} and {@code Double.NaN} is considered greater than any
+     * other value and all {@code Double.NaN} values are considered equal.
+     *
+     * <p>Implementation note: The sorting algorithm is a least significant
+     * digit radix sort, which sorts the elements a byte at a time and skips
+     * the bytes in which all elements are equal. Its running time is linear
+     * in the length of the array whatever the distribution of the values,
+     * which makes it typically faster than {@link #sort(double[]) sort} on large
+     * arrays. It requires a working space of the size of the range to be
+     * sorted. Short ranges are sorted by {@link #sort(double[]) sort}.
+     *
+     * @param a the array to be sorted
+     *
+     * @since 11
+     */
+    // 将数组元素按升序排列（基数排序）
+    public static void radixSort(double[] a) {
+        RadixSort.sort(a, 0, a.length, false);
+    }
+    
+    /**
+     * Sorts the specified range of the array into ascending numerical order.
+     * The range to be sorted extends from the index {@code fromIndex},
+     * inclusive, to the index {@code toIndex}, exclusive. If
+     * {@code fromIndex == toIndex}, the range to be sorted is empty.
+     *
+     * <p>The {@code <} relation does not provide a total order on all double
+     * values: {@code -0.0d == 0.0d} is {@code true} and a {@code Double.NaN}
+     * value compares neither less than, greater than, nor equal to any value,
+     * even itself. This method uses the total order imposed by the method
+     * {@link Double#compareTo}: {@code -0.0d} is treated as less than value
+     * {@code 0.0d} and {@code Double.NaN} is considered greater than any
+     * other value and all {@code Double.NaN} values are considered equal.
+     *
+     * <p>Implementation note: The sorting algorithm is a least significant
+     * digit radix sort, which sorts the elements a byte at a time and skips
+     * the bytes in which all elements are equal. Its running time is linear
+     * in the length of the array whatever the distribution of the values,
+     * which makes it typically faster than {@link #sort(double[]) sort} on large
+     * arrays. It requires a working space of the size of the range to be
+     * sorted. Short ranges are sorted by {@link #sort(double[]) sort}.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     * @since 11
+     */
+    // 将[fromIndex, toIndex)内的数组元素按升序排列（基数排序）
+    public static void radixSort(double[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        RadixSort.sort(a, fromIndex, toIndex, false);
+    }
+    
+    /**
+     * Sorts the specified array into ascending numerical order.
+     *
+     * @param a the array to be sorted
+     *
+     * @implNote The sorting algorithm is a parallel least significant digit
+     * radix sort. The array is split into blocks, one for every worker of the
+     * {@link ForkJoinPool#commonPool() ForkJoin common pool}; for each byte
+     * of the elements, the blocks are counted and then scattered into a
+     * working space of the size of the range concurrently. If the range is
+     * too short to be worth splitting, it is sorted by
+     * {@link #radixSort(int[]) radixSort}. When invoked from a task running
+     * in another {@code ForkJoinPool}, the blocks are sorted in that pool.
+     * @since 11
+     */
+    // 将数组元素按升序并行排列（基数排序）
+    public static void parallelRadixSort(int[] a) {
+        RadixSort.sort(a, 0, a.length, true);
+    }
+    
+    /**
+     * Sorts the specified range of the array into ascending numerical order.
+     * The range to be sorted extends from the index {@code fromIndex},
+     * inclusive, to the index {@code toIndex}, exclusive. If
+     * {@code fromIndex == toIndex}, the range to be sorted is empty.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     *
+     * @implNote The sorting algorithm is a parallel least significant digit
+     * radix sort. The array is split into blocks, one for every worker of the
+     * {@link ForkJoinPool#commonPool() ForkJoin common pool}; for each byte
+     * of the elements, the blocks are counted and then scattered into a
+     * working space of the size of the range concurrently. If the range is
+     * too short to be worth splitting, it is sorted by
+     * {@link #radixSort(int[]) radixSort}. When invoked from a task running
+     * in another {@code ForkJoinPool}, the blocks are sorted in that pool.
+     * @since 11
+     */
+    // 将[fromIndex, toIndex)内的数组元素按升序并行排列（基数排序）
+    public static void parallelRadixSort(int[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        RadixSort.sort(a, fromIndex, toIndex, true);
+    }
+    
+    /**
+     * Sorts the specified array into ascending numerical order.
+     *
+     * @param a the array to be sorted
+     *
+     * @implNote The sorting algorithm is a parallel least significant digit
+     * radix sort. The array is split into blocks, one for every worker of the
+     * {@link ForkJoinPool#commonPool() ForkJoin common pool}; for each byte
+     * of the elements, the blocks are counted and then scattered into a
+     * working space of the size of the range concurrently. If the range is
+     * too short to be worth splitting, it is sorted by
+     * {@link #radixSort(long[]) radixSort}. When invoked from a task running
+     * in another {@code ForkJoinPool}, the blocks are sorted in that pool.
+     * @since 11
+     */
+    // 将数组元素按升序并行排列（基数排序）
+    public static void parallelRadixSort(long[] a) {
+        RadixSort.sort(a, 0, a.length, true);
+    }
+    
+    /**
+     * Sorts the specified range of the array into ascending numerical order.
+     * The range to be sorted extends from the index {@code fromIndex},
+     * inclusive, to the index {@code toIndex}, exclusive. If
+     * {@code fromIndex == toIndex}, the range to be sorted is empty.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     *
+     * @implNote The sorting algorithm is a parallel least significant digit
+     * radix sort. The array is split into blocks, one for every worker of the
+     * {@link ForkJoinPool#commonPool() ForkJoin common pool}; for each byte
+     * of the elements, the blocks are counted and then scattered into a
+     * working space of the size of the range concurrently. If the range is
+     * too short to be worth splitting, it is sorted by
+     * {@link #radixSort(long[]) radixSort}. When invoked from a task running
+     * in another {@code ForkJoinPool}, the blocks are sorted in that pool.
+     * @since 11
+     */
+    // 将[fromIndex, toIndex)内的数组元素按升序并行排列（基数排序）
+    public static void parallelRadixSort(long[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        RadixSort.sort(a, fromIndex, toIndex, true);
+    }
+    
+    /**
+     * Sorts the specified array into ascending numerical order.
+     *
+     * <p>The {@code <} relation does not provide a total order on all float
+     * values: {@code -0.0f == 0.0f} is {@code true} and a {@code Float.NaN}
+     * value compares neither less than, greater than, nor equal to any value,
+     * even itself. This method uses the total order imposed by the method
+     * {@link Float#compareTo}: {@code -0.0f} is treated as less than value
+     * {@code 0.0f} and {@code Float.NaN} is considered greater than any
+     * other value and all {@code Float.NaN} values are considered equal.
+     *
+     * @param a the array to be sorted
+     *
+     * @implNote The sorting algorithm is a parallel least significant digit
+     * radix sort. The array is split into blocks, one for every worker of the
+     * {@link ForkJoinPool#commonPool() ForkJoin common pool}; for each byte
+     * of the elements, the blocks are counted and then scattered into a
+     * working space of the size of the range concurrently. If the range is
+     * too short to be worth splitting, it is sorted by
+     * {@link #radixSort(float[]) radixSort}. When invoked from a task running
+     * in another {@code ForkJoinPool}, the blocks are sorted in that pool.
+     * @since 11
+     */
+    // 将数组元素按升序并行排列（基数排序）
+    public static void parallelRadixSort(float[] a) {
+        RadixSort.sort(a, 0, a.length, true);
+    }
+    
+    /**
+     * Sorts the specified range of the array into ascending numerical order.
+     * The range to be sorted extends from the index {@code fromIndex},
+     * inclusive, to the index {@code toIndex}, exclusive. If
+     * {@code fromIndex == toIndex}, the range to be sorted is empty.
+     *
+     * <p>The {@code <} relation does not provide a total order on all float
+     * values: {@code -0.0f == 0.0f} is {@code true} and a {@code Float.NaN}
+     * value compares neither less than, greater than, nor equal to any value,
+     * even itself. This method uses the total order imposed by the method
+     * {@link Float#compareTo}: {@code -0.0f} is treated as less than value
+     * {@code 0.0f} and {@code Float.NaN} is considered greater than any
+     * other value and all {@code Float.NaN} values are considered equal.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     *
+     * @implNote The sorting algorithm is a parallel least significant digit
+     * radix sort. The array is split into blocks, one for every worker of the
+     * {@link ForkJoinPool#commonPool() ForkJoin common pool}; for each byte
+     * of the elements, the blocks are counted and then scattered into a
+     * working space of the size of the range concurrently. If the range is
+     * too short to be worth splitting, it is sorted by
+     * {@link #radixSort(float[]) radixSort}. When invoked from a task running
+     * in another {@code ForkJoinPool}, the blocks are sorted in that pool.
+     * @since 11
+     */
+    // 将[fromIndex, toIndex)内的数组元素按升序并行排列（基数排序）
+    public static void parallelRadixSort(float[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        RadixSort.sort(a, fromIndex, toIndex, true);
+    }
+    
+    /**
+     * Sorts the specified array into ascending numerical order.
+     *
+     * <p>The {@code <} relation does not provide a total order on all double
+     * values: {@code -0.0d == 0.0d} is {@code true} and a {@code Double.NaN}
+     * value compares neither less than, greater than, nor equal to any value,
+     * even itself. This method uses the total order imposed by the method
+     * {@link Double#compareTo}: {@code -0.0d} is treated as less than value
+     * {@code 0.0d} and {@code Double.NaN} is considered greater than any
+     * other value and all {@code Double.NaN} values are considered equal.
+     *
+     * @param a the array to be sorted
+     *
+     * @implNote The sorting algorithm is a parallel least significant digit
+     * radix sort. The array is split into blocks, one for every worker of the
+     * {@link ForkJoinPool#commonPool() ForkJoin common pool}; for each byte
+     * of the elements, the blocks are counted and then scattered into a
+     * working space of the size of the range concurrently. If the range is
+     * too short to be worth splitting, it is sorted by
+     * {@link #radixSort(double[]) radixSort}. When invoked from a task running
+     * in another {@code ForkJoinPool}, the blocks are sorted in that pool.
+     * @since 11
+     */
+    // 将数组元素按升序并行排列（基数排序）
+    public static void parallelRadixSort(double[] a) {
+        RadixSort.sort(a, 0, a.length, true);
+    }
+    
+    /**
+     * Sorts the specified range of the array into ascending numerical order.
+     * The range to be sorted extends from the index {@code fromIndex},
+     * inclusive, to the index {@code toIndex}, exclusive. If
+     * {@code fromIndex == toIndex}, the range to be sorted is empty.
+     *
+     * <p>The {@code <} relation does not provide a total order on all double
+     * values: {@code -0.0d == 0.0d} is {@code true} and a {@code Double.NaN}
+     * value compares neither less than, greater than, nor equal to any value,
+     * even itself. This method uses the total order imposed by the method
+     * {@link Double#compareTo}: {@code -0.0d} is treated as less than value
+     * {@code 0.0d} and {@code Double.NaN} is considered greater than any
+     * other value and all {@code Double.NaN} values are considered equal.
+     *
+     * @param a the array to be sorted
+     * @param fromIndex the index of the first element, inclusive, to be sorted
+     * @param toIndex the index of the last element, exclusive, to be sorted
+     *
+     * @throws IllegalArgumentException if {@code fromIndex > toIndex}
+     * @throws ArrayIndexOutOfBoundsException
+     *     if {@code fromIndex < 0} or {@code toIndex > a.length}
+     *
+     * @implNote The sorting algorithm is a parallel least significant digit
+     * radix sort. The array is split into blocks, one for every worker of the
+     * {@link ForkJoinPool#commonPool() ForkJoin common pool}; for each byte
+     * of the elements, the blocks are counted and then scattered into a
+     * working space of the size of the range concurrently. If the range is
+     * too short to be worth splitting, it is sorted by
+     * {@link #radixSort(double[]) radixSort}. When invoked from a task running
+     * in another {@code ForkJoinPool}, the blocks are sorted in that pool.
+     * @since 11
+     */
+    // 将[fromIndex, toIndex)内的数组元素按升序并行排列（基数排序）
+    public static void parallelRadixSort(double[] a, int fromIndex, int toIndex) {
+        rangeCheck(a.length, fromIndex, toIndex);
+        RadixSort.sort(a, fromIndex, toIndex, true);
+    }
+    
+    /**
+     * Sorts the specified array of indices into {@code keys}, so that
+     * {@code keys[indices[0]], keys[indices[1]], ...} are in ascending
+     * numerical order. The keys are not modified. This sort is
+     * <em>stable</em>: indices of equal keys are not reordered, so sorting
+     * the identity permutation {@code 0, 1, ..., keys.length - 1} yields the
+     * order of a stable sort of the keys.
+     *
+     * <p>Implementation note: The sorting algorithm is a least significant
+     * digit radix sort of the gathered keys, which moves the indices along
+     * with them. It requires a working space of twice the number of indices
+     * plus the gathered keys.
+     *
+     * @param keys the keys, not modified
+     * @param indices the indices into {@code keys} to be sorted
+     *
+     * @throws ArrayIndexOutOfBoundsException if an element of {@code indices}
+     *     is not a valid index of {@code keys}
+     * @since 11
+     */
+    // 按keys中的对应元素将下标数组indices升序排列（稳定的基数排序），keys本身不变
+    public static void radixSort(int[] keys, int[] indices) {
+        Objects.requireNonNull(keys);
+        RadixSort.sort(keys, indices, 0, indices.length);
+    }
+    
+    /**
+     * Sorts the specified array of indices into {@code keys}, so that
+     * {@code keys[indices[0]], keys[indices[1]], ...} are in ascending
+     * numerical order. The keys are not modified. This sort is
+     * <em>stable</em>: indices of equal keys are not reordered, so sorting
+     * the identity permutation {@code 0, 1, ..., keys.length - 1} yields the
+     * order of a stable sort of the keys.
+     *
+     * <p>Implementation note: The sorting algorithm is a least significant
+     * digit radix sort of the gathered keys, which moves the indices along
+     * with them. It requires a working space of twice the number of indices
+     * plus the gathered keys.
+     *
+     * @param keys the keys, not modified
+     * @param indices the indices into {@code keys} to be sorted
+     *
+     * @throws ArrayIndexOutOfBoundsException if an element of {@code indices}
+     *     is not a valid index of {@code keys}
+     * @since 11
+     */
+    // 按keys中的对应元素将下标数组indices升序排列（稳定的基数排序），keys本身不变
+    public static void radixSort(long[] keys, int[] indices) {
+        Objects.requireNonNull(keys);
+        RadixSort.sort(keys, indices, 0, indices.length);
+    }
+    
+    /*▲ 基数排序 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
     /*▼ 二分查找 ████████████████████████████████████████████████████████████████████████████████┓ */
     
     /**
@@ -7903,12 +8421,7 @@ public class Arrays {
             return 0;
         }
         
-        int result = 1;
-        for(char element : a) {
-            result = 31 * result + element;
-        }
-        
-        return result;
+        return ArraysSupport.vectorizedHashCode(a, 0, a.length, 1, ArraysSupport.T_CHAR);
     }
     
     /**
@@ -7934,12 +8447,7 @@ public class Arrays {
             return 0;
         }
         
-        int result = 1;
-        for(byte element : a) {
-            result = 31 * result + element;
-        }
-        
-        return result;
+        return ArraysSupport.vectorizedHashCode(a, 0, a.length, 1, ArraysSupport.T_BYTE);
     }
     
     /**
@@ -7965,12 +8473,7 @@ public class Arrays {
             return 0;
         }
         
-        int result = 1;
-        for(short element : a) {
-            result = 31 * result + element;
-        }
-        
-        return result;
+        return ArraysSupport.vectorizedHashCode(a, 0, a.length, 1, ArraysSupport.T_SHORT);
     }
     
     /**
@@ -7996,12 +8499,7 @@ public class Arrays {
             return 0;
         }
         
-        int result = 1;
-        for(int element : a) {
-            result = 31 * result + element;
-        }
-        
-        return result;
+        return ArraysSupport.vectorizedHashCode(a, 0, a.length, 1, ArraysSupport.T_INT);
     }
     
     /**
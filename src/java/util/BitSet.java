@@ -25,6 +25,8 @@
 
 package java.util;
 
+import jdk.internal.util.ArraysSupport;
+
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -1165,13 +1167,7 @@ public class BitSet implements Cloneable, Serializable {
      */
     // 返回位集中bit为1的位的数量
     public int cardinality() {
-        int sum = 0;
-        
-        for(int i = 0; i<wordsInUse; i++) {
-            sum += Long.bitCount(words[i]);
-        }
-        
-        return sum;
+        return ArraysSupport.bitCount(words, 0, wordsInUse);
     }
     
     /**
@@ -0,0 +1,923 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package java.util;
+
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A hash map from primitive {@code int} keys to primitive {@code int} values.
+ *
+ * <p>Unlike {@code HashMap<Integer, Integer>}, keys and values are neither boxed
+ * nor wrapped in entry objects: they are stored in two parallel arrays using
+ * open addressing with linear probing, so that the memory used per mapping is
+ * close to {@code 2 * Integer.BYTES} divided by the load factor. Removal shifts
+ * following entries back instead of leaving tombstones.
+ *
+ * <p>Methods that return a value, such as {@link #get get} or {@link #put put},
+ * return {@code 0} when there is no mapping for the key. Use
+ * {@link #containsKey containsKey} or {@link #getOrDefault getOrDefault} to
+ * tell a missing mapping from a mapping to {@code 0}.
+ *
+ * <p>The spliterators returned by {@link #keySpliterator} and
+ * {@link #valueSpliterator} are <em>fail-fast</em> and split on the hash table,
+ * so the streams returned by {@link #keyStream} and {@link #valueStream} can be
+ * traversed in parallel.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ *
+ * @see HashMap
+ * @see LongHashMap
+ * @since 11
+ */
+// 键与值均为int的哈希表，采用开放寻址(线性探测)，不装箱，也不创建结点对象，非线程安全
+public class IntHashMap implements Cloneable {
+    
+    /**
+     * The default initial capacity - MUST be a power of two.
+     */
+    static final int DEFAULT_INITIAL_CAPACITY = 16;
+    
+    /**
+     * The maximum capacity - MUST be a power of two.
+     */
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+    
+    /**
+     * The load factor of the table.
+     */
+    static final float LOAD_FACTOR = 0.75f;
+    
+    /**
+     * The key marking a free slot. The mapping for this key, if any,
+     * is kept outside of the table.
+     */
+    private static final int FREE_KEY = 0;
+    
+    int[] keys;     // 键数组，FREE_KEY表示空槽
+    int[] values;   // 值数组，与keys一一对应
+    
+    int mask;       // 容量-1
+    int maxFill;    // 扩容阈值
+    int size;       // 映射数量(包括键为FREE_KEY的映射)
+    
+    boolean hasFreeKey; // 是否存在键为FREE_KEY的映射
+    int freeValue;      // 键为FREE_KEY的映射对应的值
+    
+    transient int modCount; // 记录结构性修改次数
+    
+    
+    
+    /*▼ 构造器 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Constructs an empty map with the default initial capacity (16).
+     */
+    public IntHashMap() {
+        allocate(DEFAULT_INITIAL_CAPACITY);
+    }
+    
+    /**
+     * Constructs an empty map that can hold the specified number of
+     * mappings without resizing.
+     *
+     * @param expectedSize the expected number of mappings
+     *
+     * @throws IllegalArgumentException if the expected size is negative
+     */
+    // 构造一个至少可容纳expectedSize个映射而无需扩容的哈希表
+    public IntHashMap(int expectedSize) {
+        if(expectedSize<0) {
+            throw new IllegalArgumentException("Illegal expected size: " + expectedSize);
+        }
+        allocate(tableSizeFor(expectedSize));
+    }
+    
+    /*▲ 构造器 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 存值 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Associates the specified value with the specified key in this map.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     *
+     * @return the previous value associated with {@code key}, or
+     * {@code 0} if there was no mapping for {@code key}
+     */
+    // 存入映射，返回旧值(不存在时返回0)
+    public int put(int key, int value) {
+        if(key == FREE_KEY) {
+            int old = freeValue;
+            if(!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+                modCount++;
+            }
+            freeValue = value;
+            return old;
+        }
+        
+        int i = find(key);
+        if(i >= 0) {
+            int old = values[i];
+            values[i] = value;
+            return old;
+        }
+        
+        insertAt(~i, key, value);
+        return 0;
+    }
+    
+    /**
+     * If the specified key is not already associated with a value,
+     * associates it with the given value.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     *
+     * @return {@code true} if a new mapping was added
+     */
+    // 仅在key不存在时存入映射，返回是否存入
+    public boolean putIfAbsent(int key, int value) {
+        if(key == FREE_KEY) {
+            if(hasFreeKey) {
+                return false;
+            }
+            hasFreeKey = true;
+            freeValue = value;
+            size++;
+            modCount++;
+            return true;
+        }
+        
+        int i = find(key);
+        if(i >= 0) {
+            return false;
+        }
+        
+        insertAt(~i, key, value);
+        return true;
+    }
+    
+    /**
+     * If the specified key is not already associated with a value, attempts
+     * to compute its value using the given mapping function and enters it
+     * into this map.
+     *
+     * @param key             key with which the specified value is to be associated
+     * @param mappingFunction the function to compute a value from the key
+     *
+     * @return the current (existing or computed) value associated with the specified key
+     *
+     * @throws NullPointerException if the mappingFunction is null
+     */
+    // key不存在时，使用mappingFunction计算出值并存入，返回key当前对应的值
+    public int computeIfAbsent(int key, IntUnaryOperator mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        
+        if(key == FREE_KEY) {
+            if(!hasFreeKey) {
+                int mc = modCount;
+                int value = mappingFunction.applyAsInt(key);
+                if(mc != modCount) {
+                    throw new ConcurrentModificationException();
+                }
+                hasFreeKey = true;
+                freeValue = value;
+                size++;
+                modCount++;
+            }
+            return freeValue;
+        }
+        
+        int i = find(key);
+        if(i >= 0) {
+            return values[i];
+        }
+        
+        int mc = modCount;
+        int value = mappingFunction.applyAsInt(key);
+        if(mc != modCount) {
+            throw new ConcurrentModificationException();
+        }
+        insertAt(~i, key, value);
+        return value;
+    }
+    
+    /**
+     * If the value for the specified key is present, computes a new value
+     * from the key and its current value.
+     *
+     * @param key               key with which the specified value is associated
+     * @param remappingFunction the function to compute a value from the key and its current value
+     *
+     * @return the new value associated with the specified key, or
+     * {@code 0} if there was no mapping for {@code key}
+     *
+     * @throws NullPointerException if the remappingFunction is null
+     */
+    // key存在时，使用remappingFunction根据键与旧值计算出新值并存入，返回新值(key不存在时返回0)
+    public int computeIfPresent(int key, IntBinaryOperator remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        
+        if(key == FREE_KEY) {
+            if(!hasFreeKey) {
+                return 0;
+            }
+            int mc = modCount;
+            int v = remappingFunction.applyAsInt(key, freeValue);
+            if(mc != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            return freeValue = v;
+        }
+        
+        int i = find(key);
+        if(i<0) {
+            return 0;
+        }
+        
+        int mc = modCount;
+        int v = remappingFunction.applyAsInt(key, values[i]);
+        if(mc != modCount) {
+            throw new ConcurrentModificationException();
+        }
+        return values[i] = v;
+    }
+    
+    /**
+     * If the specified key is not already associated with a value, associates
+     * it with the given value. Otherwise, replaces the associated value with
+     * the result of the given remapping function applied to the old value and
+     * the given value, for example {@code map.merge(key, 1, Math::addExact)}
+     * to count occurrences.
+     *
+     * @param key               key with which the resulting value is to be associated
+     * @param value             the value to be merged with the existing value
+     * @param remappingFunction the function to recompute a value if present
+     *
+     * @return the new value associated with the specified key
+     *
+     * @throws NullPointerException if the remappingFunction is null
+     */
+    // key不存在时存入value，否则使用remappingFunction合并旧值与value，返回新值
+    public int merge(int key, int value, IntBinaryOperator remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        
+        if(key == FREE_KEY) {
+            if(!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+                modCount++;
+                return freeValue = value;
+            }
+            int mc = modCount;
+            int v = remappingFunction.applyAsInt(freeValue, value);
+            if(mc != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            return freeValue = v;
+        }
+        
+        int i = find(key);
+        if(i >= 0) {
+            int mc = modCount;
+            int v = remappingFunction.applyAsInt(values[i], value);
+            if(mc != modCount) {
+                throw new ConcurrentModificationException();
+            }
+            return values[i] = v;
+        }
+        
+        insertAt(~i, key, value);
+        return value;
+    }
+    
+    /*▲ 存值 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 取值 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Returns the value to which the specified key is mapped,
+     * or {@code 0} if this map contains no mapping for the key.
+     *
+     * @param key the key whose associated value is to be returned
+     *
+     * @return the value to which the specified key is mapped, or
+     * {@code 0} if this map contains no mapping for the key
+     */
+    // 返回key对应的值，不存在时返回0
+    public int get(int key) {
+        return getOrDefault(key, 0);
+    }
+    
+    /**
+     * Returns the value to which the specified key is mapped, or
+     * {@code defaultValue} if this map contains no mapping for the key.
+     *
+     * @param key          the key whose associated value is to be returned
+     * @param defaultValue the default mapping of the key
+     *
+     * @return the value to which the specified key is mapped, or
+     * {@code defaultValue} if this map contains no mapping for the key
+     */
+    // 返回key对应的值，不存在时返回defaultValue
+    public int getOrDefault(int key, int defaultValue) {
+        if(key == FREE_KEY) {
+            return hasFreeKey ? freeValue : defaultValue;
+        }
+        
+        int[] ks = keys;
+        int m = mask;
+        for(int i = mix(key) & m; ; i = (i + 1) & m) {
+            int k = ks[i];
+            if(k == key) {
+                return values[i];
+            }
+            if(k == FREE_KEY) {
+                return defaultValue;
+            }
+        }
+    }
+    
+    /*▲ 取值 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 移除 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     *
+     * @param key key whose mapping is to be removed from the map
+     *
+     * @return the previous value associated with {@code key}, or
+     * {@code 0} if there was no mapping for {@code key}
+     */
+    // 移除key对应的映射，返回旧值(不存在时返回0)
+    public int remove(int key) {
+        if(key == FREE_KEY) {
+            if(!hasFreeKey) {
+                return 0;
+            }
+            int old = freeValue;
+            hasFreeKey = false;
+            freeValue = 0;
+            size--;
+            modCount++;
+            return old;
+        }
+        
+        int i = find(key);
+        if(i<0) {
+            return 0;
+        }
+        
+        int old = values[i];
+        size--;
+        modCount++;
+        shiftKeys(i);
+        return old;
+    }
+    
+    /**
+     * Removes all of the mappings from this map.
+     * The map will be empty after this call returns.
+     */
+    // 清空哈希表(容量不变)
+    public void clear() {
+        if(size>0) {
+            Arrays.fill(keys, FREE_KEY);
+            Arrays.fill(values, 0);
+            hasFreeKey = false;
+            freeValue = 0;
+            size = 0;
+            modCount++;
+        }
+    }
+    
+    /*▲ 移除 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 包含查询 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Returns {@code true} if this map contains a mapping for the specified key.
+     *
+     * @param key the key whose presence in this map is to be tested
+     *
+     * @return {@code true} if this map contains a mapping for the specified key
+     */
+    // 判断是否存在键为key的映射
+    public boolean containsKey(int key) {
+        if(key == FREE_KEY) {
+            return hasFreeKey;
+        }
+        return find(key) >= 0;
+    }
+    
+    /**
+     * Returns {@code true} if this map maps one or more keys to the
+     * specified value. This operation takes time linear in the capacity.
+     *
+     * @param value value whose presence in this map is to be tested
+     *
+     * @return {@code true} if this map maps one or more keys to the specified value
+     */
+    // 判断是否存在值为value的映射
+    public boolean containsValue(int value) {
+        if(hasFreeKey && freeValue == value) {
+            return true;
+        }
+        int[] ks = keys;
+        int[] vs = values;
+        for(int i = 0; i<ks.length; i++) {
+            if(ks[i] != FREE_KEY && vs[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /*▲ 包含查询 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 遍历 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * A function that accepts a key and its value.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * Performs this operation on the given mapping.
+         *
+         * @param key   the key
+         * @param value the value the key is mapped to
+         */
+        void accept(int key, int value);
+    }
+    
+    /**
+     * Performs the given action for each mapping in this map, in
+     * table order, until all mappings have been processed or the
+     * action throws an exception.
+     *
+     * @param action the action to be performed for each mapping
+     *
+     * @throws NullPointerException            if the specified action is null
+     * @throws ConcurrentModificationException if the map is structurally modified by the action
+     */
+    // 遍历所有映射，并对其执行action操作
+    public void forEach(EntryConsumer action) {
+        Objects.requireNonNull(action);
+        int mc = modCount;
+        if(hasFreeKey) {
+            action.accept(FREE_KEY, freeValue);
+        }
+        int[] ks = keys;
+        int[] vs = values;
+        for(int i = 0; i<ks.length && mc == modCount; i++) {
+            if(ks[i] != FREE_KEY) {
+                action.accept(ks[i], vs[i]);
+            }
+        }
+        if(mc != modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+    
+    /**
+     * Replaces each value with the result of invoking the given function
+     * on its key and value.
+     *
+     * @param function the function to apply to each mapping
+     *
+     * @throws NullPointerException if the specified function is null
+     */
+    // 使用function根据键与旧值计算出新值，并替换所有映射的值
+    public void replaceAll(IntBinaryOperator function) {
+        Objects.requireNonNull(function);
+        if(hasFreeKey) {
+            freeValue = function.applyAsInt(FREE_KEY, freeValue);
+        }
+        int[] ks = keys;
+        int[] vs = values;
+        for(int i = 0; i<ks.length; i++) {
+            if(ks[i] != FREE_KEY) {
+                vs[i] = function.applyAsInt(ks[i], vs[i]);
+            }
+        }
+    }
+    
+    /**
+     * Returns a {@code Spliterator.OfInt} over the keys in this map.
+     *
+     * <p>The spliterator reports {@link Spliterator#SIZED} before splitting,
+     * {@link Spliterator#DISTINCT} and {@link Spliterator#NONNULL}, and is
+     * <em>fail-fast</em>.
+     *
+     * @return a spliterator over the keys in this map
+     */
+    // 返回键的可分割迭代器
+    public Spliterator.OfInt keySpliterator() {
+        return new IntHashMapSpliterator(this, 0, -1, 0, 0, true);
+    }
+    
+    /**
+     * Returns a {@code Spliterator.OfInt} over the values in this map.
+     *
+     * @return a spliterator over the values in this map
+     *
+     * @see #keySpliterator()
+     */
+    // 返回值的可分割迭代器
+    public Spliterator.OfInt valueSpliterator() {
+        return new IntHashMapSpliterator(this, 0, -1, 0, 0, false);
+    }
+    
+    /**
+     * Returns a stream of the keys in this map.
+     *
+     * @param parallel if {@code true} then the returned stream is a parallel
+     *                 stream; if {@code false} the returned stream is a sequential stream.
+     *
+     * @return a stream of the keys in this map
+     */
+    // 返回键的流
+    public IntStream keyStream(boolean parallel) {
+        return StreamSupport.intStream(keySpliterator(), parallel);
+    }
+    
+    /**
+     * Returns a stream of the values in this map.
+     *
+     * @param parallel if {@code true} then the returned stream is a parallel
+     *                 stream; if {@code false} the returned stream is a sequential stream.
+     *
+     * @return a stream of the values in this map
+     */
+    // 返回值的流
+    public IntStream valueStream(boolean parallel) {
+        return StreamSupport.intStream(valueSpliterator(), parallel);
+    }
+    
+    /*▲ 遍历 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 杂项 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Returns the number of key-value mappings in this map.
+     *
+     * @return the number of key-value mappings in this map
+     */
+    // 返回映射数量
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Returns {@code true} if this map contains no key-value mappings.
+     *
+     * @return {@code true} if this map contains no key-value mappings
+     */
+    // 判断哈希表是否为空
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Returns a shallow copy of this map.
+     *
+     * @return a copy of this map
+     */
+    @Override
+    public IntHashMap clone() {
+        try {
+            IntHashMap m = (IntHashMap) super.clone();
+            m.keys = keys.clone();
+            m.values = values.clone();
+            m.modCount = 0;
+            return m;
+        } catch(CloneNotSupportedException e) {
+            // this shouldn't happen, since we are Cloneable
+            throw new InternalError(e);
+        }
+    }
+    
+    /**
+     * Compares the specified object with this map for equality. Returns
+     * {@code true} if the given object is also a {@code IntHashMap} and the two
+     * maps contain the same mappings.
+     *
+     * @param o object to be compared for equality with this map
+     *
+     * @return {@code true} if the specified object is equal to this map
+     */
+    @Override
+    public boolean equals(Object o) {
+        if(o == this) {
+            return true;
+        }
+        if(!(o instanceof IntHashMap)) {
+            return false;
+        }
+        IntHashMap m = (IntHashMap) o;
+        if(m.size != size) {
+            return false;
+        }
+        if(hasFreeKey && (!m.hasFreeKey || m.freeValue != freeValue)) {
+            return false;
+        }
+        int[] ks = keys;
+        int[] vs = values;
+        for(int i = 0; i<ks.length; i++) {
+            int k = ks[i];
+            if(k != FREE_KEY) {
+                int j = m.find(k);
+                if(j<0 || m.values[j] != vs[i]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Returns the hash code value for this map, which is the sum of
+     * {@code Integer.hashCode(key) ^ Integer.hashCode(value)} over all mappings,
+     * as for the entries of a {@code Map<Integer, Integer>}.
+     *
+     * @return the hash code value for this map
+     */
+    @Override
+    public int hashCode() {
+        int h = 0;
+        if(hasFreeKey) {
+            h += Integer.hashCode(FREE_KEY) ^ Integer.hashCode(freeValue);
+        }
+        int[] ks = keys;
+        int[] vs = values;
+        for(int i = 0; i<ks.length; i++) {
+            if(ks[i] != FREE_KEY) {
+                h += Integer.hashCode(ks[i]) ^ Integer.hashCode(vs[i]);
+            }
+        }
+        return h;
+    }
+    
+    /**
+     * Returns a string representation of this map, in the same
+     * format as {@link AbstractMap#toString()}.
+     *
+     * @return a string representation of this map
+     */
+    @Override
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ", "{", "}");
+        forEach((k, v) -> sj.add(k + "=" + v));
+        return sj.toString();
+    }
+    
+    /*▲ 杂项 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    // 扰动函数，使键的每一位都参与到槽位的计算中
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    
+    // 返回可容纳expectedSize个映射而无需扩容的容量(2的幂)
+    static int tableSizeFor(int expectedSize) {
+        long n = Math.max(2L, (long) Math.ceil(expectedSize / LOAD_FACTOR));
+        if(n>=MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        return Integer.highestOneBit((int) n - 1) << 1;
+    }
+    
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        maxFill = Math.min(capacity - 1, (int) (capacity * LOAD_FACTOR));
+    }
+    
+    /*
+     * 查找键key(不为FREE_KEY)所在的槽位
+     * 找到时返回槽位索引，否则返回~(可插入的空槽位索引)
+     */
+    int find(int key) {
+        int[] ks = keys;
+        int m = mask;
+        for(int i = mix(key) & m; ; i = (i + 1) & m) {
+            int k = ks[i];
+            if(k == key) {
+                return i;
+            }
+            if(k == FREE_KEY) {
+                return ~i;
+            }
+        }
+    }
+    
+    // 在空槽位i处插入映射，必要时扩容
+    private void insertAt(int i, int key, int value) {
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        modCount++;
+        if(size - (hasFreeKey ? 1 : 0)>maxFill) {
+            rehash(keys.length << 1);
+        }
+    }
+    
+    // 扩容，并重新放置所有映射
+    private void rehash(int newCapacity) {
+        if(keys.length == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("IntHashMap is full");
+        }
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        int[] ks = keys;
+        int[] vs = values;
+        int m = mask;
+        for(int j = 0; j<oldKeys.length; j++) {
+            int k = oldKeys[j];
+            if(k != FREE_KEY) {
+                int i = mix(k) & m;
+                while(ks[i] != FREE_KEY) {
+                    i = (i + 1) & m;
+                }
+                ks[i] = k;
+                vs[i] = oldValues[j];
+            }
+        }
+    }
+    
+    /*
+     * 移除槽位pos处的映射
+     * 将其后同一探测序列上的映射依次前移，以免留下"墓碑"
+     */
+    private void shiftKeys(int pos) {
+        int[] ks = keys;
+        int[] vs = values;
+        int m = mask;
+        for(; ; ) {
+            int last = pos;
+            pos = (pos + 1) & m;
+            int curr;
+            for(; ; ) {
+                if((curr = ks[pos]) == FREE_KEY) {
+                    ks[last] = FREE_KEY;
+                    vs[last] = 0;
+                    return;
+                }
+                int slot = mix(curr) & m;
+                // 槽位slot不在(last, pos]之间时，pos处的映射可以前移到last处
+                if(last<=pos ? last >= slot || slot>pos : last >= slot && slot>pos) {
+                    break;
+                }
+                pos = (pos + 1) & m;
+            }
+            ks[last] = curr;
+            vs[last] = vs[pos];
+        }
+    }
+    
+    
+    /**
+     * Spliterator over the keys or values of a IntHashMap. The slot index
+     * {@code keys.length} stands for the mapping of the free key.
+     */
+    // 键/值的可分割迭代器，索引keys.length处表示键为FREE_KEY的映射
+    static final class IntHashMapSpliterator implements Spliterator.OfInt {
+        final IntHashMap map;
+        final boolean keys; // true表示遍历键，false表示遍历值
+        int index;          // current index, modified on advance/split
+        int fence;          // -1 until first use; then one past last index
+        int est;            // size estimate
+        int expectedModCount;
+        
+        IntHashMapSpliterator(IntHashMap map, int origin, int fence, int est, int expectedModCount, boolean keys) {
+            this.map = map;
+            this.index = origin;
+            this.fence = fence;
+            this.est = est;
+            this.expectedModCount = expectedModCount;
+            this.keys = keys;
+        }
+        
+        // initialize fence and size on first use
+        final int getFence() {
+            int hi;
+            if((hi = fence)<0) {
+                IntHashMap m = map;
+                est = m.size;
+                expectedModCount = m.modCount;
+                hi = fence = m.keys.length + 1;
+            }
+            return hi;
+        }
+        
+        public IntHashMapSpliterator trySplit() {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            return (lo >= mid) ? null : new IntHashMapSpliterator(map, lo, index = mid, est >>>= 1, expectedModCount, keys);
+        }
+        
+        public boolean tryAdvance(IntConsumer action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            IntHashMap m = map;
+            int[] ks = m.keys;
+            while(index<hi) {
+                int i = index++;
+                if(i == ks.length) {
+                    if(m.hasFreeKey) {
+                        action.accept(keys ? FREE_KEY : m.freeValue);
+                        return checkForComodification();
+                    }
+                } else if(ks[i] != FREE_KEY) {
+                    action.accept(keys ? ks[i] : m.values[i]);
+                    return checkForComodification();
+                }
+            }
+            return false;
+        }
+        
+        public void forEachRemaining(IntConsumer action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            IntHashMap m = map;
+            int[] ks = m.keys;
+            int[] vs = m.values;
+            int i = index;
+            index = hi;
+            for(; i<hi; i++) {
+                if(i == ks.length) {
+                    if(m.hasFreeKey) {
+                        action.accept(keys ? FREE_KEY : m.freeValue);
+                    }
+                } else if(ks[i] != FREE_KEY) {
+                    action.accept(keys ? ks[i] : vs[i]);
+                }
+            }
+            checkForComodification();
+        }
+        
+        public long estimateSize() {
+            getFence(); // force init
+            return (long) est;
+        }
+        
+        public int characteristics() {
+            return ((fence<0 || est == map.size) ? Spliterator.SIZED : 0) | Spliterator.NONNULL | (keys ? Spliterator.DISTINCT : 0);
+        }
+        
+        private boolean checkForComodification() {
+            if(map.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,543 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package java.util;
+
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A hash set of primitive {@code long} values.
+ *
+ * <p>Elements are stored unboxed in a single array using open addressing
+ * with linear probing, in the same way as the keys of a {@link LongHashMap}.
+ *
+ * <p>The spliterator returned by {@link #spliterator} is <em>fail-fast</em>
+ * and splits on the hash table.
+ *
+ * <p><strong>Note that this implementation is not synchronized.</strong>
+ *
+ * @see HashSet
+ * @see LongHashMap
+ * @since 11
+ */
+// 元素为long的哈希集，采用开放寻址(线性探测)，不装箱，非线程安全
+public class LongHashSet implements Cloneable {
+    
+    private static final long FREE_KEY = 0L;
+    
+    long[] keys;    // 元素数组，FREE_KEY表示空槽
+    
+    int mask;       // 容量-1
+    int maxFill;    // 扩容阈值
+    int size;       // 元素数量(包括FREE_KEY)
+    
+    boolean hasFreeKey; // 是否包含元素FREE_KEY
+    
+    transient int modCount; // 记录结构性修改次数
+    
+    
+    
+    /*▼ 构造器 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Constructs an empty set with the default initial capacity (16).
+     */
+    public LongHashSet() {
+        allocate(LongHashMap.DEFAULT_INITIAL_CAPACITY);
+    }
+    
+    /**
+     * Constructs an empty set that can hold the specified number of
+     * elements without resizing.
+     *
+     * @param expectedSize the expected number of elements
+     *
+     * @throws IllegalArgumentException if the expected size is negative
+     */
+    // 构造一个至少可容纳expectedSize个元素而无需扩容的哈希集
+    public LongHashSet(int expectedSize) {
+        if(expectedSize<0) {
+            throw new IllegalArgumentException("Illegal expected size: " + expectedSize);
+        }
+        allocate(LongHashMap.tableSizeFor(expectedSize));
+    }
+    
+    /*▲ 构造器 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 添加 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Adds the specified element to this set if it is not already present.
+     *
+     * @param e element to be added to this set
+     *
+     * @return {@code true} if this set did not already contain the specified element
+     */
+    // 添加元素，返回是否添加成功
+    public boolean add(long e) {
+        if(e == FREE_KEY) {
+            if(hasFreeKey) {
+                return false;
+            }
+            hasFreeKey = true;
+            size++;
+            modCount++;
+            return true;
+        }
+        
+        int i = find(e);
+        if(i >= 0) {
+            return false;
+        }
+        
+        keys[~i] = e;
+        size++;
+        modCount++;
+        if(size - (hasFreeKey ? 1 : 0)>maxFill) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+    
+    /*▲ 添加 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 移除 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Removes the specified element from this set if it is present.
+     *
+     * @param e element to be removed from this set, if present
+     *
+     * @return {@code true} if the set contained the specified element
+     */
+    // 移除元素，返回是否移除成功
+    public boolean remove(long e) {
+        if(e == FREE_KEY) {
+            if(!hasFreeKey) {
+                return false;
+            }
+            hasFreeKey = false;
+            size--;
+            modCount++;
+            return true;
+        }
+        
+        int i = find(e);
+        if(i<0) {
+            return false;
+        }
+        
+        size--;
+        modCount++;
+        shiftKeys(i);
+        return true;
+    }
+    
+    /**
+     * Removes all of the elements from this set.
+     * The set will be empty after this call returns.
+     */
+    // 清空哈希集(容量不变)
+    public void clear() {
+        if(size>0) {
+            Arrays.fill(keys, FREE_KEY);
+            hasFreeKey = false;
+            size = 0;
+            modCount++;
+        }
+    }
+    
+    /*▲ 移除 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 包含查询 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Returns {@code true} if this set contains the specified element.
+     *
+     * @param e element whose presence in this set is to be tested
+     *
+     * @return {@code true} if this set contains the specified element
+     */
+    // 判断哈希集中是否包含元素e
+    public boolean contains(long e) {
+        if(e == FREE_KEY) {
+            return hasFreeKey;
+        }
+        return find(e) >= 0;
+    }
+    
+    /*▲ 包含查询 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 遍历 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Performs the given action for each element of this set, in
+     * table order.
+     *
+     * @param action the action to be performed for each element
+     *
+     * @throws NullPointerException            if the specified action is null
+     * @throws ConcurrentModificationException if the set is structurally modified by the action
+     */
+    // 遍历所有元素，并对其执行action操作
+    public void forEach(LongConsumer action) {
+        Objects.requireNonNull(action);
+        int mc = modCount;
+        if(hasFreeKey) {
+            action.accept(FREE_KEY);
+        }
+        long[] ks = keys;
+        for(int i = 0; i<ks.length && mc == modCount; i++) {
+            if(ks[i] != FREE_KEY) {
+                action.accept(ks[i]);
+            }
+        }
+        if(mc != modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+    
+    /**
+     * Returns a {@code Spliterator.OfLong} over the elements in this set.
+     *
+     * <p>The spliterator reports {@link Spliterator#SIZED} before splitting,
+     * {@link Spliterator#DISTINCT} and {@link Spliterator#NONNULL}, and is
+     * <em>fail-fast</em>.
+     *
+     * @return a spliterator over the elements in this set
+     */
+    // 返回元素的可分割迭代器
+    public Spliterator.OfLong spliterator() {
+        return new LongHashSetSpliterator(this, 0, -1, 0, 0);
+    }
+    
+    /**
+     * Returns a stream of the elements in this set.
+     *
+     * @param parallel if {@code true} then the returned stream is a parallel
+     *                 stream; if {@code false} the returned stream is a sequential stream.
+     *
+     * @return a stream of the elements in this set
+     */
+    // 返回元素的流
+    public LongStream stream(boolean parallel) {
+        return StreamSupport.longStream(spliterator(), parallel);
+    }
+    
+    /**
+     * Returns an array containing all of the elements in this set, in
+     * table order.
+     *
+     * @return an array containing all of the elements in this set
+     */
+    // 返回包含所有元素的数组
+    public long[] toArray() {
+        long[] a = new long[size];
+        int n = 0;
+        if(hasFreeKey) {
+            a[n++] = FREE_KEY;
+        }
+        for(long k : keys) {
+            if(k != FREE_KEY) {
+                a[n++] = k;
+            }
+        }
+        return a;
+    }
+    
+    /*▲ 遍历 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 杂项 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Returns the number of elements in this set.
+     *
+     * @return the number of elements in this set
+     */
+    // 返回元素数量
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Returns {@code true} if this set contains no elements.
+     *
+     * @return {@code true} if this set contains no elements
+     */
+    // 判断哈希集是否为空
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Returns a shallow copy of this set.
+     *
+     * @return a copy of this set
+     */
+    @Override
+    public LongHashSet clone() {
+        try {
+            LongHashSet s = (LongHashSet) super.clone();
+            s.keys = keys.clone();
+            s.modCount = 0;
+            return s;
+        } catch(CloneNotSupportedException e) {
+            // this shouldn't happen, since we are Cloneable
+            throw new InternalError(e);
+        }
+    }
+    
+    /**
+     * Compares the specified object with this set for equality. Returns
+     * {@code true} if the given object is also a {@code LongHashSet} and
+     * the two sets contain the same elements.
+     *
+     * @param o object to be compared for equality with this set
+     *
+     * @return {@code true} if the specified object is equal to this set
+     */
+    @Override
+    public boolean equals(Object o) {
+        if(o == this) {
+            return true;
+        }
+        if(!(o instanceof LongHashSet)) {
+            return false;
+        }
+        LongHashSet s = (LongHashSet) o;
+        if(s.size != size || s.hasFreeKey != hasFreeKey) {
+            return false;
+        }
+        for(long k : keys) {
+            if(k != FREE_KEY && s.find(k)<0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Returns the hash code value for this set, which is the sum of
+     * {@code Long.hashCode(e)} over all elements, as for a {@code Set<Long>}.
+     *
+     * @return the hash code value for this set
+     */
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for(long k : keys) {
+            if(k != FREE_KEY) {
+                h += Long.hashCode(k);
+            }
+        }
+        return h;
+    }
+    
+    /**
+     * Returns a string representation of this set, in the same
+     * format as {@link AbstractCollection#toString()}.
+     *
+     * @return a string representation of this set
+     */
+    @Override
+    public String toString() {
+        StringJoiner sj = new StringJoiner(", ", "[", "]");
+        forEach(e -> sj.add(Long.toString(e)));
+        return sj.toString();
+    }
+    
+    /*▲ 杂项 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+        maxFill = Math.min(capacity - 1, (int) (capacity * LongHashMap.LOAD_FACTOR));
+    }
+    
+    /*
+     * 查找元素e(不为FREE_KEY)所在的槽位
+     * 找到时返回槽位索引，否则返回~(可插入的空槽位索引)
+     */
+    int find(long e) {
+        long[] ks = keys;
+        int m = mask;
+        for(int i = LongHashMap.mix(e) & m; ; i = (i + 1) & m) {
+            long k = ks[i];
+            if(k == e) {
+                return i;
+            }
+            if(k == FREE_KEY) {
+                return ~i;
+            }
+        }
+    }
+    
+    // 扩容，并重新放置所有元素
+    private void rehash(int newCapacity) {
+        if(keys.length == LongHashMap.MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("LongHashSet is full");
+        }
+        long[] oldKeys = keys;
+        allocate(newCapacity);
+        long[] ks = keys;
+        int m = mask;
+        for(long k : oldKeys) {
+            if(k != FREE_KEY) {
+                int i = LongHashMap.mix(k) & m;
+                while(ks[i] != FREE_KEY) {
+                    i = (i + 1) & m;
+                }
+                ks[i] = k;
+            }
+        }
+    }
+    
+    // 移除槽位pos处的元素，将其后同一探测序列上的元素依次前移
+    private void shiftKeys(int pos) {
+        long[] ks = keys;
+        int m = mask;
+        for(; ; ) {
+            int last = pos;
+            pos = (pos + 1) & m;
+            long curr;
+            for(; ; ) {
+                if((curr = ks[pos]) == FREE_KEY) {
+                    ks[last] = FREE_KEY;
+                    return;
+                }
+                int slot = LongHashMap.mix(curr) & m;
+                if(last<=pos ? last >= slot || slot>pos : last >= slot && slot>pos) {
+                    break;
+                }
+                pos = (pos + 1) & m;
+            }
+            ks[last] = curr;
+        }
+    }
+    
+    
+    // 元素的可分割迭代器，索引keys.length处表示元素FREE_KEY
+    static final class LongHashSetSpliterator implements Spliterator.OfLong {
+        final LongHashSet set;
+        int index;          // current index, modified on advance/split
+        int fence;          // -1 until first use; then one past last index
+        int est;            // size estimate
+        int expectedModCount;
+        
+        LongHashSetSpliterator(LongHashSet set, int origin, int fence, int est, int expectedModCount) {
+            this.set = set;
+            this.index = origin;
+            this.fence = fence;
+            this.est = est;
+            this.expectedModCount = expectedModCount;
+        }
+        
+        // initialize fence and size on first use
+        final int getFence() {
+            int hi;
+            if((hi = fence)<0) {
+                LongHashSet s = set;
+                est = s.size;
+                expectedModCount = s.modCount;
+                hi = fence = s.keys.length + 1;
+            }
+            return hi;
+        }
+        
+        public LongHashSetSpliterator trySplit() {
+            int hi = getFence(), lo = index, mid = (lo + hi) >>> 1;
+            return (lo >= mid) ? null : new LongHashSetSpliterator(set, lo, index = mid, est >>>= 1, expectedModCount);
+        }
+        
+        public boolean tryAdvance(LongConsumer action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            LongHashSet s = set;
+            long[] ks = s.keys;
+            while(index<hi) {
+                int i = index++;
+                if(i == ks.length) {
+                    if(s.hasFreeKey) {
+                        action.accept(FREE_KEY);
+                        return checkForComodification();
+                    }
+                } else if(ks[i] != FREE_KEY) {
+                    action.accept(ks[i]);
+                    return checkForComodification();
+                }
+            }
+            return false;
+        }
+        
+        public void forEachRemaining(LongConsumer action) {
+            Objects.requireNonNull(action);
+            int hi = getFence();
+            LongHashSet s = set;
+            long[] ks = s.keys;
+            int i = index;
+            index = hi;
+            for(; i<hi; i++) {
+                if(i == ks.length) {
+                    if(s.hasFreeKey) {
+                        action.accept(FREE_KEY);
+                    }
+                } else if(ks[i] != FREE_KEY) {
+                    action.accept(ks[i]);
+                }
+            }
+            checkForComodification();
+        }
+        
+        public long estimateSize() {
+            getFence(); // force init
+            return (long) est;
+        }
+        
+        public int characteristics() {
+            return ((fence<0 || est == set.size) ? Spliterator.SIZED : 0) | Spliterator.NONNULL | Spliterator.DISTINCT;
+        }
+        
+        private boolean checkForComodification() {
+            if(set.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,651 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package java.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+
+/**
+ * This class implements least significant digit (LSD) radix sort for
+ * arrays of primitive numbers, sequential and parallel.
+ *
+ * The keys are sorted a byte (digit) at a time, from the least significant
+ * byte to the most significant one, each pass being a stable counting sort
+ * into a work array of the same length. The histograms of all digits are
+ * computed in a single pass over the input before sorting starts, and a
+ * pass is skipped when all keys share the same digit in it, which is common
+ * for keys of a limited range. The running time is thus linear in the
+ * number of elements, whatever their distribution.
+ *
+ * Signed and floating-point values are mapped to keys whose unsigned order
+ * is the numerical order of the values: the sign bit of an integer is
+ * flipped, and for a floating-point value either the sign bit (positive
+ * values) or all bits (negative values) are flipped. The values themselves
+ * are moved, not the keys, so the original bits are preserved. NaNs are
+ * moved to the end of the array beforehand, which yields the total order
+ * of {@link Float#compareTo} and {@link Double#compareTo}.
+ *
+ * The parallel variant splits the array into blocks, one per worker. For
+ * every pass, each block is counted into a histogram of its own, and from
+ * these histograms every block gets disjoint ranges of the work array to
+ * scatter its elements into, so blocks are scattered concurrently without
+ * any synchronization, and the sort remains stable.
+ *
+ * All exposed methods are package-private, designed to be invoked
+ * from public methods (in class Arrays) after performing any
+ * necessary array bounds checks and expanding parameters into the
+ * required forms.
+ *
+ * @since 11
+ */
+final class RadixSort {
+
+    /**
+     * Prevents instantiation.
+     */
+    private RadixSort() {}
+
+    /*
+     * Tuning parameters.
+     */
+
+    /**
+     * The number of bits of a digit.
+     */
+    private static final int DIGIT_BITS = 8;
+
+    /**
+     * The number of distinct digits.
+     */
+    private static final int DIGITS = 1 << DIGIT_BITS;
+
+    private static final int DIGIT_MASK = DIGITS - 1;
+
+    /**
+     * If the length of an array to be sorted is less than this
+     * constant, Quicksort is used in preference to radix sort, since
+     * the cost of the histograms is not amortized.
+     */
+    private static final int RADIX_SORT_THRESHOLD = 1 << 10;
+
+    /**
+     * The minimum number of elements of a block sorted by a parallel task.
+     */
+    private static final int MIN_PARALLEL_BLOCK = 1 << 16;
+
+    /*
+     * Sorting methods for primitive numbers.
+     */
+
+    /**
+     * Sorts the specified range of the array using radix sort.
+     *
+     * @param a the array to be sorted
+     * @param lo the index of the first element, inclusive, to be sorted
+     * @param hi the index of the last element, exclusive, to be sorted
+     * @param parallel whether to sort blocks of the array in parallel
+     */
+    static void sort(int[] a, int lo, int hi, boolean parallel) {
+        int n = hi - lo;
+        if (n < RADIX_SORT_THRESHOLD) {
+            DualPivotQuicksort.sort(a, lo, hi - 1, null, 0, 0);
+            return;
+        }
+        // Radix sort does not benefit from existing order, check it cheaply
+        int k = lo + 1;
+        while (k < hi && a[k - 1] <= a[k]) {
+            k++;
+        }
+        if (k == hi) {
+            return;
+        }
+        int blocks = blocks(n, parallel);
+        int[][] counts = new int[blocks][4 << DIGIT_BITS];
+        forEachBlock(blocks, b -> {
+            int[] c = counts[b];
+            for (int i = lo + blockStart(n, blocks, b), end = lo + blockStart(n, blocks, b + 1); i < end; i++) {
+                int key = a[i] ^ Integer.MIN_VALUE;
+                for (int pass = 0; pass < 4; pass++) {
+                    c[(pass << DIGIT_BITS) | (key >>> (pass * DIGIT_BITS)) & DIGIT_MASK]++;
+                }
+            }
+        });
+        int[] total = total(counts);
+        int[][] offsets = new int[blocks][DIGITS];
+
+        int[] src = a, dst = new int[n];
+        int srcLo = lo, dstLo = 0;
+        boolean counted = true; // whether counts are those of src
+        for (int pass = 0; pass < 4; pass++) {
+            if (isTrivial(total, pass, n)) {
+                continue;
+            }
+            int p = pass, shift = pass * DIGIT_BITS;
+            int[] s = src, d = dst;
+            int sLo = srcLo;
+            if (!counted) {
+                forEachBlock(blocks, b -> {
+                    int[] c = counts[b];
+                    Arrays.fill(c, p << DIGIT_BITS, (p + 1) << DIGIT_BITS, 0);
+                    for (int i = sLo + blockStart(n, blocks, b), end = sLo + blockStart(n, blocks, b + 1); i < end; i++) {
+                        int v = s[i];
+                        c[(p << DIGIT_BITS) | ((v ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK]++;
+                    }
+                });
+            }
+            offsets(counts, pass, dstLo, offsets);
+            forEachBlock(blocks, b -> {
+                int[] o = offsets[b];
+                for (int i = sLo + blockStart(n, blocks, b), end = sLo + blockStart(n, blocks, b + 1); i < end; i++) {
+                    int v = s[i];
+                    d[o[((v ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK]++] = v;
+                }
+            });
+            src = d;
+            dst = s;
+            srcLo = dstLo;
+            dstLo = sLo;
+            counted = blocks == 1; // the histogram of the whole array does not change
+        }
+        if (src != a) {
+            System.arraycopy(src, srcLo, a, lo, n);
+        }
+    }
+
+    /**
+     * Sorts the specified range of the array using radix sort.
+     *
+     * @param a the array to be sorted
+     * @param lo the index of the first element, inclusive, to be sorted
+     * @param hi the index of the last element, exclusive, to be sorted
+     * @param parallel whether to sort blocks of the array in parallel
+     */
+    static void sort(long[] a, int lo, int hi, boolean parallel) {
+        int n = hi - lo;
+        if (n < RADIX_SORT_THRESHOLD) {
+            DualPivotQuicksort.sort(a, lo, hi - 1, null, 0, 0);
+            return;
+        }
+        // Radix sort does not benefit from existing order, check it cheaply
+        int k = lo + 1;
+        while (k < hi && a[k - 1] <= a[k]) {
+            k++;
+        }
+        if (k == hi) {
+            return;
+        }
+        int blocks = blocks(n, parallel);
+        int[][] counts = new int[blocks][8 << DIGIT_BITS];
+        forEachBlock(blocks, b -> {
+            int[] c = counts[b];
+            for (int i = lo + blockStart(n, blocks, b), end = lo + blockStart(n, blocks, b + 1); i < end; i++) {
+                long key = a[i] ^ Long.MIN_VALUE;
+                for (int pass = 0; pass < 8; pass++) {
+                    c[(pass << DIGIT_BITS) | (int) (key >>> (pass * DIGIT_BITS)) & DIGIT_MASK]++;
+                }
+            }
+        });
+        int[] total = total(counts);
+        int[][] offsets = new int[blocks][DIGITS];
+
+        long[] src = a, dst = new long[n];
+        int srcLo = lo, dstLo = 0;
+        boolean counted = true; // whether counts are those of src
+        for (int pass = 0; pass < 8; pass++) {
+            if (isTrivial(total, pass, n)) {
+                continue;
+            }
+            int p = pass, shift = pass * DIGIT_BITS;
+            long[] s = src, d = dst;
+            int sLo = srcLo;
+            if (!counted) {
+                forEachBlock(blocks, b -> {
+                    int[] c = counts[b];
+                    Arrays.fill(c, p << DIGIT_BITS, (p + 1) << DIGIT_BITS, 0);
+                    for (int i = sLo + blockStart(n, blocks, b), end = sLo + blockStart(n, blocks, b + 1); i < end; i++) {
+                        long v = s[i];
+                        c[(p << DIGIT_BITS) | (int) ((v ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK]++;
+                    }
+                });
+            }
+            offsets(counts, pass, dstLo, offsets);
+            forEachBlock(blocks, b -> {
+                int[] o = offsets[b];
+                for (int i = sLo + blockStart(n, blocks, b), end = sLo + blockStart(n, blocks, b + 1); i < end; i++) {
+                    long v = s[i];
+                    d[o[(int) ((v ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK]++] = v;
+                }
+            });
+            src = d;
+            dst = s;
+            srcLo = dstLo;
+            dstLo = sLo;
+            counted = blocks == 1; // the histogram of the whole array does not change
+        }
+        if (src != a) {
+            System.arraycopy(src, srcLo, a, lo, n);
+        }
+    }
+
+    /**
+     * Sorts the specified range of the array using radix sort.
+     *
+     * @param a the array to be sorted
+     * @param lo the index of the first element, inclusive, to be sorted
+     * @param hi the index of the last element, exclusive, to be sorted
+     * @param parallel whether to sort blocks of the array in parallel
+     */
+    static void sort(float[] a, int lo, int hi, boolean parallel) {
+        /*
+         * Move NaNs to the end of the array.
+         */
+        while (lo < hi && Float.isNaN(a[hi - 1])) {
+            --hi;
+        }
+        for (int k = hi - 1; --k >= lo; ) {
+            float ak = a[k];
+            if (ak != ak) { // a[k] is NaN
+                a[k] = a[hi - 1];
+                a[hi - 1] = ak;
+                --hi;
+            }
+        }
+        int n = hi - lo;
+        if (n < RADIX_SORT_THRESHOLD) {
+            DualPivotQuicksort.sort(a, lo, hi - 1, null, 0, 0);
+            return;
+        }
+        // Radix sort does not benefit from existing order, check it cheaply
+        int k = lo + 1;
+        while (k < hi && Float.compare(a[k - 1], a[k]) <= 0) {
+            k++;
+        }
+        if (k == hi) {
+            return;
+        }
+        int blocks = blocks(n, parallel);
+        int[][] counts = new int[blocks][4 << DIGIT_BITS];
+        forEachBlock(blocks, b -> {
+            int[] c = counts[b];
+            for (int i = lo + blockStart(n, blocks, b), end = lo + blockStart(n, blocks, b + 1); i < end; i++) {
+                int key = floatKey(a[i]);
+                for (int pass = 0; pass < 4; pass++) {
+                    c[(pass << DIGIT_BITS) | (key >>> (pass * DIGIT_BITS)) & DIGIT_MASK]++;
+                }
+            }
+        });
+        int[] total = total(counts);
+        int[][] offsets = new int[blocks][DIGITS];
+
+        float[] src = a, dst = new float[n];
+        int srcLo = lo, dstLo = 0;
+        boolean counted = true; // whether counts are those of src
+        for (int pass = 0; pass < 4; pass++) {
+            if (isTrivial(total, pass, n)) {
+                continue;
+            }
+            int p = pass, shift = pass * DIGIT_BITS;
+            float[] s = src, d = dst;
+            int sLo = srcLo;
+            if (!counted) {
+                forEachBlock(blocks, b -> {
+                    int[] c = counts[b];
+                    Arrays.fill(c, p << DIGIT_BITS, (p + 1) << DIGIT_BITS, 0);
+                    for (int i = sLo + blockStart(n, blocks, b), end = sLo + blockStart(n, blocks, b + 1); i < end; i++) {
+                        float v = s[i];
+                        c[(p << DIGIT_BITS) | (floatKey(v) >>> shift) & DIGIT_MASK]++;
+                    }
+                });
+            }
+            offsets(counts, pass, dstLo, offsets);
+            forEachBlock(blocks, b -> {
+                int[] o = offsets[b];
+                for (int i = sLo + blockStart(n, blocks, b), end = sLo + blockStart(n, blocks, b + 1); i < end; i++) {
+                    float v = s[i];
+                    d[o[(floatKey(v) >>> shift) & DIGIT_MASK]++] = v;
+                }
+            });
+            src = d;
+            dst = s;
+            srcLo = dstLo;
+            dstLo = sLo;
+            counted = blocks == 1; // the histogram of the whole array does not change
+        }
+        if (src != a) {
+            System.arraycopy(src, srcLo, a, lo, n);
+        }
+    }
+
+    /**
+     * Sorts the specified range of the array using radix sort.
+     *
+     * @param a the array to be sorted
+     * @param lo the index of the first element, inclusive, to be sorted
+     * @param hi the index of the last element, exclusive, to be sorted
+     * @param parallel whether to sort blocks of the array in parallel
+     */
+    static void sort(double[] a, int lo, int hi, boolean parallel) {
+        /*
+         * Move NaNs to the end of the array.
+         */
+        while (lo < hi && Double.isNaN(a[hi - 1])) {
+            --hi;
+        }
+        for (int k = hi - 1; --k >= lo; ) {
+            double ak = a[k];
+            if (ak != ak) { // a[k] is NaN
+                a[k] = a[hi - 1];
+                a[hi - 1] = ak;
+                --hi;
+            }
+        }
+        int n = hi - lo;
+        if (n < RADIX_SORT_THRESHOLD) {
+            DualPivotQuicksort.sort(a, lo, hi - 1, null, 0, 0);
+            return;
+        }
+        // Radix sort does not benefit from existing order, check it cheaply
+        int k = lo + 1;
+        while (k < hi && Double.compare(a[k - 1], a[k]) <= 0) {
+            k++;
+        }
+        if (k == hi) {
+            return;
+        }
+        int blocks = blocks(n, parallel);
+        int[][] counts = new int[blocks][8 << DIGIT_BITS];
+        forEachBlock(blocks, b -> {
+            int[] c = counts[b];
+            for (int i = lo + blockStart(n, blocks, b), end = lo + blockStart(n, blocks, b + 1); i < end; i++) {
+                long key = doubleKey(a[i]);
+                for (int pass = 0; pass < 8; pass++) {
+                    c[(pass << DIGIT_BITS) | (int) (key >>> (pass * DIGIT_BITS)) & DIGIT_MASK]++;
+                }
+            }
+        });
+        int[] total = total(counts);
+        int[][] offsets = new int[blocks][DIGITS];
+
+        double[] src = a, dst = new double[n];
+        int srcLo = lo, dstLo = 0;
+        boolean counted = true; // whether counts are those of src
+        for (int pass = 0; pass < 8; pass++) {
+            if (isTrivial(total, pass, n)) {
+                continue;
+            }
+            int p = pass, shift = pass * DIGIT_BITS;
+            double[] s = src, d = dst;
+            int sLo = srcLo;
+            if (!counted) {
+                forEachBlock(blocks, b -> {
+                    int[] c = counts[b];
+                    Arrays.fill(c, p << DIGIT_BITS, (p + 1) << DIGIT_BITS, 0);
+                    for (int i = sLo + blockStart(n, blocks, b), end = sLo + blockStart(n, blocks, b + 1); i < end; i++) {
+                        double v = s[i];
+                        c[(p << DIGIT_BITS) | (int) (doubleKey(v) >>> shift) & DIGIT_MASK]++;
+                    }
+                });
+            }
+            offsets(counts, pass, dstLo, offsets);
+            forEachBlock(blocks, b -> {
+                int[] o = offsets[b];
+                for (int i = sLo + blockStart(n, blocks, b), end = sLo + blockStart(n, blocks, b + 1); i < end; i++) {
+                    double v = s[i];
+                    d[o[(int) (doubleKey(v) >>> shift) & DIGIT_MASK]++] = v;
+                }
+            });
+            src = d;
+            dst = s;
+            srcLo = dstLo;
+            dstLo = sLo;
+            counted = blocks == 1; // the histogram of the whole array does not change
+        }
+        if (src != a) {
+            System.arraycopy(src, srcLo, a, lo, n);
+        }
+    }
+
+    /**
+     * Maps a float, other than NaN, to a key whose unsigned order is the
+     * order of {@link Float#compare}.
+     */
+    private static int floatKey(float f) {
+        int bits = Float.floatToRawIntBits(f);
+        return bits ^ ((bits >> 31) | Integer.MIN_VALUE);
+    }
+
+    /**
+     * Maps a double, other than NaN, to a key whose unsigned order is the
+     * order of {@link Double#compare}.
+     */
+    private static long doubleKey(double d) {
+        long bits = Double.doubleToRawLongBits(d);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    /*
+     * Indirect sorting methods.
+     */
+
+    /**
+     * Sorts the specified range of an array of indices into the given keys,
+     * so that the keys at the sorted indices are in ascending order. The
+     * sort is stable: indices of equal keys keep their relative order.
+     *
+     * @param keys the keys, not modified
+     * @param indices the array of indices to be sorted
+     * @param lo the index of the first index, inclusive, to be sorted
+     * @param hi the index of the last index, exclusive, to be sorted
+     * @throws ArrayIndexOutOfBoundsException if an index in the range is
+     *         not a valid index of {@code keys}
+     */
+    static void sort(int[] keys, int[] indices, int lo, int hi) {
+        int n = hi - lo;
+        if (n < 2) {
+            return;
+        }
+        // Gather the keys, so that the passes read them sequentially
+        int[] k = new int[n];
+        int[] c = new int[4 << DIGIT_BITS];
+        for (int i = 0; i < n; i++) {
+            int key = keys[indices[lo + i]] ^ Integer.MIN_VALUE;
+            k[i] = key;
+            for (int pass = 0; pass < 4; pass++) {
+                c[(pass << DIGIT_BITS) | (key >>> (pass * DIGIT_BITS)) & DIGIT_MASK]++;
+            }
+        }
+        int[][] counts = { c };
+        int[][] offsets = new int[1][DIGITS];
+
+        int[] srcKeys = k, dstKeys = new int[n];
+        int[] src = indices, dst = new int[n];
+        int srcLo = lo, dstLo = 0;
+        for (int pass = 0; pass < 4; pass++) {
+            if (isTrivial(c, pass, n)) {
+                continue;
+            }
+            int shift = pass * DIGIT_BITS;
+            offsets(counts, pass, 0, offsets);
+            int[] o = offsets[0];
+            for (int i = 0; i < n; i++) {
+                int key = srcKeys[i];
+                int j = o[(key >>> shift) & DIGIT_MASK]++;
+                dstKeys[j] = key;
+                dst[dstLo + j] = src[srcLo + i];
+            }
+            int[] tk = srcKeys; srcKeys = dstKeys; dstKeys = tk;
+            int[] t = src; src = dst; dst = t;
+            int tl = srcLo; srcLo = dstLo; dstLo = tl;
+        }
+        if (src != indices) {
+            System.arraycopy(src, srcLo, indices, lo, n);
+        }
+    }
+
+    /**
+     * Sorts the specified range of an array of indices into the given keys,
+     * so that the keys at the sorted indices are in ascending order. The
+     * sort is stable: indices of equal keys keep their relative order.
+     *
+     * @param keys the keys, not modified
+     * @param indices the array of indices to be sorted
+     * @param lo the index of the first index, inclusive, to be sorted
+     * @param hi the index of the last index, exclusive, to be sorted
+     * @throws ArrayIndexOutOfBoundsException if an index in the range is
+     *         not a valid index of {@code keys}
+     */
+    static void sort(long[] keys, int[] indices, int lo, int hi) {
+        int n = hi - lo;
+        if (n < 2) {
+            return;
+        }
+        // Gather the keys, so that the passes read them sequentially
+        long[] k = new long[n];
+        int[] c = new int[8 << DIGIT_BITS];
+        for (int i = 0; i < n; i++) {
+            long key = keys[indices[lo + i]] ^ Long.MIN_VALUE;
+            k[i] = key;
+            for (int pass = 0; pass < 8; pass++) {
+                c[(pass << DIGIT_BITS) | (int) (key >>> (pass * DIGIT_BITS)) & DIGIT_MASK]++;
+            }
+        }
+        int[][] counts = { c };
+        int[][] offsets = new int[1][DIGITS];
+
+        long[] srcKeys = k, dstKeys = new long[n];
+        int[] src = indices, dst = new int[n];
+        int srcLo = lo, dstLo = 0;
+        for (int pass = 0; pass < 8; pass++) {
+            if (isTrivial(c, pass, n)) {
+                continue;
+            }
+            int shift = pass * DIGIT_BITS;
+            offsets(counts, pass, 0, offsets);
+            int[] o = offsets[0];
+            for (int i = 0; i < n; i++) {
+                long key = srcKeys[i];
+                int j = o[(int) (key >>> shift) & DIGIT_MASK]++;
+                dstKeys[j] = key;
+                dst[dstLo + j] = src[srcLo + i];
+            }
+            long[] tk = srcKeys; srcKeys = dstKeys; dstKeys = tk;
+            int[] t = src; src = dst; dst = t;
+            int tl = srcLo; srcLo = dstLo; dstLo = tl;
+        }
+        if (src != indices) {
+            System.arraycopy(src, srcLo, indices, lo, n);
+        }
+    }
+
+    /*
+     * Helpers.
+     */
+
+    /**
+     * Returns the number of blocks an array of the given length is split
+     * into, one for a sequential sort.
+     */
+    private static int blocks(int length, boolean parallel) {
+        if (!parallel) {
+            return 1;
+        }
+        int p = ForkJoinPool.getCommonPoolParallelism();
+        return Math.max(1, Math.min(p, length / MIN_PARALLEL_BLOCK));
+    }
+
+    /**
+     * Returns the index, relative to the start of the range, of the first
+     * element of the given block.
+     */
+    private static int blockStart(int length, int blocks, int block) {
+        return (int) ((long) length * block / blocks);
+    }
+
+    /**
+     * Runs the action for every block, in parallel if there are several.
+     * The tasks are executed in the pool of the calling worker thread, or
+     * else in the common pool.
+     */
+    private static void forEachBlock(int blocks, IntConsumer action) {
+        if (blocks == 1) {
+            action.accept(0);
+            return;
+        }
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[blocks];
+        for (int b = 0; b < blocks; b++) {
+            int block = b;
+            tasks[b] = ForkJoinTask.adapt(() -> action.accept(block));
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    /**
+     * Sums the histograms of all blocks.
+     */
+    private static int[] total(int[][] counts) {
+        int[] total = counts[0].clone();
+        for (int b = 1; b < counts.length; b++) {
+            int[] c = counts[b];
+            for (int i = 0; i < total.length; i++) {
+                total[i] += c[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Checks whether all keys have the same digit in the given pass, in
+     * which case the pass would not move anything.
+     */
+    private static boolean isTrivial(int[] total, int pass, int length) {
+        int base = pass << DIGIT_BITS;
+        for (int d = 0; d < DIGITS; d++) {
+            int c = total[base + d];
+            if (c != 0) {
+                return c == length;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes for every block and digit the index of the work array at
+     * which the elements of the block with the digit are stored. The
+     * elements of a digit from lower blocks precede those of higher blocks,
+     * which keeps the sort stable.
+     */
+    private static void offsets(int[][] counts, int pass, int start, int[][] offsets) {
+        int base = pass << DIGIT_BITS;
+        int next = start;
+        for (int d = 0; d < DIGITS; d++) {
+            for (int b = 0; b < counts.length; b++) {
+                offsets[b][d] = next;
+                next += counts[b][base + d];
+            }
+        }
+    }
+}
@@ -24,6 +24,8 @@
  */
 package java.util;
 
+import jdk.internal.util.BulkConsumer;
+
 import java.util.function.Consumer;
 import java.util.function.DoubleConsumer;
 import java.util.function.IntConsumer;
@@ -1235,6 +1237,12 @@ public final class Spliterators {
             }
             
             if((a = array).length >= (hi = fence) && (i = index) >= 0 && i<(index = hi)) {
+                // 支持批量接收元素的消费者(比如流的sink)，一次性推送所有剩余元素
+                if(action instanceof BulkConsumer) {
+                    ((BulkConsumer) action).accept(a, i, hi - i);
+                    return;
+                }
+                
                 do {
                     action.accept(a[i]);
                 } while(++i<hi);
@@ -1372,6 +1380,12 @@ public final class Spliterators {
             }
             
             if((a = array).length >= (hi = fence) && (i = index) >= 0 && i<(index = hi)) {
+                // 支持批量接收元素的消费者(比如流的sink)，一次性推送所有剩余元素
+                if(action instanceof BulkConsumer) {
+                    ((BulkConsumer) action).accept(a, i, hi - i);
+                    return;
+                }
+                
                 do {
                     action.accept(a[i]);
                 } while(++i<hi);
@@ -1508,6 +1522,12 @@ public final class Spliterators {
             }
             
             if((a = array).length >= (hi = fence) && (i = index) >= 0 && i<(index = hi)) {
+                // 支持批量接收元素的消费者(比如流的sink)，一次性推送所有剩余元素
+                if(action instanceof BulkConsumer) {
+                    ((BulkConsumer) action).accept(a, i, hi - i);
+                    return;
+                }
+                
                 do {
                     action.accept(a[i]);
                 } while(++i<hi);
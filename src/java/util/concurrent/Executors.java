@@ -279,6 +279,84 @@ public class Executors {
         return new ThreadPoolExecutor(nThreads, nThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory);
     }
     
+    /**
+     * Creates a thread pool that reuses a fixed number of threads
+     * operating off an unbounded queue split into stripes. Submitting
+     * threads add tasks to different stripes and worker threads steal
+     * from other stripes when their own is empty, so that many threads
+     * submitting small tasks do not serialize on a single queue lock.
+     * Tasks are not necessarily started in submission order.
+     * Otherwise the pool behaves as one created by
+     * {@link #newFixedThreadPool(int)}.
+     *
+     * @param nThreads the number of threads in the pool
+     *
+     * @return the newly created thread pool
+     *
+     * @throws IllegalArgumentException if {@code nThreads <= 0}
+     * @since 11
+     */
+    /*
+     *【固定容量线程池】，使用分条带的任务队列
+     *
+     * 配置：
+     * - 阻塞队列   : StripedTaskQueue
+     * -【核心阙值】: nThreads
+     * -【最大阙值】: nThreads
+     */
+    public static ExecutorService newStripedThreadPool(int nThreads) {
+        return new ThreadPoolExecutor(nThreads, nThreads, 0L, TimeUnit.MILLISECONDS, new StripedTaskQueue());
+    }
+    
+    /**
+     * Creates a {@link ThreadPoolExecutor} with the given parameters whose
+     * work queue is split into stripes, as described for
+     * {@link #newStripedThreadPool(int)}.
+     *
+     * <p>The pool keeps the semantics of the corresponding
+     * {@code ThreadPoolExecutor} constructor: threads beyond
+     * {@code corePoolSize} are started only when the queue is full, idle
+     * threads beyond {@code corePoolSize} terminate after
+     * {@code keepAliveTime}, and tasks are passed to {@code handler} when
+     * both the queue and the pool are full. The capacity of the queue is
+     * divided among its stripes, and the queue is full only when all of them
+     * are.
+     *
+     * @param corePoolSize    the number of threads to keep in the pool, even
+     *                        if they are idle, unless {@code allowCoreThreadTimeOut} is set
+     * @param maximumPoolSize the maximum number of threads to allow in the pool
+     * @param keepAliveTime   when the number of threads is greater than
+     *                        the core, this is the maximum time that excess idle threads
+     *                        will wait for new tasks before terminating.
+     * @param unit            the time unit for the {@code keepAliveTime} argument
+     * @param queueCapacity   the capacity of the work queue, or
+     *                        {@code Integer.MAX_VALUE} for an unbounded queue
+     * @param threadFactory   the factory to use when the executor creates a new thread
+     * @param handler         the handler to use when execution is blocked
+     *                        because the thread bounds and queue capacities are reached
+     *
+     * @return the newly created thread pool
+     *
+     * @throws IllegalArgumentException if one of the following holds:<br>
+     *                                  {@code corePoolSize < 0}<br>
+     *                                  {@code keepAliveTime < 0}<br>
+     *                                  {@code maximumPoolSize <= 0}<br>
+     *                                  {@code maximumPoolSize < corePoolSize}<br>
+     *                                  {@code queueCapacity <= 0}
+     * @throws NullPointerException     if {@code unit} or {@code threadFactory}
+     *                                  or {@code handler} is null
+     * @since 11
+     */
+    /*
+     * 使用分条带任务队列的线程池，其余参数含义与ThreadPoolExecutor的构造器相同
+     *
+     * 配置：
+     * - 阻塞队列   : StripedTaskQueue，容量为queueCapacity
+     */
+    public static ThreadPoolExecutor newStripedThreadPool(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit, int queueCapacity, ThreadFactory threadFactory, RejectedExecutionHandler handler) {
+        return new ThreadPoolExecutor(corePoolSize, maximumPoolSize, keepAliveTime, unit, new StripedTaskQueue(queueCapacity), threadFactory, handler);
+    }
+    
     
     /**
      * Creates a thread pool that can schedule commands to run after a
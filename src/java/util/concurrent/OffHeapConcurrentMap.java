@@ -0,0 +1,1194 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package java.util.concurrent;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import jdk.internal.misc.Unsafe;
+import jdk.internal.ref.CleanerFactory;
+import jdk.internal.util.ArraysSupport;
+
+/**
+ * A {@link ConcurrentMap} whose keys and values are kept in native memory
+ * outside of the Java heap.
+ *
+ * <p>Each mapping is copied into a block of native memory holding the bytes
+ * of the key and of the value. The hash tables that index these blocks live
+ * in native memory as well, so that a map holding many gigabytes of data adds
+ * nothing to the set of objects the garbage collector has to trace.
+ *
+ * <p>Keys and values are the <em>remaining</em> bytes of the given buffers;
+ * the position and limit of the buffers passed to this map are never modified.
+ * Buffers returned by this map are newly allocated heap buffers holding a copy
+ * of the stored bytes. Two keys are the same key if their bytes are equal.
+ *
+ * <p>The map is divided into segments, each guarded by its own lock and
+ * owning an open-addressing hash table with linear probing. Operations on
+ * keys that fall into different segments proceed in parallel.
+ *
+ * <p>A map can be given a budget of bytes. The budget is shared equally
+ * among the segments; when inserting into a segment would exceed its share,
+ * mappings of that segment are evicted first, chosen by the CLOCK
+ * (second-chance) algorithm, which approximates least-recently-used order
+ * without reordering anything on access. A map without budget never evicts.
+ *
+ * <p>The native memory is released by {@link #close}, or by a cleaner once
+ * the map becomes unreachable. Any operation on a closed map throws
+ * {@link IllegalStateException}.
+ *
+ * <p>Iterators are <i>weakly consistent</i>: each segment is copied when
+ * the iterator reaches it.
+ *
+ * <p>Typed keys and values can be stored through a {@link #typedView view}
+ * that converts them with a pair of {@link Codec}s.
+ *
+ * @see ConcurrentHashMap
+ * @since 11
+ */
+// 键值对存储在堆外内存的并发哈希表，分段加锁，段内采用开放寻址(线性探测)，可按字节预算以CLOCK算法淘汰
+public class OffHeapConcurrentMap extends AbstractMap<ByteBuffer, ByteBuffer> implements ConcurrentMap<ByteBuffer, ByteBuffer>, AutoCloseable {
+    
+    /*
+     * 堆外哈希表(每段一个)由若干槽位组成，每个槽位16字节：
+     *
+     * [0, 8)   实体地址，0表示空槽
+     * [8, 12)  键的哈希值
+     * [12, 16) 访问标记，供CLOCK算法使用
+     *
+     * 每个实体是一块独立申请的堆外内存：
+     *
+     * [0, 4)   键的长度kl
+     * [4, 8)   值的长度vl
+     * [8, 8+kl) 键
+     * [8+kl, 8+kl+vl) 值
+     */
+    
+    private static final Unsafe U = Unsafe.getUnsafe();
+    
+    /** The default number of segments. */
+    static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+    
+    /** The maximum number of segments. */
+    static final int MAX_SEGMENTS = 1 << 16;
+    
+    /** The minimum and maximum number of slots of a segment table. */
+    static final int MIN_SEGMENT_CAPACITY = 16;
+    static final int MAX_SEGMENT_CAPACITY = 1 << 30;
+    
+    static final int SLOT_SIZE = 16;
+    static final int SLOT_HASH = 8;
+    static final int SLOT_REFERENCED = 12;
+    
+    static final int ENTRY_VALUE_LENGTH = 4;
+    static final int ENTRY_HEADER = 8;
+    
+    final Segment[] segments;   // 分段
+    final int segmentShift;     // 哈希值右移segmentShift位后得到段索引
+    final long maxBytes;        // 字节预算，Long.MAX_VALUE表示不限制
+    
+    private final Cleaner.Cleanable cleanable; // 负责释放堆外内存
+    
+    private transient EntrySet entrySet;
+    
+    
+    
+    /*▼ 构造器 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Creates a new, empty map without budget, with the default concurrency
+     * level (16).
+     */
+    public OffHeapConcurrentMap() {
+        this(0, DEFAULT_CONCURRENCY_LEVEL, Long.MAX_VALUE);
+    }
+    
+    /**
+     * Creates a new, empty map that holds at most {@code maxBytes} bytes of
+     * mappings, with the default concurrency level (16).
+     *
+     * @param maxBytes the budget of the map, or {@code Long.MAX_VALUE} for none
+     *
+     * @throws IllegalArgumentException if {@code maxBytes} is not positive
+     */
+    public OffHeapConcurrentMap(long maxBytes) {
+        this(0, DEFAULT_CONCURRENCY_LEVEL, maxBytes);
+    }
+    
+    /**
+     * Creates a new, empty map.
+     *
+     * <p>Each mapping counts for the bytes of its key and value plus
+     * eight bytes of header against the budget; the hash tables do not.
+     *
+     * @param initialCapacity  the number of mappings the map can hold without resizing
+     * @param concurrencyLevel the estimated number of concurrently updating threads,
+     *                         rounded up to a power of two to give the number of segments
+     * @param maxBytes         the budget of the map, or {@code Long.MAX_VALUE} for none
+     *
+     * @throws IllegalArgumentException if the initial capacity is negative or
+     *                                  the concurrency level or budget are not positive
+     */
+    public OffHeapConcurrentMap(int initialCapacity, int concurrencyLevel, long maxBytes) {
+        if(initialCapacity<0 || concurrencyLevel<=0 || maxBytes<=0) {
+            throw new IllegalArgumentException();
+        }
+        
+        int n = 1, bits = 0;
+        while(n<Math.min(concurrencyLevel, MAX_SEGMENTS)) {
+            n <<= 1;
+            bits++;
+        }
+        
+        // 每段的初始槽位数，保证装载因子不超过0.75
+        long perSegment = ((long) initialCapacity / n + 1) * 4 / 3;
+        int capacity = MIN_SEGMENT_CAPACITY;
+        while(capacity<perSegment && capacity<MAX_SEGMENT_CAPACITY) {
+            capacity <<= 1;
+        }
+        
+        long budget = maxBytes == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(1, maxBytes / n);
+        
+        Segment[] ss = new Segment[n];
+        try {
+            for(int i = 0; i<n; i++) {
+                ss[i] = new Segment(capacity, budget);
+            }
+        } catch(Throwable e) {
+            new Deallocator(ss).run();
+            throw e;
+        }
+        
+        this.segments = ss;
+        this.segmentShift = 32 - bits;
+        this.maxBytes = maxBytes;
+        this.cleanable = CleanerFactory.cleaner().register(this, new Deallocator(ss));
+    }
+    
+    /*▲ 构造器 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 存值 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Maps the specified key to the specified value in this map.
+     *
+     * @throws NullPointerException     if the specified key or value is null
+     * @throws IllegalArgumentException if the mapping alone exceeds the budget of a segment
+     * @throws IllegalStateException    if this map has been closed
+     */
+    // 存入映射，返回旧值的副本
+    @Override
+    public ByteBuffer put(ByteBuffer key, ByteBuffer value) {
+        return put(key, value, false);
+    }
+    
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException     if the specified key or value is null
+     * @throws IllegalArgumentException if the mapping alone exceeds the budget of a segment
+     * @throws IllegalStateException    if this map has been closed
+     */
+    // 仅在key不存在时存入映射，返回旧值的副本
+    @Override
+    public ByteBuffer putIfAbsent(ByteBuffer key, ByteBuffer value) {
+        return put(key, value, true);
+    }
+    
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException     if the specified key or value is null
+     * @throws IllegalArgumentException if the mapping alone exceeds the budget of a segment
+     * @throws IllegalStateException    if this map has been closed
+     */
+    // 仅在key存在时替换其值，返回旧值的副本
+    @Override
+    public ByteBuffer replace(ByteBuffer key, ByteBuffer value) {
+        byte[] k = toBytes(key);
+        byte[] v = toBytes(value);
+        int h = hash(k);
+        Segment s = segmentFor(h);
+        s.lock();
+        try {
+            s.ensureOpen();
+            int i = s.find(h, k);
+            if(i<0) {
+                return null;
+            }
+            ByteBuffer old = s.valueAt(i);
+            s.replaceAt(i, h, k, v);
+            return old;
+        } finally {
+            s.unlock();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException     if any of the arguments are null
+     * @throws IllegalArgumentException if the mapping alone exceeds the budget of a segment
+     * @throws IllegalStateException    if this map has been closed
+     */
+    // 仅在key对应的值与oldValue的内容相同时，将其替换为newValue
+    @Override
+    public boolean replace(ByteBuffer key, ByteBuffer oldValue, ByteBuffer newValue) {
+        byte[] k = toBytes(key);
+        byte[] o = toBytes(oldValue);
+        byte[] v = toBytes(newValue);
+        int h = hash(k);
+        Segment s = segmentFor(h);
+        s.lock();
+        try {
+            s.ensureOpen();
+            int i = s.find(h, k);
+            if(i<0 || !s.valueEquals(i, o)) {
+                return false;
+            }
+            s.replaceAt(i, h, k, v);
+            return true;
+        } finally {
+            s.unlock();
+        }
+    }
+    
+    private ByteBuffer put(ByteBuffer key, ByteBuffer value, boolean onlyIfAbsent) {
+        byte[] k = toBytes(key);
+        byte[] v = toBytes(value);
+        int h = hash(k);
+        Segment s = segmentFor(h);
+        s.lock();
+        try {
+            s.ensureOpen();
+            int i = s.find(h, k);
+            if(i<0) {
+                s.insert(h, k, v);
+                return null;
+            }
+            ByteBuffer old = s.valueAt(i);
+            if(onlyIfAbsent) {
+                s.setReferenced(i);
+            } else {
+                s.replaceAt(i, h, k, v);
+            }
+            return old;
+        } finally {
+            s.unlock();
+        }
+    }
+    
+    /*▲ 存值 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 取值 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Returns a copy of the value to which the specified key is mapped,
+     * or {@code null} if this map contains no mapping for the key.
+     *
+     * @throws NullPointerException  if the specified key is null
+     * @throws IllegalStateException if this map has been closed
+     */
+    // 返回key对应的值的副本
+    @Override
+    public ByteBuffer get(Object key) {
+        if(!(key instanceof ByteBuffer)) {
+            Objects.requireNonNull(key);
+            return null;
+        }
+        byte[] k = toBytes((ByteBuffer) key);
+        int h = hash(k);
+        Segment s = segmentFor(h);
+        s.lock();
+        try {
+            s.ensureOpen();
+            int i = s.find(h, k);
+            if(i<0) {
+                return null;
+            }
+            s.setReferenced(i);
+            return s.valueAt(i);
+        } finally {
+            s.unlock();
+        }
+    }
+    
+    /*▲ 取值 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 移除 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Removes the mapping for the specified key from this map if present.
+     *
+     * @throws NullPointerException  if the specified key is null
+     * @throws IllegalStateException if this map has been closed
+     */
+    // 移除key对应的映射，返回旧值的副本
+    @Override
+    public ByteBuffer remove(Object key) {
+        if(!(key instanceof ByteBuffer)) {
+            Objects.requireNonNull(key);
+            return null;
+        }
+        byte[] k = toBytes((ByteBuffer) key);
+        int h = hash(k);
+        Segment s = segmentFor(h);
+        s.lock();
+        try {
+            s.ensureOpen();
+            int i = s.find(h, k);
+            if(i<0) {
+                return null;
+            }
+            ByteBuffer old = s.valueAt(i);
+            s.removeAt(i);
+            return old;
+        } finally {
+            s.unlock();
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     *
+     * @throws NullPointerException  if the specified key is null
+     * @throws IllegalStateException if this map has been closed
+     */
+    // 仅在key对应的值与value的内容相同时移除映射
+    @Override
+    public boolean remove(Object key, Object value) {
+        if(!(key instanceof ByteBuffer)) {
+            Objects.requireNonNull(key);
+            return false;
+        }
+        if(!(value instanceof ByteBuffer)) {
+            return false;
+        }
+        byte[] k = toBytes((ByteBuffer) key);
+        byte[] v = toBytes((ByteBuffer) value);
+        int h = hash(k);
+        Segment s = segmentFor(h);
+        s.lock();
+        try {
+            s.ensureOpen();
+            int i = s.find(h, k);
+            if(i<0 || !s.valueEquals(i, v)) {
+                return false;
+            }
+            s.removeAt(i);
+            return true;
+        } finally {
+            s.unlock();
+        }
+    }
+    
+    /**
+     * Removes all of the mappings from this map and releases their memory.
+     *
+     * @throws IllegalStateException if this map has been closed
+     */
+    // 清空所有映射
+    @Override
+    public void clear() {
+        for(Segment s : segments) {
+            s.lock();
+            try {
+                s.ensureOpen();
+                s.clear();
+            } finally {
+                s.unlock();
+            }
+        }
+    }
+    
+    /**
+     * Releases the native memory held by this map. Subsequent operations
+     * throw {@link IllegalStateException}. Closing a closed map has no effect.
+     */
+    // 释放所有堆外内存
+    @Override
+    public void close() {
+        cleanable.clean();
+    }
+    
+    /*▲ 移除 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 包含查询 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Tests if the specified key is a key in this map.
+     *
+     * @throws NullPointerException  if the specified key is null
+     * @throws IllegalStateException if this map has been closed
+     */
+    // 判断是否存在键为key的映射
+    @Override
+    public boolean containsKey(Object key) {
+        if(!(key instanceof ByteBuffer)) {
+            Objects.requireNonNull(key);
+            return false;
+        }
+        byte[] k = toBytes((ByteBuffer) key);
+        int h = hash(k);
+        Segment s = segmentFor(h);
+        s.lock();
+        try {
+            s.ensureOpen();
+            return s.find(h, k) >= 0;
+        } finally {
+            s.unlock();
+        }
+    }
+    
+    /*▲ 包含查询 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 视图 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Returns a {@link Set} view of the mappings contained in this map.
+     * The entries returned by its iterator hold copies of the stored key
+     * and value; {@code setValue} writes through to this map.
+     *
+     * @return a set view of the mappings contained in this map
+     */
+    @Override
+    public Set<Map.Entry<ByteBuffer, ByteBuffer>> entrySet() {
+        EntrySet es;
+        return (es = entrySet) != null ? es : (entrySet = new EntrySet());
+    }
+    
+    /**
+     * Converts typed keys and values to and from the bytes stored by an
+     * {@link OffHeapConcurrentMap}.
+     *
+     * <p>{@code encode} must return equal bytes for equal objects, and
+     * {@code decode} must invert {@code encode}.
+     *
+     * @param <T> the type of the converted objects
+     */
+    public interface Codec<T> {
+        /**
+         * Returns the bytes representing the given object, as the remaining
+         * bytes of a buffer.
+         *
+         * @param object the object to encode, never null
+         *
+         * @return the encoded bytes
+         */
+        ByteBuffer encode(T object);
+        
+        /**
+         * Returns the object represented by the remaining bytes of the
+         * given buffer.
+         *
+         * @param buffer the encoded bytes
+         *
+         * @return the decoded object
+         */
+        T decode(ByteBuffer buffer);
+    }
+    
+    /**
+     * Returns a view of this map that stores keys and values of the given
+     * types by converting them with the given codecs. The view shares the
+     * mappings, the budget and the lifetime of this map.
+     *
+     * <p>Methods of the view taking an {@code Object} key pass it to the key
+     * codec and may throw {@link ClassCastException} if it is not a {@code K}.
+     *
+     * @param keyCodec   the codec of the keys
+     * @param valueCodec the codec of the values
+     * @param <K>        the type of keys of the view
+     * @param <V>        the type of values of the view
+     *
+     * @return a typed view of this map
+     *
+     * @throws NullPointerException if either codec is null
+     */
+    // 返回当前哈希表的类型化视图，键值在存取时经由编解码器转换
+    public <K, V> ConcurrentMap<K, V> typedView(Codec<K> keyCodec, Codec<V> valueCodec) {
+        return new TypedView<>(this, Objects.requireNonNull(keyCodec), Objects.requireNonNull(valueCodec));
+    }
+    
+    /*▲ 视图 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 杂项 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Returns the number of mappings in this map. The result is a snapshot
+     * that may not reflect concurrent updates.
+     *
+     * @return the number of mappings in this map
+     */
+    // 返回映射数量
+    @Override
+    public int size() {
+        long n = 0;
+        for(Segment s : segments) {
+            n += s.count;
+        }
+        return (int) Math.min(n, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        for(Segment s : segments) {
+            if(s.count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Returns the budget of this map in bytes, or {@code Long.MAX_VALUE}
+     * if it has none.
+     *
+     * @return the budget of this map
+     */
+    public long maxBytes() {
+        return maxBytes;
+    }
+    
+    /**
+     * Returns the number of bytes of mappings currently charged against
+     * the budget of this map.
+     *
+     * @return the number of bytes used by the mappings
+     */
+    // 返回映射占用的字节数(不含哈希表本身)
+    public long bytesUsed() {
+        long n = 0;
+        for(Segment s : segments) {
+            n += s.bytes;
+        }
+        return n;
+    }
+    
+    /**
+     * Returns the number of native bytes currently allocated by this map,
+     * including its hash tables.
+     *
+     * @return the number of native bytes allocated by this map
+     */
+    // 返回占用的全部堆外内存字节数(包含哈希表)
+    public long memoryUsed() {
+        long n = 0;
+        for(Segment s : segments) {
+            n += s.bytes + (long) s.capacity * SLOT_SIZE;
+        }
+        return n;
+    }
+    
+    /**
+     * Returns the number of mappings evicted from this map to keep
+     * within its budget.
+     *
+     * @return the number of evicted mappings
+     */
+    // 返回被淘汰的映射数量
+    public long evictionCount() {
+        long n = 0;
+        for(Segment s : segments) {
+            n += s.evictions;
+        }
+        return n;
+    }
+    
+    /*▲ 杂项 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    // 返回buffer中剩余字节的副本，不改变buffer的position
+    static byte[] toBytes(ByteBuffer buffer) {
+        byte[] a = new byte[buffer.remaining()];
+        buffer.duplicate().get(a);
+        return a;
+    }
+    
+    static int hash(byte[] key) {
+        int h = Arrays.hashCode(key) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    
+    // 段索引取哈希值的高位，段内槽位取低位
+    Segment segmentFor(int hash) {
+        return segments[(hash >>> segmentShift) & (segments.length - 1)];
+    }
+    
+    // 比较address处的堆外内存与字节数组b的内容是否相同
+    static boolean bytesEqual(long address, byte[] b) {
+        int length = b.length;
+        int i = 0;
+        if(length>7) {
+            i = ArraysSupport.vectorizedMismatch(null, address, b, Unsafe.ARRAY_BYTE_BASE_OFFSET, length, ArraysSupport.LOG2_ARRAY_BYTE_INDEX_SCALE);
+            if(i >= 0) {
+                return false;
+            }
+            i = length - ~i;
+        }
+        for(; i<length; i++) {
+            if(U.getByte(address + i) != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    
+    /**
+     * A segment of the map: an open-addressing table in native memory,
+     * guarded by the lock the segment extends.
+     */
+    // 分段，每段持有一个堆外哈希表，所有访问都需要持有该段的锁
+    static final class Segment extends ReentrantLock {
+        private static final long serialVersionUID = 2249069246763182397L;
+        
+        final long budget;      // 本段的字节预算
+        
+        long table;             // 哈希表地址，0表示已关闭
+        int capacity;           // 槽位数量，2的幂
+        int threshold;          // 扩容阈值
+        int hand;               // CLOCK指针
+        
+        volatile int count;     // 映射数量
+        volatile long bytes;    // 映射占用的字节数
+        volatile long evictions;// 淘汰数量
+        
+        Segment(int capacity, long budget) {
+            this.budget = budget;
+            this.table = allocateTable(capacity);
+            setCapacity(capacity);
+        }
+        
+        void ensureOpen() {
+            if(table == 0) {
+                throw new IllegalStateException("map closed");
+            }
+        }
+        
+        long slot(int i) {
+            return table + (long) i * SLOT_SIZE;
+        }
+        
+        /*
+         * 查找键key所在的槽位
+         * 找到时返回槽位索引，否则返回~(可插入的空槽位索引)
+         */
+        int find(int hash, byte[] key) {
+            int mask = capacity - 1;
+            for(int i = hash & mask; ; i = (i + 1) & mask) {
+                long s = slot(i);
+                long e = U.getLong(s);
+                if(e == 0) {
+                    return ~i;
+                }
+                if(U.getInt(s + SLOT_HASH) == hash && U.getInt(e) == key.length && bytesEqual(e + ENTRY_HEADER, key)) {
+                    return i;
+                }
+            }
+        }
+        
+        // 返回槽位i处实体的值的副本
+        ByteBuffer valueAt(int i) {
+            long e = U.getLong(slot(i));
+            int kl = U.getInt(e);
+            int vl = U.getInt(e + ENTRY_VALUE_LENGTH);
+            byte[] v = new byte[vl];
+            U.copyMemory(null, e + ENTRY_HEADER + kl, v, Unsafe.ARRAY_BYTE_BASE_OFFSET, vl);
+            return ByteBuffer.wrap(v);
+        }
+        
+        // 返回槽位i处实体的键的副本
+        ByteBuffer keyAt(int i) {
+            long e = U.getLong(slot(i));
+            int kl = U.getInt(e);
+            byte[] k = new byte[kl];
+            U.copyMemory(null, e + ENTRY_HEADER, k, Unsafe.ARRAY_BYTE_BASE_OFFSET, kl);
+            return ByteBuffer.wrap(k);
+        }
+        
+        boolean valueEquals(int i, byte[] value) {
+            long e = U.getLong(slot(i));
+            return U.getInt(e + ENTRY_VALUE_LENGTH) == value.length && bytesEqual(e + ENTRY_HEADER + U.getInt(e), value);
+        }
+        
+        void setReferenced(int i) {
+            U.putInt(slot(i) + SLOT_REFERENCED, 1);
+        }
+        
+        // 替换槽位i处实体的值，长度不变时原地覆盖
+        void replaceAt(int i, int hash, byte[] key, byte[] value) {
+            long e = U.getLong(slot(i));
+            if(U.getInt(e + ENTRY_VALUE_LENGTH) == value.length) {
+                U.copyMemory(value, Unsafe.ARRAY_BYTE_BASE_OFFSET, null, e + ENTRY_HEADER + key.length, value.length);
+                setReferenced(i);
+                return;
+            }
+            checkBudget(key, value);
+            removeAt(i);
+            insert(hash, key, value);
+        }
+        
+        // 插入新映射，必要时先淘汰旧映射或扩容
+        void insert(int hash, byte[] key, byte[] value) {
+            long size = checkBudget(key, value);
+            
+            // 淘汰旧映射，直到容得下新映射
+            while(count>0 && bytes>budget - size) {
+                evictOne();
+            }
+            
+            if(count >= threshold) {
+                rehash();
+            }
+            
+            long e = U.allocateMemory(size);
+            U.putInt(e, key.length);
+            U.putInt(e + ENTRY_VALUE_LENGTH, value.length);
+            U.copyMemory(key, Unsafe.ARRAY_BYTE_BASE_OFFSET, null, e + ENTRY_HEADER, key.length);
+            U.copyMemory(value, Unsafe.ARRAY_BYTE_BASE_OFFSET, null, e + ENTRY_HEADER + key.length, value.length);
+            
+            long s = slot(~find(hash, key));
+            U.putLong(s, e);
+            U.putInt(s + SLOT_HASH, hash);
+            U.putInt(s + SLOT_REFERENCED, 1);
+            count++;
+            bytes += size;
+        }
+        
+        private long checkBudget(byte[] key, byte[] value) {
+            long size = (long) ENTRY_HEADER + key.length + value.length;
+            if(size>budget) {
+                throw new IllegalArgumentException("Mapping of " + size + " bytes exceeds segment budget of " + budget + " bytes");
+            }
+            return size;
+        }
+        
+        // CLOCK算法：跳过最近被访问过的映射(并清除其标记)，淘汰遇到的第一个未被访问的映射
+        private void evictOne() {
+            int mask = capacity - 1;
+            for(; ; ) {
+                int i = hand;
+                long s = slot(i);
+                if(U.getLong(s) != 0) {
+                    if(U.getInt(s + SLOT_REFERENCED) == 0) {
+                        // 后续映射前移后可能落到槽位i处，因此指针不前进
+                        removeAt(i);
+                        evictions++;
+                        return;
+                    }
+                    U.putInt(s + SLOT_REFERENCED, 0);
+                }
+                hand = (i + 1) & mask;
+            }
+        }
+        
+        /*
+         * 移除槽位pos处的映射
+         * 将其后同一探测序列上的映射依次前移，以免留下"墓碑"
+         */
+        void removeAt(int pos) {
+            long e = U.getLong(slot(pos));
+            bytes -= (long) ENTRY_HEADER + U.getInt(e) + U.getInt(e + ENTRY_VALUE_LENGTH);
+            count--;
+            U.freeMemory(e);
+            
+            int mask = capacity - 1;
+            for(; ; ) {
+                int last = pos;
+                pos = (pos + 1) & mask;
+                for(; ; ) {
+                    long s = slot(pos);
+                    if(U.getLong(s) == 0) {
+                        U.setMemory(slot(last), SLOT_SIZE, (byte) 0);
+                        return;
+                    }
+                    int i = U.getInt(s + SLOT_HASH) & mask;
+                    // 槽位i不在(last, pos]之间时，pos处的映射可以前移到last处
+                    if(last<=pos ? last >= i || i>pos : last >= i && i>pos) {
+                        break;
+                    }
+                    pos = (pos + 1) & mask;
+                }
+                U.copyMemory(slot(pos), slot(last), SLOT_SIZE);
+            }
+        }
+        
+        // 容量翻倍，并重新放置所有映射
+        private void rehash() {
+            if(capacity == MAX_SEGMENT_CAPACITY) {
+                throw new IllegalStateException("Segment is full");
+            }
+            long oldTable = table;
+            int oldCapacity = capacity;
+            int newCapacity = oldCapacity << 1;
+            long newTable = allocateTable(newCapacity);
+            int mask = newCapacity - 1;
+            for(int j = 0; j<oldCapacity; j++) {
+                long s = oldTable + (long) j * SLOT_SIZE;
+                if(U.getLong(s) != 0) {
+                    int i = U.getInt(s + SLOT_HASH) & mask;
+                    while(U.getLong(newTable + (long) i * SLOT_SIZE) != 0) {
+                        i = (i + 1) & mask;
+                    }
+                    U.copyMemory(s, newTable + (long) i * SLOT_SIZE, SLOT_SIZE);
+                }
+            }
+            table = newTable;
+            setCapacity(newCapacity);
+            hand = 0;
+            U.freeMemory(oldTable);
+        }
+        
+        // 释放所有实体
+        void clear() {
+            for(int i = 0; i<capacity; i++) {
+                long e = U.getLong(slot(i));
+                if(e != 0) {
+                    U.freeMemory(e);
+                }
+            }
+            U.setMemory(table, (long) capacity * SLOT_SIZE, (byte) 0);
+            count = 0;
+            bytes = 0;
+            hand = 0;
+        }
+        
+        // 复制本段的所有映射
+        List<Map.Entry<ByteBuffer, ByteBuffer>> snapshot() {
+            List<Map.Entry<ByteBuffer, ByteBuffer>> list = new ArrayList<>(count);
+            for(int i = 0; i<capacity; i++) {
+                if(U.getLong(slot(i)) != 0) {
+                    list.add(new AbstractMap.SimpleImmutableEntry<>(keyAt(i), valueAt(i)));
+                }
+            }
+            return list;
+        }
+        
+        private void setCapacity(int capacity) {
+            this.capacity = capacity;
+            this.threshold = capacity - (capacity >>> 2);
+        }
+        
+        private static long allocateTable(int capacity) {
+            long bytes = (long) capacity * SLOT_SIZE;
+            long address = U.allocateMemory(bytes);
+            U.setMemory(address, bytes, (byte) 0);
+            return address;
+        }
+    }
+    
+    // 释放所有分段的堆外内存，由close()或Cleaner调用
+    private static final class Deallocator implements Runnable {
+        private final Segment[] segments;
+        
+        Deallocator(Segment[] segments) {
+            this.segments = segments;
+        }
+        
+        public void run() {
+            for(Segment s : segments) {
+                if(s == null) {
+                    continue;
+                }
+                s.lock();
+                try {
+                    if(s.table != 0) {
+                        s.clear();
+                        U.freeMemory(s.table);
+                        s.table = 0;
+                    }
+                } finally {
+                    s.unlock();
+                }
+            }
+        }
+    }
+    
+    // 映射集，逐段复制映射进行遍历
+    final class EntrySet extends AbstractSet<Map.Entry<ByteBuffer, ByteBuffer>> {
+        @Override
+        public Iterator<Map.Entry<ByteBuffer, ByteBuffer>> iterator() {
+            return new EntryIterator();
+        }
+        
+        @Override
+        public boolean contains(Object o) {
+            if(!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            Object k = e.getKey();
+            Object v = e.getValue();
+            if(!(k instanceof ByteBuffer) || !(v instanceof ByteBuffer)) {
+                return false;
+            }
+            ByteBuffer value = get(k);
+            return value != null && value.equals(v);
+        }
+        
+        @Override
+        public boolean remove(Object o) {
+            if(!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            Object k = e.getKey();
+            return k instanceof ByteBuffer && OffHeapConcurrentMap.this.remove(k, e.getValue());
+        }
+        
+        @Override
+        public int size() {
+            return OffHeapConcurrentMap.this.size();
+        }
+        
+        @Override
+        public boolean isEmpty() {
+            return OffHeapConcurrentMap.this.isEmpty();
+        }
+        
+        @Override
+        public void clear() {
+            OffHeapConcurrentMap.this.clear();
+        }
+    }
+    
+    // 映射迭代器，弱一致性
+    final class EntryIterator implements Iterator<Map.Entry<ByteBuffer, ByteBuffer>> {
+        int nextSegment;
+        Iterator<Map.Entry<ByteBuffer, ByteBuffer>> current;
+        ByteBuffer lastKey;
+        
+        @Override
+        public boolean hasNext() {
+            while(current == null || !current.hasNext()) {
+                if(nextSegment == segments.length) {
+                    return false;
+                }
+                Segment s = segments[nextSegment++];
+                s.lock();
+                try {
+                    s.ensureOpen();
+                    current = s.snapshot().iterator();
+                } finally {
+                    s.unlock();
+                }
+            }
+            return true;
+        }
+        
+        @Override
+        public Map.Entry<ByteBuffer, ByteBuffer> next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<ByteBuffer, ByteBuffer> e = current.next();
+            lastKey = e.getKey();
+            return new WriteThroughEntry(lastKey, e.getValue());
+        }
+        
+        @Override
+        public void remove() {
+            if(lastKey == null) {
+                throw new IllegalStateException();
+            }
+            OffHeapConcurrentMap.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+    
+    // 调用setValue()时同时写回哈希表
+    final class WriteThroughEntry extends AbstractMap.SimpleEntry<ByteBuffer, ByteBuffer> {
+        private static final long serialVersionUID = -2549297012392834917L;
+        
+        WriteThroughEntry(ByteBuffer key, ByteBuffer value) {
+            super(key, value);
+        }
+        
+        @Override
+        public ByteBuffer setValue(ByteBuffer value) {
+            Objects.requireNonNull(value);
+            ByteBuffer old = super.setValue(value);
+            put(getKey(), value);
+            return old;
+        }
+    }
+    
+    // 类型化视图，键值经由编解码器转换后存入底层的OffHeapConcurrentMap
+    static final class TypedView<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+        final OffHeapConcurrentMap map;
+        final Codec<K> keyCodec;
+        final Codec<V> valueCodec;
+        
+        TypedView(OffHeapConcurrentMap map, Codec<K> keyCodec, Codec<V> valueCodec) {
+            this.map = map;
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
+        }
+        
+        @SuppressWarnings("unchecked")
+        private ByteBuffer encodeKey(Object key) {
+            return keyCodec.encode((K) Objects.requireNonNull(key));
+        }
+        
+        private ByteBuffer encodeValue(V value) {
+            return valueCodec.encode(Objects.requireNonNull(value));
+        }
+        
+        private V decodeValue(ByteBuffer buffer) {
+            return buffer == null ? null : valueCodec.decode(buffer);
+        }
+        
+        @Override
+        public V get(Object key) {
+            return decodeValue(map.get(encodeKey(key)));
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return map.containsKey(encodeKey(key));
+        }
+        
+        @Override
+        public V put(K key, V value) {
+            return decodeValue(map.put(encodeKey(key), encodeValue(value)));
+        }
+        
+        @Override
+        public V putIfAbsent(K key, V value) {
+            return decodeValue(map.putIfAbsent(encodeKey(key), encodeValue(value)));
+        }
+        
+        @Override
+        public V replace(K key, V value) {
+            return decodeValue(map.replace(encodeKey(key), encodeValue(value)));
+        }
+        
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            return map.replace(encodeKey(key), encodeValue(oldValue), encodeValue(newValue));
+        }
+        
+        @Override
+        public V remove(Object key) {
+            return decodeValue(map.remove(encodeKey(key)));
+        }
+        
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean remove(Object key, Object value) {
+            return value != null && map.remove(encodeKey(key), valueCodec.encode((V) value));
+        }
+        
+        @Override
+        public int size() {
+            return map.size();
+        }
+        
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+        
+        @Override
+        public void clear() {
+            map.clear();
+        }
+        
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    Iterator<Map.Entry<ByteBuffer, ByteBuffer>> it = map.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+                        
+                        @Override
+                        public Map.Entry<K, V> next() {
+                            Map.Entry<ByteBuffer, ByteBuffer> e = it.next();
+                            K key = keyCodec.decode(e.getKey());
+                            return new AbstractMap.SimpleEntry<>(key, valueCodec.decode(e.getValue())) {
+                                private static final long serialVersionUID = 1L;
+                                
+                                @Override
+                                public V setValue(V value) {
+                                    V old = super.setValue(value);
+                                    put(key, value);
+                                    return old;
+                                }
+                            };
+                        }
+                        
+                        @Override
+                        public void remove() {
+                            it.remove();
+                        }
+                    };
+                }
+                
+                @Override
+                public int size() {
+                    return map.size();
+                }
+                
+                @Override
+                public void clear() {
+                    map.clear();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,631 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package java.util.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link BlockingQueue} of tasks for a {@link ThreadPoolExecutor} that
+ * spreads tasks over several independently locked stripes, in the manner of
+ * the external submission queues of {@link ForkJoinPool}.
+ *
+ * <p>Each thread is associated with a home stripe through its
+ * {@link ThreadLocalRandom} probe. Producers add to their home stripe, moving
+ * to another stripe when it is contended or full; consumers take from their
+ * home stripe first and steal from the others when it is empty. Producers
+ * and consumers only meet on a shared lock when a consumer is about to block
+ * or a producer is about to wait for space.
+ *
+ * <p>Tasks are ordered FIFO within a stripe but not across stripes.
+ *
+ * <p>A bounded queue divides its capacity among the stripes; {@code offer}
+ * fails only when every stripe is full, so the queue as a whole holds
+ * exactly {@code capacity} tasks, as the executor expects when deciding to
+ * start threads beyond the core pool size or to reject a task.
+ *
+ * @see Executors#newStripedThreadPool(int)
+ * @since 11
+ */
+// 分条带的任务队列，供ThreadPoolExecutor使用，以减少生产者/消费者之间的锁竞争
+final class StripedTaskQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+    
+    /** The maximum number of stripes. */
+    static final int MAX_STRIPES = 64;
+    
+    /** The initial length of the array of a stripe. */
+    static final int INITIAL_STRIPE_LENGTH = 16;
+    
+    final Stripe[] stripes;     // 条带，数量为2的幂
+    final int capacity;         // 总容量，Integer.MAX_VALUE表示无界
+    
+    /*
+     * 仅在消费者需要阻塞，或生产者需要等待空位时使用
+     *
+     * 消费者先增加takeWaiters，再检查所有条带；生产者先放入任务，再检查takeWaiters，
+     * 由于两者都是volatile读写，至少有一方能看到另一方的操作，因此不会丢失唤醒
+     */
+    final ReentrantLock waitLock = new ReentrantLock();
+    final Condition notEmpty = waitLock.newCondition();
+    final Condition notFull = waitLock.newCondition();
+    
+    volatile int takeWaiters;   // 等待任务的消费者数量
+    volatile int putWaiters;    // 等待空位的生产者数量
+    
+    
+    
+    /*▼ 构造器 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Creates an unbounded queue with one stripe per available processor,
+     * up to 64 stripes.
+     */
+    StripedTaskQueue() {
+        this(Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Creates a queue holding at most {@code capacity} tasks.
+     *
+     * @param capacity the capacity of this queue
+     *
+     * @throws IllegalArgumentException if {@code capacity} is not positive
+     */
+    StripedTaskQueue(int capacity) {
+        if(capacity<=0) {
+            throw new IllegalArgumentException();
+        }
+        
+        int ncpu = Runtime.getRuntime().availableProcessors();
+        int n = 1;
+        while(n<ncpu && n<MAX_STRIPES && n<capacity) {
+            n <<= 1;
+        }
+        if(n>capacity) {
+            n >>>= 1;
+        }
+        
+        Stripe[] ss = new Stripe[n];
+        for(int i = 0; i<n; i++) {
+            int c = capacity == Integer.MAX_VALUE ? Integer.MAX_VALUE : capacity / n + (i<capacity % n ? 1 : 0);
+            ss[i] = new Stripe(c);
+        }
+        
+        this.stripes = ss;
+        this.capacity = capacity;
+    }
+    
+    /*▲ 构造器 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 入队 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Inserts the specified task if some stripe has space.
+     *
+     * @return {@code true} if the task was added, {@code false} if the queue is full
+     *
+     * @throws NullPointerException if the specified task is null
+     */
+    // 入队，非阻塞，队列满时返回false
+    public boolean offer(Runnable e) {
+        Objects.requireNonNull(e);
+        
+        Stripe[] ss = stripes;
+        int m = ss.length - 1;
+        int h = probe();
+        
+        // 先尝试不阻塞地获取锁，遇到竞争时换一个条带，并为当前线程换一个主条带
+        for(int i = 0; i<=m; i++) {
+            Stripe s = ss[(h + i) & m];
+            if(s.count >= s.capacity) {
+                continue;
+            }
+            if(!s.tryLock()) {
+                if(i == 0) {
+                    ThreadLocalRandom.advanceProbe(h);
+                }
+                continue;
+            }
+            boolean added;
+            try {
+                added = s.add(e);
+            } finally {
+                s.unlock();
+            }
+            if(added) {
+                signalNotEmpty();
+                return true;
+            }
+        }
+        
+        // 所有条带都忙或已满，逐个加锁重试
+        for(int i = 0; i<=m; i++) {
+            Stripe s = ss[(h + i) & m];
+            if(s.count >= s.capacity) {
+                continue;
+            }
+            boolean added;
+            s.lock();
+            try {
+                added = s.add(e);
+            } finally {
+                s.unlock();
+            }
+            if(added) {
+                signalNotEmpty();
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Inserts the specified task, waiting up to the specified wait time
+     * for space to become available.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     */
+    // 入队，队列满时等待一段时间
+    public boolean offer(Runnable e, long timeout, TimeUnit unit) throws InterruptedException {
+        if(offer(e)) {
+            return true;
+        }
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = waitLock;
+        lock.lockInterruptibly();
+        try {
+            putWaiters++;
+            try {
+                while(!offer(e)) {
+                    if(nanos<=0L) {
+                        return false;
+                    }
+                    nanos = notFull.awaitNanos(nanos);
+                }
+                return true;
+            } finally {
+                putWaiters--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Inserts the specified task, waiting if necessary for space to
+     * become available.
+     *
+     * @throws InterruptedException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     */
+    // 入队，队列满时阻塞
+    public void put(Runnable e) throws InterruptedException {
+        if(offer(e)) {
+            return;
+        }
+        final ReentrantLock lock = waitLock;
+        lock.lockInterruptibly();
+        try {
+            putWaiters++;
+            try {
+                while(!offer(e)) {
+                    notFull.await();
+                }
+            } finally {
+                putWaiters--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /*▲ 入队 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 出队 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    // 出队，非阻塞，先从主条带获取，再从其它条带窃取
+    public Runnable poll() {
+        Stripe[] ss = stripes;
+        int m = ss.length - 1;
+        int h = probe();
+        for(int i = 0; i<=m; i++) {
+            Stripe s = ss[(h + i) & m];
+            if(s.count == 0) {
+                continue;
+            }
+            Runnable r;
+            s.lock();
+            try {
+                r = s.poll();
+            } finally {
+                s.unlock();
+            }
+            if(r != null) {
+                signalNotFull();
+                return r;
+            }
+        }
+        return null;
+    }
+    
+    // 出队，队列为空时等待一段时间
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        Runnable r = poll();
+        if(r != null) {
+            return r;
+        }
+        long nanos = unit.toNanos(timeout);
+        final ReentrantLock lock = waitLock;
+        lock.lockInterruptibly();
+        try {
+            takeWaiters++;
+            try {
+                while((r = poll()) == null) {
+                    if(nanos<=0L) {
+                        return null;
+                    }
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+                return r;
+            } finally {
+                takeWaiters--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // 出队，队列为空时阻塞
+    public Runnable take() throws InterruptedException {
+        Runnable r = poll();
+        if(r != null) {
+            return r;
+        }
+        final ReentrantLock lock = waitLock;
+        lock.lockInterruptibly();
+        try {
+            takeWaiters++;
+            try {
+                while((r = poll()) == null) {
+                    notEmpty.await();
+                }
+                return r;
+            } finally {
+                takeWaiters--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     */
+    public int drainTo(Collection<? super Runnable> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * @throws UnsupportedOperationException {@inheritDoc}
+     * @throws ClassCastException            {@inheritDoc}
+     * @throws NullPointerException          {@inheritDoc}
+     * @throws IllegalArgumentException      {@inheritDoc}
+     */
+    public int drainTo(Collection<? super Runnable> c, int maxElements) {
+        Objects.requireNonNull(c);
+        if(c == this) {
+            throw new IllegalArgumentException();
+        }
+        int n = 0;
+        Runnable r;
+        while(n<maxElements && (r = poll()) != null) {
+            c.add(r);
+            n++;
+        }
+        return n;
+    }
+    
+    /**
+     * Removes a single instance of the specified task from this queue,
+     * if it is present.
+     *
+     * @param o task to be removed from this queue, if present
+     *
+     * @return {@code true} if this queue changed as a result of the call
+     */
+    // 移除指定的任务
+    public boolean remove(Object o) {
+        if(o == null) {
+            return false;
+        }
+        for(Stripe s : stripes) {
+            if(s.count == 0) {
+                continue;
+            }
+            boolean removed;
+            s.lock();
+            try {
+                removed = s.remove(o);
+            } finally {
+                s.unlock();
+            }
+            if(removed) {
+                signalNotFull();
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /*▲ 出队 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 取值 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    // 返回某个条带的队头任务
+    public Runnable peek() {
+        for(Stripe s : stripes) {
+            if(s.count == 0) {
+                continue;
+            }
+            s.lock();
+            try {
+                Runnable r = s.peek();
+                if(r != null) {
+                    return r;
+                }
+            } finally {
+                s.unlock();
+            }
+        }
+        return null;
+    }
+    
+    /*▲ 取值 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 迭代 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Returns an iterator over a snapshot of the tasks in this queue,
+     * taken one stripe at a time. The iterator's {@code remove} removes
+     * the last returned task from this queue.
+     *
+     * @return an iterator over the tasks in this queue
+     */
+    public Iterator<Runnable> iterator() {
+        List<Runnable> list = new ArrayList<>();
+        for(Stripe s : stripes) {
+            s.lock();
+            try {
+                s.copyTo(list);
+            } finally {
+                s.unlock();
+            }
+        }
+        Iterator<Runnable> it = list.iterator();
+        
+        return new Iterator<>() {
+            Runnable last;
+            
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+            
+            public Runnable next() {
+                return last = it.next();
+            }
+            
+            public void remove() {
+                if(last == null) {
+                    throw new IllegalStateException();
+                }
+                StripedTaskQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+    
+    /*▲ 迭代 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 杂项 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    // 返回所有条带中的任务数量之和
+    public int size() {
+        long n = 0;
+        for(Stripe s : stripes) {
+            n += s.count;
+        }
+        return (int) Math.min(n, Integer.MAX_VALUE);
+    }
+    
+    public boolean isEmpty() {
+        for(Stripe s : stripes) {
+            if(s.count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // 返回剩余容量
+    public int remainingCapacity() {
+        return capacity == Integer.MAX_VALUE ? Integer.MAX_VALUE : Math.max(0, capacity - size());
+    }
+    
+    /*▲ 杂项 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    // 返回当前线程的探针值，用于确定其主条带
+    private static int probe() {
+        int h = ThreadLocalRandom.getProbe();
+        if(h == 0) {
+            ThreadLocalRandom.localInit();
+            h = ThreadLocalRandom.getProbe();
+        }
+        return h;
+    }
+    
+    // 有消费者在等待时，唤醒其中一个
+    private void signalNotEmpty() {
+        if(takeWaiters>0) {
+            final ReentrantLock lock = waitLock;
+            lock.lock();
+            try {
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+    
+    // 有生产者在等待空位时，唤醒其中一个
+    private void signalNotFull() {
+        if(putWaiters>0) {
+            final ReentrantLock lock = waitLock;
+            lock.lock();
+            try {
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+    
+    
+    /**
+     * A FIFO ring of tasks guarded by the lock the stripe extends.
+     * The count is volatile so that other threads can skip empty or
+     * full stripes without locking them.
+     */
+    // 条带，一个由自身锁保护的循环数组
+    static final class Stripe extends ReentrantLock {
+        private static final long serialVersionUID = -2915314546357215871L;
+        
+        final int capacity;     // 本条带的容量
+        Runnable[] items;       // 循环数组，长度为2的幂
+        int head;               // 队头索引
+        volatile int count;     // 任务数量
+        
+        Stripe(int capacity) {
+            this.capacity = capacity;
+            this.items = new Runnable[INITIAL_STRIPE_LENGTH];
+        }
+        
+        boolean add(Runnable r) {
+            int c = count;
+            if(c >= capacity) {
+                return false;
+            }
+            Runnable[] a = items;
+            if(c == a.length) {
+                a = grow();
+            }
+            a[(head + c) & (a.length - 1)] = r;
+            count = c + 1;
+            return true;
+        }
+        
+        Runnable poll() {
+            int c = count;
+            if(c == 0) {
+                return null;
+            }
+            Runnable[] a = items;
+            int i = head;
+            Runnable r = a[i];
+            a[i] = null;
+            head = (i + 1) & (a.length - 1);
+            count = c - 1;
+            return r;
+        }
+        
+        Runnable peek() {
+            return count == 0 ? null : items[head];
+        }
+        
+        // 移除o，并将其后的任务依次前移
+        boolean remove(Object o) {
+            Runnable[] a = items;
+            int m = a.length - 1;
+            int c = count;
+            for(int k = 0; k<c; k++) {
+                if(o.equals(a[(head + k) & m])) {
+                    for(int j = k; j<c - 1; j++) {
+                        a[(head + j) & m] = a[(head + j + 1) & m];
+                    }
+                    a[(head + c - 1) & m] = null;
+                    count = c - 1;
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        void copyTo(List<Runnable> list) {
+            Runnable[] a = items;
+            int m = a.length - 1;
+            for(int k = 0, c = count; k<c; k++) {
+                list.add(a[(head + k) & m]);
+            }
+        }
+        
+        // 数组扩容为原来的两倍，并从索引0处重新排列
+        private Runnable[] grow() {
+            Runnable[] a = items;
+            int n = a.length;
+            if(n >= 1 << 30) {
+                throw new IllegalStateException("Queue full");
+            }
+            Runnable[] b = new Runnable[n << 1];
+            for(int k = 0; k<n; k++) {
+                b[k] = a[(head + k) & (n - 1)];
+            }
+            head = 0;
+            return items = b;
+        }
+    }
+}
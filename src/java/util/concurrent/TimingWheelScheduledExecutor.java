@@ -0,0 +1,650 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package java.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link ScheduledExecutorService} that keeps its delayed tasks in a
+ * hierarchical timing wheel and hands expired tasks to another
+ * {@link Executor} for execution.
+ *
+ * <p>Time is divided into ticks of a fixed duration. The first wheel has one
+ * bucket per tick; each further wheel has buckets spanning a whole rotation of
+ * the wheel below it. A task is linked into the bucket of the lowest wheel
+ * that reaches its deadline, and is moved down to a finer wheel when the
+ * ticker reaches its bucket. Scheduling and cancelling therefore take
+ * constant time regardless of the number of pending tasks, whereas
+ * {@link ScheduledThreadPoolExecutor} keeps them in a binary heap behind a
+ * single lock.
+ *
+ * <p>The wheels are owned by a single ticker thread. Threads scheduling or
+ * cancelling tasks only append to lock-free queues that the ticker drains
+ * once per tick, after which it hands all tasks expiring on that tick to the
+ * executor. Tasks thus run no earlier than their deadline and typically
+ * within one tick after it; the tick duration is the resolution of this
+ * executor. Tasks whose deadline lies beyond the span of the highest wheel
+ * are parked in its last bucket and rescheduled when it is reached.
+ *
+ * <p>A cancelled task is unlinked from its bucket on the next tick.
+ * As with {@link ScheduledThreadPoolExecutor}, delayed tasks still run after
+ * {@link #shutdown}, while periodic tasks are cancelled. Shutting down this
+ * executor does not shut down the executor running the tasks.
+ *
+ * @see ScheduledThreadPoolExecutor
+ * @since 11
+ */
+// 基于分层时间轮的定时任务执行器，由专门的ticker线程推进时间轮，到期任务交给指定的Executor执行
+public class TimingWheelScheduledExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+    
+    /** The default tick duration in nanoseconds. */
+    static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    
+    /** The default wheel sizes, together spanning about 18.6 hours of 1ms ticks. */
+    static final int[] DEFAULT_WHEEL_SIZES = {256, 64, 64, 64};
+    
+    // 运行状态
+    private static final int RUNNING = 0;
+    private static final int SHUTDOWN = 1;
+    private static final int STOP = 2;
+    private static final int TERMINATED = 3;
+    
+    private final Executor executor;    // 执行到期任务的执行器
+    private final long tickNanos;       // 每个刻度的时长
+    private final long startTime;       // 第0个刻度对应的时间
+    
+    private final int[] sizes;          // 每层时间轮的槽数
+    private final long[] spans;         // 每层时间轮中每个槽跨越的刻度数
+    private final WheelTask<?>[][] buckets; // 每层时间轮的槽，每个槽是一个双向链表的表头
+    
+    private long tick;                  // 下一个待处理的刻度，仅由ticker线程访问
+    private int wheelCount;             // 时间轮中的任务数量，仅由ticker线程访问
+    
+    private final ConcurrentLinkedQueue<WheelTask<?>> inbox = new ConcurrentLinkedQueue<>();       // 新加入的任务
+    private final ConcurrentLinkedQueue<WheelTask<?>> cancelled = new ConcurrentLinkedQueue<>();   // 已取消的任务
+    
+    private final Thread ticker;
+    private final CountDownLatch termination = new CountDownLatch(1);
+    private final List<Runnable> drained = new ArrayList<>();  // shutdownNow()时尚未执行的任务
+    
+    private volatile int state;
+    
+    
+    
+    /*▼ 构造器 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Creates a new executor with a tick of one millisecond and wheels of
+     * 256, 64, 64 and 64 buckets, which hands expired tasks to the given
+     * executor.
+     *
+     * @param executor the executor running expired tasks
+     *
+     * @throws NullPointerException if {@code executor} is null
+     */
+    public TimingWheelScheduledExecutor(Executor executor) {
+        this(DEFAULT_TICK_NANOS, TimeUnit.NANOSECONDS, DEFAULT_WHEEL_SIZES, executor, Executors.defaultThreadFactory());
+    }
+    
+    /**
+     * Creates a new executor.
+     *
+     * @param tickDuration  the duration of a tick
+     * @param unit          the time unit of {@code tickDuration}
+     * @param wheelSizes    the number of buckets of each wheel, finest first
+     * @param executor      the executor running expired tasks
+     * @param threadFactory the factory creating the ticker thread
+     *
+     * @throws IllegalArgumentException if {@code tickDuration} is not positive,
+     *                                  {@code wheelSizes} is empty or one of its
+     *                                  elements is less than 2
+     * @throws NullPointerException     if any argument is null
+     */
+    public TimingWheelScheduledExecutor(long tickDuration, TimeUnit unit, int[] wheelSizes, Executor executor, ThreadFactory threadFactory) {
+        Objects.requireNonNull(executor);
+        Objects.requireNonNull(threadFactory);
+        
+        long tn = unit.toNanos(tickDuration);
+        if(tn<=0 || wheelSizes.length == 0) {
+            throw new IllegalArgumentException();
+        }
+        
+        int levels = wheelSizes.length;
+        int[] ss = wheelSizes.clone();
+        long[] sp = new long[levels];
+        WheelTask<?>[][] bs = new WheelTask<?>[levels][];
+        long span = 1;
+        for(int i = 0; i<levels; i++) {
+            if(ss[i]<2) {
+                throw new IllegalArgumentException("wheel size: " + ss[i]);
+            }
+            sp[i] = span;
+            bs[i] = new WheelTask<?>[ss[i]];
+            // 超出long范围的部分不再分层
+            span = (span>Long.MAX_VALUE / ss[i]) ? Long.MAX_VALUE : span * ss[i];
+        }
+        
+        this.executor = executor;
+        this.tickNanos = tn;
+        this.sizes = ss;
+        this.spans = sp;
+        this.buckets = bs;
+        this.startTime = System.nanoTime();
+        
+        Thread t = threadFactory.newThread(this::runTicker);
+        if(t == null) {
+            throw new RejectedExecutionException("ticker thread not created");
+        }
+        this.ticker = t;
+        t.start();
+    }
+    
+    /*▲ 构造器 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 创建/执行任务 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * @throws RejectedExecutionException {@inheritDoc}
+     * @throws NullPointerException       {@inheritDoc}
+     */
+    // 执行一次性的定时任务，delay时长后开始执行
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        Objects.requireNonNull(command);
+        Objects.requireNonNull(unit);
+        return enqueue(new WheelTask<Void>(command, null, triggerTime(delay, unit), 0));
+    }
+    
+    /**
+     * @throws RejectedExecutionException {@inheritDoc}
+     * @throws NullPointerException       {@inheritDoc}
+     */
+    // 执行一次性的定时任务，delay时长后开始执行
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        Objects.requireNonNull(callable);
+        Objects.requireNonNull(unit);
+        return enqueue(new WheelTask<>(callable, triggerTime(delay, unit)));
+    }
+    
+    /**
+     * @throws RejectedExecutionException {@inheritDoc}
+     * @throws NullPointerException       {@inheritDoc}
+     * @throws IllegalArgumentException   {@inheritDoc}
+     */
+    // 执行重复性的定时任务，initialDelay时长后首次执行，此后每隔period时长执行一次(从上次开始执行的时间算起)
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        Objects.requireNonNull(command);
+        Objects.requireNonNull(unit);
+        if(period<=0L) {
+            throw new IllegalArgumentException();
+        }
+        return enqueue(new WheelTask<Void>(command, null, triggerTime(initialDelay, unit), unit.toNanos(period)));
+    }
+    
+    /**
+     * @throws RejectedExecutionException {@inheritDoc}
+     * @throws NullPointerException       {@inheritDoc}
+     * @throws IllegalArgumentException   {@inheritDoc}
+     */
+    // 执行重复性的定时任务，initialDelay时长后首次执行，此后每次执行结束delay时长后再次执行
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        Objects.requireNonNull(command);
+        Objects.requireNonNull(unit);
+        if(delay<=0L) {
+            throw new IllegalArgumentException();
+        }
+        return enqueue(new WheelTask<Void>(command, null, triggerTime(initialDelay, unit), -unit.toNanos(delay)));
+    }
+    
+    /**
+     * Executes {@code command} with zero required delay, that is on the
+     * next tick.
+     *
+     * @throws RejectedExecutionException {@inheritDoc}
+     * @throws NullPointerException       {@inheritDoc}
+     */
+    // 执行一次性的任务，在下一个刻度交给执行器
+    public void execute(Runnable command) {
+        schedule(command, 0, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * @throws RejectedExecutionException {@inheritDoc}
+     * @throws NullPointerException       {@inheritDoc}
+     */
+    public Future<?> submit(Runnable task) {
+        return schedule(task, 0, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * @throws RejectedExecutionException {@inheritDoc}
+     * @throws NullPointerException       {@inheritDoc}
+     */
+    public <T> Future<T> submit(Runnable task, T result) {
+        return schedule(Executors.callable(task, result), 0, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * @throws RejectedExecutionException {@inheritDoc}
+     * @throws NullPointerException       {@inheritDoc}
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        return schedule(task, 0, TimeUnit.NANOSECONDS);
+    }
+    
+    /*▲ 创建/执行任务 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 运行状态 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Initiates an orderly shutdown: no new tasks are accepted, periodic
+     * tasks are cancelled and pending delayed tasks still run when they
+     * expire. The ticker thread terminates once none are left.
+     *
+     * @throws SecurityException {@inheritDoc}
+     */
+    // 关闭执行器，不再接收新任务，周期性任务被取消，已有的一次性任务照常执行
+    public void shutdown() {
+        advanceState(SHUTDOWN);
+    }
+    
+    /**
+     * Stops the ticker and returns the tasks that were never handed to the
+     * executor. Tasks already handed off are not affected.
+     *
+     * @return list of tasks that never commenced execution. Each element of
+     * this list is a {@link ScheduledFuture}.
+     *
+     * @throws SecurityException {@inheritDoc}
+     */
+    // 关闭执行器，并返回尚未交给执行器的任务
+    public List<Runnable> shutdownNow() {
+        advanceState(STOP);
+        if(Thread.currentThread() == ticker) {
+            // 由ticker线程直接执行的任务调用时无法等待，时间轮中的任务会在当前刻度结束后被丢弃
+            return new ArrayList<>();
+        }
+        boolean interrupted = false;
+        for(; ; ) {
+            try {
+                termination.await();
+                break;
+            } catch(InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized(drained) {
+            return new ArrayList<>(drained);
+        }
+    }
+    
+    public boolean isShutdown() {
+        return state != RUNNING;
+    }
+    
+    public boolean isTerminated() {
+        return state == TERMINATED;
+    }
+    
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return termination.await(timeout, unit);
+    }
+    
+    /*▲ 运行状态 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    // 计算任务的触发时间
+    private static long triggerTime(long delay, TimeUnit unit) {
+        long now = System.nanoTime();
+        long d = unit.toNanos(Math.max(delay, 0L));
+        long t = now + d;
+        return (t - now<0) ? Long.MAX_VALUE : t;    // 溢出
+    }
+    
+    // 将任务交给ticker线程，关闭后拒绝新任务
+    private <V> WheelTask<V> enqueue(WheelTask<V> task) {
+        if(state != RUNNING) {
+            throw new RejectedExecutionException("Task " + task + " rejected from " + this);
+        }
+        inbox.add(task);
+        // 与关闭操作竞争时，ticker线程可能已经退出，此时收回任务
+        if(state != RUNNING && inbox.remove(task)) {
+            throw new RejectedExecutionException("Task " + task + " rejected from " + this);
+        }
+        return task;
+    }
+    
+    // 周期性任务执行结束后，重新放入时间轮
+    private void reschedule(WheelTask<?> task) {
+        if(state == RUNNING) {
+            inbox.add(task);
+            if(state == RUNNING || !inbox.remove(task)) {
+                return;
+            }
+        }
+        task.cancel(false);
+    }
+    
+    private void advanceState(int target) {
+        int s;
+        while((s = state)<target) {
+            synchronized(this) {
+                if(state == s) {
+                    state = target;
+                }
+            }
+        }
+        LockSupport.unpark(ticker);
+    }
+    
+    
+    
+    /*▼ ticker线程 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    // ticker线程的主循环，每个刻度处理一次
+    private void runTicker() {
+        boolean periodicCancelled = false;
+        try {
+            while(state != STOP) {
+                long wait = startTime + tick * tickNanos - System.nanoTime();
+                if(wait>0) {
+                    LockSupport.parkNanos(this, wait);
+                    continue;
+                }
+                
+                drainCancelled();
+                drainInbox();
+                
+                if(state == SHUTDOWN) {
+                    if(!periodicCancelled) {
+                        cancelPeriodicTasks();
+                        periodicCancelled = true;
+                    }
+                    if(wheelCount == 0 && inbox.isEmpty()) {
+                        break;
+                    }
+                }
+                
+                processTick();
+            }
+            
+            if(state == STOP) {
+                drainCancelled();
+                drainInbox();
+                synchronized(drained) {
+                    for(int level = 0; level<buckets.length; level++) {
+                        for(int i = 0; i<sizes[level]; i++) {
+                            for(WheelTask<?> t = detach(level, i); t != null; t = t.next) {
+                                drained.add(t);
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            state = TERMINATED;
+            termination.countDown();
+        }
+    }
+    
+    // 从时间轮中移除已取消的任务
+    private void drainCancelled() {
+        WheelTask<?> t;
+        while((t = cancelled.poll()) != null) {
+            if(t.level >= 0) {
+                unlink(t);
+            }
+        }
+    }
+    
+    // 将新加入的任务放入时间轮
+    private void drainInbox() {
+        WheelTask<?> t;
+        while((t = inbox.poll()) != null) {
+            if(!t.isCancelled()) {
+                insert(t, deadlineTick(t.time));
+            }
+        }
+    }
+    
+    // 取消时间轮中的周期性任务
+    private void cancelPeriodicTasks() {
+        for(int level = 0; level<buckets.length; level++) {
+            for(int i = 0; i<sizes[level]; i++) {
+                WheelTask<?> t = buckets[level][i];
+                while(t != null) {
+                    WheelTask<?> next = t.next;
+                    if(t.isPeriodic()) {
+                        unlink(t);
+                        t.cancel(false);
+                    }
+                    t = next;
+                }
+            }
+        }
+    }
+    
+    /*
+     * 处理刻度tick
+     *
+     * 先由高到低将到达的高层槽中的任务降级到更精细的时间轮，
+     * 再将第0层对应槽中的任务交给执行器
+     */
+    private void processTick() {
+        long t = tick;
+        for(int level = buckets.length - 1; level>0; level--) {
+            long span = spans[level];
+            if(t % span == 0) {
+                int i = (int) ((t / span) % sizes[level]);
+                WheelTask<?> task = detach(level, i);
+                while(task != null) {
+                    WheelTask<?> next = task.next;
+                    task.next = null;
+                    insert(task, deadlineTick(task.time));
+                    task = next;
+                }
+            }
+        }
+        
+        WheelTask<?> task = detach(0, (int) (t % sizes[0]));
+        while(task != null) {
+            WheelTask<?> next = task.next;
+            task.next = null;
+            if(!task.isCancelled()) {
+                handOff(task);
+            }
+            task = next;
+        }
+        
+        tick = t + 1;
+    }
+    
+    private void handOff(WheelTask<?> task) {
+        try {
+            executor.execute(task);
+        } catch(RejectedExecutionException e) {
+            task.setException(e);
+        }
+    }
+    
+    // 返回触发时间time对应的刻度，早于当前刻度的任务在当前刻度触发
+    private long deadlineTick(long time) {
+        long d = time - startTime;
+        long t = (d<=0) ? 0 : (d - 1) / tickNanos + 1;
+        return Math.max(t, tick);
+    }
+    
+    /*
+     * 将任务放入能容纳其触发刻度dl的最低层时间轮
+     * 超出最高层时间轮范围的任务放入最高层离当前最远的槽
+     */
+    private void insert(WheelTask<?> task, long dl) {
+        long t = tick;
+        int top = buckets.length - 1;
+        int level = 0;
+        long index = dl;
+        for(; level<=top; level++) {
+            long span = spans[level];
+            long diff = dl / span - t / span;
+            if(diff<sizes[level]) {
+                index = dl / span;
+                break;
+            }
+        }
+        if(level>top) {
+            level = top;
+            index = t / spans[top] + sizes[top] - 1;
+        }
+        
+        int i = (int) (index % sizes[level]);
+        WheelTask<?> head = buckets[level][i];
+        task.level = level;
+        task.index = i;
+        task.prev = null;
+        task.next = head;
+        if(head != null) {
+            head.prev = task;
+        }
+        buckets[level][i] = task;
+        wheelCount++;
+    }
+    
+    // 从所在槽中移除任务
+    private void unlink(WheelTask<?> task) {
+        WheelTask<?> prev = task.prev, next = task.next;
+        if(prev == null) {
+            buckets[task.level][task.index] = next;
+        } else {
+            prev.next = next;
+        }
+        if(next != null) {
+            next.prev = prev;
+        }
+        task.prev = task.next = null;
+        task.level = -1;
+        wheelCount--;
+    }
+    
+    // 摘下整个槽，返回其中的任务链表(仍由next连接)
+    private WheelTask<?> detach(int level, int i) {
+        WheelTask<?> head = buckets[level][i];
+        buckets[level][i] = null;
+        for(WheelTask<?> t = head; t != null; t = t.next) {
+            t.prev = null;
+            t.level = -1;
+            wheelCount--;
+        }
+        return head;
+    }
+    
+    /*▲ ticker线程 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /**
+     * A task linked into a bucket of the wheel.
+     */
+    // 时间轮中的任务，槽内的任务构成双向链表
+    private class WheelTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+        
+        /** The nanoTime-based time when the task is enabled to execute. */
+        private volatile long time;
+        
+        /**
+         * Period for repeating tasks, in nanoseconds.
+         * A positive value indicates fixed-rate execution.
+         * A negative value indicates fixed-delay execution.
+         * A value of 0 indicates a non-repeating (one-shot) task.
+         */
+        private final long period;
+        
+        // 以下字段仅由ticker线程访问
+        WheelTask<?> prev, next;
+        int level = -1;     // 所在时间轮层级，-1表示不在时间轮中
+        int index;          // 所在槽的索引
+        
+        WheelTask(Runnable r, V result, long triggerTime, long period) {
+            super(r, result);
+            this.time = triggerTime;
+            this.period = period;
+        }
+        
+        WheelTask(Callable<V> callable, long triggerTime) {
+            super(callable);
+            this.time = triggerTime;
+            this.period = 0;
+        }
+        
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(time - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+        
+        public int compareTo(Delayed other) {
+            if(other == this) {
+                return 0;
+            }
+            if(other instanceof WheelTask) {
+                long diff = time - ((WheelTask<?>) other).time;
+                return (diff<0) ? -1 : (diff>0) ? 1 : 0;
+            }
+            long diff = getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS);
+            return (diff<0) ? -1 : (diff>0) ? 1 : 0;
+        }
+        
+        public boolean isPeriodic() {
+            return period != 0;
+        }
+        
+        // 取消任务，由ticker线程在下一个刻度将其移出时间轮
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if(cancelled) {
+                TimingWheelScheduledExecutor.this.cancelled.add(this);
+            }
+            return cancelled;
+        }
+        
+        // 由执行器调用，周期性任务执行结束后计算下次触发时间，并重新放入时间轮
+        public void run() {
+            if(!isPeriodic()) {
+                super.run();
+            } else if(super.runAndReset()) {
+                time = (period>0) ? time + period : triggerTime(-period, TimeUnit.NANOSECONDS);
+                reschedule(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,564 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package java.util.logging;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@code Handler} that publishes records to a target {@code Handler} on a
+ * background thread.
+ * <p>
+ * The {@code publish} method merely stores the record into a bounded,
+ * lock-free ring buffer, so logging threads never wait for formatting or
+ * for I/O, nor for each other. A background thread takes the records out of
+ * the ring in batches and publishes them to the target {@code Handler}.
+ * A {@link FileHandler} or {@link ConsoleHandler} target flushes its output
+ * once per batch rather than after every record; a {@code FileHandler}
+ * target still rotates its files when they reach the size limit.
+ * <p>
+ * When the ring buffer is full, the {@link OverflowPolicy} of the handler
+ * decides whether the logging thread waits for free space, or a record is
+ * discarded. The number of discarded records is available from
+ * {@link #getDroppedCount()}.
+ * <p>
+ * Records are published to the target in the order in which they were
+ * stored into the ring. Note that the record is published after
+ * {@code publish} has returned, so the caller must not modify it afterwards.
+ * <p>
+ * <b>Configuration:</b>
+ * By default each {@code AsyncHandler} is initialized using the following
+ * {@code LogManager} configuration properties where {@code <handler-name>}
+ * refers to the fully-qualified class name of the handler.
+ * If properties are not defined
+ * (or have invalid values) then the specified default values are used.
+ * If no default value is defined then a RuntimeException is thrown.
+ * <ul>
+ * <li>   &lt;handler-name&gt;.level
+ *        specifies the level for the {@code Handler}
+ *        (defaults to {@code Level.ALL}). </li>
+ * <li>   &lt;handler-name&gt;.filter
+ *        specifies the name of a {@code Filter} class to use
+ *        (defaults to no {@code Filter}). </li>
+ * <li>   &lt;handler-name&gt;.size
+ *        defines the capacity of the ring buffer, rounded up to a power
+ *        of two (defaults to 8192). </li>
+ * <li>   &lt;handler-name&gt;.batch
+ *        defines the maximum number of records handed to the target at once
+ *        (defaults to 256). </li>
+ * <li>   &lt;handler-name&gt;.overflow
+ *        specifies the {@link OverflowPolicy} by name: {@code BLOCK},
+ *        {@code DROP_OLDEST} or {@code DROP} (defaults to {@code BLOCK}). </li>
+ * <li>   &lt;handler-name&gt;.target
+ *        specifies the name of the target {@code Handler } class.
+ *        (no default). </li>
+ * </ul>
+ * <p>
+ * For example, the properties for an {@code AsyncHandler} writing to a
+ * rotating set of files would be:
+ * <ul>
+ * <li>   handlers=java.util.logging.AsyncHandler </li>
+ * <li>   java.util.logging.AsyncHandler.target=java.util.logging.FileHandler </li>
+ * <li>   java.util.logging.AsyncHandler.overflow=DROP_OLDEST </li>
+ * <li>   java.util.logging.FileHandler.pattern=%h/java%u.log </li>
+ * <li>   java.util.logging.FileHandler.limit=50000000 </li>
+ * <li>   java.util.logging.FileHandler.count=10 </li>
+ * </ul>
+ *
+ * @since 11
+ */
+
+public class AsyncHandler extends Handler {
+    private final static int DEFAULT_SIZE = 8192;
+    private final static int DEFAULT_BATCH_SIZE = 256;
+    private final static int MAXIMUM_SIZE = 1 << 30;
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+
+    /**
+     * What {@link AsyncHandler#publish publish} does when the ring buffer
+     * is full.
+     *
+     * @since 11
+     */
+    public enum OverflowPolicy {
+        /**
+         * The logging thread waits until there is room for the record.
+         * No record is lost, but logging threads are slowed down to the
+         * pace of the target {@code Handler}.
+         */
+        BLOCK,
+        /**
+         * The oldest record not yet taken by the background thread is
+         * discarded to make room for the new record.
+         */
+        DROP_OLDEST,
+        /**
+         * The new record is discarded.
+         */
+        DROP
+    }
+
+    private final Handler target;
+    private final OverflowPolicy overflowPolicy;
+    private final int batchSize;
+
+    // The ring buffer is the bounded multi-producer multi-consumer queue of
+    // D. Vyukov. Each slot has a sequence number telling whether it is free
+    // for the producer claiming position p (sequence == p), or holds the
+    // record stored at position p (sequence == p + 1). Producers claim
+    // positions by a CAS on tail, consumers by a CAS on head. The background
+    // thread is the only regular consumer, producers consume too when they
+    // drop the oldest record.
+    private final LogRecord[] records;
+    private final long[] sequences;
+    private final int mask;
+    private volatile long head;
+    private volatile long tail;
+
+    // Position up to which records have been published or dropped
+    private volatile long completed;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread worker;
+    private volatile boolean workerParked;
+    private volatile boolean closed;
+
+    // Threads waiting for room in the ring, or for flush
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition progress = lock.newCondition();
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+    private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+    static {
+        try {
+            MethodHandles.Lookup l = MethodHandles.lookup();
+            HEAD = l.findVarHandle(AsyncHandler.class, "head", long.class);
+            TAIL = l.findVarHandle(AsyncHandler.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new Error(e);
+        }
+    }
+
+    /**
+     * Create an {@code AsyncHandler} and configure it based on
+     * {@code LogManager} configuration properties.
+     */
+    public AsyncHandler() {
+        // configure with specific defaults for AsyncHandler
+        super(Level.ALL, new SimpleFormatter(), null);
+
+        LogManager manager = LogManager.getLogManager();
+        String cname = getClass().getName();
+        int size = manager.getIntProperty(cname + ".size", DEFAULT_SIZE);
+        if (size <= 0) {
+            size = DEFAULT_SIZE;
+        }
+        int batch = manager.getIntProperty(cname + ".batch", DEFAULT_BATCH_SIZE);
+        if (batch <= 0) {
+            batch = DEFAULT_BATCH_SIZE;
+        }
+        OverflowPolicy policy = OverflowPolicy.BLOCK;
+        String policyName = manager.getStringProperty(cname + ".overflow", null);
+        if (policyName != null) {
+            try {
+                policy = OverflowPolicy.valueOf(policyName);
+            } catch (IllegalArgumentException e) {
+                // use the default
+            }
+        }
+        String targetName = manager.getProperty(cname + ".target");
+        if (targetName == null) {
+            throw new RuntimeException("The handler " + cname
+                    + " does not specify a target");
+        }
+        Class<?> clz;
+        try {
+            clz = ClassLoader.getSystemClassLoader().loadClass(targetName);
+            @SuppressWarnings("deprecation")
+            Object o = clz.newInstance();
+            target = (Handler) o;
+        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException("AsyncHandler can't load handler target \"" + targetName + "\"" , e);
+        }
+        overflowPolicy = policy;
+        batchSize = batch;
+        records = new LogRecord[ringSize(size)];
+        sequences = new long[records.length];
+        mask = records.length - 1;
+        worker = startWorker();
+    }
+
+    /**
+     * Create an {@code AsyncHandler}.
+     * <p>
+     * The {@code AsyncHandler} is configured based on {@code LogManager}
+     * properties (or their default values) except that the given target,
+     * buffer size and overflow policy are used.
+     *
+     * @param target  the Handler to which to publish output.
+     * @param size    the capacity of the ring buffer, rounded up to a power
+     *                of two (must be greater than zero)
+     * @param overflowPolicy  what to do when the ring buffer is full
+     *
+     * @throws IllegalArgumentException if {@code size is <= 0}
+     */
+    public AsyncHandler(Handler target, int size, OverflowPolicy overflowPolicy) {
+        // configure with specific defaults for AsyncHandler
+        super(Level.ALL, new SimpleFormatter(), null);
+
+        if (target == null || overflowPolicy == null) {
+            throw new NullPointerException();
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException();
+        }
+        int batch = LogManager.getLogManager()
+                .getIntProperty(getClass().getName() + ".batch", DEFAULT_BATCH_SIZE);
+        this.target = target;
+        this.overflowPolicy = overflowPolicy;
+        this.batchSize = batch > 0 ? batch : DEFAULT_BATCH_SIZE;
+        records = new LogRecord[ringSize(size)];
+        sequences = new long[records.length];
+        mask = records.length - 1;
+        worker = startWorker();
+    }
+
+    private static int ringSize(int size) {
+        int n = -1 >>> Integer.numberOfLeadingZeros(Math.min(size, MAXIMUM_SIZE) - 1);
+        return n + 1;
+    }
+
+    private Thread startWorker() {
+        for (int i = 0; i < sequences.length; i++) {
+            sequences[i] = i;
+        }
+        Thread t = AccessController.doPrivileged(new PrivilegedAction<Thread>() {
+            @Override
+            public Thread run() {
+                Thread t = new Thread(null, AsyncHandler.this::processRecords,
+                        "AsyncHandler-" + threadNumber.incrementAndGet(), 0, false);
+                t.setDaemon(true);
+                t.setContextClassLoader(null);
+                return t;
+            }
+        });
+        t.start();
+        return t;
+    }
+
+    /**
+     * Store a {@code LogRecord} in the ring buffer, to be published to the
+     * target {@code Handler} by the background thread.
+     * <p>
+     * If there is a {@code Filter}, its {@code isLoggable}
+     * method is called to check if the given log record is loggable.
+     * If not we return. If the ring buffer is full, the overflow policy
+     * decides whether this method waits for room, or which record is
+     * discarded.
+     *
+     * @param  record  description of the log event. A null record is
+     *                 silently ignored and is not published
+     */
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        // infer the caller now, on the logging thread; on the worker
+        // thread the stack no longer contains it
+        record.getSourceClassName();
+        if (!offer(record)) {
+            switch (overflowPolicy) {
+                case BLOCK:
+                    put(record);
+                    break;
+                case DROP_OLDEST:
+                    do {
+                        if (poll() != null) {
+                            dropped.incrementAndGet();
+                        }
+                    } while (!offer(record));
+                    break;
+                case DROP:
+                    dropped.incrementAndGet();
+                    return;
+            }
+        }
+        if (workerParked) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    // Waits for room in the ring
+    private void put(LogRecord record) {
+        boolean interrupted = false;
+        waiters.incrementAndGet();
+        lock.lock();
+        try {
+            while (!offer(record)) {
+                // nobody will make room once the worker has terminated
+                if (closed || !worker.isAlive()) {
+                    dropped.incrementAndGet();
+                    break;
+                }
+                LockSupport.unpark(worker);
+                try {
+                    // the timeout guards against a signal sent between the
+                    // failed offer and the await
+                    progress.await(10, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            lock.unlock();
+            waiters.decrementAndGet();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean offer(LogRecord record) {
+        long pos = tail;
+        while (true) {
+            int index = (int) pos & mask;
+            long seq = (long) SEQUENCE.getAcquire(sequences, index);
+            long dif = seq - pos;
+            if (dif == 0) {
+                if (TAIL.compareAndSet(this, pos, pos + 1)) {
+                    records[index] = record;
+                    SEQUENCE.setRelease(sequences, index, pos + 1);
+                    return true;
+                }
+            } else if (dif < 0) {
+                return false; // full
+            }
+            pos = tail;
+        }
+    }
+
+    private LogRecord poll() {
+        long pos = head;
+        while (true) {
+            int index = (int) pos & mask;
+            long seq = (long) SEQUENCE.getAcquire(sequences, index);
+            long dif = seq - (pos + 1);
+            if (dif == 0) {
+                if (HEAD.compareAndSet(this, pos, pos + 1)) {
+                    LogRecord record = records[index];
+                    records[index] = null;
+                    SEQUENCE.setRelease(sequences, index, pos + mask + 1);
+                    return record;
+                }
+            } else if (dif < 0) {
+                return null; // empty
+            }
+            pos = head;
+        }
+    }
+
+    // Body of the background thread
+    private void processRecords() {
+        LogRecord[] batch = new LogRecord[Math.min(batchSize, records.length)];
+        while (true) {
+            int n = 0;
+            LogRecord record;
+            while (n < batch.length && (record = poll()) != null) {
+                batch[n++] = record;
+            }
+            if (n > 0) {
+                // every record before tail at the time of the empty poll has
+                // been taken by now, possibly by a producer dropping it
+                long position = head;
+                try {
+                    target.publishBatch(batch, 0, n);
+                } catch (Throwable t) {
+                    // an Error must not end the worker either, blocked
+                    // publishers would wait for it forever
+                    reportError(null, t instanceof Exception ? (Exception) t
+                                : new Exception(t), ErrorManager.WRITE_FAILURE);
+                }
+                Arrays.fill(batch, 0, n, null);
+                completed = position;
+                if (waiters.get() > 0) {
+                    signalProgress();
+                }
+                continue;
+            }
+            if (tail != head) {
+                // a producer has claimed a slot, but not yet stored the record
+                Thread.onSpinWait();
+                continue;
+            }
+            completed = head;
+            if (waiters.get() > 0) {
+                signalProgress();
+            }
+            if (closed) {
+                return;
+            }
+            workerParked = true;
+            // re-check after publishing workerParked, a producer that has
+            // advanced tail before will see it set and unpark this thread
+            if (tail == head && !closed) {
+                LockSupport.park(this);
+            }
+            workerParked = false;
+        }
+    }
+
+    private void signalProgress() {
+        lock.lock();
+        try {
+            progress.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until every record stored before this call has been published
+     * to the target {@code Handler} (or discarded), then flush the target.
+     */
+    @Override
+    public void flush() {
+        awaitCompletion(tail);
+        target.flush();
+    }
+
+    private void awaitCompletion(long position) {
+        if (completed - position >= 0 || Thread.currentThread() == worker) {
+            return;
+        }
+        boolean interrupted = false;
+        waiters.incrementAndGet();
+        lock.lock();
+        try {
+            while (completed - position < 0 && worker.isAlive()) {
+                LockSupport.unpark(worker);
+                try {
+                    progress.await(10, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            lock.unlock();
+            waiters.decrementAndGet();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Close the {@code Handler} and free all associated resources.
+     * Records already stored are published before the target
+     * {@code Handler} is closed. Records published afterwards are
+     * ignored.
+     *
+     * @exception  SecurityException  if a security manager exists and if
+     *             the caller does not have {@code LoggingPermission("control")}.
+     */
+    @Override
+    public void close() throws SecurityException {
+        checkPermission();
+        closed = true;
+        LockSupport.unpark(worker);
+        if (Thread.currentThread() != worker) {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    worker.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        target.close();
+        setLevel(Level.OFF);
+    }
+
+    /**
+     * Get the target {@code Handler}.
+     *
+     * @return the {@code Handler} to which records are published
+     */
+    public Handler getTarget() {
+        return target;
+    }
+
+    /**
+     * Get the overflow policy.
+     *
+     * @return what {@code publish} does when the ring buffer is full
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Get the number of records discarded because the ring buffer was full,
+     * or because they were published while the handler was being closed.
+     *
+     * @return the number of discarded records
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Check if this {@code Handler} would actually log a given
+     * {@code LogRecord} into its ring buffer.
+     * <p>
+     * This method checks if the {@code LogRecord} has an appropriate level and
+     * whether it satisfies any {@code Filter}. It will return false if the
+     * {@code LogRecord} is null.
+     *
+     * @param record  a {@code LogRecord}
+     * @return true if the {@code LogRecord} would be logged.
+     *
+     */
+    @Override
+    public boolean isLoggable(LogRecord record) {
+        return super.isLoggable(record);
+    }
+}
@@ -96,6 +96,19 @@ public class ConsoleHandler extends StreamHandler {
         flush();
     }
 
+    @Override
+    synchronized void publishBatch(LogRecord[] records, int from, int to) {
+        if (getClass() != ConsoleHandler.class) {
+            // a subclass may override publish
+            super.publishBatch(records, from, to);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            super.publish(records[i]);
+        }
+        flush();
+    }
+
     /**
      * Override {@code StreamHandler.close} to do a flush but not
      * to close the output stream.  That is, we do <b>not</b>
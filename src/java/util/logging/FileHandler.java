@@ -750,6 +750,36 @@ public class FileHandler extends StreamHandler {
         }
         super.publish(record);
         flush();
+        rotateIfFull();
+    }
+
+    /**
+     * Publish a batch of records, flushing once at the end of the batch
+     * instead of after every record.
+     * <p>
+     * The size of the current file is checked after every record, but it is
+     * only known up to the output not yet flushed by the writer, so a file may
+     * exceed the limit by the size of the writer's buffer.
+     */
+    @Override
+    synchronized void publishBatch(LogRecord[] records, int from, int to) {
+        if (getClass() != FileHandler.class) {
+            // a subclass may override publish
+            super.publishBatch(records, from, to);
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            LogRecord record = records[i];
+            if (!isLoggable(record)) {
+                continue;
+            }
+            super.publish(record);
+            rotateIfFull();
+        }
+        flush();
+    }
+
+    private void rotateIfFull() {
         if (limit > 0 && (meter.written >= limit || meter.written < 0)) {
             // We performed access checks in the "init" method to make sure
             // we are only initialized from trusted code.  So we assume
@@ -135,6 +135,19 @@ public abstract class Handler {
      */
     public abstract void publish(LogRecord record);
 
+    /**
+     * Publish the records {@code records[from, to)} in order.
+     * <p>
+     * Used by {@link AsyncHandler} to hand over a batch of records at once.
+     * Handlers that flush their output after every record override this
+     * method to flush only once per batch.
+     */
+    void publishBatch(LogRecord[] records, int from, int to) {
+        for (int i = from; i < to; i++) {
+            publish(records[i]);
+        }
+    }
+
     /**
      * Flush any buffered output.
      */
@@ -164,7 +164,7 @@ public class XMLFormatter extends Formatter {
      */
     @Override
     public String format(LogRecord record) {
-        StringBuilder sb = new StringBuilder(500);
+        StringBuilder sb = StringBuilder.pooled();
         sb.append("<record>\n");
 
         final Instant instant = record.getInstant();
@@ -291,7 +291,7 @@ public class XMLFormatter extends Formatter {
         }
 
         sb.append("</record>\n");
-        return sb.toString();
+        return sb.toStringAndClear();
     }
 
     /**
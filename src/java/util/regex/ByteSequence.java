@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package java.util.regex;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A reusable character sequence over encoded bytes, used by a {@link Matcher}
+ * to match byte arrays and byte buffers without decoding them into strings.
+ *
+ * <p>ISO-8859-1 input, and UTF-8 input consisting of ASCII bytes only, is
+ * viewed in place: the character at an index is the byte at the same offset.
+ * Other UTF-8 input is decoded once into an internal array of characters,
+ * together with the byte offset of every character, both of which are kept
+ * and reused by later inputs of the same or a smaller size.  Malformed UTF-8
+ * sequences are decoded as one {@code U+FFFD} per malformed byte.
+ *
+ * <p>The source bytes must not be modified while they are being matched.
+ *
+ * @since 11
+ */
+// 字节序列的字符视图：ISO-8859-1以及纯ASCII的UTF-8字节直接视为字符，其余UTF-8字节解码到可复用的字符数组中
+final class ByteSequence implements CharSequence {
+    
+    private static final char REPLACEMENT = '\uFFFD';
+    
+    // 清理时保留的解码存储的最大容量
+    private static final int RETAINED_CHARS = 8192;
+    
+    private byte[] array;       // 堆内存字节（视图模式）
+    private ByteBuffer buffer;  // 直接内存字节（视图模式）
+    private int start;          // 第一个字节在array或buffer中的索引
+    private int base;           // 报告字节偏移时第一个字节的索引
+    private int length;         // 字符数量
+    
+    private boolean decoded;    // 字符是否来自解码后的chars
+    private char[] chars = new char[0];     // 解码后的字符
+    private int[] offsets = new int[1];     // 每个字符相对于base的字节偏移，末尾另存字节总数
+    private byte[] scratch = new byte[0];   // 解码直接内存字节时使用的暂存区
+    
+    /**
+     * Views {@code length} bytes of the given array, starting at
+     * {@code offset}, as characters of the given charset.
+     *
+     * @throws IllegalArgumentException if the charset is neither ISO-8859-1
+     *                                  nor UTF-8
+     */
+    // 以字符集cs将array[offset, offset+length)视为字符序列
+    void reset(byte[] array, int offset, int length, Charset cs) {
+        boolean utf8 = isUtf8(cs);
+        this.array = array;
+        this.buffer = null;
+        this.start = offset;
+        this.base = offset;
+        if(utf8 && !isAscii(array, offset, length)) {
+            decode(array, offset, length);
+        } else {
+            this.decoded = false;
+            this.length = length;
+        }
+    }
+    
+    /**
+     * Views the remaining bytes of the given buffer as characters of the
+     * given charset.  The position of the buffer is not changed.
+     *
+     * @throws IllegalArgumentException if the charset is neither ISO-8859-1
+     *                                  nor UTF-8
+     */
+    // 以字符集cs将buffer中剩余的字节视为字符序列，不改变buffer的游标
+    void reset(ByteBuffer buffer, Charset cs) {
+        int position = buffer.position();
+        int remaining = buffer.limit() - position;
+        if(buffer.hasArray()) {
+            reset(buffer.array(), buffer.arrayOffset() + position, remaining, cs);
+            // 字节偏移以缓冲区中的索引表示
+            this.base = position;
+            return;
+        }
+        
+        boolean utf8 = isUtf8(cs);
+        this.array = null;
+        this.buffer = buffer;
+        this.start = position;
+        this.base = position;
+        this.decoded = false;
+        this.length = remaining;
+        if(!utf8) {
+            return;
+        }
+        for(int i = 0; i<remaining; i++) {
+            if(buffer.get(position + i)<0) {
+                // 将直接内存中的字节复制到暂存区后再解码
+                if(scratch.length<remaining) {
+                    scratch = new byte[remaining];
+                }
+                for(int j = 0; j<remaining; j++) {
+                    scratch[j] = buffer.get(position + j);
+                }
+                decode(scratch, 0, remaining);
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Forgets the source bytes, so that they are no longer reachable from
+     * this sequence.  Decoding storage larger than {@code RETAINED_CHARS}
+     * characters is dropped as well.
+     */
+    // 丢弃对源字节的引用，使其不再被当前序列引用；过大的解码存储一并丢弃
+    void clear() {
+        this.array = null;
+        this.buffer = null;
+        this.decoded = false;
+        this.length = 0;
+        if(chars.length>RETAINED_CHARS) {
+            chars = new char[0];
+            offsets = new int[1];
+        }
+        if(scratch.length>RETAINED_CHARS) {
+            scratch = new byte[0];
+        }
+    }
+    
+    /**
+     * Returns the index, in the source array or buffer, of the first byte of
+     * the character at the given index, or of the byte following the input if
+     * {@code index} is the length of this sequence.
+     */
+    // 返回第index个字符的首个字节在源数组或缓冲区中的索引
+    int byteOffset(int index) {
+        return base + (decoded ? offsets[index] : index);
+    }
+    
+    @Override
+    public int length() {
+        return length;
+    }
+    
+    @Override
+    public char charAt(int index) {
+        if(decoded) {
+            return chars[index];
+        }
+        if(array != null) {
+            return (char) (array[start + index] & 0xFF);
+        }
+        return (char) (buffer.get(start + index) & 0xFF);
+    }
+    
+    /**
+     * Returns a copy of the given range as a string, the source bytes may be
+     * reused as soon as this sequence is reset.
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if(start<0 || start>end || end>length) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        if(decoded) {
+            return new String(chars, start, end - start);
+        }
+        if(array != null) {
+            return new String(array, this.start + start, end - start, StandardCharsets.ISO_8859_1);
+        }
+        char[] dst = new char[end - start];
+        for(int i = start; i<end; i++) {
+            dst[i - start] = charAt(i);
+        }
+        return new String(dst);
+    }
+    
+    @Override
+    public String toString() {
+        return subSequence(0, length).toString();
+    }
+    
+    // 判断字符集是否为UTF-8，不支持的字符集会引发异常
+    private static boolean isUtf8(Charset cs) {
+        if(cs.equals(StandardCharsets.UTF_8)) {
+            return true;
+        }
+        if(cs.equals(StandardCharsets.ISO_8859_1)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Unsupported charset: " + cs.name());
+    }
+    
+    private static boolean isAscii(byte[] src, int off, int len) {
+        for(int i = off, end = off + len; i<end; i++) {
+            if(src[i]<0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // 将src[off, off+len)中的UTF-8字节解码到chars中，并记录每个字符的字节偏移
+    private void decode(byte[] src, int off, int len) {
+        // 每个字节最多解码出一个字符，四字节序列解码出两个字符
+        if(chars.length<len) {
+            chars = new char[len];
+            offsets = new int[len + 1];
+        }
+        char[] dst = chars;
+        int[] pos = offsets;
+        int n = 0;
+        int i = off;
+        int end = off + len;
+        while(i<end) {
+            int b0 = src[i];
+            int at = i - off;
+            if(b0 >= 0) {
+                pos[n] = at;
+                dst[n++] = (char) b0;
+                i++;
+                continue;
+            }
+            int c = -1;
+            int size = 1;
+            if((b0 >> 5) == -2 && (b0 & 0x1e) != 0) {
+                // 110xxxxx 10xxxxxx
+                if(i + 1<end && isContinuation(src[i + 1])) {
+                    c = ((b0 & 0x1f) << 6) | (src[i + 1] & 0x3f);
+                    size = 2;
+                }
+            } else if((b0 >> 4) == -2) {
+                // 1110xxxx 10xxxxxx 10xxxxxx，排除超长编码与代理区
+                if(i + 2<end && isContinuation(src[i + 1]) && isContinuation(src[i + 2])) {
+                    int v = ((b0 & 0x0f) << 12) | ((src[i + 1] & 0x3f) << 6) | (src[i + 2] & 0x3f);
+                    if(v >= 0x800 && !Character.isSurrogate((char) v)) {
+                        c = v;
+                        size = 3;
+                    }
+                }
+            } else if((b0 >> 3) == -2) {
+                // 11110xxx 10xxxxxx 10xxxxxx 10xxxxxx
+                if(i + 3<end && isContinuation(src[i + 1]) && isContinuation(src[i + 2]) && isContinuation(src[i + 3])) {
+                    int v = ((b0 & 0x07) << 18) | ((src[i + 1] & 0x3f) << 12) | ((src[i + 2] & 0x3f) << 6) | (src[i + 3] & 0x3f);
+                    if(v >= Character.MIN_SUPPLEMENTARY_CODE_POINT && v<=Character.MAX_CODE_POINT) {
+                        c = v;
+                        size = 4;
+                    }
+                }
+            }
+            if(c<0) {
+                pos[n] = at;
+                dst[n++] = REPLACEMENT;
+            } else if(size == 4) {
+                // 代理对的两个字符都指向该序列的首个字节
+                pos[n] = at;
+                dst[n++] = Character.highSurrogate(c);
+                pos[n] = at;
+                dst[n++] = Character.lowSurrogate(c);
+            } else {
+                pos[n] = at;
+                dst[n++] = (char) c;
+            }
+            i += size;
+        }
+        pos[n] = len;
+        this.decoded = true;
+        this.length = n;
+    }
+    
+    private static boolean isContinuation(byte b) {
+        return (b & 0xc0) == 0x80;
+    }
+}
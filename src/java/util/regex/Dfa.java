@@ -0,0 +1,768 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package java.util.regex;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A lazily built deterministic automaton used as a fast path in front of the
+ * backtracking {@link Pattern.Node} engine.
+ *
+ * <p>The automaton is derived from the node tree of a pattern when every node
+ * belongs to the regular subset of the syntax: characters, slices, character
+ * classes, concatenation, alternation, groups, greedy and reluctant
+ * quantifiers, {@code \A}, {@code \z} and the non-multiline {@code ^} and
+ * {@code $}.  Back references, lookaround, possessive quantifiers and
+ * independent groups, word and grapheme boundaries, {@code \G}, {@code \R},
+ * multiline anchors, {@code UNIX_LINES} anchors and {@code CANON_EQ} keep the
+ * pattern on the node engine alone.
+ *
+ * <p>The nodes are first translated into a Thompson NFA.  DFA states, which
+ * are sets of NFA states, are then created on demand while input is scanned
+ * and cached together with their transitions on ASCII characters, so that
+ * the cost of a scan is linear in the length of the input no matter how the
+ * pattern would backtrack.  The automaton only answers whether, and where, a
+ * match starts; the node engine is then run once at that position to produce
+ * the exact match end and the capturing groups with the usual leftmost-first
+ * semantics.  Because the automaton tracks every alternative at once, a
+ * failing match is rejected without exploring any of the alternatives the
+ * node engine would have to backtrack through.  Searches always scan the
+ * input, while anchored matches are only scanned for patterns with
+ * alternations or quantifiers nested in a repeated atom, where the node
+ * engine may backtrack exponentially.
+ *
+ * <p>A scan gives up, and the caller falls back to the node engine, when the
+ * input contains surrogate characters or when the number of cached states
+ * reaches {@link #MAX_STATES}.  Instances are shared by all matchers of a
+ * pattern and are safe for use by multiple concurrent threads.
+ *
+ * @since 11
+ */
+// 正则表达式的惰性DFA：对不含回溯专属语法的正则，先用DFA判定是否存在匹配及匹配起点，再交由节点引擎在该起点处完成匹配与分组捕获
+final class Dfa {
+    
+    /** The scan could not decide, the node engine has to be used */
+    static final int UNKNOWN = -2;      // DFA无法给出结论，需要回退到节点引擎
+    /** There is no match */
+    static final int NO_MATCH = -1;     // 不存在匹配
+    /** There is a whole match, but the node engine has to run to describe how the end was reached */
+    static final int MATCH_UNSETTLED = -3;  // 存在完全匹配，但hitEnd与requireEnd需要由节点引擎给出
+    
+    /** Maximal number of NFA states, larger patterns stay on the node engine */
+    static final int MAX_NFA_STATES = 4096;     // NFA状态数量上限
+    
+    /** Maximal number of cached DFA states */
+    static final int MAX_STATES = 1024;         // 缓存的DFA状态数量上限
+    
+    /** Transitions on characters below this value are cached in the states */
+    private static final int TABLE_SIZE = 128;  // 缓存跳转的字符范围
+    
+    // NFA状态类型
+    private static final int CHAR = 0;      // 消耗一个满足谓词的字符
+    private static final int SPLIT = 1;     // 空转移到out1与out2
+    private static final int MATCH = 2;     // 匹配成功
+    private static final int BEGIN = 3;     // 仅在检索范围起点处成立的空转移
+    private static final int END = 4;       // 仅在检索范围终点处成立的匹配（\z）
+    private static final int DOLLAR = 5;    // 仅在终点或末尾行结束符之前成立的匹配（非多行模式的$）
+    
+    // DFA状态的接受条件
+    private static final int ACCEPT = 1;            // 无条件接受
+    private static final int ACCEPT_END = 2;        // 处于检索范围终点时接受
+    private static final int ACCEPT_DOLLAR = 4;     // 满足非多行模式的$时接受
+    private static final int DEAD = 8;              // 不存在可以继续消耗字符的NFA状态
+    
+    // NFA
+    private int[] op = new int[16];
+    private int[] out1 = new int[16];
+    private int[] out2 = new int[16];
+    private Pattern.CharPredicate[] predicates = new Pattern.CharPredicate[16];
+    private int size;
+    
+    private int start;      // NFA起始状态
+    private boolean begin;  // 节点树是否以Begin开头，此时查找操作不会经过Start节点
+    
+    /**
+     * Nesting level of quantifiers while translating the node tree.  The node
+     * engine leaves a loop after an iteration that matched the empty string,
+     * which differs from the regular language when the emptiness depends on
+     * the position, so {@code ^} is not supported inside quantifiers.
+     */
+    private int repeats;
+    
+    /**
+     * Nesting level of quantifiers that may repeat their atom more than once.
+     * Alternations and quantifiers inside such a quantifier can make the node
+     * engine backtrack exponentially.
+     */
+    private int loops;
+    private int ambiguities;    // 嵌套在loops中的分支与量词的数量
+    
+    /**
+     * Whether anchored matches are scanned too.  A successful anchored match
+     * runs both the automaton and the node engine, which only pays off when
+     * the node engine may backtrack excessively.
+     */
+    private boolean anchored;
+    
+    /** Targets of BranchConn and Loop nodes while translating the node tree */
+    private final IdentityHashMap<Pattern.Node, Integer> links = new IdentityHashMap<>();
+    
+    /** Cache of the DFA states */
+    private final ConcurrentHashMap<State, State> states = new ConcurrentHashMap<>();
+    
+    /** Start states, indexed by {@code (unanchored ? 2 : 0) | (atFrom ? 1 : 0)} */
+    private final State[] starts = new State[4];
+    
+    /** Set once the state cache is full */
+    private volatile boolean exhausted;
+    
+    private Dfa() {
+    }
+    
+    /**
+     * Builds the automaton of the given node tree.
+     *
+     * @param matchRoot the root of the node tree of an anchored match
+     *
+     * @return the automaton, or {@code null} if the tree contains nodes
+     * outside of the regular subset
+     */
+    // 为节点树构造DFA，如果节点树中含有不被支持的节点，则返回null
+    static Dfa compile(Pattern.Node matchRoot) {
+        // 纯文本的正则交给BnM等现有的优化即可
+        if(matchRoot instanceof Pattern.SliceNode && matchRoot.next == Pattern.lastAccept) {
+            return null;
+        }
+        
+        Dfa dfa = new Dfa();
+        int match = dfa.newState(MATCH, -1, -1, null);
+        int start = dfa.compile(matchRoot, match);
+        if(start<0 || !dfa.checkAssertions()) {
+            return null;
+        }
+        dfa.start = start;
+        dfa.begin = matchRoot instanceof Pattern.Begin;
+        dfa.anchored = dfa.ambiguities>0;
+        dfa.links.clear();
+        
+        return dfa;
+    }
+    
+    /**
+     * Returns the start of the leftmost match at or after {@code from}, in
+     * the region of the given matcher.
+     *
+     * @return the start of the match, {@link #NO_MATCH} or {@link #UNKNOWN}
+     */
+    // 从from处开始查找最左侧匹配的起点
+    int find(Matcher matcher, int from) {
+        if(exhausted) {
+            return UNKNOWN;
+        }
+        
+        CharSequence seq = matcher.text;
+        int to = matcher.to;
+        
+        // 非锚定扫描：判断是否存在匹配，并找出最早的匹配终点
+        State state = startState(true, from == matcher.from);
+        // 只有在任何位置都无法开始新的匹配时（例如以^开头的正则），非锚定扫描才会提前结束
+        State restart = startState(true, false);
+        if(state == null || restart == null) {
+            return UNKNOWN;
+        }
+        boolean restartDead = restart.isDead() && restart.accept == 0;
+        int p = from;
+        for(; ; p++) {
+            if(state.flags != 0) {
+                if(state.accepts(seq, p, to)) {
+                    break;
+                }
+                // 与Start节点一样，查找失败时总是认为到达了终点
+                if(state.isDead() && restartDead) {
+                    matcher.hitEnd = !begin;
+                    return NO_MATCH;
+                }
+            }
+            if(p >= to) {
+                matcher.hitEnd = true;
+                return NO_MATCH;
+            }
+            char c = seq.charAt(p);
+            State next = c<TABLE_SIZE ? state.next[c] : null;
+            if(next == null && (next = step(state, c)) == null) {
+                return UNKNOWN;
+            }
+            state = next;
+        }
+        
+        // 最左侧匹配的起点不会晚于最早的匹配终点，逐个尝试该范围内的起点
+        for(int i = from; i<=p; i++) {
+            int r = scan(matcher, i, false);
+            if(r != NO_MATCH) {
+                return r;
+            }
+        }
+        
+        return UNKNOWN;
+    }
+    
+    /**
+     * Tests whether a match starts at {@code from}, in the region of the
+     * given matcher.
+     *
+     * @param whole whether the match has to extend to the end of the region
+     *
+     * @return {@code from} if there is a match, {@link #MATCH_UNSETTLED},
+     * {@link #NO_MATCH} or {@link #UNKNOWN}, which is always returned for
+     * patterns the node engine matches without excessive backtracking
+     */
+    // 判断是否存在起点为from的匹配，whole指示是否需要匹配到检索范围的终点
+    int match(Matcher matcher, int from, boolean whole) {
+        // 节点引擎不会过度回溯时，直接使用节点引擎更快
+        if(!anchored || exhausted) {
+            return UNKNOWN;
+        }
+        
+        return scan(matcher, from, whole);
+    }
+    
+    /**
+     * Anchored scan starting at {@code from}.  Sets {@link Matcher#hitEnd}
+     * if a failing scan reached the end of the region.  A whole match is
+     * reported as {@link #MATCH_UNSETTLED} unless no character could extend
+     * it and it does not depend on {@code $} or {@code \z}, because only then
+     * both {@link Matcher#hitEnd} and {@link Matcher#requireEnd} are known to
+     * be {@code false} without running the node engine.
+     */
+    // 从from处开始的锚定扫描
+    private int scan(Matcher matcher, int from, boolean whole) {
+        CharSequence seq = matcher.text;
+        int to = matcher.to;
+        
+        State state = startState(false, from == matcher.from);
+        if(state == null) {
+            return UNKNOWN;
+        }
+        boolean dollar = false;     // 完全匹配时，是否经过了末尾行结束符之前的$
+        for(int p = from; p<to; p++) {
+            if(state.flags != 0) {
+                if(!whole) {
+                    if(state.accepts(seq, p, to)) {
+                        return from;
+                    }
+                } else if((state.accept & ACCEPT_DOLLAR) != 0 && State.isDollar(seq, p, to)) {
+                    // 与Dollar节点一样，在末尾行结束符之前满足$时也认为到达了终点
+                    dollar = true;
+                }
+                if(state.isDead()) {
+                    if(dollar) {
+                        // 与Dollar节点一样，满足$的位置在末尾，更多的输入可能使其不再成立
+                        matcher.hitEnd = true;
+                        matcher.requireEnd = true;
+                    }
+                    return NO_MATCH;
+                }
+            }
+            char c = seq.charAt(p);
+            State next = c<TABLE_SIZE ? state.next[c] : null;
+            if(next == null && (next = step(state, c)) == null) {
+                return UNKNOWN;
+            }
+            state = next;
+        }
+        
+        // 到达检索范围终点时，$与\z均成立
+        if(state.accept != 0) {
+            return (whole && (dollar || !state.isDead() || state.accept != ACCEPT)) ? MATCH_UNSETTLED : from;
+        }
+        if(dollar || !state.isDead()) {
+            matcher.hitEnd = true;
+        }
+        if(dollar) {
+            matcher.requireEnd = true;
+        }
+        
+        return NO_MATCH;
+    }
+    
+    
+    
+    /*▼ 构造NFA ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /**
+     * Translates the nodes starting at {@code node} into NFA states.
+     *
+     * @param node   the first node
+     * @param accept the state reached when {@link Pattern#accept} is met,
+     *               that is at the end of a quantified atom
+     *
+     * @return the first state, or -1 if a node is not supported
+     */
+    // 将node开始的节点链翻译为NFA，accept是遇到Pattern.accept（被量词修饰的原子的结尾）时的后续状态
+    private int compile(Pattern.Node node, int accept) {
+        if(node == Pattern.accept) {
+            return accept;
+        }
+        
+        if(node instanceof Pattern.LastNode) {
+            return 0;
+        }
+        
+        if(node instanceof Pattern.GroupHead || node instanceof Pattern.GroupTail) {
+            return compile(node.next, accept);
+        }
+        
+        if(node instanceof Pattern.BranchConn || node instanceof Pattern.Loop) {
+            Integer target = links.get(node);
+            return target == null ? -1 : target;
+        }
+        
+        if(node instanceof Pattern.CharProperty) {
+            int next = compile(node.next, accept);
+            return next<0 ? -1 : newState(CHAR, next, -1, ((Pattern.CharProperty) node).predicate);
+        }
+        
+        if(node instanceof Pattern.SliceNode) {
+            int next = compile(node.next, accept);
+            int[] buf = ((Pattern.SliceNode) node).buffer;
+            for(int j = buf.length - 1; next >= 0 && j >= 0; j--) {
+                next = newState(CHAR, next, -1, slicePredicate((Pattern.SliceNode) node, buf[j]));
+            }
+            return next;
+        }
+        
+        if(node instanceof Pattern.CharPropertyGreedy) {
+            Pattern.CharPropertyGreedy greedy = (Pattern.CharPropertyGreedy) node;
+            ambiguous();
+            int next = compile(node.next, accept);
+            if(next<0) {
+                return -1;
+            }
+            int loop = newState(SPLIT, -1, next, null);
+            int body = newState(CHAR, loop, -1, greedy.predicate);
+            if(body<0) {
+                return -1;
+            }
+            out1[loop] = body;
+            return greedy.cmin == 0 ? loop : newState(CHAR, loop, -1, greedy.predicate);
+        }
+        
+        if(node instanceof Pattern.Branch) {
+            Pattern.Branch branch = (Pattern.Branch) node;
+            ambiguous();
+            int next = compile(branch.conn.next, accept);
+            if(next<0) {
+                return -1;
+            }
+            links.put(branch.conn, next);
+            int state = -1;
+            for(int n = branch.size - 1; n >= 0; n--) {
+                int alt = branch.atoms[n] == null ? next : compile(branch.atoms[n], accept);
+                if(alt<0) {
+                    return -1;
+                }
+                state = state<0 ? alt : newState(SPLIT, alt, state, null);
+            }
+            return state;
+        }
+        
+        if(node instanceof Pattern.Ques) {
+            Pattern.Ques ques = (Pattern.Ques) node;
+            if(!isBacktracking(ques.type)) {
+                return -1;
+            }
+            return repeat(ques.atom, null, 0, 1, node.next, accept);
+        }
+        
+        if(node instanceof Pattern.Curly) {
+            Pattern.Curly curly = (Pattern.Curly) node;
+            if(!isBacktracking(curly.type)) {
+                return -1;
+            }
+            return repeat(curly.atom, null, curly.cmin, curly.cmax, node.next, accept);
+        }
+        
+        if(node instanceof Pattern.GroupCurly) {
+            Pattern.GroupCurly curly = (Pattern.GroupCurly) node;
+            if(!isBacktracking(curly.type)) {
+                return -1;
+            }
+            return repeat(curly.atom, null, curly.cmin, curly.cmax, node.next, accept);
+        }
+        
+        if(node instanceof Pattern.Prolog) {
+            Pattern.Loop loop = ((Pattern.Prolog) node).loop;
+            return repeat(loop.body, loop, loop.cmin, loop.cmax, loop.next, accept);
+        }
+        
+        if(node instanceof Pattern.Begin) {
+            if(repeats>0) {
+                return -1;
+            }
+            int next = compile(node.next, accept);
+            return next<0 ? -1 : newState(BEGIN, next, -1, null);
+        }
+        
+        if(node instanceof Pattern.End) {
+            int next = compile(node.next, accept);
+            return next<0 ? -1 : newState(END, next, -1, null);
+        }
+        
+        if(node instanceof Pattern.Dollar && !((Pattern.Dollar) node).multiline) {
+            int next = compile(node.next, accept);
+            return next<0 ? -1 : newState(DOLLAR, next, -1, null);
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Translates {@code body{cmin,cmax}} followed by {@code next}.  The body
+     * either ends with {@link Pattern#accept}, or with {@code loop} when it is
+     * the body of a {@link Pattern.Loop}.
+     */
+    // 翻译重复cmin到cmax次的原子，重复次数有上限时展开每一次重复
+    private int repeat(Pattern.Node body, Pattern.Loop loop, int cmin, int cmax, Pattern.Node next, int accept) {
+        int rest = compile(next, accept);
+        if(rest<0) {
+            return -1;
+        }
+        ambiguous();
+        
+        int state = rest;
+        if(cmax == Pattern.MAX_REPS) {
+            int split = newState(SPLIT, -1, rest, null);
+            int atom = compileBody(body, loop, split, accept, true);
+            if(atom<0) {
+                return -1;
+            }
+            out1[split] = atom;
+            state = split;
+        } else {
+            for(int j = cmin; j<cmax; j++) {
+                int atom = compileBody(body, loop, state, accept, cmax>1);
+                if(atom<0) {
+                    return -1;
+                }
+                state = newState(SPLIT, atom, rest, null);
+            }
+        }
+        
+        for(int j = 0; state >= 0 && j<cmin; j++) {
+            state = compileBody(body, loop, state, accept, cmax>1);
+        }
+        
+        return state;
+    }
+    
+    // 翻译一次重复，其结尾跳转到next
+    private int compileBody(Pattern.Node body, Pattern.Loop loop, int next, int accept, boolean loops) {
+        if(size >= MAX_NFA_STATES) {
+            return -1;
+        }
+        repeats++;
+        if(loops) {
+            this.loops++;
+        }
+        try {
+            if(loop == null) {
+                return compile(body, next);
+            }
+            links.put(loop, next);
+            return compile(body, accept);
+        } finally {
+            repeats--;
+            if(loops) {
+                this.loops--;
+            }
+        }
+    }
+    
+    // 记录可能引起节点引擎大量回溯的结构
+    private void ambiguous() {
+        if(loops>0) {
+            ambiguities++;
+        }
+    }
+    
+    private int newState(int type, int o1, int o2, Pattern.CharPredicate predicate) {
+        if(size >= MAX_NFA_STATES) {
+            return -1;
+        }
+        if(size == op.length) {
+            int n = size << 1;
+            op = Arrays.copyOf(op, n);
+            out1 = Arrays.copyOf(out1, n);
+            out2 = Arrays.copyOf(out2, n);
+            predicates = Arrays.copyOf(predicates, n);
+        }
+        op[size] = type;
+        out1[size] = o1;
+        out2[size] = o2;
+        predicates[size] = predicate;
+        return size++;
+    }
+    
+    /**
+     * Anchors at the end only accept when nothing but the end of the pattern
+     * follows them; an anchor that can be followed by more characters, like
+     * in {@code "a$\n"}, keeps the pattern on the node engine.
+     */
+    // 要求$与\z之后不再消耗字符，并记录其后能否直接到达匹配状态
+    private boolean checkAssertions() {
+        for(int s = 0; s<size; s++) {
+            if(op[s] != END && op[s] != DOLLAR) {
+                continue;
+            }
+            boolean[] seen = new boolean[size];
+            int[] stack = new int[size * 2 + 1];
+            int sp = 0;
+            boolean match = false;
+            stack[sp++] = out1[s];
+            while(sp>0) {
+                int t = stack[--sp];
+                if(seen[t]) {
+                    continue;
+                }
+                seen[t] = true;
+                switch(op[t]) {
+                    case SPLIT:
+                        stack[sp++] = out1[t];
+                        stack[sp++] = out2[t];
+                        break;
+                    case MATCH:
+                        match = true;
+                        break;
+                    default:
+                        return false;
+                }
+            }
+            // 借用out2记录该断言之后能否到达匹配状态
+            out2[s] = match ? 1 : 0;
+        }
+        return true;
+    }
+    
+    private static boolean isBacktracking(Pattern.Qtype type) {
+        return type == Pattern.Qtype.GREEDY || type == Pattern.Qtype.LAZY;
+    }
+    
+    // 返回与切片中单个字符的比较方式相同的谓词
+    private static Pattern.CharPredicate slicePredicate(Pattern.SliceNode slice, int b) {
+        if(slice instanceof Pattern.SliceI) {
+            return c -> c == b || ASCII.toLower(c) == b;
+        }
+        if(slice instanceof Pattern.SliceU) {
+            return c -> c == b || Character.toLowerCase(Character.toUpperCase(c)) == b;
+        }
+        if(slice instanceof Pattern.SliceIS) {
+            Pattern.SliceIS s = (Pattern.SliceIS) slice;
+            return c -> c == b || s.toLower(c) == b;
+        }
+        return c -> c == b;
+    }
+    
+    /*▲ 构造NFA ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 构造DFA ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    // 返回起始状态，unanchored指示匹配能否从任意位置开始，atFrom指示当前是否位于检索范围起点
+    private State startState(boolean unanchored, boolean atFrom) {
+        int index = (unanchored ? 2 : 0) | (atFrom ? 1 : 0);
+        State state = starts[index];
+        if(state == null) {
+            int[] stack = new int[size * 2 + 1];
+            stack[0] = start;
+            state = closure(stack, 1, unanchored, atFrom);
+            starts[index] = state;
+        }
+        return state;
+    }
+    
+    // 返回state读取字符c后的状态，遇到代理字符或状态缓存已满时返回null
+    private State step(State state, char c) {
+        State next = c<TABLE_SIZE ? state.next[c] : null;
+        if(next != null) {
+            return next;
+        }
+        if(Character.isSurrogate(c)) {
+            return null;
+        }
+        
+        int[] threads = state.threads;
+        int[] stack = new int[size * 3 + 2];
+        int sp = 0;
+        // 非锚定的匹配可以从任意位置开始
+        if(state.unanchored) {
+            stack[sp++] = start;
+        }
+        for(int t : threads) {
+            if(predicates[t].is(c)) {
+                stack[sp++] = out1[t];
+            }
+        }
+        next = closure(stack, sp, state.unanchored, false);
+        if(next != null && c<TABLE_SIZE) {
+            state.next[c] = next;
+        }
+        return next;
+    }
+    
+    // 计算stack中各NFA状态的空转移闭包，并返回对应的DFA状态
+    private State closure(int[] stack, int sp, boolean unanchored, boolean atFrom) {
+        boolean[] seen = new boolean[size];
+        int[] found = new int[size];
+        int n = 0;
+        int accept = 0;
+        while(sp>0) {
+            int s = stack[--sp];
+            if(seen[s]) {
+                continue;
+            }
+            seen[s] = true;
+            switch(op[s]) {
+                case CHAR:
+                    found[n++] = s;
+                    break;
+                case SPLIT:
+                    stack[sp++] = out2[s];
+                    stack[sp++] = out1[s];
+                    break;
+                case BEGIN:
+                    if(atFrom) {
+                        stack[sp++] = out1[s];
+                    }
+                    break;
+                case MATCH:
+                    accept |= ACCEPT;
+                    break;
+                case END:
+                    if(out2[s] != 0) {
+                        accept |= ACCEPT_END;
+                    }
+                    break;
+                case DOLLAR:
+                    if(out2[s] != 0) {
+                        accept |= ACCEPT_DOLLAR;
+                    }
+                    break;
+            }
+        }
+        Arrays.sort(found, 0, n);
+        
+        State state = new State(Arrays.copyOf(found, n), unanchored, accept);
+        State cached = states.get(state);
+        if(cached != null) {
+            return cached;
+        }
+        if(states.size() >= MAX_STATES) {
+            exhausted = true;
+            return null;
+        }
+        cached = states.putIfAbsent(state, state);
+        return cached == null ? state : cached;
+    }
+    
+    /*▲ 构造DFA ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /**
+     * A DFA state: the set of NFA character states reached by the input read
+     * so far, together with the conditions under which the state accepts.
+     */
+    // DFA状态
+    private static final class State {
+        final int[] threads;        // 当前存活的NFA字符状态
+        final boolean unanchored;   // 是否为非锚定扫描的状态
+        final int accept;           // 接受条件
+        final int flags;            // 接受条件，以及是否为死状态，为0时扫描可以直接读取下一个字符
+        final int hash;
+        
+        /** Cached transitions on characters below {@link #TABLE_SIZE} */
+        final State[] next = new State[TABLE_SIZE];
+        
+        State(int[] threads, boolean unanchored, int accept) {
+            this.threads = threads;
+            this.unanchored = unanchored;
+            this.accept = accept;
+            this.flags = threads.length == 0 ? accept | DEAD : accept;
+            this.hash = (Arrays.hashCode(threads) * 31 + accept) * 2 + (unanchored ? 1 : 0);
+        }
+        
+        // 不存在可以继续消耗字符的NFA状态
+        boolean isDead() {
+            return (flags & DEAD) != 0;
+        }
+        
+        // 判断该状态在位置i处是否接受
+        boolean accepts(CharSequence seq, int i, int to) {
+            int a = accept;
+            if(a == 0) {
+                return false;
+            }
+            if((a & ACCEPT) != 0 || ((a & ACCEPT_END) != 0 && i == to)) {
+                return true;
+            }
+            return (a & ACCEPT_DOLLAR) != 0 && isDollar(seq, i, to);
+        }
+        
+        // 非多行模式的$：位于终点，或者之后只剩一个行结束符
+        static boolean isDollar(CharSequence seq, int i, int to) {
+            if(i == to) {
+                return true;
+            }
+            if(i == to - 2) {
+                return seq.charAt(i) == '\r' && seq.charAt(i + 1) == '\n';
+            }
+            if(i == to - 1) {
+                char ch = seq.charAt(i);
+                if(ch == '\n') {
+                    return i == 0 || seq.charAt(i - 1) != '\r';
+                }
+                return ch == '\r' || ch == '\u0085' || (ch | 1) == '\u2029';
+            }
+            return false;
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if(!(obj instanceof State)) {
+                return false;
+            }
+            State that = (State) obj;
+            return hash == that.hash && accept == that.accept && unanchored == that.unanchored && Arrays.equals(threads, that.threads);
+        }
+    }
+}
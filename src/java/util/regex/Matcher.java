@@ -25,6 +25,8 @@
 
 package java.util.regex;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
@@ -153,6 +155,12 @@ public final class Matcher implements MatchResult {
      */
     CharSequence text;
     
+    /**
+     * The reusable view of byte input, created on the first reset onto bytes.
+     * It is the text while matching bytes.
+     */
+    ByteSequence bytes;
+    
     /**
      * The range of string that last matched the pattern. If the last
      * match failed then first is -1; last initially holds 0 then it
@@ -840,6 +848,86 @@ public final class Matcher implements MatchResult {
         return groups[getMatchedGroupIndex(name) * 2 + 1];
     }
     
+    /**
+     * Returns the index, in the byte array or buffer this matcher was reset
+     * onto, of the first byte of the previous match.
+     *
+     * @return The index of the first byte matched
+     *
+     * @throws IllegalStateException If the input is not a byte array or
+     *                               buffer, if no match has yet been attempted,
+     *                               or if the previous match operation failed
+     * @see #reset(byte[], int, int, Charset)
+     * @see #reset(ByteBuffer, Charset)
+     * @since 11
+     */
+    // 获取上次匹配到的文本起点（包含）在字节输入中的索引
+    public int byteStart() {
+        return byteStart(0);
+    }
+    
+    /**
+     * Returns the index, in the byte array or buffer this matcher was reset
+     * onto, of the byte following the previous match.
+     *
+     * @return The index after the last byte matched
+     *
+     * @throws IllegalStateException If the input is not a byte array or
+     *                               buffer, if no match has yet been attempted,
+     *                               or if the previous match operation failed
+     * @since 11
+     */
+    // 获取上次匹配到的文本终点（不包含）在字节输入中的索引
+    public int byteEnd() {
+        return byteEnd(0);
+    }
+    
+    /**
+     * Returns the index, in the byte array or buffer this matcher was reset
+     * onto, of the first byte captured by the given group during the previous
+     * match operation.
+     *
+     * @param group The index of a capturing group in this matcher's pattern
+     *
+     * @return The index of the first byte captured by the group,
+     * or {@code -1} if the match was successful but the group
+     * itself did not match anything
+     *
+     * @throws IllegalStateException     If the input is not a byte array or
+     *                                   buffer, if no match has yet been attempted,
+     *                                   or if the previous match operation failed
+     * @throws IndexOutOfBoundsException If there is no capturing group in the pattern
+     *                                   with the given index
+     * @since 11
+     */
+    // 获取group捕获组中上次匹配到的文本起点（包含）在字节输入中的索引
+    public int byteStart(int group) {
+        return byteOffset(start(group));
+    }
+    
+    /**
+     * Returns the index, in the byte array or buffer this matcher was reset
+     * onto, of the byte following the last byte captured by the given group
+     * during the previous match operation.
+     *
+     * @param group The index of a capturing group in this matcher's pattern
+     *
+     * @return The index after the last byte captured by the group,
+     * or {@code -1} if the match was successful
+     * but the group itself did not match anything
+     *
+     * @throws IllegalStateException     If the input is not a byte array or
+     *                                   buffer, if no match has yet been attempted,
+     *                                   or if the previous match operation failed
+     * @throws IndexOutOfBoundsException If there is no capturing group in the pattern
+     *                                   with the given index
+     * @since 11
+     */
+    // 获取group捕获组中上次匹配到的文本终点（不包含）在字节输入中的索引
+    public int byteEnd(int group) {
+        return byteOffset(end(group));
+    }
+    
     /*▲ 匹配 ████████████████████████████████████████████████████████████████████████████████┛ */
     
     
@@ -1609,6 +1697,68 @@ public final class Matcher implements MatchResult {
         return reset();
     }
     
+    /**
+     * Resets this matcher with a new input of bytes, matched as characters of
+     * the given charset without being decoded into a string.
+     *
+     * <p> ISO-8859-1 bytes, and UTF-8 bytes that are all ASCII, are read in
+     * place, one character per byte.  Other UTF-8 input is decoded into
+     * storage owned by this matcher, which is reused by later resets, so
+     * that resetting a matcher onto new input of at most the same size does
+     * not allocate.  Malformed UTF-8 sequences are read as one {@code U+FFFD}
+     * per malformed byte.  Indices reported by {@link #start()}, {@link
+     * #end()} and related methods count characters from {@code offset}, while
+     * {@link #byteStart()}, {@link #byteEnd()} and related methods report
+     * indices into {@code input}.  The bytes must not be modified while this
+     * matcher uses them.
+     *
+     * @param input   The new input bytes
+     * @param offset  The index of the first byte to match
+     * @param length  The number of bytes to match
+     * @param charset The charset of the bytes, either
+     *                {@link java.nio.charset.StandardCharsets#ISO_8859_1} or
+     *                {@link java.nio.charset.StandardCharsets#UTF_8}
+     *
+     * @return This matcher
+     *
+     * @throws IndexOutOfBoundsException If {@code offset} and {@code length}
+     *                                   do not denote a range of {@code input}
+     * @throws IllegalArgumentException  If the charset is not supported
+     * @since 11
+     */
+    // 除了发挥reset()的作用之外，还会将待检索文本更换为以charset编码的字节input[offset, offset+length)
+    public Matcher reset(byte[] input, int offset, int length, Charset charset) {
+        Objects.checkFromIndexSize(offset, length, input.length);
+        byteSequence().reset(input, offset, length, charset);
+        text = bytes;
+        return reset();
+    }
+    
+    /**
+     * Resets this matcher with the remaining bytes of the given buffer,
+     * matched as characters of the given charset without being decoded into
+     * a string.  The position of the buffer is not changed, and indices
+     * reported by {@link #byteStart()}, {@link #byteEnd()} and related
+     * methods are absolute indices into the buffer.  Otherwise this method
+     * behaves like {@link #reset(byte[], int, int, Charset)}.
+     *
+     * @param input   The buffer holding the new input bytes
+     * @param charset The charset of the bytes, either
+     *                {@link java.nio.charset.StandardCharsets#ISO_8859_1} or
+     *                {@link java.nio.charset.StandardCharsets#UTF_8}
+     *
+     * @return This matcher
+     *
+     * @throws IllegalArgumentException If the charset is not supported
+     * @since 11
+     */
+    // 除了发挥reset()的作用之外，还会将待检索文本更换为以charset编码的缓冲区input中剩余的字节
+    public Matcher reset(ByteBuffer input, Charset charset) {
+        byteSequence().reset(input, charset);
+        text = bytes;
+        return reset();
+    }
+    
     /*▲ 重置 ████████████████████████████████████████████████████████████████████████████████┛ */
     
     
@@ -1719,7 +1869,24 @@ public final class Matcher implements MatchResult {
             }
         }
         acceptMode = NOANCHOR;
-        boolean result = parentPattern.root.match(this, from, text);
+        boolean result;
+        // 先由DFA找出最左侧匹配的起点，再在该起点处运行节点引擎
+        Dfa dfa = parentPattern.dfa;
+        int start = (dfa != null && anchoringBounds) ? dfa.find(this, from) : Dfa.UNKNOWN;
+        if(start == Dfa.NO_MATCH) {
+            result = false;
+        } else {
+            result = start >= 0 && parentPattern.matchRoot.match(this, start, text);
+            if(result) {
+                this.first = start;
+                groups[0] = this.first;
+                groups[1] = this.last;
+            } else {
+                this.hitEnd = false;
+                this.requireEnd = false;
+                result = parentPattern.root.match(this, from, text);
+            }
+        }
         if(!result) {
             this.first = -1;
         }
@@ -1747,7 +1914,22 @@ public final class Matcher implements MatchResult {
             }
         }
         acceptMode = anchor;
-        boolean result = parentPattern.matchRoot.match(this, from, text);
+        boolean result;
+        // 先由DFA判断是否存在匹配，没有分组需要捕获时，完全匹配的结果可以直接确定
+        Dfa dfa = parentPattern.dfa;
+        int start = (dfa != null && anchoringBounds) ? dfa.match(this, from, anchor == ENDANCHOR) : Dfa.UNKNOWN;
+        if(start == Dfa.NO_MATCH) {
+            result = false;
+        } else if(start >= 0 && anchor == ENDANCHOR && parentPattern.capturingGroupCount == 1) {
+            this.last = to;
+            groups[0] = from;
+            groups[1] = to;
+            result = true;
+        } else {
+            this.hitEnd = false;
+            this.requireEnd = false;
+            result = parentPattern.matchRoot.match(this, from, text);
+        }
         if(!result) {
             this.first = -1;
         }
@@ -1777,6 +1959,54 @@ public final class Matcher implements MatchResult {
         return text.subSequence(beginIndex, endIndex);
     }
     
+    /*
+     * 将线程缓存的Matcher关联到pattern（见Pattern.localMatcher()）
+     * 与usePattern()不同，状态数组的容量足够时不会重新分配
+     */
+    void attach(Pattern pattern) {
+        parentPattern = pattern;
+        int groupCount = Math.max(pattern.capturingGroupCount, 10) * 2;
+        if(groups.length<groupCount) {
+            groups = new int[groupCount];
+        }
+        if(locals.length<pattern.localCount) {
+            locals = new int[pattern.localCount];
+        }
+        if(localsPos.length<pattern.localTCNCount) {
+            localsPos = new IntHashSet[pattern.localTCNCount];
+        }
+        modCount++;
+    }
+    
+    /*
+     * 解除线程缓存的Matcher与Pattern及待匹配文本的关联，使它们不再被线程引用（见Pattern.releaseLocalMatcher()）
+     * 解除关联后，在重新关联之前不能使用该Matcher
+     */
+    void detach() {
+        parentPattern = null;
+        text = "";
+        if(bytes != null) {
+            bytes.clear();
+        }
+        modCount++;
+    }
+    
+    // 返回字节输入的视图，首次使用时创建
+    private ByteSequence byteSequence() {
+        if(bytes == null) {
+            bytes = new ByteSequence();
+        }
+        return bytes;
+    }
+    
+    // 将字符索引转换为字节输入中的索引
+    private int byteOffset(int index) {
+        if(text != bytes || bytes == null) {
+            throw new IllegalStateException("Input is not a byte array or buffer");
+        }
+        return index<0 ? -1 : bytes.byteOffset(index);
+    }
+    
     /**
      * Returns this matcher's input character at index i.
      *
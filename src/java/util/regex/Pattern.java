@@ -26,6 +26,8 @@
 package java.util.regex;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.text.Normalizer;
 import java.text.Normalizer.Form;
 import java.util.ArrayList;
@@ -942,6 +944,15 @@ public final class Pattern implements Serializable {
     
     static final Node lastAccept = new LastNode();
     
+    /**
+     * The matcher cached for each thread by {@link #localMatcher()}, shared
+     * by all patterns.  It refers to the last pattern used on the thread
+     * until {@link #releaseLocalMatcher()} detaches it, so the thread never
+     * keeps more than one pattern reachable.
+     */
+    // 每个线程缓存的Matcher，由所有Pattern共享
+    private static final ThreadLocal<Matcher> LOCAL_MATCHER = new ThreadLocal<>();
+    
     /**
      * For use with lookbehinds; matches the position where the lookbehind
      * was encountered.
@@ -971,6 +982,13 @@ public final class Pattern implements Serializable {
      */
     transient Node matchRoot;
     
+    /**
+     * The lazily built automaton that decides whether, and where, a match
+     * starts before the object tree is run, or {@code null} if this pattern
+     * uses constructs outside of the regular subset.
+     */
+    transient Dfa dfa;
+    
     /**
      * Temporary storage used by parsing pattern slice.
      */
@@ -1199,6 +1217,105 @@ public final class Pattern implements Serializable {
         return new Matcher(this, input);
     }
     
+    /**
+     * Creates a matcher that will match the given bytes, as characters of the
+     * given charset, against this pattern without decoding them into a
+     * string.
+     *
+     * @param input   The bytes to be matched
+     * @param offset  The index of the first byte to match
+     * @param length  The number of bytes to match
+     * @param charset The charset of the bytes, either
+     *                {@link java.nio.charset.StandardCharsets#ISO_8859_1} or
+     *                {@link java.nio.charset.StandardCharsets#UTF_8}
+     *
+     * @return A new matcher for this pattern
+     *
+     * @throws IndexOutOfBoundsException If {@code offset} and {@code length}
+     *                                   do not denote a range of {@code input}
+     * @throws IllegalArgumentException  If the charset is not supported
+     * @see Matcher#reset(byte[], int, int, Charset)
+     * @since 11
+     */
+    // 利用当前Pattern中的正则表达式创建Matcher，待匹配文本是以charset编码的字节input[offset, offset+length)
+    public Matcher matcher(byte[] input, int offset, int length, Charset charset) {
+        return matcher("").reset(input, offset, length, charset);
+    }
+    
+    /**
+     * Creates a matcher that will match the remaining bytes of the given
+     * buffer, as characters of the given charset, against this pattern
+     * without decoding them into a string.
+     *
+     * @param input   The buffer holding the bytes to be matched
+     * @param charset The charset of the bytes, either
+     *                {@link java.nio.charset.StandardCharsets#ISO_8859_1} or
+     *                {@link java.nio.charset.StandardCharsets#UTF_8}
+     *
+     * @return A new matcher for this pattern
+     *
+     * @throws IllegalArgumentException If the charset is not supported
+     * @see Matcher#reset(ByteBuffer, Charset)
+     * @since 11
+     */
+    // 利用当前Pattern中的正则表达式创建Matcher，待匹配文本是以charset编码的缓冲区input中剩余的字节
+    public Matcher matcher(ByteBuffer input, Charset charset) {
+        return matcher("").reset(input, charset);
+    }
+    
+    /**
+     * Returns a matcher of this pattern that is confined to the calling
+     * thread, reset onto an empty input with default region bounds.
+     *
+     * <p> The same matcher is returned by every invocation on the same
+     * thread, which then resets it onto its input with one of the {@code
+     * reset} methods of {@link Matcher}.  Together with {@link
+     * Matcher#reset(byte[], int, int, Charset)} this allows to match a stream
+     * of inputs without allocating a matcher, or its state, for each of them.
+     * The matcher is shared by all patterns on the thread, so it must
+     * neither be passed to other threads nor be used after the next
+     * invocation of this method, on any pattern, on the same thread, nor
+     * after {@link #releaseLocalMatcher()}.
+     *
+     * @return The matcher of this pattern for the calling thread
+     *
+     * @since 11
+     */
+    // 返回当前线程缓存的Matcher（所有Pattern共享），其待匹配文本被重置为空串，检索范围的边界为默认值
+    public Matcher localMatcher() {
+        Matcher matcher = LOCAL_MATCHER.get();
+        if(matcher == null) {
+            matcher = matcher("");
+            LOCAL_MATCHER.set(matcher);
+        } else {
+            // 上一次使用时可能关联了其它Pattern，或更换过边界
+            if(matcher.parentPattern != this) {
+                matcher.attach(this);
+            }
+            matcher.useTransparentBounds(false).useAnchoringBounds(true).reset("");
+        }
+        
+        return matcher;
+    }
+    
+    /**
+     * Releases the matcher returned by {@link #localMatcher()} on the calling
+     * thread, so that it no longer refers to its pattern and its input, and
+     * neither is kept reachable by the thread.  The matcher itself, and the
+     * storage it has grown, stay cached for the next invocation of {@code
+     * localMatcher}; it must not be used until then.  Does nothing if the
+     * calling thread has no cached matcher.
+     *
+     * @since 11
+     */
+    // 交还当前线程缓存的Matcher，解除其与Pattern及待匹配文本的关联，Matcher本身仍被缓存以待复用
+    public static void releaseLocalMatcher() {
+        Matcher matcher = LOCAL_MATCHER.get();
+        if(matcher != null) {
+            matcher.detach();
+        }
+    }
+    
     /**
      * Compiles the given regular expression and attempts to match the given
      * input against it.
@@ -2190,7 +2307,10 @@ loop:
         } else if(matchRoot instanceof Begin || matchRoot instanceof First) {
             root = matchRoot;
         } else {
-            root = hasSupplementary ? new StartS(matchRoot) : new Start(matchRoot);
+            root = hasSupplementary ? matchRoot : AhoCorasick.optimize(matchRoot);
+            if(root == matchRoot) {
+                root = hasSupplementary ? new StartS(matchRoot) : new Start(matchRoot);
+            }
         }
     
         // Optimize the greedy Loop to prevent exponential backtracking, IF there
@@ -2206,6 +2326,9 @@ loop:
             }
         }
     
+        // Build the DFA fast path for the regular subset of the syntax
+        dfa = Dfa.compile(matchRoot);
+    
         // Release temporary storage
         temp = null;
         buffer = null;
@@ -4552,6 +4675,250 @@ NEXT:
         }
     }
     
+    /**
+     * Used for REs that can start anywhere within the input string and whose
+     * every match starts with one of a set of literals, typically a leading
+     * alternation of keywords such as {@code (?:error|fatal|timeout)}.  The
+     * literals are compiled into an Aho-Corasick automaton, and the match is
+     * only attempted at the positions where one of them starts, instead of
+     * at every position as {@link Start} does.
+     * <p>
+     * The automaton reports the end of each occurrence.  The leftmost start
+     * is known once no partially matched literal could start before the
+     * leftmost occurrence found so far, which the depth of the current state
+     * tells.  After a failed attempt the scan restarts right behind the
+     * attempted position, so an input is scanned at most once more per
+     * attempt, and only by the length of the longest literal.
+     * <p>
+     * Only case sensitive and ASCII case insensitive BMP slices are used,
+     * all of the same kind, possibly behind groups, word boundaries and
+     * multiline carets.  Characters not appearing in any literal share one
+     * column of the transition table.
+     */
+    static final class AhoCorasick extends Start {
+        /** Maximal number of entries in the transition table */
+        static final int MAX_TABLE = 1 << 16;
+        
+        final int[] asciiClass;   // column of each ASCII character
+        final char[] wideChars;   // sorted non ASCII characters of the literals
+        final int[] wideClass;    // column of each of the wideChars
+        final int stride;
+        final int[] delta;        // delta[state * stride + column]
+        final int[] depth;        // length of the literal prefix of each state
+        final int[] fail;         // state of the longest proper suffix of each state
+        final int[] output;       // length of the longest literal ending in each state
+        final boolean fold;       // whether ASCII case is ignored
+        
+        private AhoCorasick(Node node, int[][] literals, boolean fold, char[] chars, int states) {
+            super(node);
+            this.fold = fold;
+            
+            // Map the characters of the literals to the columns 1..chars.length
+            int wide = 0;
+            asciiClass = new int[128];
+            for(char c : chars) {
+                if(c >= 128) {
+                    wide++;
+                }
+            }
+            wideChars = new char[wide];
+            wideClass = new int[wide];
+            for(int i = 0, w = 0; i<chars.length; i++) {
+                if(chars[i]<128) {
+                    asciiClass[chars[i]] = i + 1;
+                } else {
+                    wideChars[w] = chars[i];
+                    wideClass[w++] = i + 1;
+                }
+            }
+            stride = chars.length + 1;
+            
+            // Build the trie, -1 marks a missing edge
+            delta = new int[states * stride];
+            depth = new int[states];
+            output = new int[states];
+            Arrays.fill(delta, -1);
+            int size = 1;
+            for(int[] literal : literals) {
+                int state = 0;
+                for(int c : literal) {
+                    int next = delta[state * stride + column(c)];
+                    if(next<0) {
+                        next = size++;
+                        depth[next] = depth[state] + 1;
+                        delta[state * stride + column(c)] = next;
+                    }
+                    state = next;
+                }
+                output[state] = literal.length;
+            }
+            
+            // Turn the trie into the automaton in breadth first order,
+            // following the failure link wherever an edge is missing
+            fail = new int[states];
+            int[] queue = new int[states];
+            int head = 0, tail = 0;
+            for(int col = 0; col<stride; col++) {
+                int next = delta[col];
+                if(next<0) {
+                    delta[col] = 0;
+                } else {
+                    queue[tail++] = next;
+                }
+            }
+            while(head<tail) {
+                int state = queue[head++];
+                int base = state * stride;
+                int failBase = fail[state] * stride;
+                for(int col = 0; col<stride; col++) {
+                    int next = delta[base + col];
+                    if(next<0) {
+                        delta[base + col] = delta[failBase + col];
+                    } else {
+                        fail[next] = delta[failBase + col];
+                        if(output[next] == 0) {
+                            output[next] = output[fail[next]];
+                        }
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        
+        /**
+         * Returns an AhoCorasick node in front of the given tree if every
+         * match of the tree starts with one of a set of literals, or the
+         * tree itself otherwise.
+         */
+        static Node optimize(Node node) {
+            List<SliceNode> slices = new ArrayList<>();
+            if(!prefixes(node, slices) || slices.isEmpty()) {
+                return node;
+            }
+            Class<?> kind = slices.get(0).getClass();
+            int[][] literals = new int[slices.size()][];
+            int states = 1;
+            for(int i = 0; i<literals.length; i++) {
+                SliceNode slice = slices.get(i);
+                if(slice.getClass() != kind || slice.buffer.length == 0) {
+                    return node;
+                }
+                literals[i] = slice.buffer;
+                states += slice.buffer.length;
+            }
+            
+            // Collect the distinct characters of the literals
+            char[] chars = new char[states];
+            int count = 0;
+            for(int[] literal : literals) {
+                for(int c : literal) {
+                    chars[count++] = (char) c;
+                }
+            }
+            Arrays.sort(chars, 0, count);
+            int distinct = 0;
+            for(int i = 0; i<count; i++) {
+                if(distinct == 0 || chars[i] != chars[distinct - 1]) {
+                    chars[distinct++] = chars[i];
+                }
+            }
+            if((long) states * (distinct + 1)>MAX_TABLE) {
+                return node;
+            }
+            
+            return new AhoCorasick(node, literals, kind == SliceI.class, Arrays.copyOf(chars, distinct), states);
+        }
+        
+        /**
+         * Collects the leading literal of every alternative the tree starts
+         * with.  Returns false if some alternative does not start with a
+         * literal.
+         */
+        private static boolean prefixes(Node node, List<SliceNode> slices) {
+            while(node instanceof GroupHead || node instanceof Bound || node instanceof Caret || node instanceof UnixCaret) {
+                node = node.next;
+            }
+            if(node instanceof Branch) {
+                Branch branch = (Branch) node;
+                for(int n = 0; n<branch.size; n++) {
+                    if(branch.atoms[n] == null || !prefixes(branch.atoms[n], slices)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            if(node != null && (node.getClass() == Slice.class || node.getClass() == SliceI.class)) {
+                slices.add((SliceNode) node);
+                return true;
+            }
+            return false;
+        }
+        
+        boolean match(Matcher matcher, int i, CharSequence seq) {
+            int guard = matcher.to - minLength;
+            while(i<=guard) {
+                int s = find(matcher, i, seq);
+                if(s<0 || s>guard) {
+                    break;
+                }
+                if(next.match(matcher, s, seq)) {
+                    matcher.first = s;
+                    matcher.groups[0] = matcher.first;
+                    matcher.groups[1] = matcher.last;
+                    return true;
+                }
+                i = s + 1;
+            }
+            matcher.hitEnd = true;
+            return false;
+        }
+        
+        /**
+         * Returns the leftmost start of a literal at or after i, or -1.
+         */
+        private int find(Matcher matcher, int i, CharSequence seq) {
+            int to = matcher.to;
+            int found = -1;
+            int state = 0;
+            for(int p = i; p<to; p++) {
+                int c = seq.charAt(p);
+                if(fold) {
+                    c = ASCII.toLower(c);
+                }
+                state = delta[state * stride + column(c)];
+                if(output[state] != 0) {
+                    int s = p + 1 - output[state];
+                    if(found<0 || s<found) {
+                        found = s;
+                    }
+                }
+                // No partially matched literal starts before found
+                if(found >= 0 && p + 1 - depth[state] >= found) {
+                    return found;
+                }
+            }
+            // Start would have tried the literals running into the end before
+            // found, which cannot match but may set hitEnd and requireEnd
+            if(found >= 0) {
+                for(int guard = to - minLength; depth[state]>0; state = fail[state]) {
+                    int q = to - depth[state];
+                    if(q<found && q<=guard) {
+                        next.match(matcher, q, seq);
+                    }
+                }
+            }
+            return found;
+        }
+        
+        private int column(int c) {
+            if(c<128) {
+                return asciiClass[c];
+            }
+            int w = Arrays.binarySearch(wideChars, (char) c);
+            return w<0 ? 0 : wideClass[w];
+        }
+    }
+    
     /**
      * Optimized version of CharProperty that works only for
      * properties never satisfied by Supplementary characters.
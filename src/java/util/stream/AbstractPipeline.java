@@ -26,6 +26,9 @@ package java.util.stream;
 
 import java.util.Objects;
 import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
 
@@ -143,6 +146,18 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>> ext
      */
     private boolean parallel;                       // 是否并行执行
     
+    /**
+     * The pool in which parallel evaluation is performed, or null for the
+     * common pool; only valid for the source stage.
+     */
+    private ForkJoinPool parallelPool;              // 执行并行计算的线程池，为null时使用共享线程池
+    
+    /**
+     * True if parallel decomposition is planned from measured costs; only
+     * valid for the source stage.
+     */
+    private boolean adaptiveParallel;               // 是否根据实测开销自适应地拆分并行任务
+    
     /**
      * The number of intermediate operations between this pipeline object
      * and the stream source if sequential, or the previous stateful if parallel.
@@ -648,6 +663,24 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>> ext
         return (S) this;
     }
     
+    // 中间操作：将当前流设置为并行流，并指定执行并行计算的线程池
+    @Override
+    @SuppressWarnings("unchecked")
+    public final S parallel(ForkJoinPool pool) {
+        sourceStage.parallelPool = Objects.requireNonNull(pool);
+        sourceStage.parallel = true;
+        return (S) this;
+    }
+    
+    // 中间操作：将当前流设置为并行流，并根据实测的元素处理开销自适应地拆分任务
+    @Override
+    @SuppressWarnings("unchecked")
+    public final S adaptiveParallel() {
+        sourceStage.adaptiveParallel = true;
+        sourceStage.parallel = true;
+        return (S) this;
+    }
+    
     /*▲ 中间操作 ████████████████████████████████████████████████████████████████████████████████┛ */
     
     
@@ -661,7 +694,6 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>> ext
      *
      * @return a flat array-backed Node that holds the collected output elements
      */
-    @SuppressWarnings("unchecked")
     final Node<E_OUT> evaluateToArrayNode(IntFunction<E_OUT[]> generator) {
         
         if(linkedOrConsumed) {
@@ -670,6 +702,17 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>> ext
         
         linkedOrConsumed = true;
         
+        // 并行流需要在指定的线程池中执行
+        if(isParallel()) {
+            return invokeInPool(() -> collectToArrayNode(generator));
+        }
+        
+        return collectToArrayNode(generator);
+    }
+    
+    // 收集当前流阶段的输出元素，参见evaluateToArrayNode()
+    @SuppressWarnings("unchecked")
+    private Node<E_OUT> collectToArrayNode(IntFunction<E_OUT[]> generator) {
         /*
          * If the last intermediate operation is stateful
          * then evaluate directly to avoid an extra collection step
@@ -728,10 +771,7 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>> ext
         // 获取当前终端操作上的组合参数
         int terminalFlags = terminalOp.getOpFlags();
         
-        // 获取上个(depth==0)的流阶段的流迭代器
-        Spliterator<?> spliterator = sourceSpliterator(terminalFlags);
-        
-        // 如果是并行流
+        // 如果是并行流，需要在指定的线程池中获取流迭代器(可能会并行计算有状态的中间阶段)并执行终端操作
         if(isParallel()) {
             /*
              * 使用terminalOp并行处理helper流阶段输出的元素，返回处理后的结果
@@ -742,9 +782,12 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>> ext
              * helper     : 某个流阶段，通常需要在当前终端操作中处理从helper阶段输出的数据
              * spliterator: 待处理的数据的源头，该流迭代器属于helper之前的(depth==0)的流阶段(包含helper阶段)
              */
-            return terminalOp.evaluateParallel(this, spliterator);
+            return invokeInPool(() -> terminalOp.evaluateParallel(this, sourceSpliterator(terminalFlags)));
         }
         
+        // 获取上个(depth==0)的流阶段的流迭代器
+        Spliterator<?> spliterator = sourceSpliterator(terminalFlags);
+        
         /*
          * 同步处理helper流阶段输出的元素，返回处理后的结果
          *
@@ -757,6 +800,26 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>> ext
         return terminalOp.evaluateSequential(this, spliterator);
     }
     
+    /*
+     * 在parallel(ForkJoinPool)指定的线程池中执行并行计算，返回计算结果
+     *
+     * 并行任务通过fork()提交到当前工作线程所属的线程池，如果当前线程不是该线程池中的工作线程，
+     * 则将整个计算过程提交给该线程池，并等待其完成。未指定线程池时，直接在当前线程中开始计算。
+     */
+    private <R> R invokeInPool(Supplier<R> evaluation) {
+        ForkJoinPool pool = sourceStage.parallelPool;
+        if(pool == null) {
+            return evaluation.get();
+        }
+        
+        Thread thread = Thread.currentThread();
+        if(thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == pool) {
+            return evaluation.get();
+        }
+        
+        return pool.invoke(ForkJoinTask.adapt(evaluation::get));
+    }
+    
     /**
      * Performs a parallel evaluation of the operation using the specified
      * {@code PipelineHelper} which describes the upstream intermediate
@@ -857,6 +920,12 @@ abstract class AbstractPipeline<E_IN, E_OUT, S extends BaseStream<E_OUT, S>> ext
         return sourceStage.parallel;
     }
     
+    // 判断是否需要根据实测开销自适应地拆分并行任务
+    @Override
+    final boolean isAdaptiveParallel() {
+        return sourceStage.adaptiveParallel;
+    }
+    
     /**
      * Returns whether this operation is stateful or not.  If it is stateful,
      * then the method
@@ -24,6 +24,7 @@
  */
 package java.util.stream;
 
+import java.util.ArrayList;
 import java.util.Spliterator;
 import java.util.concurrent.CountedCompleter;
 import java.util.concurrent.ForkJoinPool;
@@ -101,6 +102,12 @@ abstract class AbstractTask<P_IN, P_OUT, R, K extends AbstractTask<P_IN, P_OUT,
     /** Target leaf size, common to all tasks in a computation */
     protected long targetSize;     // 目标叶子大小
     
+    /**
+     * The planner adapting the target leaf size from measured costs, common to
+     * all tasks in a computation, or null if the stream is not adaptive
+     */
+    final ParallelPlanner planner;  // 自适应拆分计划，仅在adaptiveParallel()的流中存在
+    
     /**
      * The left child.
      * null if no children
@@ -131,6 +138,7 @@ abstract class AbstractTask<P_IN, P_OUT, R, K extends AbstractTask<P_IN, P_OUT,
         this.helper = helper;
         this.spliterator = spliterator;
         this.targetSize = 0L;
+        this.planner = helper.isAdaptiveParallel() ? new ParallelPlanner() : null;
     }
     
     /**
@@ -145,6 +153,7 @@ abstract class AbstractTask<P_IN, P_OUT, R, K extends AbstractTask<P_IN, P_OUT,
         this.spliterator = spliterator;
         this.helper = parent.helper;
         this.targetSize = parent.targetSize;
+        this.planner = parent.planner;
     }
     
     /**
@@ -181,9 +190,15 @@ abstract class AbstractTask<P_IN, P_OUT, R, K extends AbstractTask<P_IN, P_OUT,
     
         // 获取right任务剩余元素数量
         long rightSplitSize = rightSplit.estimateSize();
+        
+        // 自适应的流从根任务开始探测元素的处理开销(元素数量未知时无法估算总工作量)
+        if(planner != null && isRoot() && rightSplitSize != Long.MAX_VALUE) {
+            computeAdaptively(rightSplitSize);
+            return;
+        }
     
         // 返回为目标结点分配的元素数量（建议值）
-        long sizeThreshold = getTargetSize(rightSplitSize);
+        long sizeThreshold = planner == null ? getTargetSize(rightSplitSize) : planner.targetSize(getTargetSize(rightSplitSize));
     
         boolean forkRight = false;
     
@@ -232,7 +247,7 @@ abstract class AbstractTask<P_IN, P_OUT, R, K extends AbstractTask<P_IN, P_OUT,
         }
     
         // 当前线程直接执行最后剩余的子任务，并返回子任务的计算结果
-        R result = task.doLeaf();
+        R result = planner == null ? task.doLeaf() : task.doTimedLeaf();
     
         // 设置task任务的计算结果
         task.setLocalResult(result);
@@ -241,6 +256,98 @@ abstract class AbstractTask<P_IN, P_OUT, R, K extends AbstractTask<P_IN, P_OUT,
         task.tryComplete();
     }
     
+    /**
+     * Computes the root task of an adaptive parallel evaluation.
+     *
+     * <p>The spliterator is repeatedly split, always continuing with the
+     * prefix, until the prefix is no larger than
+     * {@link ParallelPlanner#PROBE_SIZE}.  The prefix and then the smallest
+     * suffixes are processed in the calling thread until the planner has
+     * timed enough elements.  The remaining suffixes are then either
+     * processed in the calling thread as well or forked, with a target leaf
+     * size derived from the measured per-element cost.
+     *
+     * @param size the size estimate of the root spliterator
+     */
+    // 以自适应的方式计算根任务：先在当前线程中探测元素的处理开销，再决定剩余部分顺序执行还是并行执行
+    private void computeAdaptively(long size) {
+        Spliterator<P_IN> split = spliterator;
+        
+        // 确定默认的叶子大小，以便子任务继承
+        getTargetSize(size);
+        
+        // 探测期间不再拆分子任务
+        planner.startProbe();
+        
+        @SuppressWarnings("unchecked")
+        K task = (K) this;
+        
+        // 拆分出的后缀任务，按照由大到小的顺序排列
+        ArrayList<K> suffixes = new ArrayList<>();
+        
+        // 沿着最左侧不断二分，直到前缀足够小
+        while(size>ParallelPlanner.PROBE_SIZE) {
+            Spliterator<P_IN> prefix = split.trySplit();
+            if(prefix == null) {
+                break;
+            }
+            
+            K leftChild, rightChild;
+            task.leftChild = leftChild = task.makeChild(prefix);
+            task.rightChild = rightChild = task.makeChild(split);
+            task.setPendingCount(1);
+            
+            suffixes.add(rightChild);
+            
+            task = leftChild;
+            split = prefix;
+            size = split.estimateSize();
+        }
+        
+        // 执行最小的前缀
+        task.setLocalResult(task.doTimedLeaf());
+        task.tryComplete();
+        
+        // 由小到大执行后缀，直到探测的时间足以估算单个元素的开销
+        int n = suffixes.size();
+        while(n>0 && !planner.isCalibrated()) {
+            suffixes.get(--n).compute();
+        }
+        
+        long remaining = 0L;
+        for(int i = 0; i<n; i++) {
+            remaining += suffixes.get(i).spliterator.estimateSize();
+        }
+        
+        // 剩余工作量较小，在当前线程中顺序执行
+        if(!planner.plan(remaining)) {
+            while(n>0) {
+                suffixes.get(--n).compute();
+            }
+            return;
+        }
+        
+        // 剩余工作量较大，将较大的后缀交给其他线程，当前线程执行最小的后缀
+        for(int i = 0; i<n - 1; i++) {
+            suffixes.get(i).fork();
+        }
+        if(n>0) {
+            suffixes.get(n - 1).compute();
+        }
+    }
+    
+    // 执行叶子任务，并将元素数量和耗时记录到自适应拆分计划中
+    final R doTimedLeaf() {
+        long size = spliterator.estimateSize();
+        long start = System.nanoTime();
+        
+        R result = doLeaf();
+        
+        planner.record(size, System.nanoTime() - start);
+        
+        return result;
+    }
+    
     /**
      * {@inheritDoc}
      *
@@ -25,7 +25,9 @@
 package java.util.stream;
 
 import java.util.Iterator;
+import java.util.Objects;
 import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Base interface for streams, which are sequences of elements supporting sequential and parallel aggregate operations.
@@ -133,6 +135,70 @@ public interface BaseStream<T, S extends BaseStream<T, S>> extends AutoCloseable
     // 中间操作：将当前流设置为并行流后返回
     S parallel();
     
+    /**
+     * Returns an equivalent stream that is parallel and whose parallel
+     * evaluation is performed in the given {@code ForkJoinPool} rather than in
+     * the {@linkplain ForkJoinPool#commonPool() common pool}.  May return
+     * itself, either because the stream was already parallel, or because
+     * the underlying stream state was modified to be parallel.
+     *
+     * <p>This is an <a href="package-summary.html#StreamOps">intermediate
+     * operation</a>.
+     *
+     * @implSpec
+     * The default implementation checks that {@code pool} is not {@code null}
+     * and returns {@link #parallel()}, ignoring the pool.
+     *
+     * @param pool the pool in which the terminal operation is evaluated
+     *
+     * @return a parallel stream
+     *
+     * @throws NullPointerException if {@code pool} is {@code null}
+     * @since 11
+     */
+    // 中间操作：将当前流设置为并行流，并指定执行并行计算的线程池
+    default S parallel(ForkJoinPool pool) {
+        Objects.requireNonNull(pool);
+        return parallel();
+    }
+    
+    /**
+     * Returns an equivalent stream that is parallel and whose decomposition
+     * is planned from the measured cost of processing its elements.  May
+     * return itself, either because the stream was already parallel, or
+     * because the underlying stream state was modified to be parallel.
+     *
+     * <p>Instead of splitting the source into a fixed number of chunks per
+     * processor, the terminal operation first processes a few small chunks in
+     * the calling thread and times them.  If the remaining work, estimated
+     * from the measured per-element cost, is too small to pay for parallel
+     * execution, the remaining chunks are processed in the calling thread as
+     * well.  Otherwise the remaining chunks are split so that each leaf task
+     * represents roughly the same amount of work, which favors smaller leaves
+     * for expensive pipelines, and the target leaf size keeps being adjusted
+     * as more leaves complete.
+     *
+     * <p>This is an <a href="package-summary.html#StreamOps">intermediate
+     * operation</a>.
+     *
+     * @implSpec
+     * The default implementation returns {@link #parallel()}.
+     *
+     * @implNote
+     * Adaptive planning applies to terminal operations that reduce, collect
+     * or gather elements into an array, and only to sources that can estimate
+     * their size.  Other terminal operations are evaluated as if the stream
+     * was made parallel with {@link #parallel()}.
+     *
+     * @return a parallel stream
+     *
+     * @since 11
+     */
+    // 中间操作：将当前流设置为并行流，并根据实测的元素处理开销自适应地拆分任务
+    default S adaptiveParallel() {
+        return parallel();
+    }
+    
     /**
      * Returns an equivalent stream with an additional close handler.  Close
      * handlers are run when the {@link #close()} method
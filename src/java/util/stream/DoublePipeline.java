@@ -179,6 +179,26 @@ abstract class DoublePipeline<E_IN> extends AbstractPipeline<E_IN, Double, Doubl
                             downstream.accept(t);
                         }
                     }
+                    
+                    // 批量择取：将满足条件的元素收集到缓冲区中，缓冲区满了之后再批量发往下游
+                    @Override
+                    public void accept(double[] values, int offset, int length) {
+                        double[] chunk = chunk(length);
+                        int n = 0;
+                        for(int i = offset, end = offset + length; i<end; i++) {
+                            double t = values[i];
+                            if(predicate.test(t)) {
+                                chunk[n++] = t;
+                                if(n == chunk.length) {
+                                    downstream.accept(chunk, 0, n);
+                                    n = 0;
+                                }
+                            }
+                        }
+                        if(n>0) {
+                            downstream.accept(chunk, 0, n);
+                        }
+                    }
                 };
             }
         };
@@ -201,6 +221,20 @@ abstract class DoublePipeline<E_IN> extends AbstractPipeline<E_IN, Double, Doubl
                     public void accept(double t) {
                         downstream.accept(mapper.applyAsDouble(t));
                     }
+                    
+                    // 批量映射：每次将一段元素映射到缓冲区中，再批量发往下游
+                    @Override
+                    public void accept(double[] values, int offset, int length) {
+                        double[] chunk = chunk(length);
+                        for(int end = offset + length; offset<end; ) {
+                            int n = Math.min(chunk.length, end - offset);
+                            for(int i = 0; i<n; i++) {
+                                chunk[i] = mapper.applyAsDouble(values[offset + i]);
+                            }
+                            downstream.accept(chunk, 0, n);
+                            offset += n;
+                        }
+                    }
                 };
             }
         };
@@ -1360,6 +1360,17 @@ final class Nodes {
             array[curSize++] = i;
         }
         
+        // 向ArrayNode批量存入一段元素
+        @Override
+        public void accept(int[] values, int offset, int length) {
+            if(length>array.length - curSize) {
+                throw new IllegalStateException(String.format("Accept exceeded fixed size of %d", array.length));
+            }
+            
+            System.arraycopy(values, offset, array, curSize, length);
+            curSize += length;
+        }
+        
         /*
          * 关闭sink链，结束本轮计算。
          *
@@ -1432,6 +1443,17 @@ final class Nodes {
             array[curSize++] = i;
         }
         
+        // 向ArrayNode批量存入一段元素
+        @Override
+        public void accept(long[] values, int offset, int length) {
+            if(length>array.length - curSize) {
+                throw new IllegalStateException(String.format("Accept exceeded fixed size of %d", array.length));
+            }
+            
+            System.arraycopy(values, offset, array, curSize, length);
+            curSize += length;
+        }
+        
         /*
          * 关闭sink链，结束本轮计算。
          *
@@ -1504,6 +1526,17 @@ final class Nodes {
             array[curSize++] = i;
         }
         
+        // 向ArrayNode批量存入一段元素
+        @Override
+        public void accept(double[] values, int offset, int length) {
+            if(length>array.length - curSize) {
+                throw new IllegalStateException(String.format("Accept exceeded fixed size of %d", array.length));
+            }
+            
+            System.arraycopy(values, offset, array, curSize, length);
+            curSize += length;
+        }
+        
         /*
          * 关闭sink链，结束本轮计算。
          *
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package java.util.stream;
+
+/**
+ * Plans the decomposition of an adaptive parallel stream evaluation from the
+ * measured cost of processing elements.
+ *
+ * <p>The root {@link AbstractTask} first processes a few small, exponentially
+ * growing chunks in the calling thread and records how long they took.  Once
+ * the recorded time is long enough to be meaningful, the planner either
+ * decides that the remaining work is too small to be worth forking, in which
+ * case the remaining chunks are also processed in the calling thread, or
+ * derives a target leaf size such that each leaf task takes roughly
+ * {@link #LEAF_NANOS} nanoseconds.  Every leaf executed afterwards refines the
+ * per-element cost and therefore the target leaf size.
+ *
+ * <p>The target leaf size never exceeds the default one suggested by
+ * {@link AbstractTask#suggestTargetSize(long)}, so that all workers of the
+ * pool still get a share of the work when elements are cheap.
+ *
+ * @since 11
+ */
+// 并行流的自适应拆分计划：根据实测的单个元素处理耗时，决定顺序执行还是并行执行，以及每个叶子任务包含的元素数量
+final class ParallelPlanner {
+    
+    /** Desired duration of a leaf task, in nanoseconds */
+    static final long LEAF_NANOS = 100_000L;            // 期望每个叶子任务的耗时
+    
+    /** Minimal duration of the probe before the cost is considered calibrated */
+    static final long PROBE_NANOS = 20_000L;            // 完成标定所需的最短探测时间
+    
+    /** Estimated remaining work below which evaluation stays in the calling thread */
+    static final long SEQUENTIAL_NANOS = 200_000L;      // 剩余工作量低于该耗时时，在当前线程中顺序执行
+    
+    /** Size of the first chunk processed by the probe */
+    static final long PROBE_SIZE = 16L;                 // 首个探测块的元素数量
+    
+    /*
+     * 计划的叶子大小：
+     * 0              - 尚未开始，使用默认的叶子大小
+     * Long.MAX_VALUE - 正在探测或决定顺序执行，不再拆分任务
+     * 其他值         - 自适应的叶子大小，与默认大小取较小者
+     */
+    private volatile long leafSize;
+    
+    private long elements;      // 已处理的元素数量
+    private long nanos;         // 处理这些元素的总耗时
+    private boolean planned;    // 是否已决定并行执行
+    
+    /**
+     * Returns the target leaf size to use.
+     *
+     * @param defaultSize the target leaf size suggested from the size estimate
+     *
+     * @return the target leaf size
+     */
+    // 返回当前的叶子大小，defaultSize为根据元素总量给出的建议值
+    long targetSize(long defaultSize) {
+        long size = leafSize;
+        if(size == 0L) {
+            return defaultSize;
+        }
+        if(size == Long.MAX_VALUE) {
+            return size;
+        }
+        return Math.min(defaultSize, size);
+    }
+    
+    // 开始探测，此期间不再拆分任务
+    void startProbe() {
+        leafSize = Long.MAX_VALUE;
+    }
+    
+    /**
+     * Records the time spent processing a leaf.
+     *
+     * @param size    the number of elements of the leaf
+     * @param elapsed the time spent, in nanoseconds
+     */
+    // 记录一个叶子任务的元素数量和耗时，如果已经决定并行执行，则同时调整叶子大小
+    synchronized void record(long size, long elapsed) {
+        if(size<=0L || size == Long.MAX_VALUE || elapsed<0L) {
+            return;
+        }
+        
+        elements += size;
+        nanos += elapsed;
+        
+        if(planned) {
+            leafSize = leafSizeFor(nanos, elements);
+        }
+    }
+    
+    // 判断探测时间是否已足以估算单个元素的耗时
+    synchronized boolean isCalibrated() {
+        return nanos >= PROBE_NANOS;
+    }
+    
+    /**
+     * Decides how to process the remaining elements once the probe is over.
+     *
+     * @param remainingSize estimated number of elements still to be processed
+     *
+     * @return {@code true} if the remaining elements should be processed in
+     * parallel, or {@code false} if they should be processed in the calling
+     * thread
+     */
+    // 探测结束后，决定剩余的元素是并行处理(返回true)还是在当前线程中顺序处理(返回false)
+    synchronized boolean plan(long remainingSize) {
+        if(elements == 0L || (double) nanos / elements * remainingSize < SEQUENTIAL_NANOS) {
+            return false;
+        }
+        
+        planned = true;
+        leafSize = leafSizeFor(nanos, elements);
+        
+        return true;
+    }
+    
+    // 使每个叶子任务的耗时约为LEAF_NANOS
+    private static long leafSizeFor(long nanos, long elements) {
+        if(nanos == 0L) {
+            return Long.MAX_VALUE - 1L;
+        }
+        
+        double size = (double) LEAF_NANOS * elements / nanos;
+        
+        return size<1.0 ? 1L : size >= Long.MAX_VALUE - 1L ? Long.MAX_VALUE - 1L : (long) size;
+    }
+    
+}
@@ -63,6 +63,15 @@ abstract class PipelineHelper<P_OUT> {
     // 返回(depth==0)阶段的流的形状
     abstract StreamShape getSourceShape();
     
+    /**
+     * Returns whether the parallel decomposition of this pipeline should be
+     * planned from the measured cost of processing its elements.
+     *
+     * @return {@code true} if adaptive parallel planning was requested
+     */
+    // 判断是否需要根据实测开销自适应地拆分并行任务
+    abstract boolean isAdaptiveParallel();
+    
     /**
      * Gets the combined stream and operation flags for the output of the described pipeline.
      * This will incorporate stream flags from the stream source,
@@ -153,6 +153,21 @@ final class ReduceOps {
                 }
             }
             
+            // 批量汇总，在局部变量中累积结果
+            @Override
+            public void accept(int[] values, int offset, int length) {
+                int end = offset + length;
+                if(empty && offset<end) {
+                    empty = false;
+                    state = values[offset++];
+                }
+                int s = state;
+                for(; offset<end; offset++) {
+                    s = operator.applyAsInt(s, values[offset]);
+                }
+                state = s;
+            }
+            
             @Override
             public OptionalInt get() {
                 return empty ? OptionalInt.empty() : OptionalInt.of(state);
@@ -204,6 +219,21 @@ final class ReduceOps {
                 }
             }
             
+            // 批量汇总，在局部变量中累积结果
+            @Override
+            public void accept(long[] values, int offset, int length) {
+                int end = offset + length;
+                if(empty && offset<end) {
+                    empty = false;
+                    state = values[offset++];
+                }
+                long s = state;
+                for(; offset<end; offset++) {
+                    s = operator.applyAsLong(s, values[offset]);
+                }
+                state = s;
+            }
+            
             @Override
             public OptionalLong get() {
                 return empty ? OptionalLong.empty() : OptionalLong.of(state);
@@ -255,6 +285,21 @@ final class ReduceOps {
                 }
             }
             
+            // 批量汇总，在局部变量中累积结果
+            @Override
+            public void accept(double[] values, int offset, int length) {
+                int end = offset + length;
+                if(empty && offset<end) {
+                    empty = false;
+                    state = values[offset++];
+                }
+                double s = state;
+                for(; offset<end; offset++) {
+                    s = operator.applyAsDouble(s, values[offset]);
+                }
+                state = s;
+            }
+            
             @Override
             public OptionalDouble get() {
                 return empty ? OptionalDouble.empty() : OptionalDouble.of(state);
@@ -369,6 +414,16 @@ final class ReduceOps {
                 state = operator.applyAsInt(state, t);
             }
             
+            // 批量汇总，在局部变量中累积结果
+            @Override
+            public void accept(int[] values, int offset, int length) {
+                int s = state;
+                for(int i = offset, end = offset + length; i<end; i++) {
+                    s = operator.applyAsInt(s, values[i]);
+                }
+                state = s;
+            }
+            
             @Override
             public Integer get() {
                 return state;
@@ -414,6 +469,16 @@ final class ReduceOps {
                 state = operator.applyAsLong(state, t);
             }
             
+            // 批量汇总，在局部变量中累积结果
+            @Override
+            public void accept(long[] values, int offset, int length) {
+                long s = state;
+                for(int i = offset, end = offset + length; i<end; i++) {
+                    s = operator.applyAsLong(s, values[i]);
+                }
+                state = s;
+            }
+            
             @Override
             public Long get() {
                 return state;
@@ -459,6 +524,16 @@ final class ReduceOps {
                 state = operator.applyAsDouble(state, t);
             }
             
+            // 批量汇总，在局部变量中累积结果
+            @Override
+            public void accept(double[] values, int offset, int length) {
+                double s = state;
+                for(int i = offset, end = offset + length; i<end; i++) {
+                    s = operator.applyAsDouble(s, values[i]);
+                }
+                state = s;
+            }
+            
             @Override
             public Double get() {
                 return state;
@@ -594,6 +669,15 @@ final class ReduceOps {
                 accumulator.accept(state, t);
             }
             
+            // 批量消费
+            @Override
+            public void accept(int[] values, int offset, int length) {
+                R s = state;
+                for(int i = offset, end = offset + length; i<end; i++) {
+                    accumulator.accept(s, values[i]);
+                }
+            }
+            
             @Override
             public void combine(ReducingSink other) {
                 state = combiner.apply(state, other.state);
@@ -637,6 +721,15 @@ final class ReduceOps {
                 accumulator.accept(state, t);
             }
             
+            // 批量消费
+            @Override
+            public void accept(long[] values, int offset, int length) {
+                R s = state;
+                for(int i = offset, end = offset + length; i<end; i++) {
+                    accumulator.accept(s, values[i]);
+                }
+            }
+            
             @Override
             public void combine(ReducingSink other) {
                 state = combiner.apply(state, other.state);
@@ -680,6 +773,15 @@ final class ReduceOps {
                 accumulator.accept(state, t);
             }
             
+            // 批量消费
+            @Override
+            public void accept(double[] values, int offset, int length) {
+                R s = state;
+                for(int i = offset, end = offset + length; i<end; i++) {
+                    accumulator.accept(s, values[i]);
+                }
+            }
+            
             @Override
             public void combine(ReducingSink other) {
                 state = combiner.apply(state, other.state);
@@ -1100,6 +1202,11 @@ final class ReduceOps {
             public void accept(int t) {
                 count++;
             }
+            
+            @Override
+            public void accept(int[] values, int offset, int length) {
+                count += length;
+            }
         }
         
         static final class OfLong extends CountingSink<Long> implements Sink.OfLong {
@@ -1107,6 +1214,11 @@ final class ReduceOps {
             public void accept(long t) {
                 count++;
             }
+            
+            @Override
+            public void accept(long[] values, int offset, int length) {
+                count += length;
+            }
         }
         
         static final class OfDouble extends CountingSink<Double> implements Sink.OfDouble {
@@ -1114,6 +1226,11 @@ final class ReduceOps {
             public void accept(double t) {
                 count++;
             }
+            
+            @Override
+            public void accept(double[] values, int offset, int length) {
+                count += length;
+            }
         }
     }
     
@@ -25,6 +25,8 @@
 
 package java.util.stream;
 
+import jdk.internal.util.BulkConsumer;
+
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.DoubleConsumer;
@@ -125,7 +127,14 @@ import java.util.function.LongConsumer;
  *
  * 注：流式操作包含三个要素：Stream、Spliterator、Sink
  */
-interface Sink<T> extends Consumer<T> {
+interface Sink<T> extends Consumer<T>, BulkConsumer {
+    
+    /**
+     * The maximal number of values a chained sink buffers before passing them
+     * downstream in bulk.
+     */
+    // 链式Sink批量向下游推送元素时，缓冲区的最大容量
+    int CHUNK_SIZE = 1024;
     
     /**
      * Resets the sink state to receive a fresh data set.
@@ -170,6 +179,27 @@ interface Sink<T> extends Consumer<T> {
         throw new IllegalStateException("called wrong accept method");
     }
     
+    /**
+     * Accepts a chunk of int values, which must be neither modified nor
+     * retained after this method returns.  Sources backed by arrays push
+     * their elements through this method when they can, which lets stages
+     * process them in a tight loop.
+     *
+     * @throws IllegalStateException if this sink does not accept int values
+     * @implSpec The default implementation calls {@link #accept(int)} for each
+     * value in order.
+     */
+    /*
+     * 对上游发来的一批int类型的值进行择取，默认实现是逐个调用accept(int)。
+     * 参数中的数组可能是数据源本身，不能修改，也不能在方法返回后继续持有。
+     */
+    @Override
+    default void accept(int[] values, int offset, int length) {
+        for(int i = offset, end = offset + length; i<end; i++) {
+            accept(values[i]);
+        }
+    }
+    
     /**
      * Accepts a long value.
      *
@@ -184,6 +214,27 @@ interface Sink<T> extends Consumer<T> {
         throw new IllegalStateException("called wrong accept method");
     }
     
+    /**
+     * Accepts a chunk of long values, which must be neither modified nor
+     * retained after this method returns.  Sources backed by arrays push
+     * their elements through this method when they can, which lets stages
+     * process them in a tight loop.
+     *
+     * @throws IllegalStateException if this sink does not accept long values
+     * @implSpec The default implementation calls {@link #accept(long)} for each
+     * value in order.
+     */
+    /*
+     * 对上游发来的一批long类型的值进行择取，默认实现是逐个调用accept(long)。
+     * 参数中的数组可能是数据源本身，不能修改，也不能在方法返回后继续持有。
+     */
+    @Override
+    default void accept(long[] values, int offset, int length) {
+        for(int i = offset, end = offset + length; i<end; i++) {
+            accept(values[i]);
+        }
+    }
+    
     /**
      * Accepts a double value.
      *
@@ -198,6 +249,27 @@ interface Sink<T> extends Consumer<T> {
         throw new IllegalStateException("called wrong accept method");
     }
     
+    /**
+     * Accepts a chunk of double values, which must be neither modified nor
+     * retained after this method returns.  Sources backed by arrays push
+     * their elements through this method when they can, which lets stages
+     * process them in a tight loop.
+     *
+     * @throws IllegalStateException if this sink does not accept double values
+     * @implSpec The default implementation calls {@link #accept(double)} for each
+     * value in order.
+     */
+    /*
+     * 对上游发来的一批double类型的值进行择取，默认实现是逐个调用accept(double)。
+     * 参数中的数组可能是数据源本身，不能修改，也不能在方法返回后继续持有。
+     */
+    @Override
+    default void accept(double[] values, int offset, int length) {
+        for(int i = offset, end = offset + length; i<end; i++) {
+            accept(values[i]);
+        }
+    }
+    
     /**
      * Indicates that all elements have been pushed.  If the {@code Sink} is
      * stateful, it should send any stored state downstream at this time, and
@@ -375,10 +447,25 @@ interface Sink<T> extends Consumer<T> {
     
         // 保存了下游的Sink，以方便链式调用
         protected final Sink<? super E_OUT> downstream;
+        
+        // 批量处理元素时使用的缓冲区
+        private int[] chunk;
     
         public ChainedInt(Sink<? super E_OUT> downSink) {
             this.downstream = Objects.requireNonNull(downSink);
         }
+        
+        /*
+         * 返回批量处理length个元素时使用的缓冲区，其容量不超过CHUNK_SIZE，
+         * 同一个sink会复用该缓冲区，所以只能在accept()内使用。
+         */
+        protected final int[] chunk(int length) {
+            int size = Math.max(1, Math.min(length, CHUNK_SIZE));
+            if(chunk == null || chunk.length<size) {
+                chunk = new int[size];
+            }
+            return chunk;
+        }
     
         /*
          * 激活sink链上所有sink，完成一些初始化工作，准备接收数据。
@@ -430,10 +517,25 @@ interface Sink<T> extends Consumer<T> {
     
         // 保存了下游的Sink，以方便链式调用
         protected final Sink<? super E_OUT> downstream;
+        
+        // 批量处理元素时使用的缓冲区
+        private long[] chunk;
     
         public ChainedLong(Sink<? super E_OUT> downSink) {
             this.downstream = Objects.requireNonNull(downSink);
         }
+        
+        /*
+         * 返回批量处理length个元素时使用的缓冲区，其容量不超过CHUNK_SIZE，
+         * 同一个sink会复用该缓冲区，所以只能在accept()内使用。
+         */
+        protected final long[] chunk(int length) {
+            int size = Math.max(1, Math.min(length, CHUNK_SIZE));
+            if(chunk == null || chunk.length<size) {
+                chunk = new long[size];
+            }
+            return chunk;
+        }
     
         /*
          * 激活sink链上所有sink，完成一些初始化工作，准备接收数据。
@@ -485,10 +587,25 @@ interface Sink<T> extends Consumer<T> {
     
         // 保存了下游的Sink，以方便链式调用
         protected final Sink<? super E_OUT> downstream;
+        
+        // 批量处理元素时使用的缓冲区
+        private double[] chunk;
     
         public ChainedDouble(Sink<? super E_OUT> downSink) {
             this.downstream = Objects.requireNonNull(downSink);
         }
+        
+        /*
+         * 返回批量处理length个元素时使用的缓冲区，其容量不超过CHUNK_SIZE，
+         * 同一个sink会复用该缓冲区，所以只能在accept()内使用。
+         */
+        protected final double[] chunk(int length) {
+            int size = Math.max(1, Math.min(length, CHUNK_SIZE));
+            if(chunk == null || chunk.length<size) {
+                chunk = new double[size];
+            }
+            return chunk;
+        }
     
         /*
          * 激活sink链上所有sink，完成一些初始化工作，准备接收数据。
@@ -24,6 +24,8 @@
  */
 package java.util.stream;
 
+import jdk.internal.util.BulkConsumer;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -969,6 +971,14 @@ class SpinedBuffer<E> extends AbstractSpinedBuffer implements Consumer<E>, Itera
         // 遍历数组form到to范围的元素，在其上应用consumer函数
         @Override
         protected void arrayForEach(int[] array, int from, int to, IntConsumer consumer) {
+            // 支持批量接收元素的消费者(比如流的sink)，一次性推送整段元素
+            if(consumer instanceof BulkConsumer) {
+                if(from<to) {
+                    ((BulkConsumer) consumer).accept(array, from, to - from);
+                }
+                return;
+            }
+            
             for(int i = from; i<to; i++) {
                 consumer.accept(array[i]);
             }
@@ -1087,6 +1097,14 @@ class SpinedBuffer<E> extends AbstractSpinedBuffer implements Consumer<E>, Itera
         // 遍历数组form到to范围的元素，在其上应用consumer函数
         @Override
         protected void arrayForEach(long[] array, int from, int to, LongConsumer consumer) {
+            // 支持批量接收元素的消费者(比如流的sink)，一次性推送整段元素
+            if(consumer instanceof BulkConsumer) {
+                if(from<to) {
+                    ((BulkConsumer) consumer).accept(array, from, to - from);
+                }
+                return;
+            }
+            
             for(int i = from; i<to; i++) {
                 consumer.accept(array[i]);
             }
@@ -1203,6 +1221,14 @@ class SpinedBuffer<E> extends AbstractSpinedBuffer implements Consumer<E>, Itera
         // 遍历数组form到to范围的元素，在其上应用consumer函数
         @Override
         protected void arrayForEach(double[] array, int from, int to, DoubleConsumer consumer) {
+            // 支持批量接收元素的消费者(比如流的sink)，一次性推送整段元素
+            if(consumer instanceof BulkConsumer) {
+                if(from<to) {
+                    ((BulkConsumer) consumer).accept(array, from, to - from);
+                }
+                return;
+            }
+            
             for(int i = from; i<to; i++) {
                 consumer.accept(array[i]);
             }
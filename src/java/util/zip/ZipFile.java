@@ -33,6 +33,8 @@ import java.io.InputStream;
 import java.io.RandomAccessFile;
 import java.io.UncheckedIOException;
 import java.lang.ref.Cleaner.Cleanable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -43,7 +45,6 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
@@ -51,6 +52,7 @@ import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.IntFunction;
@@ -65,6 +67,7 @@ import jdk.internal.misc.VM;
 import jdk.internal.perf.PerfCounter;
 import jdk.internal.ref.CleanerFactory;
 import jdk.internal.vm.annotation.Stable;
+import sun.nio.ch.FileChannelImpl;
 
 import static java.util.zip.ZipConstants64.EXTID_ZIP64;
 import static java.util.zip.ZipConstants64.USE_UTF8;
@@ -832,13 +835,21 @@ public class ZipFile implements ZipConstants, Closeable {
         // zip文件
         private RandomAccessFile zfile;      // zfile of the underlying zip file
         
+        // zfile对应的文件通道，用于定位读(pread)，不修改通道的position，因此打开同一zip文件的多个ZipFile可同时读取
+        private final FileChannel zch;       // channel of zfile, for positional reads
+        
         // zip文件及其基础文件属性的映射
         private final Key key;               // the key in files
         
-        // 缓存key和对应的Source
-        private static final HashMap<Key, Source> files = new HashMap<>();
+        /*
+         * 缓存key和对应的Source
+         *
+         * 使用ConcurrentHashMap代替全局锁保护的HashMap，不同zip文件的查找与释放只会锁住各自所在的哈希槽，
+         * 因此多个线程并发打开不同的jar包时不再互相阻塞
+         */
+        private static final ConcurrentHashMap<Key, Source> files = new ConcurrentHashMap<>();
         
-        // 记录缓存命中次数
+        // 记录缓存命中次数(只在files的compute方法内部修改)
         private int refs = 1;
         
         // (整个)zip文件的注释信息
@@ -905,6 +916,12 @@ public class ZipFile implements ZipConstants, Closeable {
                 this.zfile = new RandomAccessFile(key.file, "r");
             }
             
+            // 设置该通道为忽略中断，避免某个读取线程被中断时关闭所有ZipFile共享的通道
+            this.zch = zfile.getChannel();
+            if(zch instanceof FileChannelImpl) {
+                ((FileChannelImpl) zch).setUninterruptible();
+            }
+            
             try {
                 // 解析zip文件的元数据(读取核心目录区域(zip文件的第二部分))
                 initCEN(-1);
@@ -930,32 +947,38 @@ public class ZipFile implements ZipConstants, Closeable {
             
             Key key = new Key(file, attrs);
             
-            Source src;
-            synchronized(files) {
-                // 先尝试从缓存中获取src
-                src = files.get(key);
-                if(src != null) {
-                    src.refs++; // 如果获取到了目标值，则引用计数增一
-                    return src;
-                }
+            /*
+             * 只在key所在的哈希槽上完成查找与引用计数，不同的zip文件可以被并发打开。
+             * 打开文件与解析核心目录属于I/O操作，需放在compute之外进行，以免长时间锁住哈希槽
+             */
+            
+            // 先尝试从缓存中获取src，如果获取到了目标值，则引用计数增一
+            Source src = files.computeIfPresent(key, (k, v) -> {
+                v.refs++;
+                return v;
+            });
+            if(src != null) {
+                return src;
             }
             
             // 构造新的Source对象
-            src = new Source(key, toDelete);
-            
-            synchronized(files) {
-                if(files.containsKey(key)) {    // someone else put in first
-                    src.close();                // close the newly created one
-                    src = files.get(key);
-                    src.refs++;
-                    return src;
+            Source newSrc = new Source(key, toDelete);
+            
+            // 加入缓存，如果此时已有其他线程抢先加入，则使用已有的Source
+            src = files.compute(key, (k, v) -> {
+                if(v == null) {
+                    return newSrc;
                 }
-                
-                // 加入缓存
-                files.put(key, src);
-                
-                return src;
+                v.refs++;
+                return v;
+            });
+            
+            // someone else put in first
+            if(src != newSrc) {
+                newSrc.close();     // close the newly created one
             }
+            
+            return src;
         }
         
         /* Reads zip file central directory */
@@ -1245,25 +1268,29 @@ public class ZipFile implements ZipConstants, Closeable {
             return entries[index + 2];
         }
         
+        /*
+         * 从zip文件的pos处读取len个字节，存入buf的off处
+         *
+         * 使用文件通道的定位读，不会修改通道的position，因此无需加锁。
+         * 每次最多读取BUF_SIZE个字节，以免为过大的读取请求缓存过大的临时直接缓冲区
+         */
         private final int readFullyAt(byte[] buf, int off, int len, long pos) throws IOException {
-            synchronized(zfile) {
-                zfile.seek(pos);
-                int N = len;
-                while(N>0) {
-                    int n = Math.min(BUF_SIZE, N);
-                    zfile.readFully(buf, off, n);
-                    off += n;
-                    N -= n;
+            ByteBuffer bb = ByteBuffer.wrap(buf, off, len);
+            int end = off + len;
+            while(bb.position()<end) {
+                bb.limit(Math.min(end, bb.position() + BUF_SIZE));
+                int n = zch.read(bb, pos);
+                if(n<0) {
+                    throw new EOFException();
                 }
-                return len;
+                pos += n;
             }
+            return len;
         }
         
+        // 从zip文件的pos处读取至多len个字节，存入buf的off处，返回实际读到的字节数
         private final int readAt(byte[] buf, int off, int len, long pos) throws IOException {
-            synchronized(zfile) {
-                zfile.seek(pos);
-                return zfile.read(buf, off, len);
-            }
+            return zch.read(ByteBuffer.wrap(buf, off, Math.min(len, BUF_SIZE)), pos);
         }
         
         private static final int hashN(byte[] a, int off, int len) {
@@ -1355,11 +1382,21 @@ public class ZipFile implements ZipConstants, Closeable {
         }
         
         static void release(Source src) throws IOException {
-            synchronized(files) {
-                if(src != null && --src.refs == 0) {
-                    files.remove(src.key);
-                    src.close();
+            if(src == null) {
+                return;
+            }
+            
+            // 引用计数减为0时，将其从缓存中移除
+            Source cur = files.computeIfPresent(src.key, (k, v) -> {
+                if(v == src && --v.refs == 0) {
+                    return null;
                 }
+                return v;
+            });
+            
+            // 已被移除的Source不会再被其他线程获取，可以在compute之外将其关闭
+            if(cur == null && src.refs == 0) {
+                src.close();
             }
         }
         
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package jdk.internal.misc;
+
+/**
+ * Provides access to the statistics of the keep-alive cache of
+ * HttpURLConnection, for the HttpKeepAliveCacheMXBean.
+ */
+public interface JavaNetHttpKeepAliveAccess {
+    /*
+     * Returns the number of times an idle connection was reused.
+     */
+    public long getHitCount();
+
+    /*
+     * Returns the number of times no idle connection was found.
+     */
+    public long getMissCount();
+
+    /*
+     * Returns the number of idle connections closed because they timed out.
+     */
+    public long getEvictionCount();
+
+    /*
+     * Returns the number of connections closed instead of being cached,
+     * because the per-route or the global limit was reached.
+     */
+    public long getOverflowCount();
+
+    /*
+     * Returns the number of idle connections in the cache.
+     */
+    public int getIdleConnectionCount();
+
+    /*
+     * Returns the number of routes which have a pool in the cache.
+     */
+    public int getRouteCount();
+
+    public int getMaxConnectionsPerRoute();
+
+    public int getMaxTotalConnections();
+}
@@ -25,8 +25,10 @@
 
 package jdk.internal.misc;
 
+import java.io.FileDescriptor;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.MappedRegion;
 
 public interface JavaNioAccess {
     /**
@@ -53,4 +55,11 @@ public interface JavaNioAccess {
      */
     void truncate(Buffer buf);
 
+    /**
+     * Constructs a mapped region of the given size at the given address,
+     * which is unmapped by the given unmapper when the region is closed or
+     * garbage-collected.
+     */
+    MappedRegion newMappedRegion(long addr, long size, boolean readOnly, FileDescriptor fd, Runnable unmapper);
+
 }
@@ -64,6 +64,7 @@ public class SharedSecrets {
     private static JavaIOAccess javaIOAccess;
     private static JavaNetInetAddressAccess javaNetInetAddressAccess;
     private static JavaNetHttpCookieAccess javaNetHttpCookieAccess;
+    private static JavaNetHttpKeepAliveAccess javaNetHttpKeepAliveAccess;
     private static JavaNetSocketAccess javaNetSocketAccess;
     private static JavaNetUriAccess javaNetUriAccess;
     private static JavaNetURLAccess javaNetURLAccess;
@@ -198,6 +199,17 @@ public class SharedSecrets {
     }
     
     
+    public static JavaNetHttpKeepAliveAccess getJavaNetHttpKeepAliveAccess() {
+        if(javaNetHttpKeepAliveAccess == null)
+            unsafe.ensureClassInitialized(sun.net.www.http.KeepAliveCache.class);
+        return javaNetHttpKeepAliveAccess;
+    }
+    
+    public static void setJavaNetHttpKeepAliveAccess(JavaNetHttpKeepAliveAccess a) {
+        javaNetHttpKeepAliveAccess = a;
+    }
+    
+    
     public static JavaNetSocketAccess getJavaNetSocketAccess() {
         if(javaNetSocketAccess == null)
             unsafe.ensureClassInitialized(java.net.ServerSocket.class);
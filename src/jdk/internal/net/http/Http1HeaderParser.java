@@ -28,12 +28,14 @@ package jdk.internal.net.http;
 import java.net.ProtocolException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.net.http.HttpHeaders;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static java.util.Objects.requireNonNull;
 import static jdk.internal.net.http.common.Utils.ACCEPT_ALL;
 
@@ -44,7 +46,32 @@ class Http1HeaderParser {
     private static final char HT = '\t';
     private static final char SP = ' ';
 
-    private StringBuilder sb = new StringBuilder();
+    /**
+     * Header names and values common enough to be worth sharing between
+     * responses, instead of allocating a new String for each occurrence.
+     * Names are matched ignoring case, values exactly.
+     */
+    private static final String[] COMMON_NAMES = table(
+            "accept-ranges", "age", "cache-control", "connection",
+            "content-encoding", "content-language", "content-length",
+            "content-location", "content-range", "content-type", "date",
+            "etag", "expires", "keep-alive", "last-modified", "location",
+            "pragma", "proxy-authenticate", "retry-after", "server",
+            "set-cookie", "strict-transport-security", "trailer",
+            "transfer-encoding", "upgrade", "vary", "via", "warning",
+            "www-authenticate", "x-content-type-options", "x-frame-options");
+    private static final String[] COMMON_VALUES = table(
+            "0", "bytes", "chunked", "close", "deflate", "gzip", "identity",
+            "keep-alive", "max-age=0", "no-cache", "no-store", "nosniff",
+            "private", "public", "text/html", "text/plain",
+            "application/json", "application/octet-stream",
+            "text/html; charset=utf-8", "text/html; charset=UTF-8",
+            "application/json; charset=utf-8", "Accept-Encoding");
+
+    // The line being parsed, as raw ISO-8859-1 bytes. Reused across lines
+    // so that parsing a header line allocates only its name and value.
+    private byte[] line = new byte[128];
+    private int length;
     private String statusLine;
     private int responseCode;
     private HttpHeaders headers;
@@ -85,14 +112,14 @@ class Http1HeaderParser {
         if (stateName.contains("INITIAL")) {
             return format("HTTP/1.1 header parser received no bytes");
         } else if (stateName.contains("STATUS")) {
-            msg = format("parsing HTTP/1.1 status line, receiving [%s]", sb.toString());
+            msg = format("parsing HTTP/1.1 status line, receiving [%s]", lineString());
         } else if (stateName.contains("HEADER")) {
-            String headerName = sb.toString();
+            String headerName = lineString();
             if (headerName.indexOf(':') != -1)
                 headerName = headerName.substring(0, headerName.indexOf(':')+1) + "...";
             msg = format("parsing HTTP/1.1 header, receiving [%s]", headerName);
         } else {
-            msg =format("HTTP/1.1 parser receiving [%s]", state, sb.toString());
+            msg =format("HTTP/1.1 parser receiving [%s]", state, lineString());
         }
         return format("%s, parser state [%s]", msg , state);
     }
@@ -167,11 +194,7 @@ class Http1HeaderParser {
     }
 
     private void readResumeStatusLine(ByteBuffer input) {
-        char c = 0;
-        while (input.hasRemaining() && (c =(char)input.get()) != CR) {
-            if (c == LF) break;
-            sb.append(c);
-        }
+        int c = readLine(input, false);
         if (c == CR) {
             state = State.STATUS_LINE_FOUND_CR;
         } else if (c == LF) {
@@ -180,43 +203,43 @@ class Http1HeaderParser {
     }
 
     private void readStatusLineFeed(ByteBuffer input) throws ProtocolException {
-        char c = state == State.STATUS_LINE_FOUND_LF ? LF : (char)input.get();
+        char c = state == State.STATUS_LINE_FOUND_LF ? LF : toChar(input.get());
         if (c != LF) {
             throw protocolException("Bad trailing char, \"%s\", when parsing status line, \"%s\"",
-                                    c, sb.toString());
+                                    c, lineString());
         }
 
-        statusLine = sb.toString();
-        sb = new StringBuilder();
+        statusLine = lineString();
+        length = 0;
         if (!statusLine.startsWith("HTTP/1.")) {
             throw protocolException("Invalid status line: \"%s\"", statusLine);
         }
         if (statusLine.length() < 12) {
             throw protocolException("Invalid status line: \"%s\"", statusLine);
         }
-        responseCode = Integer.parseInt(statusLine.substring(9, 12));
+        responseCode = Integer.parseInt(statusLine, 9, 12, 10);
 
         state = State.STATUS_LINE_END;
     }
 
     private void maybeStartHeaders(ByteBuffer input) {
         assert state == State.STATUS_LINE_END;
-        assert sb.length() == 0;
-        char c = (char)input.get();
+        assert length == 0;
+        char c = toChar(input.get());
         if (c == CR) {
             state = State.STATUS_LINE_END_CR;
         } else if (c == LF) {
             state = State.STATUS_LINE_END_LF;
         } else {
-            sb.append(c);
+            append(c);
             state = State.HEADER;
         }
     }
 
     private void maybeEndHeaders(ByteBuffer input) throws ProtocolException {
         assert state == State.STATUS_LINE_END_CR || state == State.STATUS_LINE_END_LF;
-        assert sb.length() == 0;
-        char c = state == State.STATUS_LINE_END_LF ? LF : (char)input.get();
+        assert length == 0;
+        char c = state == State.STATUS_LINE_END_LF ? LF : toChar(input.get());
         if (c == LF) {
             headers = HttpHeaders.of(privateMap, ACCEPT_ALL);
             privateMap = null;
@@ -229,64 +252,80 @@ class Http1HeaderParser {
     private void readResumeHeader(ByteBuffer input) {
         assert state == State.HEADER;
         assert input.hasRemaining();
-        while (input.hasRemaining()) {
-            char c = (char)input.get();
-            if (c == CR) {
-                state = State.HEADER_FOUND_CR;
-                break;
-            } else if (c == LF) {
-                state = State.HEADER_FOUND_LF;
-                break;
-            }
-
-            if (c == HT)
-                c = SP;
-            sb.append(c);
+        int c = readLine(input, true);
+        if (c == CR) {
+            state = State.HEADER_FOUND_CR;
+        } else if (c == LF) {
+            state = State.HEADER_FOUND_LF;
         }
     }
 
-    private void addHeaderFromString(String headerString) {
-        assert sb.length() == 0;
-        int idx = headerString.indexOf(':');
-        if (idx == -1)
+    // Adds the header held in the line buffer, then clears the buffer.
+    private void flushHeader() {
+        byte[] b = line;
+        int end = length;
+        length = 0;
+        int idx = 0;
+        while (idx < end && b[idx] != ':')
+            idx++;
+        if (idx == end)
             return;
-        String name = headerString.substring(0, idx).trim();
-        if (name.isEmpty())
+
+        // trim as String::trim does
+        int start = 0, nameEnd = idx;
+        while (start < nameEnd && (b[start] & 0xff) <= SP)
+            start++;
+        while (nameEnd > start && (b[nameEnd - 1] & 0xff) <= SP)
+            nameEnd--;
+        if (start == nameEnd)
             return;
-        String value = headerString.substring(idx + 1, headerString.length()).trim();
+        int valueStart = idx + 1;
+        while (valueStart < end && (b[valueStart] & 0xff) <= SP)
+            valueStart++;
+        while (end > valueStart && (b[end - 1] & 0xff) <= SP)
+            end--;
 
-        privateMap.computeIfAbsent(name.toLowerCase(Locale.US),
-                                   k -> new ArrayList<>()).add(value);
+        String name = lookup(COMMON_NAMES, b, start, nameEnd, true);
+        if (name == null)
+            name = new String(b, start, nameEnd - start, ISO_8859_1).toLowerCase(Locale.US);
+        String value = lookup(COMMON_VALUES, b, valueStart, end, false);
+        if (value == null)
+            value = new String(b, valueStart, end - valueStart, ISO_8859_1);
+
+        List<String> values = privateMap.get(name);
+        if (values == null) {
+            values = new ArrayList<>(1);
+            privateMap.put(name, values);
+        }
+        values.add(value);
     }
 
     private void resumeOrLF(ByteBuffer input) {
         assert state == State.HEADER_FOUND_CR || state == State.HEADER_FOUND_LF;
-        char c = state == State.HEADER_FOUND_LF ? LF : (char)input.get();
+        char c = state == State.HEADER_FOUND_LF ? LF : toChar(input.get());
         if (c == LF) {
             // header value will be flushed by
             // resumeOrSecondCR if next line does not
             // begin by SP or HT
             state = State.HEADER_FOUND_CR_LF;
         } else if (c == SP || c == HT) {
-            sb.append(SP); // parity with MessageHeaders
+            append(SP); // parity with MessageHeaders
             state = State.HEADER;
         } else {
-            sb = new StringBuilder();
-            sb.append(c);
+            length = 0;
+            append(c);
             state = State.HEADER;
         }
     }
 
     private void resumeOrSecondCR(ByteBuffer input) {
         assert state == State.HEADER_FOUND_CR_LF;
-        char c = (char)input.get();
+        char c = toChar(input.get());
         if (c == CR || c == LF) {
-            if (sb.length() > 0) {
+            if (length > 0) {
                 // no continuation line - flush
                 // previous header value.
-                String headerString = sb.toString();
-                sb = new StringBuilder();
-                addHeaderFromString(headerString);
+                flushHeader();
             }
             if (c == CR) {
                 state = State.HEADER_FOUND_CR_LF_CR;
@@ -296,25 +335,23 @@ class Http1HeaderParser {
                 privateMap = null;
             }
         } else if (c == SP || c == HT) {
-            assert sb.length() != 0;
-            sb.append(SP); // continuation line
+            assert length != 0;
+            append(SP); // continuation line
             state = State.HEADER;
         } else {
-            if (sb.length() > 0) {
+            if (length > 0) {
                 // no continuation line - flush
                 // previous header value.
-                String headerString = sb.toString();
-                sb = new StringBuilder();
-                addHeaderFromString(headerString);
+                flushHeader();
             }
-            sb.append(c);
+            append(c);
             state = State.HEADER;
         }
     }
 
     private void resumeOrEndHeaders(ByteBuffer input) throws ProtocolException {
         assert state == State.HEADER_FOUND_CR_LF_CR;
-        char c = (char)input.get();
+        char c = toChar(input.get());
         if (c == LF) {
             state = State.FINISHED;
             headers = HttpHeaders.of(privateMap, ACCEPT_ALL);
@@ -327,4 +364,115 @@ class Http1HeaderParser {
     private ProtocolException protocolException(String format, Object... args) {
         return new ProtocolException(format(format, args));
     }
+
+    /**
+     * Appends bytes from input to the line buffer, up to and excluding the
+     * first CR or LF, which is consumed and returned. Returns -1 if the input
+     * is exhausted first. A header line has its HT characters replaced by SP.
+     * Heap buffers are scanned and copied in bulk.
+     */
+    private int readLine(ByteBuffer input, boolean header) {
+        if (input.hasArray()) {
+            byte[] a = input.array();
+            int off = input.arrayOffset();
+            int from = off + input.position();
+            int limit = off + input.limit();
+            int i = from;
+            while (i < limit && a[i] != CR && a[i] != LF)
+                i++;
+            int n = i - from;
+            ensureCapacity(n);
+            System.arraycopy(a, from, line, length, n);
+            if (header) {
+                for (int j = length, end = length + n; j < end; j++) {
+                    if (line[j] == HT)
+                        line[j] = SP;
+                }
+            }
+            length += n;
+            if (i == limit) {
+                input.position(limit - off);
+                return -1;
+            }
+            input.position(i + 1 - off);
+            return a[i];
+        }
+
+        while (input.hasRemaining()) {
+            byte b = input.get();
+            if (b == CR || b == LF)
+                return b;
+            if (header && b == HT)
+                b = SP;
+            ensureCapacity(1);
+            line[length++] = b;
+        }
+        return -1;
+    }
+
+    private void append(char c) {
+        ensureCapacity(1);
+        line[length++] = (byte) c;
+    }
+
+    private void ensureCapacity(int n) {
+        if (length + n > line.length)
+            line = Arrays.copyOf(line, Math.max(line.length << 1, length + n));
+    }
+
+    private String lineString() {
+        return new String(line, 0, length, ISO_8859_1);
+    }
+
+    private static char toChar(byte b) {
+        return (char) (b & 0xff);
+    }
+
+    // Builds an open-addressing table of the given strings, hashed as
+    // by hash(); the table size is a power of two at least twice the count.
+    private static String[] table(String... strings) {
+        int n = Integer.highestOneBit(strings.length * 2 - 1) << 1;
+        String[] table = new String[n];
+        for (String s : strings) {
+            int i = hash(s.getBytes(ISO_8859_1), 0, s.length(), false) & (n - 1);
+            while (table[i] != null)
+                i = (i + 1) & (n - 1);
+            table[i] = s;
+        }
+        return table;
+    }
+
+    private static int hash(byte[] b, int from, int to, boolean ignoreCase) {
+        int h = 0;
+        for (int i = from; i < to; i++)
+            h = 31 * h + (ignoreCase ? toLowerCase(b[i]) : b[i]);
+        return h ^ (h >>> 16);
+    }
+
+    private static int toLowerCase(byte b) {
+        return (b >= 'A' && b <= 'Z') ? b + ('a' - 'A') : b;
+    }
+
+    // Returns the string of the table equal to the given bytes, or null.
+    // Strings in a case-insensitive table are lower case.
+    private static String lookup(String[] table, byte[] b, int from, int to, boolean ignoreCase) {
+        int n = to - from;
+        int mask = table.length - 1;
+        for (int i = hash(b, from, to, ignoreCase) & mask; ; i = (i + 1) & mask) {
+            String s = table[i];
+            if (s == null)
+                return null;
+            if (s.length() == n && matches(s, b, from, ignoreCase))
+                return s;
+        }
+    }
+
+    private static boolean matches(String s, byte[] b, int from, boolean ignoreCase) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            int c = ignoreCase ? toLowerCase(b[from + i]) : b[from + i];
+            if (s.charAt(i) != c)
+                return false;
+        }
+        return true;
+    }
 }
@@ -128,6 +128,9 @@ public class Encoder {
 
     private boolean encoding;
 
+    // Direct-mapped cache of recently encoded headers, see analysedHeader()
+    private final AnalysedHeader[] analysedHeaders = new AnalysedHeader[64];
+
     private int maxCapacity;
     private int currCapacity;
     private int lastCapacity;
@@ -238,11 +241,27 @@ public class Encoder {
         requireNonNull(name, "name");
         requireNonNull(value, "value");
         HeaderTable t = getHeaderTable();
-        int index = t.indexOf(name, value);
+        int index;
+        boolean huffmanName = false;
+        boolean huffmanValue = false;
+        // sensitive values are never kept in the cache
+        AnalysedHeader a = sensitive ? null : analysedHeader(t, name, value);
+        if (a != null) {
+            index = a.index;
+            huffmanName = a.huffmanName;
+            huffmanValue = a.huffmanValue;
+        } else {
+            index = t.indexOf(name, value);
+            if (index <= 0) {
+                huffmanValue = isHuffmanBetterFor(value);
+                if (index == 0) {
+                    huffmanName = isHuffmanBetterFor(name);
+                }
+            }
+        }
         if (index > 0) {
             indexed(index);
         } else {
-            boolean huffmanValue = isHuffmanBetterFor(value);
             if (index < 0) {
                 if (sensitive) {
                     literalNeverIndexed(-index, value, huffmanValue);
@@ -250,7 +269,6 @@ public class Encoder {
                     literal(-index, value, huffmanValue);
                 }
             } else {
-                boolean huffmanName = isHuffmanBetterFor(name);
                 if (sensitive) {
                     literalNeverIndexed(name, huffmanName, value, huffmanValue);
                 } else {
@@ -260,6 +278,73 @@ public class Encoder {
         }
     }
 
+    /*
+     * Returns the (possibly cached) analysis of the given header, or null if
+     * the header is not eligible for caching.
+     *
+     * A connection sends the same headers (e.g. ":method", ":scheme",
+     * "user-agent", "accept") on every stream. Remembering the table index and
+     * the Huffman decisions for them spares the table lookup, which may
+     * allocate, and two passes over the strings per repeated header.
+     *
+     * Only String arguments are cached, since other CharSequences might be
+     * mutated after the call. Sensitive headers are not cached at all, so
+     * that secrets do not outlive the call in a long-lived encoder. On a
+     * miss the entry of the slot is overwritten in place rather than
+     * replaced. The cached indexes are valid only while the
+     * dynamic region of the header table is empty: any entry added there
+     * shifts indexes. This is always the case for the default implementation,
+     * which does not use the dynamic region.
+     */
+    private AnalysedHeader analysedHeader(HeaderTable t,
+                                          CharSequence name,
+                                          CharSequence value) {
+        if (!(name instanceof String) || !(value instanceof String)
+                || t.length() != HeaderTable.STATIC_TABLE_LENGTH) {
+            return null;
+        }
+        String n = (String) name;
+        String v = (String) value;
+        int slot = (31 * n.hashCode() + v.hashCode())
+                & (analysedHeaders.length - 1);
+        AnalysedHeader a = analysedHeaders[slot];
+        if (a != null && a.name.equals(n) && a.value.equals(v)) {
+            return a;
+        }
+        int index = t.indexOf(n, v);
+        boolean huffmanName = index == 0 && isHuffmanBetterFor(n);
+        boolean huffmanValue = index <= 0 && isHuffmanBetterFor(v);
+        if (a == null) {
+            a = new AnalysedHeader();
+            analysedHeaders[slot] = a;
+        }
+        a.set(n, v, index, huffmanName, huffmanValue);
+        return a;
+    }
+
+    // Mutable, so that a slot can be reused; only touched while encoding,
+    // which is confined to one thread at a time
+    private static final class AnalysedHeader {
+
+        String name;
+        String value;
+        int index; // as returned by HeaderTable.indexOf
+        boolean huffmanName;
+        boolean huffmanValue;
+
+        void set(String name,
+                 String value,
+                 int index,
+                 boolean huffmanName,
+                 boolean huffmanValue) {
+            this.name = name;
+            this.value = value;
+            this.index = index;
+            this.huffmanName = huffmanName;
+            this.huffmanValue = huffmanValue;
+        }
+    }
+
     private boolean isHuffmanBetterFor(CharSequence value) {
         // prefer Huffman encoding only if it is strictly smaller than Latin-1
         return huffmanWriter.lengthOf(value) < value.length();
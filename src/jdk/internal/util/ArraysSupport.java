@@ -49,6 +49,11 @@ import jdk.internal.misc.Unsafe;
  * <p>None of the mismatch methods perform array bounds checks.  It is the
  * responsibility of the caller (direct or otherwise) to perform such checks
  * before calling this method.
+ *
+ * <p>The same word-at-a-time approach is applied to polynomial hashing
+ * ({@link #vectorizedHashCode}), to searching for a byte value
+ * ({@link #indexOf(byte[], int, int, byte)}) and to population counts.
+ * None of these methods perform bounds checks either.
  */
 
 /*
@@ -56,6 +61,10 @@ import jdk.internal.misc.Unsafe;
  *
  * 比较原理是将数组中的元素看成字节流，以long类型的长度为基准，使用位运算，一次性比较4个字节。
  * 用到了Unsafe类来获取数组元素。
+ *
+ * 此外，还提供了以long为单位批量处理元素的哈希、字节查找与计数内核：
+ * 哈希时每轮处理8个元素，用31的1~8次幂展开乘法，以打断31*h+x的串行依赖链；
+ * 字节查找与计数时将8个字节装进一个long，用SWAR位运算一次性判断其中是否含有目标字节。
  */
 public class ArraysSupport {
     public static final int LOG2_ARRAY_BOOLEAN_INDEX_SCALE = exactLog2(Unsafe.ARRAY_BOOLEAN_INDEX_SCALE);
@@ -496,6 +505,390 @@ public class ArraysSupport {
         return -1;
     }
     
+    
+    
+    
+    /*▼ 哈希 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    // vectorizedHashCode()中的元素类型，取值与HotSpot中的BasicType一致
+    public static final int T_BOOLEAN = 4;  // 无符号字节，用于Latin1-String
+    public static final int T_CHAR = 5;     // char[]，或按本地字节序存储char的byte[]（UTF16-String）
+    public static final int T_BYTE = 8;
+    public static final int T_SHORT = 9;
+    public static final int T_INT = 10;
+    
+    // 31的1~8次幂（溢出后的int值）
+    private static final int P1 = 31;
+    private static final int P2 = P1 * 31;
+    private static final int P3 = P2 * 31;
+    private static final int P4 = P3 * 31;
+    private static final int P5 = P4 * 31;
+    private static final int P6 = P5 * 31;
+    private static final int P7 = P6 * 31;
+    private static final int P8 = P7 * 31;
+    
+    /**
+     * Calculate the hash code for a range of elements of an array, the result
+     * being equal to repeatedly evaluating {@code h = 31 * h + element}
+     * starting with {@code h = initialValue}.
+     *
+     * <p>Eight elements are folded into the hash per step using precomputed
+     * powers of 31, so that consecutive multiplications do not depend on each
+     * other.  Byte elements are read eight at a time as a single {@code long}.
+     *
+     * <p>This method does not perform type checks or bounds checks.  It is the
+     * responsibility of the caller to perform such checks before calling this
+     * method.
+     *
+     * @param array        the array, a {@code byte[]} for {@link #T_BOOLEAN},
+     *                     {@link #T_BYTE} and UTF-16 encoded {@link #T_CHAR},
+     *                     otherwise an array of the corresponding element type
+     * @param fromIndex    the index of the first element to hash
+     * @param length       the number of elements to hash
+     * @param initialValue the initial hash value
+     * @param basicType    the type of elements: {@link #T_BOOLEAN} for unsigned
+     *                     bytes, {@link #T_CHAR}, {@link #T_BYTE}, {@link #T_SHORT}
+     *                     or {@link #T_INT}
+     *
+     * @return the hash code
+     */
+    // 计算array[fromIndex, fromIndex+length)的多项式哈希，结果与逐个执行h=31*h+element相同
+    public static int vectorizedHashCode(Object array, int fromIndex, int length, int initialValue, int basicType) {
+        switch(basicType) {
+            case T_BOOLEAN:
+                return hashBytes(array, Unsafe.ARRAY_BYTE_BASE_OFFSET + fromIndex, length, initialValue, 0xFF);
+            case T_BYTE:
+                return hashBytes(array, Unsafe.ARRAY_BYTE_BASE_OFFSET + fromIndex, length, initialValue, -1);
+            case T_CHAR:
+                if(array instanceof byte[]) {
+                    return hashUTF16((byte[]) array, fromIndex, length, initialValue);
+                }
+                return hashChars((char[]) array, fromIndex, length, initialValue);
+            case T_SHORT:
+                return hashShorts((short[]) array, fromIndex, length, initialValue);
+            case T_INT:
+                return hashInts((int[]) array, fromIndex, length, initialValue);
+            default:
+                throw new IllegalArgumentException("unrecognized basic type: " + basicType);
+        }
+    }
+    
+    /**
+     * Calculate the hash code for a range of signed bytes, iterating from the
+     * last byte down to the first.  The result is equal to repeatedly evaluating
+     * {@code h = 31 * h + b} starting with {@code h = initialValue}.
+     *
+     * <p>This method does not perform bounds checks.  It is the responsibility
+     * of the caller to perform such checks before calling this method.
+     *
+     * @param a            the array, or {@code null} for direct memory access
+     * @param offset       the relative offset, in bytes, from the base address of
+     *                     the array to the first byte, otherwise if the array is
+     *                     {@code null}, an absolute address pointing to the first byte
+     * @param length       the number of bytes to hash
+     * @param initialValue the initial hash value
+     *
+     * @return the hash code
+     */
+    // 由后向前计算字节序列的哈希，用于ByteBuffer
+    public static int reverseHashCode(Object a, long offset, int length, int initialValue) {
+        int h = initialValue;
+        long end = offset + length;
+        
+        // 每轮取8个字节，翻转后最后一个字节位于最低位
+        for(; end - offset >= Long.BYTES; end -= Long.BYTES) {
+            long w = U.getLongUnaligned(a, end - Long.BYTES);
+            h = hash8(h, BIG_ENDIAN ? w : Long.reverseBytes(w), -1);
+        }
+        
+        while(end>offset) {
+            h = 31 * h + U.getByte(a, --end);
+        }
+        
+        return h;
+    }
+    
+    // 按字节计算哈希，mask为0xFF时视字节为无符号数，为-1时视字节为有符号数
+    private static int hashBytes(Object a, long offset, int length, int h, int mask) {
+        long end = offset + length;
+        
+        // 每轮取8个字节，第一个字节位于最低位
+        for(; end - offset >= Long.BYTES; offset += Long.BYTES) {
+            long w = U.getLongUnaligned(a, offset);
+            h = hash8(h, BIG_ENDIAN ? Long.reverseBytes(w) : w, mask);
+        }
+        
+        for(; offset<end; offset++) {
+            h = 31 * h + (U.getByte(a, offset) & mask);
+        }
+        
+        return h;
+    }
+    
+    // 将w中的8个字节（由低位到高位）依次并入哈希
+    private static int hash8(int h, long w, int mask) {
+        return h * P8
+            + ((byte) w & mask) * P7
+            + ((byte) (w >>> 8) & mask) * P6
+            + ((byte) (w >>> 16) & mask) * P5
+            + ((byte) (w >>> 24) & mask) * P4
+            + ((byte) (w >>> 32) & mask) * P3
+            + ((byte) (w >>> 40) & mask) * P2
+            + ((byte) (w >>> 48) & mask) * P1
+            + ((byte) (w >>> 56) & mask);
+    }
+    
+    // 计算UTF16-String的哈希，char按本地字节序存储在byte[]中
+    private static int hashUTF16(byte[] a, int fromIndex, int length, int h) {
+        long offset = Unsafe.ARRAY_BYTE_BASE_OFFSET + ((long) fromIndex << 1);
+        long end = offset + ((long) length << 1);
+        
+        for(; end - offset >= 8 * Character.BYTES; offset += 8 * Character.BYTES) {
+            h = h * P8
+                + U.getChar(a, offset) * P7
+                + U.getChar(a, offset + 2) * P6
+                + U.getChar(a, offset + 4) * P5
+                + U.getChar(a, offset + 6) * P4
+                + U.getChar(a, offset + 8) * P3
+                + U.getChar(a, offset + 10) * P2
+                + U.getChar(a, offset + 12) * P1
+                + U.getChar(a, offset + 14);
+        }
+        
+        for(; offset<end; offset += Character.BYTES) {
+            h = 31 * h + U.getChar(a, offset);
+        }
+        
+        return h;
+    }
+    
+    private static int hashChars(char[] a, int fromIndex, int length, int h) {
+        int i = fromIndex;
+        int end = fromIndex + length;
+        
+        for(; end - i >= 8; i += 8) {
+            h = h * P8
+                + a[i] * P7
+                + a[i + 1] * P6
+                + a[i + 2] * P5
+                + a[i + 3] * P4
+                + a[i + 4] * P3
+                + a[i + 5] * P2
+                + a[i + 6] * P1
+                + a[i + 7];
+        }
+        
+        for(; i<end; i++) {
+            h = 31 * h + a[i];
+        }
+        
+        return h;
+    }
+    
+    private static int hashShorts(short[] a, int fromIndex, int length, int h) {
+        int i = fromIndex;
+        int end = fromIndex + length;
+        
+        for(; end - i >= 8; i += 8) {
+            h = h * P8
+                + a[i] * P7
+                + a[i + 1] * P6
+                + a[i + 2] * P5
+                + a[i + 3] * P4
+                + a[i + 4] * P3
+                + a[i + 5] * P2
+                + a[i + 6] * P1
+                + a[i + 7];
+        }
+        
+        for(; i<end; i++) {
+            h = 31 * h + a[i];
+        }
+        
+        return h;
+    }
+    
+    private static int hashInts(int[] a, int fromIndex, int length, int h) {
+        int i = fromIndex;
+        int end = fromIndex + length;
+        
+        for(; end - i >= 8; i += 8) {
+            h = h * P8
+                + a[i] * P7
+                + a[i + 1] * P6
+                + a[i + 2] * P5
+                + a[i + 3] * P4
+                + a[i + 4] * P3
+                + a[i + 5] * P2
+                + a[i + 6] * P1
+                + a[i + 7];
+        }
+        
+        for(; i<end; i++) {
+            h = 31 * h + a[i];
+        }
+        
+        return h;
+    }
+    
+    /*▲ 哈希 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
+    /*▼ 查找/计数 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+    
+    /**
+     * Find the index of the first occurrence of a byte value in a range of
+     * an array.  Eight bytes are compared at a time as a single {@code long}.
+     *
+     * <p>This method does not perform bounds checks.  It is the responsibility
+     * of the caller to perform such checks before calling this method.
+     *
+     * @param a         the array to be searched
+     * @param fromIndex the index of the first element (inclusive) to be searched
+     * @param toIndex   the index of the last element (exclusive) to be searched
+     * @param value     the value to be searched for
+     *
+     * @return the index of the first occurrence of the value, otherwise -1
+     */
+    // 返回value在a[fromIndex, toIndex)中第一次出现的下标，找不到时返回-1
+    public static int indexOf(byte[] a, int fromIndex, int toIndex, byte value) {
+        int i = fromIndex;
+        
+        if(toIndex - i >= Long.BYTES) {
+            // 将value复制到long的每个字节上
+            long pattern = (value & 0xFFL) * ONES;
+            long offset = Unsafe.ARRAY_BYTE_BASE_OFFSET + i;
+            for(; toIndex - i >= Long.BYTES; i += Long.BYTES, offset += Long.BYTES) {
+                long hits = zeroBytes(U.getLongUnaligned(a, offset) ^ pattern);
+                if(hits != 0) {
+                    int bits = BIG_ENDIAN ? Long.numberOfLeadingZeros(hits) : Long.numberOfTrailingZeros(hits);
+                    return i + (bits >>> LOG2_BYTE_BIT_SIZE);
+                }
+            }
+        }
+        
+        for(; i<toIndex; i++) {
+            if(a[i] == value) {
+                return i;
+            }
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Count the leading non-negative bytes, that is ASCII characters, in a
+     * range of an array.  Eight bytes are tested at a time as a single
+     * {@code long}.
+     *
+     * <p>This method does not perform bounds checks.  It is the responsibility
+     * of the caller to perform such checks before calling this method.
+     *
+     * @param a         the array
+     * @param fromIndex the index of the first element (inclusive) to be tested
+     * @param toIndex   the index of the last element (exclusive) to be tested
+     *
+     * @return the number of elements before the first negative one, or
+     * {@code toIndex - fromIndex} if there is no negative element
+     */
+    // 统计a[fromIndex, toIndex)开头连续的非负字节（ASCII字符）的数量
+    public static int countPositives(byte[] a, int fromIndex, int toIndex) {
+        long offset = Unsafe.ARRAY_BYTE_BASE_OFFSET + fromIndex;
+        return countPositives((Object) a, offset, toIndex - fromIndex);
+    }
+    
+    /**
+     * Count the leading non-negative bytes in a range of memory, addressed
+     * either as an offset into a byte array or, if {@code base} is
+     * {@code null}, as an absolute address such as the one of a direct
+     * buffer.  Eight bytes are tested at a time as a single {@code long}.
+     *
+     * <p>This method does not perform bounds checks.  It is the responsibility
+     * of the caller to perform such checks, and to keep the memory reachable,
+     * while calling this method.
+     *
+     * @param base   the byte array, or {@code null}
+     * @param offset the offset into the array, or the address
+     * @param length the number of bytes to be tested
+     *
+     * @return the number of bytes before the first negative one, or
+     * {@code length} if there is no negative byte
+     */
+    // 统计从base+offset处开始的length个字节中，开头连续的非负字节的数量
+    public static int countPositives(Object base, long offset, int length) {
+        int i = 0;
+        
+        for(; length - i >= Long.BYTES; i += Long.BYTES) {
+            long signs = U.getLongUnaligned(base, offset + i) & ~LOW7;
+            if(signs != 0) {
+                int bits = BIG_ENDIAN ? Long.numberOfLeadingZeros(signs) : Long.numberOfTrailingZeros(signs);
+                return i + (bits >>> LOG2_BYTE_BIT_SIZE);
+            }
+        }
+        
+        for(; i<length; i++) {
+            if(U.getByte(base, offset + i)<0) {
+                return i;
+            }
+        }
+        
+        return length;
+    }
+    
+    /**
+     * Count the one-bits in a range of a {@code long} array.
+     *
+     * <p>Four independent partial sums are kept so that consecutive
+     * {@code Long.bitCount} operations do not depend on each other.
+     *
+     * <p>This method does not perform bounds checks.  It is the responsibility
+     * of the caller to perform such checks before calling this method.
+     *
+     * @param a         the array
+     * @param fromIndex the index of the first element (inclusive)
+     * @param toIndex   the index of the last element (exclusive)
+     *
+     * @return the number of one-bits
+     */
+    // 统计a[fromIndex, toIndex)中所有比特位为1的数量
+    public static int bitCount(long[] a, int fromIndex, int toIndex) {
+        int i = fromIndex;
+        int c0 = 0, c1 = 0, c2 = 0, c3 = 0;
+        
+        for(; toIndex - i >= 4; i += 4) {
+            c0 += Long.bitCount(a[i]);
+            c1 += Long.bitCount(a[i + 1]);
+            c2 += Long.bitCount(a[i + 2]);
+            c3 += Long.bitCount(a[i + 3]);
+        }
+        
+        for(; i<toIndex; i++) {
+            c0 += Long.bitCount(a[i]);
+        }
+        
+        return c0 + c1 + c2 + c3;
+    }
+    
+    /*
+     * 返回一个掩码：x中值为0的字节在掩码中对应0x80，其余字节为0
+     *
+     * 低7位加上0x7F后，只有低7位全为0的字节不会向最高位进位，
+     * 再与x本身取或，则只有整个字节为0时最高位仍为0。
+     * 该算法各字节之间没有借位干扰，所以掩码是精确的。
+     */
+    private static long zeroBytes(long x) {
+        long y = (x & LOW7) + LOW7;
+        return ~(y | x | LOW7);
+    }
+    
+    /*▲ 查找/计数 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+    
+    
     private static int exactLog2(int scale) {
         if((scale & (scale - 1)) != 0)
             throw new Error("data type scale not a power of two");
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package jdk.internal.util;
+
+/**
+ * A consumer of chunks of primitive values.
+ *
+ * <p>Array-backed spliterators of {@code java.base} check whether the action
+ * passed to {@code forEachRemaining} implements this interface, and if so
+ * push all remaining elements with a single call instead of one call per
+ * element.  The stream implementation uses it to let its sinks process
+ * elements in bulk.
+ *
+ * <p>The array passed to the {@code accept} methods may be the backing array
+ * of the source.  Implementations must neither modify it nor retain it after
+ * the method returns.
+ */
+// 批量接收基本类型元素的消费者，数组流迭代器在遍历时可以一次性将一段连续元素推送给它
+public interface BulkConsumer {
+    
+    /**
+     * Accepts the int values {@code values[offset, offset + length)} in order.
+     *
+     * @param values the array holding the values, not to be modified
+     * @param offset the index of the first value
+     * @param length the number of values
+     */
+    // 按顺序接收values[offset, offset+length)中的int元素
+    void accept(int[] values, int offset, int length);
+    
+    /**
+     * Accepts the long values {@code values[offset, offset + length)} in order.
+     *
+     * @param values the array holding the values, not to be modified
+     * @param offset the index of the first value
+     * @param length the number of values
+     */
+    // 按顺序接收values[offset, offset+length)中的long元素
+    void accept(long[] values, int offset, int length);
+    
+    /**
+     * Accepts the double values {@code values[offset, offset + length)} in order.
+     *
+     * @param values the array holding the values, not to be modified
+     * @param offset the index of the first value
+     * @param length the number of values
+     */
+    // 按顺序接收values[offset, offset+length)中的double元素
+    void accept(double[] values, int offset, int length);
+    
+}
@@ -28,6 +28,7 @@ package jdk.jfr.consumer;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Predicate;
 
 import jdk.jfr.EventType;
 import jdk.jfr.internal.LogLevel;
@@ -57,6 +58,17 @@ final class ChunkParser {
     }
 
     private ChunkParser(ChunkHeader header) throws IOException {
+        this(header, null);
+    }
+
+    /**
+     * Creates a parser that only returns events whose type is accepted by the
+     * filter. Events of other types are skipped by their size, without being
+     * decoded.
+     *
+     * @param filter event type filter, or {@code null} to return all events
+     */
+    ChunkParser(ChunkHeader header, Predicate<? super EventType> filter) throws IOException {
         this.input = header.getInput();
         this.chunkHeader = header;
         this.metadata = header.readMetadata();
@@ -67,6 +79,13 @@ final class ChunkParser {
         LongMap<ConstantMap> constantPools = factory.getConstantPools();
         parsers = factory.getParsers();
         typeMap = factory.getTypeMap();
+        if (filter != null) {
+            for (EventType t : metadata.getEventTypes()) {
+                if (!filter.test(t)) {
+                    parsers.remove(t.getId());
+                }
+            }
+        }
 
         fillConstantPools(parsers, constantPools);
         constantPools.forEach(ConstantMap::setIsResolving);
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package jdk.jfr.consumer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import jdk.jfr.EventType;
+import jdk.jfr.internal.consumer.ChunkHeader;
+import jdk.jfr.internal.consumer.RecordingInput;
+
+/**
+ * Spliterator over the events of a recording file that splits on chunk
+ * boundaries.
+ * <p>
+ * Chunks are self-contained, each one carries its own metadata and constant
+ * pools, so they can be parsed independently of each other. Every chunk is
+ * memory-mapped and parsed by a {@link ChunkParser} of its own when the
+ * spliterator reaches it.
+ */
+final class ChunkSpliterator implements Spliterator<RecordedEvent> {
+    private static final int HEADER_PREFIX_SIZE = 16; // magic, major, minor, chunk size
+    private static final int MAGIC = 0x464C5200; // "FLR\0"
+
+    private final FileChannel channel;
+    // chunkStarts[i] is the absolute position of chunk i,
+    // chunkStarts[chunkStarts.length - 1] is the size of the file
+    private final long[] chunkStarts;
+    private final Predicate<? super EventType> filter;
+    private int index; // next chunk to open
+    private final int fence;
+    private ChunkParser parser;
+
+    ChunkSpliterator(FileChannel channel, Predicate<? super EventType> filter) throws IOException {
+        this(channel, findChunks(channel), filter);
+    }
+
+    private ChunkSpliterator(FileChannel channel, long[] chunkStarts, Predicate<? super EventType> filter) {
+        this(channel, chunkStarts, filter, 0, chunkStarts.length - 1);
+    }
+
+    private ChunkSpliterator(FileChannel channel, long[] chunkStarts, Predicate<? super EventType> filter, int index, int fence) {
+        this.channel = channel;
+        this.chunkStarts = chunkStarts;
+        this.filter = filter;
+        this.index = index;
+        this.fence = fence;
+    }
+
+    // Reads only the size field of every chunk header
+    private static long[] findChunks(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long[] starts = new long[8];
+        int count = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_PREFIX_SIZE);
+        long position = 0;
+        do {
+            header.clear();
+            while (header.hasRemaining()) {
+                if (channel.read(header, position + header.position()) < 0) {
+                    throw new IOException("Chunk header at position " + position + " is truncated");
+                }
+            }
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a Flight Recorder file");
+            }
+            long chunkSize = header.getLong(8);
+            if (chunkSize < HEADER_PREFIX_SIZE || position + chunkSize > size) {
+                throw new IOException("Chunk at position " + position + " has invalid size " + chunkSize + ", file is " + size + " bytes.");
+            }
+            if (count == starts.length - 1) {
+                starts = Arrays.copyOf(starts, starts.length * 2);
+            }
+            starts[count++] = position;
+            position += chunkSize;
+        } while (position < size);
+        starts[count++] = size;
+        return Arrays.copyOf(starts, count);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super RecordedEvent> action) {
+        Objects.requireNonNull(action);
+        try {
+            while (true) {
+                if (parser != null) {
+                    RecordedEvent event = parser.readEvent();
+                    if (event != null) {
+                        action.accept(event);
+                        return true;
+                    }
+                    parser = null;
+                }
+                if (index >= fence) {
+                    return false;
+                }
+                parser = openChunk(index++);
+            }
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super RecordedEvent> action) {
+        Objects.requireNonNull(action);
+        try {
+            while (true) {
+                if (parser != null) {
+                    RecordedEvent event;
+                    while ((event = parser.readEvent()) != null) {
+                        action.accept(event);
+                    }
+                    parser = null;
+                }
+                if (index >= fence) {
+                    return;
+                }
+                parser = openChunk(index++);
+            }
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+    }
+
+    private ChunkParser openChunk(int chunk) throws IOException {
+        long start = chunkStarts[chunk];
+        RecordingInput input = new RecordingInput(channel, start, chunkStarts[chunk + 1] - start);
+        return new ChunkParser(new ChunkHeader(input, start, chunk), filter);
+    }
+
+    /**
+     * Splits off a prefix of the chunks not yet opened, holding about half of
+     * their bytes. Returns {@code null} if less than two such chunks remain.
+     */
+    @Override
+    public Spliterator<RecordedEvent> trySplit() {
+        int lo = index;
+        if (fence - lo < 2) {
+            return null;
+        }
+        long half = chunkStarts[lo] + (chunkStarts[fence] - chunkStarts[lo]) / 2;
+        int mid = Arrays.binarySearch(chunkStarts, lo + 1, fence, half);
+        if (mid < 0) {
+            mid = -mid - 1; // first chunk starting after the half
+        }
+        if (mid == fence) {
+            mid = fence - 1;
+        }
+        index = mid;
+        return new ChunkSpliterator(channel, chunkStarts, filter, lo, mid);
+    }
+
+    /**
+     * Returns the number of bytes of the chunks not yet opened, the number of
+     * events can't be known without parsing.
+     */
+    @Override
+    public long estimateSize() {
+        return chunkStarts[fence] - chunkStarts[index];
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+}
@@ -50,6 +50,10 @@ final class LongMap<T> implements Iterable<T> {
         return map.get(id);
     }
 
+    void remove(long id) {
+        map.remove(id);
+    }
+
     @Override
     public Iterator<T> iterator() {
         return map.values().iterator();
@@ -29,11 +29,18 @@ import java.io.Closeable;
 import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import jdk.jfr.EventType;
 import jdk.jfr.internal.MetadataDescriptor;
@@ -194,6 +201,74 @@ public final class RecordingFile implements Closeable {
         }
     }
 
+    /**
+     * Returns a parallel stream of the events in a recording file.
+     * <p>
+     * The file is memory-mapped and its chunks are parsed independently, so
+     * the stream splits on chunk boundaries and the chunks are parsed
+     * concurrently when the stream pipeline is executed in parallel. By
+     * default parallel stream pipelines run in the common
+     * {@link java.util.concurrent.ForkJoinPool ForkJoinPool}; a terminal
+     * operation invoked from a task of another pool runs in that pool.
+     * <p>
+     * Events whose type is rejected by {@code filter} are skipped by their
+     * size without being decoded, which is considerably cheaper than
+     * filtering the stream.
+     * <p>
+     * The encounter order of the stream is the order of the events in the
+     * file. The returned stream holds an open file, and should be closed, for
+     * example by a try-with-resources statement:
+     *
+     * <pre>
+     * <code>
+     * try (Stream&lt;RecordedEvent&gt; events = RecordingFile.parallelEvents(
+     *         Paths.get("recording.jfr"), t -&gt; t.getName().equals("jdk.ObjectAllocationInNewTLAB"))) {
+     *   long total = events.mapToLong(e -&gt; e.getLong("tlabSize")).sum();
+     * }
+     * </code>
+     * </pre>
+     *
+     * If an I/O error occurs while parsing, or the file is not a valid
+     * recording, an {@link UncheckedIOException} is thrown from the stream
+     * operation that caused it.
+     *
+     * @param path the path to the file, not {@code null}
+     * @param filter the predicate selecting the types of the events to return,
+     *        or {@code null} to return all events
+     *
+     * @return a parallel stream of the events in the file, not {@code null}
+     *
+     * @throws IOException if an I/O error occurred, or the chunk structure of
+     *         the file is not valid
+     * @throws NoSuchFileException if the {@code path} can't be located
+     *
+     * @throws SecurityException if a security manager exists and its
+     *         {@code checkRead} method denies read access to the file.
+     *
+     * @since 11
+     */
+    public static Stream<RecordedEvent> parallelEvents(Path path, Predicate<? super EventType> filter) throws IOException {
+        Objects.requireNonNull(path);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ChunkSpliterator spliterator = new ChunkSpliterator(channel, filter);
+            return StreamSupport.stream(spliterator, true).onClose(() -> {
+                try {
+                    channel.close();
+                } catch (IOException ioe) {
+                    throw new UncheckedIOException(ioe);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            try {
+                channel.close();
+            } catch (IOException ioe) {
+                e.addSuppressed(ioe);
+            }
+            throw e;
+        }
+    }
+
     // either sets next to an event or sets eof to true
     private void findNext() throws IOException {
         while (nextEvent == null) {
@@ -58,7 +58,7 @@ public final class ChunkHeader {
         this(input, 0, 0);
     }
 
-    private ChunkHeader(RecordingInput input, long absoluteChunkStart, long id) throws IOException {
+    public ChunkHeader(RecordingInput input, long absoluteChunkStart, long id) throws IOException {
         input.position(absoluteChunkStart);
         if (input.position() >= input.size()) {
             throw new IOException("Chunk contains no data");
@@ -30,6 +30,8 @@ import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 
 public final class RecordingInput implements DataInput, AutoCloseable {
@@ -69,6 +71,10 @@ public final class RecordingInput implements DataInput, AutoCloseable {
 
     private final RandomAccessFile file;
     private final long size;
+    // Memory-mapped region [mappedStart, mappedStart + mapped.limit()) of the
+    // file, or null if the file is read through blocks
+    private final MappedByteBuffer mapped;
+    private final long mappedStart;
     private Block currentBlock = new Block();
     private Block previousBlock = new Block();
     private long position;
@@ -78,17 +84,54 @@ public final class RecordingInput implements DataInput, AutoCloseable {
         this.size = f.length();
         this.blockSize = blockSize;
         this.file = new RandomAccessFile(f, "r");
+        this.mapped = null;
+        this.mappedStart = 0;
         if (size < 8) {
             throw new IOException("Not a valid Flight Recorder file. File length is only " + size + " bytes.");
         }
     }
 
+    /**
+     * Creates an input that reads the region {@code [start, start + length)}
+     * of a file directly from memory. Positions are still absolute positions
+     * in the file, but only positions inside the region can be read.
+     * <p>
+     * The channel is not owned by the input, closing the input does not close
+     * it. Inputs mapping different regions of the same channel can be used
+     * concurrently, for example to parse chunks in parallel.
+     */
+    public RecordingInput(FileChannel channel, long start, long length) throws IOException {
+        this.size = channel.size();
+        this.blockSize = 0;
+        this.file = null;
+        if (size < 8) {
+            throw new IOException("Not a valid Flight Recorder file. File length is only " + size + " bytes.");
+        }
+        if (start < 0 || length < 0 || start + length > size) {
+            throw new IOException("Region [" + start + ", " + (start + length) + ") is outside of file of " + size + " bytes.");
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Region of " + length + " bytes is too large to be memory-mapped.");
+        }
+        this.mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        this.mappedStart = start;
+        this.position = start;
+    }
+
     public RecordingInput(File f) throws IOException {
         this(f, DEFAULT_BLOCK_SIZE);
     }
 
     @Override
     public final byte readByte() throws IOException {
+        if (mapped != null) {
+            long offset = position - mappedStart;
+            if (offset >= mapped.limit()) {
+                throw new EOFException("Trying to read at " + position + ", but mapped region ends at " + (mappedStart + mapped.limit()) + ".");
+            }
+            position++;
+            return mapped.get((int) offset);
+        }
         if (!currentBlock.contains(position)) {
             position(position);
         }
@@ -97,6 +140,16 @@ public final class RecordingInput implements DataInput, AutoCloseable {
 
     @Override
     public final void readFully(byte[] dest, int offset, int length) throws IOException {
+        if (mapped != null) {
+            long start = position - mappedStart;
+            if (start + length > mapped.limit()) {
+                throw new EOFException("Trying to read " + length + " bytes at " + position + ", but mapped region ends at " + (mappedStart + mapped.limit()) + ".");
+            }
+            mapped.position((int) start);
+            mapped.get(dest, offset, length);
+            position += length;
+            return;
+        }
         // TODO: Optimize, use Arrays.copy if all bytes are in current block
         // array
         for (int i = 0; i < length; i++) {
@@ -155,6 +208,13 @@ public final class RecordingInput implements DataInput, AutoCloseable {
     }
 
     public final void position(long newPosition) throws IOException {
+        if (mapped != null) {
+            if (newPosition < mappedStart || newPosition > mappedStart + mapped.limit()) {
+                throw new EOFException("Trying to read at " + newPosition + ", but mapped region is [" + mappedStart + ", " + (mappedStart + mapped.limit()) + ").");
+            }
+            position = newPosition;
+            return;
+        }
         if (!currentBlock.contains(newPosition)) {
             if (!previousBlock.contains(newPosition)) {
                 if (newPosition > size()) {
@@ -196,7 +256,9 @@ public final class RecordingInput implements DataInput, AutoCloseable {
     }
 
     public final void close() throws IOException {
-        file.close();
+        if (file != null) {
+            file.close();
+        }
     }
 
     @Override
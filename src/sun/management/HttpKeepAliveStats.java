@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package sun.management;
+
+import jdk.internal.misc.JavaNetHttpKeepAliveAccess;
+import jdk.internal.misc.SharedSecrets;
+
+/**
+ * The statistics of the keep-alive cache of HttpURLConnection.
+ *
+ * java.base exports its shared secrets to java.management but not to
+ * jdk.management, so the HttpKeepAliveCacheMXBean implementation
+ * reads them through this class.
+ */
+public final class HttpKeepAliveStats {
+    private final JavaNetHttpKeepAliveAccess access;
+
+    HttpKeepAliveStats() {
+        access = SharedSecrets.getJavaNetHttpKeepAliveAccess();
+    }
+
+    public long getHitCount() {
+        return access.getHitCount();
+    }
+
+    public long getMissCount() {
+        return access.getMissCount();
+    }
+
+    public long getEvictionCount() {
+        return access.getEvictionCount();
+    }
+
+    public long getOverflowCount() {
+        return access.getOverflowCount();
+    }
+
+    public int getIdleConnectionCount() {
+        return access.getIdleConnectionCount();
+    }
+
+    public int getRouteCount() {
+        return access.getRouteCount();
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return access.getMaxConnectionsPerRoute();
+    }
+
+    public int getMaxTotalConnections() {
+        return access.getMaxTotalConnections();
+    }
+}
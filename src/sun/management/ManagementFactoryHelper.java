@@ -337,14 +337,23 @@ public class ManagementFactoryHelper {
         static final PlatformLoggingMXBean MBEAN = getInstance();
     }
 
+    private static HttpKeepAliveStats httpKeepAliveStats = null;
+    public static synchronized HttpKeepAliveStats getHttpKeepAliveStats() {
+        if (httpKeepAliveStats == null) {
+            httpKeepAliveStats = new HttpKeepAliveStats();
+        }
+        return httpKeepAliveStats;
+    }
+
     private static List<BufferPoolMXBean> bufferPools = null;
     public static synchronized List<BufferPoolMXBean> getBufferPoolMXBeans() {
         if (bufferPools == null) {
-            bufferPools = new ArrayList<>(2);
+            bufferPools = new ArrayList<>(3);
             bufferPools.add(createBufferPoolMXBean(SharedSecrets.getJavaNioAccess()
                 .getDirectBufferPool()));
             bufferPools.add(createBufferPoolMXBean(sun.nio.ch.FileChannelImpl
                 .getMappedBufferPool()));
+            bufferPools.add(createTemporaryBufferPoolMXBean());
         }
         return bufferPools;
     }
@@ -393,6 +402,67 @@ public class ManagementFactoryHelper {
         };
     }
 
+    /**
+     * Creates management interface for the pool of temporary direct buffers
+     * used by the channels.
+     */
+    private static BufferPoolMXBean createTemporaryBufferPoolMXBean() {
+        return new TemporaryBufferPoolMXBean() {
+            private volatile ObjectName objname;  // created lazily
+            @Override
+            public ObjectName getObjectName() {
+                ObjectName result = objname;
+                if (result == null) {
+                    synchronized (this) {
+                        result = objname;
+                        if (result == null) {
+                            result = Util.newObjectName(BUFFER_POOL_MXBEAN_NAME +
+                                ",name=" + getName());
+                            objname = result;
+                        }
+                    }
+                }
+                return result;
+            }
+            @Override
+            public String getName() {
+                return "temporary";
+            }
+            @Override
+            public long getCount() {
+                return sun.nio.ch.TemporaryBufferPool.getCount();
+            }
+            @Override
+            public long getTotalCapacity() {
+                return sun.nio.ch.TemporaryBufferPool.getMemoryUsed();
+            }
+            @Override
+            public long getMemoryUsed() {
+                return sun.nio.ch.TemporaryBufferPool.getMemoryUsed() + sun.nio.ch.TemporaryBufferPool.getCachedMemory();
+            }
+            @Override
+            public long getCachedMemory() {
+                return sun.nio.ch.TemporaryBufferPool.getCachedMemory();
+            }
+            @Override
+            public long getMemoryLimit() {
+                return sun.nio.ch.TemporaryBufferPool.getMemoryLimit();
+            }
+            @Override
+            public long getHitCount() {
+                return sun.nio.ch.TemporaryBufferPool.getHitCount();
+            }
+            @Override
+            public long getMissCount() {
+                return sun.nio.ch.TemporaryBufferPool.getMissCount();
+            }
+            @Override
+            public long getTrimCount() {
+                return sun.nio.ch.TemporaryBufferPool.getTrimCount();
+            }
+        };
+    }
+
     private static HotspotRuntime hsRuntimeMBean = null;
     private static HotspotClassLoading hsClassMBean = null;
     private static HotspotThread hsThreadMBean = null;
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package sun.management;
+
+import java.lang.management.BufferPoolMXBean;
+
+/**
+ * The management interface for the pool of temporary direct buffers that
+ * the channels use for I/O on heap buffers.
+ *
+ * <p> The count and the total capacity are those of the buffers handed out
+ * by the pool and not yet released; the memory used includes the buffers
+ * cached by the pool as well.
+ */
+public interface TemporaryBufferPoolMXBean extends BufferPoolMXBean {
+
+    /**
+     * Returns the total capacity of the buffers cached by the pool, in bytes.
+     */
+    long getCachedMemory();
+
+    /**
+     * Returns the limit of the total capacity of the cached buffers, in bytes.
+     */
+    long getMemoryLimit();
+
+    /**
+     * Returns the number of requests served by a cached buffer.
+     */
+    long getHitCount();
+
+    /**
+     * Returns the number of requests for which a buffer was allocated.
+     */
+    long getMissCount();
+
+    /**
+     * Returns the number of cached buffers freed because their size class
+     * was not requested for a while.
+     */
+    long getTrimCount();
+}
@@ -54,6 +54,8 @@ class HttpConnection {
 
     SocketChannel chan;
     SelectionKey selectionKey;
+    /* the selector loop which owns this connection */
+    ServerImpl.Dispatcher dispatcher;
     String protocol;
     long time;
     volatile long creationTime; // time this connection was created
@@ -47,6 +47,8 @@ class ServerConfig {
     private static final long DEFAULT_TIMER_MILLIS = 1000;
     private static final int  DEFAULT_MAX_REQ_HEADERS = 200;
     private static final long DEFAULT_DRAIN_AMOUNT = 64 * 1024;
+    private static final int  DEFAULT_SELECTOR_THREADS =
+            Runtime.getRuntime().availableProcessors();
 
     private static int clockTick;
     private static long idleInterval;
@@ -64,6 +66,11 @@ class ServerConfig {
     // the value of the TCP_NODELAY socket-level option
     private static boolean noDelay;
 
+    // use one acceptor thread plus selectorThreads selector loops
+    private static boolean multiReactor;
+    // the number of selector loops in multi-reactor mode
+    private static int selectorThreads;
+
     static {
         java.security.AccessController.doPrivileged(
             new PrivilegedAction<Void>() {
@@ -99,6 +106,16 @@ class ServerConfig {
 
                     noDelay = Boolean.getBoolean("sun.net.httpserver.nodelay");
 
+                    multiReactor = Boolean.getBoolean(
+                            "sun.net.httpserver.multiReactor");
+
+                    selectorThreads = Integer.getInteger(
+                            "sun.net.httpserver.selectorThreads",
+                            DEFAULT_SELECTOR_THREADS);
+                    if (selectorThreads <= 0) {
+                        selectorThreads = DEFAULT_SELECTOR_THREADS;
+                    }
+
                     return null;
                 }
             });
@@ -184,4 +201,12 @@ class ServerConfig {
     static boolean noDelay() {
         return noDelay;
     }
+
+    static boolean multiReactor() {
+        return multiReactor;
+    }
+
+    static int getSelectorThreads() {
+        return selectorThreads;
+    }
 }
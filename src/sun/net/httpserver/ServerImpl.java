@@ -53,16 +53,12 @@ class ServerImpl implements TimeSource {
     private ServerSocketChannel schan;
     private Selector selector;
     private SelectionKey listenerKey;
-    private Set<HttpConnection> idleConnections;
     private Set<HttpConnection> allConnections;
-    /* following two are used to keep track of the times
-     * when a connection/request is first received
-     * and when we start to send the response
+    /* the selector loops in multi-reactor mode, null otherwise.
+     * In single dispatcher mode the dispatcher accepts connections
+     * and also does all the read-readiness and timer work
      */
-    private Set<HttpConnection> reqConnections;
-    private Set<HttpConnection> rspConnections;
-    private List<Event> events;
-    private Object lolock = new Object();
+    private Dispatcher[] loops;
     private volatile boolean finished = false;
     private volatile boolean terminating = false;
     private boolean bound = false;
@@ -79,6 +75,8 @@ class ServerImpl implements TimeSource {
     final static long MAX_REQ_TIME=getTimeMillis(ServerConfig.getMaxReqTime());
     final static long MAX_RSP_TIME=getTimeMillis(ServerConfig.getMaxRspTime());
     final static boolean timer1Enabled = MAX_REQ_TIME != -1 || MAX_RSP_TIME != -1;
+    final static boolean MULTI_REACTOR = ServerConfig.multiReactor();
+    final static int SELECTOR_THREADS = ServerConfig.getSelectorThreads();
 
     private Timer timer, timer1;
     private final Logger logger;
@@ -104,22 +102,32 @@ class ServerImpl implements TimeSource {
         selector = Selector.open ();
         schan.configureBlocking (false);
         listenerKey = schan.register (selector, SelectionKey.OP_ACCEPT);
-        dispatcher = new Dispatcher();
-        idleConnections = Collections.synchronizedSet (new HashSet<HttpConnection>());
         allConnections = Collections.synchronizedSet (new HashSet<HttpConnection>());
-        reqConnections = Collections.synchronizedSet (new HashSet<HttpConnection>());
-        rspConnections = Collections.synchronizedSet (new HashSet<HttpConnection>());
         time = System.currentTimeMillis();
-        timer = new Timer ("server-timer", true);
-        timer.schedule (new ServerTimerTask(), CLOCK_TICK, CLOCK_TICK);
+        if (MULTI_REACTOR) {
+            /* the idle connection limit is shared out between the loops */
+            int maxIdle = (MAX_IDLE_CONNECTIONS + SELECTOR_THREADS - 1) / SELECTOR_THREADS;
+            dispatcher = new Dispatcher (selector, 0);
+            loops = new Dispatcher [SELECTOR_THREADS];
+            for (int i=0; i<loops.length; i++) {
+                loops[i] = new Dispatcher (Selector.open(), maxIdle);
+            }
+            logger.log (Level.DEBUG, "HttpServer multi-reactor mode, selector threads: "
+                        + SELECTOR_THREADS);
+        } else {
+            dispatcher = new Dispatcher (selector, MAX_IDLE_CONNECTIONS);
+            timer = new Timer ("server-timer", true);
+            timer.schedule (new ServerTimerTask(), CLOCK_TICK, CLOCK_TICK);
+            if (timer1Enabled) {
+                timer1 = new Timer ("server-timer1", true);
+                timer1.schedule (new ServerTimerTask1(),TIMER_MILLIS,TIMER_MILLIS);
+            }
+        }
         if (timer1Enabled) {
-            timer1 = new Timer ("server-timer1", true);
-            timer1.schedule (new ServerTimerTask1(),TIMER_MILLIS,TIMER_MILLIS);
             logger.log (Level.DEBUG, "HttpServer timer1 enabled period in ms: ", TIMER_MILLIS);
             logger.log (Level.DEBUG, "MAX_REQ_TIME:  "+MAX_REQ_TIME);
             logger.log (Level.DEBUG, "MAX_RSP_TIME:  "+MAX_RSP_TIME);
         }
-        events = new LinkedList<Event>();
         logger.log (Level.DEBUG, "HttpServer created "+protocol+" "+ addr);
     }
 
@@ -143,7 +151,19 @@ class ServerImpl implements TimeSource {
             executor = new DefaultExecutor();
         }
         dispatcherThread = new Thread(null, dispatcher, "HTTP-Dispatcher", 0, false);
+        if (loops != null) {
+            for (int i=0; i<loops.length; i++) {
+                loops[i].thread = new Thread (
+                    null, loops[i], "HTTP-Dispatcher-" + i, 0, false
+                );
+            }
+        }
         started = true;
+        if (loops != null) {
+            for (Dispatcher loop : loops) {
+                loop.thread.start();
+            }
+        }
         dispatcherThread.start();
     }
 
@@ -189,7 +209,7 @@ class ServerImpl implements TimeSource {
         }
         terminating = true;
         try { schan.close(); } catch (IOException e) {}
-        selector.wakeup();
+        wakeupAll();
         long latest = System.currentTimeMillis() + delay * 1000;
         while (System.currentTimeMillis() < latest) {
             delay();
@@ -198,24 +218,47 @@ class ServerImpl implements TimeSource {
             }
         }
         finished = true;
-        selector.wakeup();
+        wakeupAll();
         synchronized (allConnections) {
             for (HttpConnection c : allConnections) {
                 c.close();
             }
         }
         allConnections.clear();
-        idleConnections.clear();
-        timer.cancel();
-        if (timer1Enabled) {
+        dispatcher.idleConnections.clear();
+        if (loops != null) {
+            for (Dispatcher loop : loops) {
+                loop.idleConnections.clear();
+            }
+        }
+        if (timer != null) {
+            timer.cancel();
+        }
+        if (timer1 != null) {
             timer1.cancel();
         }
-        if (dispatcherThread != null) {
-            try {
+        try {
+            if (dispatcherThread != null) {
                 dispatcherThread.join();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.log (Level.TRACE, "ServerImpl.stop: ", e);
+            }
+            if (loops != null) {
+                for (Dispatcher loop : loops) {
+                    if (loop.thread != null) {
+                        loop.thread.join();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.log (Level.TRACE, "ServerImpl.stop: ", e);
+        }
+    }
+
+    private void wakeupAll () {
+        selector.wakeup();
+        if (loops != null) {
+            for (Dispatcher loop : loops) {
+                loop.selector.wakeup();
             }
         }
     }
@@ -274,16 +317,68 @@ class ServerImpl implements TimeSource {
     }
 
     void addEvent (Event r) {
-        synchronized (lolock) {
-            events.add (r);
-            selector.wakeup();
-        }
+        HttpConnection c = r.exchange.getConnection();
+        Dispatcher d = c.dispatcher != null ? c.dispatcher : dispatcher;
+        d.addEvent (r);
     }
 
-    /* main server listener task */
+    /* main server listener task. In single dispatcher mode there is exactly
+     * one of these, which accepts new connections and also waits for
+     * requests on all of them. In multi-reactor mode the acceptor
+     * Dispatcher only accepts connections and hands them out round-robin
+     * to the selector loops, each of which is a Dispatcher with its own
+     * Selector, event list and idle/request/response connection sets.
+     */
 
     class Dispatcher implements Runnable {
 
+        final Selector selector;
+        final int maxIdleConnections;
+        Thread thread;
+
+        private List<Event> events = new LinkedList<Event>();
+        private List<SocketChannel> newChannels = new LinkedList<SocketChannel>();
+        private final Object lolock = new Object();
+        private int nextLoop;
+
+        final Set<HttpConnection> idleConnections =
+            Collections.synchronizedSet (new HashSet<HttpConnection>());
+        /* following two are used to keep track of the times
+         * when a connection/request is first received
+         * and when we start to send the response
+         */
+        final Set<HttpConnection> reqConnections =
+            Collections.synchronizedSet (new HashSet<HttpConnection>());
+        final Set<HttpConnection> rspConnections =
+            Collections.synchronizedSet (new HashSet<HttpConnection>());
+
+        /* next times at which a selector loop checks its own timers */
+        private long nextIdleCheck;
+        private long nextTimer1Check;
+
+        Dispatcher (Selector selector, int maxIdleConnections) {
+            this.selector = selector;
+            this.maxIdleConnections = maxIdleConnections;
+            long now = System.currentTimeMillis();
+            nextIdleCheck = now + CLOCK_TICK;
+            nextTimer1Check = now + TIMER_MILLIS;
+        }
+
+        void addEvent (Event r) {
+            synchronized (lolock) {
+                events.add (r);
+                selector.wakeup();
+            }
+        }
+
+        /* called by the acceptor to hand a new connection to this loop */
+        void addChannel (SocketChannel chan) {
+            synchronized (lolock) {
+                newChannels.add (chan);
+                selector.wakeup();
+            }
+        }
+
         private void handleEvent (Event r) {
             ExchangeImpl t = r.exchange;
             HttpConnection c = t.getConnection();
@@ -299,7 +394,7 @@ class ServerImpl implements TimeSource {
                     if (!is.isEOF()) {
                         t.close = true;
                     }
-                    if (t.close || idleConnections.size() >= MAX_IDLE_CONNECTIONS) {
+                    if (t.close || idleConnections.size() >= maxIdleConnections) {
                         c.close();
                         allConnections.remove (c);
                     } else {
@@ -340,15 +435,53 @@ class ServerImpl implements TimeSource {
             }
         }
 
+        /* registers a newly accepted connection with this loop */
+        void register (SocketChannel chan) {
+            try {
+                // Set TCP_NODELAY, if appropriate
+                if (ServerConfig.noDelay()) {
+                    chan.socket().setTcpNoDelay(true);
+                }
+                chan.configureBlocking (false);
+                SelectionKey newkey =
+                    chan.register (selector, SelectionKey.OP_READ);
+                HttpConnection c = new HttpConnection ();
+                c.selectionKey = newkey;
+                c.dispatcher = this;
+                c.setChannel (chan);
+                newkey.attach (c);
+                requestStarted (c);
+                allConnections.add (c);
+            } catch (IOException e) {
+                logger.log (Level.TRACE, "Dispatcher (9)", e);
+                try { chan.close(); } catch (IOException e1) {}
+            }
+        }
+
         public void run() {
+            /* selector loops must wake up at least once per timer
+             * period, so that they can run their own timers
+             */
+            long selectTimeout = 1000;
+            if (loops != null && this != dispatcher) {
+                selectTimeout = Math.min (selectTimeout, CLOCK_TICK);
+                if (timer1Enabled) {
+                    selectTimeout = Math.min (selectTimeout, TIMER_MILLIS);
+                }
+            }
             while (!finished) {
                 try {
                     List<Event> list = null;
+                    List<SocketChannel> chans = null;
                     synchronized (lolock) {
                         if (events.size() > 0) {
                             list = events;
                             events = new LinkedList<Event>();
                         }
+                        if (newChannels.size() > 0) {
+                            chans = newChannels;
+                            newChannels = new LinkedList<SocketChannel>();
+                        }
                     }
 
                     if (list != null) {
@@ -357,12 +490,18 @@ class ServerImpl implements TimeSource {
                         }
                     }
 
+                    if (chans != null) {
+                        for (SocketChannel chan : chans) {
+                            register (chan);
+                        }
+                    }
+
                     for (HttpConnection c : connsToRegister) {
                         reRegister(c);
                     }
                     connsToRegister.clear();
 
-                    selector.select(1000);
+                    selector.select(selectTimeout);
 
                     /* process the selected list now  */
                     Set<SelectionKey> selected = selector.selectedKeys();
@@ -378,19 +517,12 @@ class ServerImpl implements TimeSource {
 
                             // optimist there's a channel
                             if (chan != null) {
-                                // Set TCP_NODELAY, if appropriate
-                                if (ServerConfig.noDelay()) {
-                                    chan.socket().setTcpNoDelay(true);
+                                if (loops == null) {
+                                    register (chan);
+                                } else {
+                                    loops[nextLoop].addChannel (chan);
+                                    nextLoop = (nextLoop + 1) % loops.length;
                                 }
-                                chan.configureBlocking (false);
-                                SelectionKey newkey =
-                                    chan.register (selector, SelectionKey.OP_READ);
-                                HttpConnection c = new HttpConnection ();
-                                c.selectionKey = newkey;
-                                c.setChannel (chan);
-                                newkey.attach (c);
-                                requestStarted (c);
-                                allConnections.add (c);
                             }
                         } else {
                             try {
@@ -418,6 +550,10 @@ class ServerImpl implements TimeSource {
                     }
                     // call the selector just to process the cancelled keys
                     selector.selectNow();
+
+                    if (loops != null && this != dispatcher) {
+                        runTimers();
+                    }
                 } catch (IOException e) {
                     logger.log (Level.TRACE, "Dispatcher (4)", e);
                 } catch (Exception e) {
@@ -427,6 +563,73 @@ class ServerImpl implements TimeSource {
             try {selector.close(); } catch (Exception e) {}
         }
 
+        /* in multi-reactor mode each selector loop expires its own
+         * idle connections and stalled requests/responses
+         */
+        private void runTimers () {
+            long now = System.currentTimeMillis();
+            time = now;
+            if (now >= nextIdleCheck) {
+                nextIdleCheck = now + CLOCK_TICK;
+                closeIdleConnections (now);
+            }
+            if (timer1Enabled && now >= nextTimer1Check) {
+                nextTimer1Check = now + TIMER_MILLIS;
+                closeStalledConnections (now);
+            }
+        }
+
+        void closeIdleConnections (long now) {
+            LinkedList<HttpConnection> toClose = new LinkedList<HttpConnection>();
+            synchronized (idleConnections) {
+                for (HttpConnection c : idleConnections) {
+                    if (c.time <= now) {
+                        toClose.add (c);
+                    }
+                }
+                for (HttpConnection c : toClose) {
+                    idleConnections.remove (c);
+                    allConnections.remove (c);
+                    c.close();
+                }
+            }
+        }
+
+        void closeStalledConnections (long now) {
+            LinkedList<HttpConnection> toClose = new LinkedList<HttpConnection>();
+            synchronized (reqConnections) {
+                if (MAX_REQ_TIME != -1) {
+                    for (HttpConnection c : reqConnections) {
+                        if (c.creationTime + TIMER_MILLIS + MAX_REQ_TIME <= now) {
+                            toClose.add (c);
+                        }
+                    }
+                    for (HttpConnection c : toClose) {
+                        logger.log (Level.DEBUG, "closing: no request: " + c);
+                        reqConnections.remove (c);
+                        allConnections.remove (c);
+                        c.close();
+                    }
+                }
+            }
+            toClose = new LinkedList<HttpConnection>();
+            synchronized (rspConnections) {
+                if (MAX_RSP_TIME != -1) {
+                    for (HttpConnection c : rspConnections) {
+                        if (c.rspStartedTime + TIMER_MILLIS +MAX_RSP_TIME <= now) {
+                            toClose.add (c);
+                        }
+                    }
+                    for (HttpConnection c : toClose) {
+                        logger.log (Level.DEBUG, "closing: no response: " + c);
+                        rspConnections.remove (c);
+                        allConnections.remove (c);
+                        c.close();
+                    }
+                }
+            }
+        }
+
         private void handleException (SelectionKey key, Exception e) {
             HttpConnection conn = (HttpConnection)key.attachment();
             if (e != null) {
@@ -475,20 +678,21 @@ class ServerImpl implements TimeSource {
     private void closeConnection(HttpConnection conn) {
         conn.close();
         allConnections.remove(conn);
+        Dispatcher d = conn.dispatcher;
         switch (conn.getState()) {
         case REQUEST:
-            reqConnections.remove(conn);
+            d.reqConnections.remove(conn);
             break;
         case RESPONSE:
-            rspConnections.remove(conn);
+            d.rspConnections.remove(conn);
             break;
         case IDLE:
-            idleConnections.remove(conn);
+            d.idleConnections.remove(conn);
             break;
         }
-        assert !reqConnections.remove(conn);
-        assert !rspConnections.remove(conn);
-        assert !idleConnections.remove(conn);
+        assert !d.reqConnections.remove(conn);
+        assert !d.rspConnections.remove(conn);
+        assert !d.idleConnections.remove(conn);
     }
 
         /* per exchange task */
@@ -789,7 +993,7 @@ class ServerImpl implements TimeSource {
     void requestStarted (HttpConnection c) {
         c.creationTime = getTime();
         c.setState (State.REQUEST);
-        reqConnections.add (c);
+        c.dispatcher.reqConnections.add (c);
     }
 
     // called after a request has been completely read
@@ -802,9 +1006,9 @@ class ServerImpl implements TimeSource {
     void requestCompleted (HttpConnection c) {
         State s = c.getState();
         assert s == State.REQUEST : "State is not REQUEST ("+s+")";
-        reqConnections.remove (c);
+        c.dispatcher.reqConnections.remove (c);
         c.rspStartedTime = getTime();
-        rspConnections.add (c);
+        c.dispatcher.rspConnections.add (c);
         c.setState (State.RESPONSE);
     }
 
@@ -812,30 +1016,18 @@ class ServerImpl implements TimeSource {
     void responseCompleted (HttpConnection c) {
         State s = c.getState();
         assert s == State.RESPONSE : "State is not RESPONSE ("+s+")";
-        rspConnections.remove (c);
+        c.dispatcher.rspConnections.remove (c);
         c.setState (State.IDLE);
     }
 
     /**
-     * TimerTask run every CLOCK_TICK ms
+     * TimerTask run every CLOCK_TICK ms, single dispatcher mode only
      */
     class ServerTimerTask extends TimerTask {
         public void run () {
-            LinkedList<HttpConnection> toClose = new LinkedList<HttpConnection>();
             time = System.currentTimeMillis();
             ticks ++;
-            synchronized (idleConnections) {
-                for (HttpConnection c : idleConnections) {
-                    if (c.time <= time) {
-                        toClose.add (c);
-                    }
-                }
-                for (HttpConnection c : toClose) {
-                    idleConnections.remove (c);
-                    allConnections.remove (c);
-                    c.close();
-                }
-            }
+            dispatcher.closeIdleConnections (time);
         }
     }
 
@@ -843,39 +1035,8 @@ class ServerImpl implements TimeSource {
 
         // runs every TIMER_MILLIS
         public void run () {
-            LinkedList<HttpConnection> toClose = new LinkedList<HttpConnection>();
             time = System.currentTimeMillis();
-            synchronized (reqConnections) {
-                if (MAX_REQ_TIME != -1) {
-                    for (HttpConnection c : reqConnections) {
-                        if (c.creationTime + TIMER_MILLIS + MAX_REQ_TIME <= time) {
-                            toClose.add (c);
-                        }
-                    }
-                    for (HttpConnection c : toClose) {
-                        logger.log (Level.DEBUG, "closing: no request: " + c);
-                        reqConnections.remove (c);
-                        allConnections.remove (c);
-                        c.close();
-                    }
-                }
-            }
-            toClose = new LinkedList<HttpConnection>();
-            synchronized (rspConnections) {
-                if (MAX_RSP_TIME != -1) {
-                    for (HttpConnection c : rspConnections) {
-                        if (c.rspStartedTime + TIMER_MILLIS +MAX_RSP_TIME <= time) {
-                            toClose.add (c);
-                        }
-                    }
-                    for (HttpConnection c : toClose) {
-                        logger.log (Level.DEBUG, "closing: no response: " + c);
-                        rspConnections.remove (c);
-                        allConnections.remove (c);
-                        c.close();
-                    }
-                }
-            }
+            dispatcher.closeStalledConnections (time);
         }
     }
 
@@ -300,7 +300,7 @@ public class HttpClient extends NetworkClient {
         HttpClient ret = null;
         /* see if one's already around */
         if (useCache) {
-            ret = kac.get(url, null);
+            ret = kac.get(url, null, p);
             if (ret != null && httpuc != null &&
                 httpuc.streaming() &&
                 httpuc.getRequestMethod() == "POST") {
@@ -453,12 +453,17 @@ public class HttpClient extends NetworkClient {
         return inCache;
     }
 
+    /* the proxy this connection goes through, part of its keep-alive route */
+    Proxy getProxy() {
+        return proxy;
+    }
+
     /*
      * Close an idle connection to this URL (if it exists in the
      * cache).
      */
     public void closeIdleConnection() {
-        HttpClient http = kac.get(url, null);
+        HttpClient http = kac.takeIdle(url, null, proxy);
         if (http != null) {
             http.closeServer();
         }
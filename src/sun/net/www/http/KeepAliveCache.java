@@ -29,25 +29,36 @@ import java.io.IOException;
 import java.io.NotSerializableException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.net.Proxy;
 import java.net.URL;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import jdk.internal.misc.InnocuousThread;
+import jdk.internal.misc.JavaNetHttpKeepAliveAccess;
+import jdk.internal.misc.SharedSecrets;
 import sun.security.action.GetIntegerAction;
 
 /**
  * A class that implements a cache of idle Http connections for keep-alive
  *
+ * Idle connections are pooled per route (protocol, host, port, proxy and
+ * socket factory). Checking a connection out of the cache and returning it
+ * do not take any lock; idle connections are timed out by a hashed timing
+ * wheel that is advanced by a single timer thread.
+ *
  * @author Stephen R. Pietrowicz (NCSA)
  * @author Dave Brown
  */
 public class KeepAliveCache
-    extends HashMap<KeepAliveKey, ClientVector>
+    extends ConcurrentHashMap<KeepAliveKey, ClientVector>
     implements Runnable {
     private static final long serialVersionUID = -2937172892064557949L;
 
@@ -71,133 +82,289 @@ public class KeepAliveCache
         return result;
     }
 
+    /* maximum # idle connections in the cache over all destinations.
+     * It can be set by the system property "http.maxTotalConnections",
+     * by default there is no global limit.
+     */
+    static int totalResult = -1;
+    static int getMaxTotalConnections() {
+        if (totalResult == -1) {
+            int n = AccessController.doPrivileged(
+                new GetIntegerAction("http.maxTotalConnections", 0))
+                .intValue();
+            totalResult = n > 0 ? n : Integer.MAX_VALUE;
+        }
+        return totalResult;
+    }
+
     static final int LIFETIME = 5000;
 
-    private Thread keepAliveTimer = null;
+    /* resolution of the timing wheel in milliseconds, and its number of
+     * slots (a power of two). Connections whose timeout is longer than
+     * one revolution simply stay in their slot for several rounds.
+     */
+    static final int TICK = 1000;
+    static final int WHEEL_SIZE = 64;
+
+    private final ConcurrentLinkedQueue<KeepAliveEntry>[] wheel;
+
+    /* number of idle connections over all routes */
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    /* statistics, reported through the HttpKeepAliveCacheMXBean */
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+
+    private volatile Thread keepAliveTimer = null;
+    private final Object timerLock = new Object();
 
     /**
      * Constructor
      */
-    public KeepAliveCache() {}
+    @SuppressWarnings("unchecked")
+    public KeepAliveCache() {
+        wheel = (ConcurrentLinkedQueue<KeepAliveEntry>[])
+                new ConcurrentLinkedQueue<?>[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
 
     /**
      * Register this URL and HttpClient (that supports keep-alive) with the cache
      * @param url  The URL contains info about the host and port
      * @param http The HttpClient to be cached
      */
-    public synchronized void put(final URL url, Object obj, HttpClient http) {
-        boolean startThread = (keepAliveTimer == null);
-        if (!startThread) {
-            if (!keepAliveTimer.isAlive()) {
-                startThread = true;
-            }
-        }
-        if (startThread) {
-            clear();
+    public void put(final URL url, Object obj, HttpClient http) {
+        KeepAliveKey key = new KeepAliveKey(url, obj, http.getProxy());
+        ClientVector v = get(key);
+        if (v == null) {
             /* Unfortunately, we can't always believe the keep-alive timeout we got
              * back from the server.  If I'm connected through a Netscape proxy
              * to a server that sent me a keep-alive
              * time of 15 sec, the proxy unilaterally terminates my connection
              * The robustness to get around this is in HttpClient.parseHTTP()
              */
-            final KeepAliveCache cache = this;
-            AccessController.doPrivileged(new PrivilegedAction<>() {
-                public Void run() {
-                    keepAliveTimer = InnocuousThread.newSystemThread("Keep-Alive-Timer", cache);
-                    keepAliveTimer.setDaemon(true);
-                    keepAliveTimer.setPriority(Thread.MAX_PRIORITY - 2);
-                    keepAliveTimer.start();
-                    return null;
-                }
-            });
-        }
-
-        KeepAliveKey key = new KeepAliveKey(url, obj);
-        ClientVector v = super.get(key);
-
-        if (v == null) {
             int keepAliveTimeout = http.getKeepAliveTimeout();
-            v = new ClientVector(keepAliveTimeout > 0 ?
-                                 keepAliveTimeout * 1000 : LIFETIME);
-            v.put(http);
-            super.put(key, v);
-        } else {
-            v.put(http);
+            v = computeIfAbsent(key, k -> new ClientVector(this, k,
+                    keepAliveTimeout > 0 ? keepAliveTimeout * 1000 : LIFETIME));
+        }
+        KeepAliveEntry e = v.put(http);
+        if (e != null) {
+            schedule(e);
+            ensureTimer();
         }
     }
 
     /* remove an obsolete HttpClient from its VectorCache */
-    public synchronized void remove(HttpClient h, Object obj) {
-        KeepAliveKey key = new KeepAliveKey(h.url, obj);
-        ClientVector v = super.get(key);
+    public void remove(HttpClient h, Object obj) {
+        KeepAliveKey key = new KeepAliveKey(h.url, obj, h.getProxy());
+        ClientVector v = get(key);
         if (v != null) {
             v.remove(h);
             if (v.isEmpty()) {
-                removeVector(key);
+                removeVector(v);
             }
         }
     }
 
-    /* called by a clientVector thread when all its connections have timed out
+    /* called when all the connections of a clientVector have timed out
      * and that vector of connections should be removed.
      */
-    synchronized void removeVector(KeepAliveKey k) {
-        super.remove(k);
+    void removeVector(ClientVector v) {
+        remove(v.key, v);
     }
 
     /**
      * Check to see if this URL has a cached HttpClient
      */
-    public synchronized HttpClient get(URL url, Object obj) {
-        KeepAliveKey key = new KeepAliveKey(url, obj);
-        ClientVector v = super.get(key);
-        if (v == null) { // nothing in cache yet
-            return null;
+    public HttpClient get(URL url, Object obj, Proxy proxy) {
+        HttpClient hc = takeIdle(url, obj, proxy);
+        if (hc == null) {
+            misses.increment();
+        } else {
+            hits.increment();
         }
-        return v.get();
+        return hc;
+    }
+
+    /**
+     * Checks out a cached HttpClient for this URL, if there is one, without
+     * counting a hit or a miss; used to close idle connections.
+     */
+    public HttpClient takeIdle(URL url, Object obj, Proxy proxy) {
+        KeepAliveKey key = new KeepAliveKey(url, obj, proxy);
+        ClientVector v = get(key);
+        return (v == null) ? null : v.get();
+    }
+
+    /* accounting, called by the ClientVectors */
+
+    boolean reserveIdle() {
+        if (idleCount.incrementAndGet() > getMaxTotalConnections()) {
+            idleCount.decrementAndGet();
+            overflows.increment();
+            return false;
+        }
+        return true;
+    }
+
+    void releaseIdle() {
+        idleCount.decrementAndGet();
+    }
+
+    void evicted() {
+        evictions.increment();
+    }
+
+    void overflowed() {
+        overflows.increment();
     }
 
-    /* Sleeps for an alloted timeout, then checks for timed out connections.
-     * Errs on the side of caution (leave connections idle for a relatively
-     * short time).
+    /* puts an idle connection in the slot of the first tick that starts
+     * after its deadline. The slot of the tick containing the deadline is
+     * visited before the deadline may have passed, which would leave the
+     * entry waiting a whole revolution.
+     */
+    private void schedule(KeepAliveEntry e) {
+        long deadline = e.idleStartTime + e.vector.nap;
+        wheel[(int) (deadline / TICK + 1) & (WHEEL_SIZE - 1)].add(e);
+    }
+
+    /* starts the timer thread if it is not running */
+    private void ensureTimer() {
+        if (keepAliveTimer != null) {
+            return;
+        }
+        synchronized (timerLock) {
+            if (keepAliveTimer == null) {
+                final KeepAliveCache cache = this;
+                AccessController.doPrivileged(new PrivilegedAction<>() {
+                    public Void run() {
+                        Thread t = InnocuousThread.newSystemThread("Keep-Alive-Timer", cache);
+                        t.setDaemon(true);
+                        t.setPriority(Thread.MAX_PRIORITY - 2);
+                        keepAliveTimer = t;
+                        t.start();
+                        return null;
+                    }
+                });
+            }
+        }
+    }
+
+    /* Sleeps for one tick, then times out the connections in the slots of
+     * the wheel that have passed. Errs on the side of caution (leave
+     * connections idle for a relatively short time).
      */
     @Override
     public void run() {
-        do {
+        long tick = System.currentTimeMillis() / TICK;
+        for (;;) {
             try {
-                Thread.sleep(LIFETIME);
+                Thread.sleep(TICK);
             } catch (InterruptedException e) {}
 
-            // Remove all outdated HttpClients.
-            synchronized (this) {
-                long currentTime = System.currentTimeMillis();
-                List<KeepAliveKey> keysToRemove = new ArrayList<>();
-
-                for (KeepAliveKey key : keySet()) {
-                    ClientVector v = get(key);
-                    synchronized (v) {
-                        KeepAliveEntry e = v.peek();
-                        while (e != null) {
-                            if ((currentTime - e.idleStartTime) > v.nap) {
-                                v.poll();
-                                e.hc.closeServer();
-                            } else {
-                                break;
-                            }
-                            e = v.peek();
-                        }
-
-                        if (v.isEmpty()) {
-                            keysToRemove.add(key);
-                        }
+            long currentTime = System.currentTimeMillis();
+            long now = currentTime / TICK;
+            for (long t = tick + 1; t <= now && t <= tick + WHEEL_SIZE; t++) {
+                expire(wheel[(int) t & (WHEEL_SIZE - 1)], currentTime);
+            }
+            tick = now;
+
+            if (idleCount.get() == 0) {
+                synchronized (timerLock) {
+                    if (idleCount.get() != 0) {
+                        continue;
+                    }
+                    keepAliveTimer = null;
+                }
+                /* a concurrent put may have seen the old thread just before
+                 * it was cleared; carry on if nobody else has taken over
+                 */
+                if (idleCount.get() == 0) {
+                    return;
+                }
+                synchronized (timerLock) {
+                    if (keepAliveTimer != null) {
+                        return;
                     }
+                    keepAliveTimer = Thread.currentThread();
                 }
+            }
+        }
+    }
 
-                for (KeepAliveKey key : keysToRemove) {
-                    removeVector(key);
+    /* Remove all outdated HttpClients of one slot. */
+    private void expire(ConcurrentLinkedQueue<KeepAliveEntry> slot, long currentTime) {
+        Iterator<KeepAliveEntry> it = slot.iterator();
+        while (it.hasNext()) {
+            KeepAliveEntry e = it.next();
+            if (e.isClaimed()) {
+                // already checked out or removed
+                it.remove();
+            } else if ((currentTime - e.idleStartTime) > e.vector.nap) {
+                it.remove();
+                ClientVector v = e.vector;
+                if (v.expire(e) && v.isEmpty()) {
+                    removeVector(v);
                 }
             }
-        } while (!isEmpty());
+        }
+    }
+
+    /* statistics, see HttpKeepAliveCacheMXBean */
+
+    long getHitCount() {
+        return hits.sum();
+    }
+
+    long getMissCount() {
+        return misses.sum();
+    }
+
+    long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    long getOverflowCount() {
+        return overflows.sum();
+    }
+
+    int getIdleConnectionCount() {
+        return idleCount.get();
+    }
+
+    static {
+        SharedSecrets.setJavaNetHttpKeepAliveAccess(
+            new JavaNetHttpKeepAliveAccess() {
+                public long getHitCount() {
+                    return HttpClient.kac.getHitCount();
+                }
+                public long getMissCount() {
+                    return HttpClient.kac.getMissCount();
+                }
+                public long getEvictionCount() {
+                    return HttpClient.kac.getEvictionCount();
+                }
+                public long getOverflowCount() {
+                    return HttpClient.kac.getOverflowCount();
+                }
+                public int getIdleConnectionCount() {
+                    return HttpClient.kac.getIdleConnectionCount();
+                }
+                public int getRouteCount() {
+                    return HttpClient.kac.size();
+                }
+                public int getMaxConnectionsPerRoute() {
+                    return getMaxConnections();
+                }
+                public int getMaxTotalConnections() {
+                    return KeepAliveCache.getMaxTotalConnections();
+                }
+            });
     }
 
     /*
@@ -214,57 +381,91 @@ public class KeepAliveCache
     }
 }
 
-/* FILO order for recycling HttpClients, should run in a thread
- * to time them out.  If > maxConns are in use, block.
+/* FILO order for recycling HttpClients, timed out by the wheel of the
+ * cache. If > maxConns are idle, further connections are closed.
  */
-class ClientVector extends ArrayDeque<KeepAliveEntry> {
+class ClientVector extends ConcurrentLinkedDeque<KeepAliveEntry> {
     private static final long serialVersionUID = -8680532108106489459L;
 
+    final transient KeepAliveCache cache;
+    final transient KeepAliveKey key;
+
     // sleep time in milliseconds, before cache clear
     int nap;
 
-    ClientVector(int nap) {
+    /* number of idle connections in this vector; size() is not constant time */
+    private final AtomicInteger count = new AtomicInteger();
+
+    ClientVector(KeepAliveCache cache, KeepAliveKey key, int nap) {
+        this.cache = cache;
+        this.key = key;
         this.nap = nap;
     }
 
-    synchronized HttpClient get() {
-        if (isEmpty()) {
-            return null;
-        }
-
+    HttpClient get() {
         // Loop until we find a connection that has not timed out
-        HttpClient hc = null;
         long currentTime = System.currentTimeMillis();
-        do {
-            KeepAliveEntry e = pop();
+        KeepAliveEntry e;
+        while ((e = pollFirst()) != null) {
+            if (!e.claim()) {
+                continue;   // lost the race against the timer
+            }
+            count.decrementAndGet();
+            cache.releaseIdle();
             if ((currentTime - e.idleStartTime) > nap) {
+                cache.evicted();
                 e.hc.closeServer();
             } else {
-                hc = e.hc;
+                return e.hc;
             }
-        } while ((hc == null) && (!isEmpty()));
-        return hc;
+        }
+        return null;
     }
 
     /* return a still valid, unused HttpClient */
-    synchronized void put(HttpClient h) {
-        if (size() >= KeepAliveCache.getMaxConnections()) {
+    KeepAliveEntry put(HttpClient h) {
+        if (count.incrementAndGet() > KeepAliveCache.getMaxConnections()) {
+            count.decrementAndGet();
+            cache.overflowed();
             h.closeServer(); // otherwise the connection remains in limbo
-        } else {
-            push(new KeepAliveEntry(h, System.currentTimeMillis()));
+            return null;
+        }
+        if (!cache.reserveIdle()) {
+            count.decrementAndGet();
+            h.closeServer();
+            return null;
         }
+        KeepAliveEntry e = new KeepAliveEntry(h, System.currentTimeMillis(), this);
+        push(e);
+        return e;
     }
 
     /* remove an HttpClient */
-    synchronized boolean remove(HttpClient h) {
+    boolean remove(HttpClient h) {
         for (KeepAliveEntry curr : this) {
-            if (curr.hc == h) {
-                return super.remove(curr);
+            if (curr.hc == h && curr.claim()) {
+                super.remove(curr);
+                count.decrementAndGet();
+                cache.releaseIdle();
+                return true;
             }
         }
         return false;
     }
 
+    /* times out an idle connection, unless it has been checked out already */
+    boolean expire(KeepAliveEntry e) {
+        if (!e.claim()) {
+            return false;
+        }
+        super.remove(e);
+        count.decrementAndGet();
+        cache.releaseIdle();
+        cache.evicted();
+        e.hc.closeServer();
+        return true;
+    }
+
     /*
      * Do not serialize this class!
      */
@@ -283,17 +484,20 @@ class KeepAliveKey {
     private String      protocol = null;
     private String      host = null;
     private int         port = 0;
+    private Proxy       proxy = null;
     private Object      obj = null; // additional key, such as socketfactory
 
     /**
      * Constructor
      *
      * @param url the URL containing the protocol, host and port information
+     * @param proxy the proxy the connection goes through
      */
-    public KeepAliveKey(URL url, Object obj) {
+    public KeepAliveKey(URL url, Object obj, Proxy proxy) {
         this.protocol = url.getProtocol();
         this.host = url.getHost();
         this.port = url.getPort();
+        this.proxy = (proxy == null) ? Proxy.NO_PROXY : proxy;
         this.obj = obj;
     }
 
@@ -308,6 +512,7 @@ class KeepAliveKey {
         return host.equals(kae.host)
             && (port == kae.port)
             && protocol.equals(kae.protocol)
+            && proxy.equals(kae.proxy)
             && this.obj == kae.obj;
     }
 
@@ -318,17 +523,30 @@ class KeepAliveKey {
     @Override
     public int hashCode() {
         String str = protocol+host+port;
-        return this.obj == null? str.hashCode() :
-            str.hashCode() + this.obj.hashCode();
+        int h = str.hashCode() + proxy.hashCode();
+        return this.obj == null? h : h + this.obj.hashCode();
     }
 }
 
 class KeepAliveEntry {
     HttpClient hc;
     long idleStartTime;
+    final ClientVector vector;
+
+    /* set once the entry has been checked out, removed or timed out */
+    private final AtomicBoolean claimed = new AtomicBoolean();
 
-    KeepAliveEntry(HttpClient hc, long idleStartTime) {
+    KeepAliveEntry(HttpClient hc, long idleStartTime, ClientVector vector) {
         this.hc = hc;
         this.idleStartTime = idleStartTime;
+        this.vector = vector;
+    }
+
+    boolean claim() {
+        return claimed.compareAndSet(false, true);
+    }
+
+    boolean isClaimed() {
+        return claimed.get();
     }
 }
@@ -327,7 +327,7 @@ final class HttpsClient extends HttpClient
         HttpsClient ret = null;
         if (useCache) {
             /* see if one's already around */
-            ret = (HttpsClient) kac.get(url, sf);
+            ret = (HttpsClient) kac.get(url, sf, p);
             if (ret != null && httpuc != null &&
                 httpuc.streaming() &&
                 httpuc.getRequestMethod() == "POST") {
@@ -663,7 +663,7 @@ final class HttpsClient extends HttpClient
      */
     @Override
     public void closeIdleConnection() {
-        HttpClient http = kac.get(url, sslSocketFactory);
+        HttpClient http = kac.takeIdle(url, sslSocketFactory, proxy);
         if (http != null) {
             http.closeServer();
         }
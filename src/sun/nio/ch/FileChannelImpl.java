@@ -32,6 +32,7 @@ import java.io.UncheckedIOException;
 import java.lang.ref.Cleaner.Cleanable;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
+import java.nio.MappedRegion;
 import java.nio.channels.AsynchronousCloseException;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ClosedChannelException;
@@ -1005,6 +1006,65 @@ public class FileChannelImpl extends FileChannel {
      * 如果申请一个超出文件大小的映射，文件会被增大以匹配映射的大小
      */
     public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+        // 创建一块内存映射区域
+        Unmapper um = mapInternal(mode, position, size, false);
+        if(um == null) {
+            return null;
+        }
+        
+        int isize = (int) size;
+        boolean readOnly = !writable || mode == MapMode.READ_ONLY;
+        
+        // 待传输数据为0
+        if(um.address == 0) {
+            if(readOnly) {
+                // 创建一块只读的基于内存的直接字节缓冲区
+                return Util.newMappedByteBufferR(0, 0, um.fd, null);
+            } else {
+                // 创建一块可读写的基于内存的直接字节缓冲区
+                return Util.newMappedByteBuffer(0, 0, um.fd, null);
+            }
+        }
+        
+        if(readOnly) {
+            // 创建一块只读的基于内存的直接字节缓冲区
+            return Util.newMappedByteBufferR(isize, um.address + um.pagePosition, um.fd, um);
+        } else {
+            // 创建一块可读写的基于内存的直接字节缓冲区
+            return Util.newMappedByteBuffer(isize, um.address + um.pagePosition, um.fd, um);
+        }
+    }
+    
+    /*
+     * 返回一块文件映射内存，容量可以超过Integer.MAX_VALUE，且可以显式释放
+     *
+     * 参数与异常同map()
+     */
+    @Override
+    public MappedRegion mapRegion(MapMode mode, long position, long size) throws IOException {
+        // 创建一块内存映射区域
+        Unmapper um = mapInternal(mode, position, size, true);
+        if(um == null) {
+            throw new ClosedChannelException();
+        }
+        
+        boolean readOnly = !writable || mode == MapMode.READ_ONLY;
+        
+        // 待传输数据为0
+        if(um.address == 0) {
+            return SharedSecrets.getJavaNioAccess().newMappedRegion(0, 0, readOnly, um.fd, null);
+        }
+        
+        return SharedSecrets.getJavaNioAccess().newMappedRegion(um.address + um.pagePosition, size, readOnly, um.fd, um);
+    }
+    
+    /*
+     * 将文件中position处起size个字节映射到内存，返回该映射区域的释放器
+     * large为false时，size不能超过Integer.MAX_VALUE
+     * size为0时，返回的释放器中address为0，且不对应任何映射区域
+     * 映射过程中通道被关闭时返回null
+     */
+    private Unmapper mapInternal(MapMode mode, long position, long size, boolean large) throws IOException {
         ensureOpen();
         
         if(mode == null) {
@@ -1023,7 +1083,7 @@ public class FileChannelImpl extends FileChannel {
             throw new IllegalArgumentException("Position + size overflow");
         }
         
-        if(size>Integer.MAX_VALUE) {
+        if(!large && size>Integer.MAX_VALUE) {
             throw new IllegalArgumentException("Size exceeds Integer.MAX_VALUE");
         }
         
@@ -1095,15 +1155,7 @@ public class FileChannelImpl extends FileChannel {
                     addr = 0;
                     
                     // a valid file descriptor is not required
-                    FileDescriptor dummy = new FileDescriptor();
-                    
-                    if((!writable) || (imode == MAP_RO)) {
-                        // 创建一块只读的基于内存的直接字节缓冲区
-                        return Util.newMappedByteBufferR(0, 0, dummy, null);
-                    } else {
-                        // 创建一块可读写的基于内存的直接字节缓冲区
-                        return Util.newMappedByteBuffer(0, 0, dummy, null);
-                    }
+                    return new Unmapper(new FileDescriptor());
                 }
                 
                 // 用待映射文件通道的游标位置对系统分页大小取余，以便后续的字节对齐操作
@@ -1155,17 +1207,8 @@ public class FileChannelImpl extends FileChannel {
             assert (IOStatus.checkAll(addr));
             assert (addr % allocationGranularity == 0);
             
-            int isize = (int) size;
-            
             // 对已创建好的内存映射区域做简单的包装
-            Unmapper um = new Unmapper(addr, mapSize, isize, mfd);
-            if((!writable) || (imode == MAP_RO)) {
-                // 创建一块只读的基于内存的直接字节缓冲区
-                return Util.newMappedByteBufferR(isize, addr + pagePosition, mfd, um);
-            } else {
-                // 创建一块可读写的基于内存的直接字节缓冲区
-                return Util.newMappedByteBuffer(isize, addr + pagePosition, mfd, um);
-            }
+            return new Unmapper(addr, mapSize, size, pagePosition, mfd);
         } finally {
             threads.remove(ti);
             
@@ -1747,15 +1790,17 @@ public class FileChannelImpl extends FileChannel {
         // may be required to close file
         private static final NativeDispatcher nd = new FileDispatcherImpl();
         private final long size;
-        private final int cap;
+        private final long cap;
+        private final int pagePosition; // 映射区域起点与请求的文件位置之间的距离
         private final FileDescriptor fd;
         private volatile long address;
         
-        private Unmapper(long address, long size, int cap, FileDescriptor fd) {
+        private Unmapper(long address, long size, long cap, int pagePosition, FileDescriptor fd) {
             assert (address != 0);
             this.address = address;
             this.size = size;
             this.cap = cap;
+            this.pagePosition = pagePosition;
             this.fd = fd;
             
             synchronized(Unmapper.class) {
@@ -1765,6 +1810,15 @@ public class FileChannelImpl extends FileChannel {
             }
         }
         
+        // 空映射，不对应任何映射区域，也不计入统计
+        private Unmapper(FileDescriptor fd) {
+            this.address = 0;
+            this.size = 0;
+            this.cap = 0;
+            this.pagePosition = 0;
+            this.fd = fd;
+        }
+        
         public void run() {
             if(address == 0) {
                 return;
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2018, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package sun.nio.ch;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.internal.misc.Unsafe;
+import jdk.internal.misc.VM;
+import sun.security.action.GetPropertyAction;
+
+/**
+ * A pool of temporary direct buffers shared by all threads, used by the
+ * channels for I/O on heap buffers.
+ *
+ * <p> Buffers are pooled in power-of-two size classes.  Each class keeps a
+ * few slots in each of a number of stripes, as many as there are processors,
+ * and a thread goes to the stripe selected by its id first, so threads on
+ * different processors rarely touch the same slots.  Slots are taken and
+ * filled with a single compare-and-set, so the pool never blocks and needs
+ * no memory of its own beyond the slots.
+ *
+ * <p> The memory of the cached buffers is limited for the whole pool by the
+ * {@code jdk.nio.maxCachedBufferMemory} property, in bytes; a released buffer
+ * that does not fit is freed at once.  Cached buffers of the classes that
+ * were not requested for a while are freed as well, when the pool is used
+ * the next time.
+ *
+ * @since 11
+ */
+// 线程共享的临时直接缓冲区池，按2的幂划分尺寸级别，每个级别在每个分片中有若干槽位，通过CAS存取
+public class TemporaryBufferPool {
+    
+    // 最小的尺寸级别：512字节
+    private static final int MIN_SHIFT = 9;
+    
+    // 最大的尺寸级别：16MB，且不超过缓存的Buffer被允许的最大尺寸与缓存内存上限
+    private static final int MAX_SHIFT;
+    
+    // 尺寸级别的数量
+    private static final int CLASSES;
+    
+    // 每个分片中每个尺寸级别的槽位数量
+    private static final int SLOTS = 8;
+    
+    // 分片数量，不小于处理器数量的2的幂
+    private static final int STRIPES;
+    
+    // 缓存的Buffer的内存总量上限(bytes)
+    private static final long MAX_MEMORY;
+    
+    // 两次修剪之间的间隔
+    private static final long TRIM_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+    
+    /*
+     * 所有槽位，按[分片][尺寸级别][槽位]的次序排列
+     * 空槽位为null，存取时均使用CAS
+     */
+    private static final ByteBuffer[] slots;
+    
+    // 上次修剪以来，各尺寸级别是否被请求过
+    private static final boolean[] requested;
+    
+    private static final Unsafe unsafe = Unsafe.getUnsafe();
+    private static final long BASE = unsafe.arrayBaseOffset(ByteBuffer[].class);
+    private static final int SHIFT = 31 - Integer.numberOfLeadingZeros(unsafe.arrayIndexScale(ByteBuffer[].class));
+    
+    // 缓存的Buffer的内存总量
+    private static final AtomicLong cachedMemory = new AtomicLong();
+    
+    // 下一次修剪的时间
+    private static final AtomicLong nextTrim = new AtomicLong(System.nanoTime() + TRIM_INTERVAL);
+    
+    // 借出的Buffer的数量及其容量总和
+    private static final LongAdder count = new LongAdder();
+    private static final LongAdder memoryUsed = new LongAdder();
+    
+    // 命中、未命中、因修剪而释放的Buffer的数量
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder trims = new LongAdder();
+    
+    static {
+        MAX_MEMORY = getMaxCachedBufferMemory();
+        
+        long max = Math.min(Util.maxCachedBufferSize(), Math.min(MAX_MEMORY, 1L << 24));
+        MAX_SHIFT = max < 1L << MIN_SHIFT ? MIN_SHIFT - 1 : 63 - Long.numberOfLeadingZeros(max);
+        CLASSES = MAX_SHIFT - MIN_SHIFT + 1;
+        
+        int processors = Math.min(Runtime.getRuntime().availableProcessors(), 64);
+        STRIPES = processors>1 ? Integer.highestOneBit(processors - 1) << 1 : 1;
+        
+        slots = new ByteBuffer[STRIPES * CLASSES * SLOTS];
+        requested = new boolean[CLASSES];
+    }
+    
+    private TemporaryBufferPool() {
+    }
+    
+    /**
+     * Returns a direct buffer of at least the given size, with its position
+     * at zero and its limit at the size, taken from the pool or allocated in
+     * the size class of the given size; or {@code null} if the size is too
+     * large to be pooled.
+     */
+    // 获取一块容量至少为size个字节的直接缓冲区；size超出最大的尺寸级别时返回null
+    static ByteBuffer get(int size) {
+        int cls = classOf(size);
+        if(cls >= CLASSES) {
+            return null;
+        }
+        
+        requested[cls] = true;
+        maybeTrim();
+        
+        // 先查找当前线程所属分片，再依次查找其它分片
+        ByteBuffer buf = null;
+        int stripe = stripe();
+        for(int s = 0; s<STRIPES && buf == null; s++) {
+            int base = (((stripe + s) & (STRIPES - 1)) * CLASSES + cls) * SLOTS;
+            for(int i = 0; i<SLOTS; i++) {
+                long offset = offset(base + i);
+                if(unsafe.getObjectVolatile(slots, offset) != null && (buf = (ByteBuffer) unsafe.getAndSetObject(slots, offset, null)) != null) {
+                    break;
+                }
+            }
+        }
+        
+        if(buf != null) {
+            hits.increment();
+            cachedMemory.addAndGet(-buf.capacity());
+            buf.rewind();
+        } else {
+            misses.increment();
+            buf = ByteBuffer.allocateDirect(1 << (cls + MIN_SHIFT));
+        }
+        count.increment();
+        memoryUsed.add(buf.capacity());
+        buf.limit(size);
+        return buf;
+    }
+    
+    /**
+     * Returns the given buffer to the pool.  Returns {@code false} if the
+     * buffer was not taken, because it does not belong to a size class or
+     * the pool is full, in which case the caller frees it.
+     */
+    // 将buf交还给缓冲池；buf不属于任何尺寸级别，或缓冲池已满时返回false，此时应由调用者释放buf
+    static boolean offer(ByteBuffer buf) {
+        int capacity = buf.capacity();
+        int cls = classOf(capacity);
+        // 切片或非本池分配的Buffer
+        if(cls >= CLASSES || capacity != 1 << (cls + MIN_SHIFT) || ((DirectBuffer) buf).cleaner() == null) {
+            return false;
+        }
+        
+        count.decrement();
+        memoryUsed.add(-capacity);
+        maybeTrim();
+        
+        // 预留缓存内存，超出上限时拒绝缓存
+        long cached;
+        do {
+            cached = cachedMemory.get();
+            if(cached + capacity>MAX_MEMORY) {
+                return false;
+            }
+        } while(!cachedMemory.compareAndSet(cached, cached + capacity));
+        
+        int stripe = stripe();
+        for(int s = 0; s<STRIPES; s++) {
+            int base = (((stripe + s) & (STRIPES - 1)) * CLASSES + cls) * SLOTS;
+            for(int i = 0; i<SLOTS; i++) {
+                long offset = offset(base + i);
+                if(unsafe.getObjectVolatile(slots, offset) == null && unsafe.compareAndSetObject(slots, offset, null, buf)) {
+                    return true;
+                }
+            }
+        }
+        
+        // 所有槽位已满
+        cachedMemory.addAndGet(-capacity);
+        return false;
+    }
+    
+    // 到达修剪时间时，释放上次修剪以来未被请求过的尺寸级别中缓存的Buffer
+    private static void maybeTrim() {
+        long now = System.nanoTime();
+        long next = nextTrim.get();
+        if(now - next<0 || !nextTrim.compareAndSet(next, now + TRIM_INTERVAL)) {
+            return;
+        }
+        
+        for(int cls = 0; cls<CLASSES; cls++) {
+            if(requested[cls]) {
+                requested[cls] = false;
+                continue;
+            }
+            for(int stripe = 0; stripe<STRIPES; stripe++) {
+                int base = (stripe * CLASSES + cls) * SLOTS;
+                for(int i = 0; i<SLOTS; i++) {
+                    ByteBuffer buf = (ByteBuffer) unsafe.getAndSetObject(slots, offset(base + i), null);
+                    if(buf != null) {
+                        cachedMemory.addAndGet(-buf.capacity());
+                        trims.increment();
+                        Util.free(buf);
+                    }
+                }
+            }
+        }
+    }
+    
+    // 返回容纳size个字节的尺寸级别
+    private static int classOf(int size) {
+        if(size<=1 << MIN_SHIFT) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SHIFT;
+    }
+    
+    // 返回当前线程所属的分片
+    private static int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1);
+    }
+    
+    // 返回下标为index的槽位的偏移量
+    private static long offset(int index) {
+        return ((long) index << SHIFT) + BASE;
+    }
+    
+    /**
+     * Returns the memory limit of the cached buffers, in bytes.  It defaults
+     * to the smaller of 64 MB and a quarter of the maximum direct memory.
+     */
+    // 返回缓存的Buffer的内存总量上限(bytes)
+    private static long getMaxCachedBufferMemory() {
+        String s = GetPropertyAction.privilegedGetProperty("jdk.nio.maxCachedBufferMemory");
+        
+        if(s != null) {
+            try {
+                long m = Long.parseLong(s);
+                if(m >= 0) {
+                    return m;
+                }
+            } catch(NumberFormatException e) {
+                // if the string is not well formed, ignore the system property
+            }
+        }
+        
+        return Math.min(64L << 20, VM.maxDirectMemory() / 4);
+    }
+    
+    
+    
+    /*▼ 统计信息 ████████████████████████████████████████████████████████████████████████████████┓ */
+    
+    /** Returns the number of buffers handed out and not yet released. */
+    // 返回借出的Buffer的数量
+    public static long getCount() {
+        return count.sum();
+    }
+    
+    /** Returns the total capacity of the buffers handed out, in bytes. */
+    // 返回借出的Buffer的容量总和
+    public static long getMemoryUsed() {
+        return memoryUsed.sum();
+    }
+    
+    /** Returns the total capacity of the cached buffers, in bytes. */
+    // 返回缓存的Buffer的容量总和
+    public static long getCachedMemory() {
+        return cachedMemory.get();
+    }
+    
+    /** Returns the limit of {@link #getCachedMemory()}, in bytes. */
+    // 返回缓存的Buffer的内存总量上限
+    public static long getMemoryLimit() {
+        return MAX_MEMORY;
+    }
+    
+    /** Returns the number of requests served from the pool. */
+    // 返回命中次数
+    public static long getHitCount() {
+        return hits.sum();
+    }
+    
+    /** Returns the number of requests for which a buffer was allocated. */
+    // 返回未命中次数
+    public static long getMissCount() {
+        return misses.sum();
+    }
+    
+    /** Returns the number of cached buffers freed because their size class was idle. */
+    // 返回因修剪而释放的Buffer的数量
+    public static long getTrimCount() {
+        return trims.sum();
+    }
+    
+    /*▲ 统计信息 ████████████████████████████████████████████████████████████████████████████████┛ */
+    
+}
@@ -36,7 +36,6 @@ import java.security.PrivilegedAction;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
-import jdk.internal.misc.TerminatingThreadLocal;
 import jdk.internal.misc.Unsafe;
 import jdk.internal.ref.Cleaner;
 import sun.security.action.GetPropertyAction;
@@ -44,35 +43,10 @@ import sun.security.action.GetPropertyAction;
 // 用于各类通道操作中工具类，主要负责缓冲区操作与对齐检查，
 public class Util {
     
-    /* The number of temp buffers in our pool */
-    // Buffer缓冲池容量
-    private static final int TEMP_BUF_POOL_SIZE = IOUtil.IOV_MAX;
-    
     /* The max size allowed for a cached temp buffer, in bytes */
     // Buffer缓冲池中缓存的Buffer被允许的最大尺寸(bytes)
     private static final long MAX_CACHED_BUFFER_SIZE = getMaxCachedBufferSize();
     
-    /* Per-thread cache of temporary direct buffers */
-    // 线程私有的Buffer缓冲池
-    private static ThreadLocal<BufferCache> bufferCache = new TerminatingThreadLocal<>() {
-        // 初始化一个Buffer缓冲池
-        @Override
-        protected BufferCache initialValue() {
-            return new BufferCache();
-        }
-        
-        // 当前线程结束前，完成对Buffer缓冲池的清理
-        @Override
-        protected void threadTerminated(BufferCache cache) { // will never be null
-            while(!cache.isEmpty()) {
-                // 获取Buffer缓冲池首位处的Direct Buffer
-                ByteBuffer bb = cache.removeFirst();
-                // 释放直接缓存区的内存
-                free(bb);
-            }
-        }
-    };
-    
     private static Unsafe unsafe = Unsafe.getUnsafe();
     
     // 内存分页大小
@@ -93,42 +67,13 @@ public class Util {
      */
     // 获取一块容量至少为size个字节的直接缓冲区
     public static ByteBuffer getTemporaryDirectBuffer(int size) {
-        /*
-         * If a buffer of this size is too large for the cache,
-         * there should not be a buffer in the cache that is at least as large.
-         * So we'll just create a new one.
-         * Also, we don't have to remove the buffer from the cache (as this method does below) given that we won't put the new buffer in the cache.
-         */
-        
-        // 如果给定的尺寸超过了Buffer缓冲池对Buffer尺寸的约束
-        if(isBufferTooLarge(size)) {
-            /* 此时，无法从Buffer缓存池中取到合适的Buffer */
-            
-            // 创建直接内存缓冲区DirectByteBuffer
-            return ByteBuffer.allocateDirect(size);
-        }
-        
-        // 获取当前线程私有的Buffer缓冲池
-        BufferCache cache = bufferCache.get();
-        
-        // 从Buffer缓冲池中取出一个容量至少为size的Direct Buffer
-        ByteBuffer buf = cache.get(size);
+        // 从线程共享的Buffer缓冲池中取出一个容量至少为size的Direct Buffer
+        ByteBuffer buf = TemporaryBufferPool.get(size);
         if(buf != null) {
-            // 如果取到了合适的Buffer
             return buf;
         }
         
-        /*
-         * No suitable buffer in the cache so we need to allocate a new one.
-         * To avoid the cache growing then we remove the first buffer from the cache and free it.
-         */
-        if(!cache.isEmpty()) {
-            // 获取Buffer缓冲池首位处的Direct Buffer，并释放其内存
-            buf = cache.removeFirst();
-            free(buf);
-        }
-        
-        // 创建直接内存缓冲区DirectByteBuffer
+        /* 给定的尺寸超过了Buffer缓冲池对Buffer尺寸的约束，此时创建直接内存缓冲区DirectByteBuffer，用完后直接释放 */
         return ByteBuffer.allocateDirect(size);
     }
     
@@ -137,38 +82,15 @@ public class Util {
      */
     // 获取一块容量至少为size个字节的直接缓冲区（限定了对齐单元的尺寸为alignment）
     public static ByteBuffer getTemporaryAlignedDirectBuffer(int size, int alignment) {
-        // 如果给定的尺寸超过了Buffer缓冲池对Buffer尺寸的约束
-        if(isBufferTooLarge(size)) {
-            /* 此时，无法从Buffer缓存池中取到合适的Buffer */
-            
-            /*
-             * 创建直接内存缓冲区DirectByteBuffer
-             * 多分配了alignment - 1字节的空间，已待后续字节对齐校准
-             */
-            ByteBuffer direct = ByteBuffer.allocateDirect(size + alignment - 1);
-            
-            // 切片，需要先以unitSize为基准，对position和limit的范围进行字节对齐校准
-            return direct.alignedSlice(alignment);
-        }
-        
-        // 获取当前线程私有的Buffer缓冲池
-        BufferCache cache = bufferCache.get();
-        
-        // 从Buffer缓冲池中取出一个容量至少为size的Direct Buffer
-        ByteBuffer buf = cache.get(size);
-        // 如果取到了合适的Buffer
+        // 从线程共享的Buffer缓冲池中取出一个容量至少为size的Direct Buffer
+        ByteBuffer buf = TemporaryBufferPool.get(size);
         if(buf != null) {
             // 如果该Buffer已经对齐，则返回该Buffer
             if(buf.alignmentOffset(0, alignment) == 0) {
                 return buf;
             }
-        } else {
-            // 没有取到合适Buffer
-            if(!cache.isEmpty()) {
-                // 获取Buffer缓冲池首位处的Direct Buffer，并释放其内存
-                buf = cache.removeFirst();
-                free(buf);
-            }
+            // 否则交还该Buffer
+            releaseTemporaryDirectBuffer(buf);
         }
         
         /*
@@ -190,62 +112,33 @@ public class Util {
     /**
      * Releases a temporary buffer by returning to the cache or freeing it.
      */
-    // 采用FILO的形式(入栈模式)将buf放入Buffer缓存池以待复用
+    // 将buf交还给线程共享的Buffer缓冲池以待复用，缓冲池不接收时释放buf
     public static void releaseTemporaryDirectBuffer(ByteBuffer buf) {
-        offerFirstTemporaryDirectBuffer(buf);
+        assert buf != null;
+        
+        if(!TemporaryBufferPool.offer(buf)) {
+            free(buf);
+        }
     }
     
     /**
-     * Releases a temporary buffer by returning to the cache or freeing it. If
-     * returning to the cache then insert it at the start so that it is
-     * likely to be returned by a subsequent call to getTemporaryDirectBuffer.
+     * Releases a temporary buffer by returning to the cache or freeing it.
+     * The cache is organized by size class, so the order in which buffers
+     * are returned no longer matters.
      */
-    // 采用FILO的形式(入栈模式)将buf放入Buffer缓存池以待复用
+    // 将buf交还给Buffer缓冲池以待复用（缓冲池按尺寸级别存取，不再区分次序）
     static void offerFirstTemporaryDirectBuffer(ByteBuffer buf) {
-        // If the buffer is too large for the cache we don't have to check the cache. We'll just free it.
-        if(isBufferTooLarge(buf)) {
-            // 如果给定的buf尺寸超过了Buffer缓冲池对Buffer尺寸的约束，则不进入缓冲池，直接释放它
-            free(buf);
-            return;
-        }
-        
-        assert buf != null;
-        
-        // 获取线程私有的Buffer缓冲池
-        BufferCache cache = bufferCache.get();
-        
-        // 采用FILO的形式(入栈模式)将buf放入Buffer缓存池以待复用
-        if(!cache.offerFirst(buf)) {
-            // 如果缓冲池已经满了，则释放该Buffer
-            free(buf);
-        }
+        releaseTemporaryDirectBuffer(buf);
     }
     
     /**
-     * Releases a temporary buffer by returning to the cache or freeing it. If
-     * returning to the cache then insert it at the end. This makes it
-     * suitable for scatter/gather operations where the buffers are returned to
-     * cache in same order that they were obtained.
+     * Releases a temporary buffer by returning to the cache or freeing it.
+     * The cache is organized by size class, so the order in which buffers
+     * are returned no longer matters.
      */
-    // 采用FIFO的形式(入队模式)将buf存入Buffer缓存池以待复用
+    // 将buf交还给Buffer缓冲池以待复用（缓冲池按尺寸级别存取，不再区分次序）
     static void offerLastTemporaryDirectBuffer(ByteBuffer buf) {
-        // If the buffer is too large for the cache we don't have to check the cache. We'll just free it.
-        if(isBufferTooLarge(buf)) {
-            // 如果给定的Buffer尺寸超过了Buffer缓冲池对Buffer尺寸的约束，则不进入缓冲池，直接释放它
-            free(buf);
-            return;
-        }
-        
-        assert buf != null;
-        
-        // 获取线程私有的Buffer缓冲池
-        BufferCache cache = bufferCache.get();
-        
-        // 采用FIFO的形式(入队模式)将buf存入Buffer缓存池以待复用
-        if(!cache.offerLast(buf)) {
-            // 如果缓冲池已经满了，则释放该Buffer
-            free(buf);
-        }
+        releaseTemporaryDirectBuffer(buf);
     }
     
     /**
@@ -275,33 +168,22 @@ public class Util {
         return Long.MAX_VALUE;
     }
     
-    /**
-     * Returns true if a buffer of this size is too large to be
-     * added to the buffer cache, false otherwise.
-     */
-    // 判断给定的尺寸是否超过了Buffer缓冲池对Buffer尺寸的约束
-    private static boolean isBufferTooLarge(int size) {
-        return size>MAX_CACHED_BUFFER_SIZE;
-    }
-    
-    /**
-     * Returns true if the buffer is too large to be added to the
-     * buffer cache, false otherwise.
-     */
-    // 判断给定的Buffer尺寸是否超过了Buffer缓冲池对Buffer尺寸的约束
-    private static boolean isBufferTooLarge(ByteBuffer buf) {
-        return isBufferTooLarge(buf.capacity());
+    // 返回Buffer缓冲池中缓存的Buffer被允许的最大尺寸(bytes)
+    static long maxCachedBufferSize() {
+        return MAX_CACHED_BUFFER_SIZE;
     }
     
     /**
      * Frees the memory for the given direct buffer
      */
-    // 清理直接缓冲区（释放其所占内存）
-    private static void free(ByteBuffer buf) {
+    // 清理直接缓冲区（释放其所占内存）；切片没有清理器，其内存随原Buffer被回收时释放
+    static void free(ByteBuffer buf) {
         // 获取该缓冲区的清理器
         Cleaner cleaner = ((DirectBuffer) buf).cleaner();
-        // 对追踪对象进行清理，在Reference类中完成
-        cleaner.clean();
+        if(cleaner != null) {
+            // 对追踪对象进行清理，在Reference类中完成
+            cleaner.clean();
+        }
     }
     
     /*▲ Buffer缓冲池 ████████████████████████████████████████████████████████████████████████████████┛ */
@@ -530,146 +412,4 @@ public class Util {
         };
     }
     
-    
-    /**
-     * A simple cache of direct buffers.
-     */
-    // 线程私有的Buffer缓冲池，用于缓存多个Direct Buffer
-    private static class BufferCache {
-        /* the array of buffers */
-        // Buffer缓冲池的内部结构
-        private ByteBuffer[] buffers;
-        
-        /* the number of buffers in the cache */
-        // 当前缓存的Buffer的数量
-        private int count;
-        
-        /* the index of the first valid buffer (undefined if count == 0) */
-        // 游标（LIFO-栈顶，FIFO-队头）
-        private int start;
-        
-        BufferCache() {
-            buffers = new ByteBuffer[TEMP_BUF_POOL_SIZE];
-        }
-        
-        /**
-         * Removes and returns a buffer from the cache of at least the given
-         * size (or null if no suitable buffer is found).
-         */
-        // 从Buffer缓冲池中取出一个容量至少为size的Direct Buffer
-        ByteBuffer get(int size) {
-            // Don't call this if the buffer would be too large.
-            assert !isBufferTooLarge(size);
-            
-            if(count == 0) {
-                return null;  // cache is empty
-            }
-            
-            ByteBuffer[] buffers = this.buffers;
-            
-            // search for suitable buffer (often the first buffer will do)
-            ByteBuffer buf = buffers[start];
-            
-            // 如果当前取到的Buffer容量不符要求
-            if(buf.capacity()<size) {
-                buf = null;
-                int i = start;
-                
-                // 如果缓冲池还有遍历的余地
-                while((i = next(i)) != start) {
-                    ByteBuffer bb = buffers[i];
-                    if(bb == null) {
-                        // 已经没缓存了
-                        break;
-                    }
-                    
-                    // 找到了符合要求的缓存
-                    if(bb.capacity() >= size) {
-                        buf = bb;
-                        break;
-                    }
-                }
-                
-                if(buf == null) {
-                    return null;
-                }
-                
-                /* move first element to here to avoid re-packing */
-                // 将start处的元素移动到i处，可以避免移动大量元素
-                buffers[i] = buffers[start];
-            }
-            
-            // 按次序移除首个缓存的Buffer
-            buffers[start] = null;
-            
-            // 更新start到下一个缓存的Buffer的下标
-            start = next(start);
-            
-            // 计数减一
-            count--;
-            
-            /* prepare the buffer and return it */
-            
-            // 丢弃备忘，游标归零
-            buf.rewind();
-            
-            // 设置新的上界为size
-            buf.limit(size);
-            
-            return buf;
-        }
-        
-        // 采用FILO的形式(入栈模式)将buf放入Buffer缓存池以待复用
-        boolean offerFirst(ByteBuffer buf) {
-            // Don't call this if the buffer is too large.
-            assert !isBufferTooLarge(buf);
-            
-            if(count >= TEMP_BUF_POOL_SIZE) {
-                return false;
-            }
-            
-            start = (start + TEMP_BUF_POOL_SIZE - 1) % TEMP_BUF_POOL_SIZE;
-            buffers[start] = buf;
-            count++;
-            
-            return true;
-        }
-        
-        // 采用FIFO的形式(入队模式)将buf存入Buffer缓存池以待复用
-        boolean offerLast(ByteBuffer buf) {
-            // Don't call this if the buffer is too large.
-            assert !isBufferTooLarge(buf);
-            
-            if(count >= TEMP_BUF_POOL_SIZE) {
-                return false;
-            }
-            
-            int next = (start + count) % TEMP_BUF_POOL_SIZE;
-            buffers[next] = buf;
-            count++;
-            
-            return true;
-        }
-        
-        // 判断Buffer缓冲池是否为空
-        boolean isEmpty() {
-            return count == 0;
-        }
-        
-        // 获取Buffer缓冲池首位处的Direct Buffer
-        ByteBuffer removeFirst() {
-            assert count>0;
-            ByteBuffer buf = buffers[start];
-            buffers[start] = null;
-            start = next(start);
-            count--;
-            return buf;
-        }
-        
-        // 计算下一个缓存的Buffer的下标
-        private int next(int i) {
-            return (i + 1) % TEMP_BUF_POOL_SIZE;
-        }
-    }
-    
 }
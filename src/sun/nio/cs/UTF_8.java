@@ -33,6 +33,8 @@ import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
+import jdk.internal.util.ArraysSupport;
+import sun.nio.ch.DirectBuffer;
 
 /* Legal UTF-8 Byte Sequences
  *
@@ -80,6 +82,33 @@ public final class UTF_8 extends Unicode {
         dst.position(dp - dst.arrayOffset());
     }
 
+    /*
+     * Legal range of the second byte of a 3-byte sequence, indexed by the
+     * first byte: the lowest legal value in the low 8 bits and the number of
+     * legal values above them.  The ranges of E0 and ED exclude the overlong
+     * forms and the surrogates, the range of any other byte is empty.
+     */
+    private static final int[] SECOND_OF_3 = new int[256];
+
+    static {
+        for (int b1 = 0xe0; b1 <= 0xef; b1++) {
+            int lower = b1 == 0xe0 ? 0xa0 : 0x80;
+            int upper = b1 == 0xed ? 0x9f : 0xbf;
+            SECOND_OF_3[b1] = lower | (upper - lower + 1) << 8;
+        }
+    }
+
+    /**
+     * Tests if the bytes are a well-formed 3-byte sequence, that is neither
+     * malformed nor an overlong form nor a surrogate, with a single table
+     * lookup for the first two bytes.
+     */
+    public static boolean isWellFormed3(int b1, int b2, int b3) {
+        int range = SECOND_OF_3[b1 & 0xff];
+        return Integer.compareUnsigned((b2 & 0xff) - (range & 0xff), range >>> 8) < 0
+               && (b3 & 0xc0) == 0x80;
+    }
+
     private static class Decoder extends CharsetDecoder {
 
         private Decoder(Charset cs) {
@@ -242,6 +271,13 @@ public final class UTF_8 extends Unicode {
                         return xflow(src, sp, sl, dst, dp, 1);
                     da[dp++] = (char) b1;
                     sp++;
+                    if (sp < sl && sa[sp] >= 0) {
+                        // the rest of an ASCII run is found eight bytes at
+                        // a time
+                        int n = ArraysSupport.countPositives(sa, sp, sp + Math.min(sl - sp, dl - dp));
+                        for (int end = sp + n; sp < end; )
+                            da[dp++] = (char) sa[sp++];
+                    }
                 } else if ((b1 >> 5) == -2 && (b1 & 0x1e) != 0) {
                     // 2 bytes, 11 bits: 110xxxxx 10xxxxxx
                     //                   [C2..DF] [80..BF]
@@ -271,18 +307,19 @@ public final class UTF_8 extends Unicode {
                     }
                     int b2 = sa[sp + 1];
                     int b3 = sa[sp + 2];
-                    if (isMalformed3(b1, b2, b3))
-                        return malformed(src, sp, dst, dp, 3);
-                    char c = (char)
+                    if (!isWellFormed3(b1, b2, b3)) {
+                        if (isMalformed3(b1, b2, b3))
+                            return malformed(src, sp, dst, dp, 3);
+                        // surrogate
+                        return malformedForLength(src, sp, dst, dp, 3);
+                    }
+                    da[dp++] = (char)
                         ((b1 << 12) ^
                          (b2 <<  6) ^
                          (b3 ^
                           (((byte) 0xE0 << 12) ^
                            ((byte) 0x80 <<  6) ^
                            ((byte) 0x80 <<  0))));
-                    if (Character.isSurrogate(c))
-                        return malformedForLength(src, sp, dst, dp, 3);
-                    da[dp++] = c;
                     sp += 3;
                 } else if ((b1 >> 3) == -2) {
                     // 4 bytes, 21 bits: 11110xxx 10xxxxxx 10xxxxxx 10xxxxxx
@@ -326,6 +363,7 @@ public final class UTF_8 extends Unicode {
         {
             int mark = src.position();
             int limit = src.limit();
+            long address = src.isDirect() ? ((DirectBuffer) src).address() : 0;
             while (mark < limit) {
                 int b1 = src.get();
                 if (b1 >= 0) {
@@ -334,6 +372,14 @@ public final class UTF_8 extends Unicode {
                         return xflow(src, mark, 1); // overflow
                     dst.put((char) b1);
                     mark++;
+                    if (address != 0 && mark < limit && src.get(mark) >= 0) {
+                        // the rest of an ASCII run in a direct buffer is
+                        // found eight bytes at a time
+                        int n = ArraysSupport.countPositives(null, address + mark,
+                                                             Math.min(limit - mark, dst.remaining()));
+                        for (int end = mark + n; mark < end; mark++)
+                            dst.put((char) src.get());
+                    }
                 } else if ((b1 >> 5) == -2 && (b1 & 0x1e) != 0) {
                     // 2 bytes, 11 bits: 110xxxxx 10xxxxxx
                     if (limit - mark < 2|| dst.remaining() < 1)
@@ -356,18 +402,19 @@ public final class UTF_8 extends Unicode {
                     }
                     int b2 = src.get();
                     int b3 = src.get();
-                    if (isMalformed3(b1, b2, b3))
-                        return malformed(src, mark, 3);
-                    char c = (char)
+                    if (!isWellFormed3(b1, b2, b3)) {
+                        if (isMalformed3(b1, b2, b3))
+                            return malformed(src, mark, 3);
+                        // surrogate
+                        return malformedForLength(src, mark, 3);
+                    }
+                    dst.put((char)
                         ((b1 << 12) ^
                          (b2 <<  6) ^
                          (b3 ^
                           (((byte) 0xE0 << 12) ^
                            ((byte) 0x80 <<  6) ^
-                           ((byte) 0x80 <<  0))));
-                    if (Character.isSurrogate(c))
-                        return malformedForLength(src, mark, 3);
-                    dst.put(c);
+                           ((byte) 0x80 <<  0)))));
                     mark += 3;
                 } else if ((b1 >> 3) == -2) {
                     // 4 bytes, 21 bits: 11110xxx 10xxxxxx 10xxxxxx 10xxxxxx
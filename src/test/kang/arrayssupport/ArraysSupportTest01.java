@@ -0,0 +1,71 @@
+package test.kang.arrayssupport;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/*
+ * 测试批量内核在不同数组长度(8 ~ 1M)下的耗时(纳秒/次)
+ *
+ * Arrays.hashCode(byte[])、Arrays.hashCode(int[])、ByteBuffer.hashCode()：每轮8个元素的展开多项式哈希
+ * String.indexOf(int)：Latin1字符串上的逐long字节查找(目标字符不存在，需扫描整个字符串)
+ * BitSet.cardinality()：多路累加的位计数
+ *
+ * 每种情形循环执行直到累计处理约3200万个元素，重复3次，取最短耗时
+ */
+public class ArraysSupportTest01 {
+    static final int[] SIZES = {8, 64, 512, 4 << 10, 32 << 10, 256 << 10, 1 << 20};
+    static final long ELEMENTS = 32L << 20;
+    static final int REPEAT = 3;
+    
+    static int sink;
+    
+    public static void main(String[] args) {
+        System.out.printf("%-10s %14s %14s %14s %14s %14s %14s%n", "长度", "hash(byte[])", "hash(int[])", "heap.hash", "direct.hash", "indexOf", "cardinality");
+        
+        Random random = new Random(42);
+        for(int size : SIZES) {
+            byte[] bytes = new byte[size];
+            int[] ints = new int[size];
+            random.nextBytes(bytes);
+            for(int i = 0; i<size; i++) {
+                ints[i] = random.nextInt();
+                // 字符串中不出现'#'
+                if(bytes[i] == '#') {
+                    bytes[i] = 0;
+                }
+            }
+            
+            ByteBuffer heap = ByteBuffer.wrap(bytes);
+            ByteBuffer direct = ByteBuffer.allocateDirect(size).put(bytes).flip();
+            String latin1 = new String(bytes, java.nio.charset.StandardCharsets.ISO_8859_1);
+            BitSet bits = BitSet.valueOf(bytes);
+            
+            System.out.printf("%-10d %14.1f %14.1f %14.1f %14.1f %14.1f %14.1f%n", size,
+                time(size, () -> Arrays.hashCode(bytes)),
+                time(size, () -> Arrays.hashCode(ints)),
+                time(size, heap::hashCode),
+                time(size, direct::hashCode),
+                time(size, () -> latin1.indexOf('#')),
+                time(size, bits::cardinality));
+        }
+    }
+    
+    // 返回每次调用的最短平均耗时(纳秒)
+    static double time(int size, IntSupplier op) {
+        long calls = Math.max(1, ELEMENTS / size);
+        long best = Long.MAX_VALUE;
+        for(int r = 0; r<REPEAT; r++) {
+            int x = 0;
+            long t0 = System.nanoTime();
+            for(long i = 0; i<calls; i++) {
+                x += op.getAsInt();
+            }
+            best = Math.min(best, System.nanoTime() - t0);
+            sink += x;
+        }
+        return (double) best / calls;
+    }
+}
@@ -0,0 +1,79 @@
+package test.kang.bufferpool;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import javax.management.MBeanServer;
+
+/*
+ * 观察通道使用的临时直接缓冲区池
+ *
+ * 多个线程使用不同大小的堆缓冲区读写同一个文件，通道内部会从临时缓冲区池中借用直接缓冲区
+ * 线程结束后，直接内存不会随线程数量增长，池中缓存的内存不超过上限(jdk.nio.maxCachedBufferMemory)
+ *
+ * 每轮结束后打印各个BufferPool的统计信息，temporary池额外给出命中/未命中/修剪次数
+ */
+public class BufferPoolTest01 {
+    static final int THREADS = 16;
+    static final int COUNT = 20_000;
+    static final int MAX_SIZE = 256 << 10;
+
+    public static void main(String[] args) throws Exception {
+        Path path = Files.createTempFile("BufferPoolTest01", ".bin");
+        try {
+            for(int r = 0; r<3; r++) {
+                long t0 = System.nanoTime();
+                run(path, r);
+                System.out.printf("第%d轮：%.1f ms%n", r + 1, (System.nanoTime() - t0) / 1e6);
+                print();
+                System.out.println();
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    // 启动THREADS个线程，每个线程使用随机大小的堆缓冲区读写文件COUNT次
+    static void run(Path path, int round) throws Exception {
+        Thread[] threads = new Thread[THREADS];
+        for(int t = 0; t<threads.length; t++) {
+            long seed = round * THREADS + t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    for(int i = 0; i<COUNT; i++) {
+                        ByteBuffer buf = ByteBuffer.allocate(1 + random.nextInt(MAX_SIZE));
+                        channel.write(buf, 0);
+                        buf.clear();
+                        channel.read(buf, 0);
+                    }
+                } catch(Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    // 打印各个BufferPool的统计信息
+    static void print() throws Exception {
+        for(BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            System.out.printf("%-10s 数量=%-6d 容量=%-10d 内存=%-10d", pool.getName(), pool.getCount(), pool.getTotalCapacity(), pool.getMemoryUsed());
+            if(pool.getName().equals("temporary")) {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                for(String attribute : new String[]{"CachedMemory", "MemoryLimit", "HitCount", "MissCount", "TrimCount"}) {
+                    System.out.printf(" %s=%s", attribute, server.getAttribute(pool.getObjectName(), attribute));
+                }
+            }
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package test.kang.bytebufferallocator;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteBufferAllocator;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * 比较在直接内存紧张时，反复分配/释放直接缓冲区的耗时
+ *
+ * 建议以-XX:MaxDirectMemorySize=64m运行，并先占用大部分直接内存，模拟内存压力
+ *   allocateDirect  每次调用ByteBuffer.allocateDirect，内存要等GC回收缓冲区后才释放，
+ *                   达到上限时Bits.reserveMemory会触发System.gc()并反复等待
+ *   allocator       使用ByteBufferAllocator分配，用完后立即release，内存交还分配器复用
+ *
+ * 每种方式取3轮中的最短耗时
+ */
+public class ByteBufferAllocatorTest01 {
+    static final int COUNT = 100_000;
+    static final int REPEAT = 3;
+    static final int[] SIZES = {512, 4096, 16384, 65536};
+
+    static long sink;
+
+    public static void main(String[] args) {
+        // 占用大部分直接内存（默认48MB，可通过-Dballast=<MB>调整），剩余部分不足以容纳未被回收的缓冲区
+        List<ByteBuffer> ballast = new ArrayList<>();
+        int ballastSize = Integer.getInteger("ballast", 48);
+        for(int i = 0; i<ballastSize; i++) {
+            ballast.add(ByteBuffer.allocateDirect(1 << 20));
+        }
+        System.out.printf("占用直接内存：%d MB%n", ballast.size());
+
+        ByteBufferAllocator allocator = ByteBufferAllocator.getDefault();
+
+        System.out.printf("%-10s %16s %16s%n", "尺寸", "allocateDirect", "allocator");
+        for(int r = 0; r<2; r++) {
+            for(int size : SIZES) {
+                long plain = best(() -> {
+                    for(int i = 0; i<COUNT; i++) {
+                        ByteBuffer buf = ByteBuffer.allocateDirect(size);
+                        sink += buf.put(0, (byte) i).get(0);
+                    }
+                });
+                long pooled = best(() -> {
+                    for(int i = 0; i<COUNT; i++) {
+                        ByteBuffer buf = allocator.allocateDirect(size);
+                        sink += buf.put(0, (byte) i).get(0);
+                        ByteBufferAllocator.release(buf);
+                    }
+                });
+                System.out.printf("%-10d %13.1f ns %13.1f ns%n", size, (double) plain / COUNT, (double) pooled / COUNT);
+            }
+            System.out.println();
+        }
+        System.out.printf("分配器缓存：%d KB%n", allocator.cachedMemory() >> 10);
+        sink += ballast.size();
+    }
+
+    static long best(Runnable task) {
+        long best = Long.MAX_VALUE;
+        for(int r = 0; r<REPEAT; r++) {
+            long t0 = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,137 @@
+package test.kang.channeltransfer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ChannelTransfer;
+import java.nio.channels.Channels;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/*
+ * 在本机回环地址上搭建"客户端 -> 代理 -> 接收端"的链路，比较代理转发数据的几种方式的吞吐量
+ *
+ * 堆缓冲区  阻塞模式，每次read到堆缓冲区再write（数据经由堆内存与临时直接缓冲区复制）
+ * transfer  阻塞模式，Channels.transfer()经由一组直接缓冲区分散读取、聚集写入
+ * selector  非阻塞模式，由Selector驱动ChannelTransfer：有待写数据时关注目标通道的OP_WRITE，否则关注源通道的OP_READ
+ *
+ * 吞吐量取3轮中的最短耗时，单位为MB/s
+ */
+public class ChannelTransferTest01 {
+    static final long SIZE = 512L << 20;
+    static final int REPEAT = 3;
+    
+    public static void main(String[] args) throws Exception {
+        String[] modes = {"堆缓冲区", "transfer", "selector"};
+        
+        System.out.printf("%-10s %10s%n", "方式", "MB/s");
+        for(int r = 0; r<2; r++) {
+            for(int m = 0; m<modes.length; m++) {
+                long best = Long.MAX_VALUE;
+                for(int i = 0; i<REPEAT; i++) {
+                    best = Math.min(best, run(m));
+                }
+                System.out.printf("%-10s %10.1f%n", modes[m], (SIZE >> 20) * 1e9 / best);
+            }
+            System.out.println();
+        }
+    }
+    
+    // 经由代理发送SIZE个字节，返回从发送开始到接收端收完数据的耗时
+    static long run(int mode) throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        try(ServerSocketChannel sinkServer = ServerSocketChannel.open().bind(new InetSocketAddress(loopback, 0));
+            ServerSocketChannel proxyServer = ServerSocketChannel.open().bind(new InetSocketAddress(loopback, 0))) {
+            
+            // 接收端：读取并丢弃数据
+            long[] received = new long[1];
+            Thread sink = new Thread(() -> {
+                try(SocketChannel ch = sinkServer.accept()) {
+                    ByteBuffer buf = ByteBuffer.allocateDirect(256 * 1024);
+                    int n;
+                    while((n = ch.read(buf))>=0) {
+                        received[0] += n;
+                        buf.clear();
+                    }
+                } catch(IOException e) {
+                    e.printStackTrace();
+                }
+            });
+            
+            // 代理：接受客户端连接，并转发到接收端
+            Thread proxy = new Thread(() -> {
+                try(SocketChannel client = proxyServer.accept();
+                    SocketChannel upstream = SocketChannel.open(sinkServer.getLocalAddress())) {
+                    relay(mode, client, upstream);
+                } catch(IOException e) {
+                    e.printStackTrace();
+                }
+            });
+            
+            sink.start();
+            proxy.start();
+            
+            long t0 = System.nanoTime();
+            try(SocketChannel ch = SocketChannel.open(proxyServer.getLocalAddress())) {
+                ByteBuffer buf = ByteBuffer.allocateDirect(256 * 1024);
+                for(long sent = 0; sent<SIZE; sent += buf.capacity()) {
+                    buf.clear();
+                    while(buf.hasRemaining()) {
+                        ch.write(buf);
+                    }
+                }
+            }
+            proxy.join();
+            sink.join();
+            long time = System.nanoTime() - t0;
+            
+            if(received[0] != SIZE) {
+                throw new AssertionError(received[0]);
+            }
+            return time;
+        }
+    }
+    
+    // 将src中的数据全部转发到dst，然后关闭dst的输出
+    static void relay(int mode, SocketChannel src, SocketChannel dst) throws IOException {
+        switch(mode) {
+            case 0:
+                ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+                while(src.read(buf)>=0) {
+                    buf.flip();
+                    while(buf.hasRemaining()) {
+                        dst.write(buf);
+                    }
+                    buf.clear();
+                }
+                break;
+            case 1:
+                Channels.transfer(src, dst, Long.MAX_VALUE);
+                break;
+            case 2:
+                src.configureBlocking(false);
+                dst.configureBlocking(false);
+                try(Selector selector = Selector.open(); ChannelTransfer transfer = Channels.newTransfer(src, dst)) {
+                    SelectionKey readKey = src.register(selector, SelectionKey.OP_READ);
+                    SelectionKey writeKey = dst.register(selector, 0);
+                    while(transfer.transfer(Long.MAX_VALUE) >= 0) {
+                        if(transfer.pending() == 0 && transfer.isEndOfStream()) {
+                            break;
+                        }
+                        // 有待写数据时等待目标通道可写，否则等待源通道可读
+                        boolean blocked = transfer.pending()>0;
+                        readKey.interestOps(blocked ? 0 : SelectionKey.OP_READ);
+                        writeKey.interestOps(blocked ? SelectionKey.OP_WRITE : 0);
+                        selector.select();
+                        selector.selectedKeys().clear();
+                    }
+                }
+                dst.configureBlocking(true);
+                break;
+        }
+        dst.shutdownOutput();
+    }
+}
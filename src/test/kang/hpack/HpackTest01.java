@@ -0,0 +1,75 @@
+package test.kang.hpack;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import jdk.internal.net.http.hpack.Decoder;
+import jdk.internal.net.http.hpack.DecodingCallback;
+import jdk.internal.net.http.hpack.Encoder;
+
+/*
+ * HPACK头部编码/解码的耗时与内存分配测试
+ *
+ * 模拟同一个HTTP/2连接上的多个流：使用同一对Encoder/Decoder反复编码、解码一组典型的请求头，
+ * 统计平均每个头部的耗时(纳秒)，以及平均每个头部分配的字节数
+ *
+ * 注：hpack位于内部包，运行时需要添加：
+ * --add-exports java.net.http/jdk.internal.net.http.hpack=ALL-UNNAMED
+ */
+public class HpackTest01 {
+    static final int WARMUP = 200_000;    // 预热轮数
+    static final int ROUNDS = 500_000;    // 统计的轮数
+    
+    static final String[][] HEADERS = {
+        {":method", "GET"},
+        {":scheme", "https"},
+        {":authority", "www.example.com"},
+        {":path", "/resources/images/logo.png?width=256&height=256"},
+        {"user-agent", "Java-http-client/11"},
+        {"accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8"},
+        {"accept-encoding", "gzip, deflate, br"},
+        {"accept-language", "zh-CN,zh;q=0.9,en;q=0.8"},
+        {"cookie", "session=4f1c2b3a9d8e7f6a5b4c3d2e1f0a9b8c; theme=dark"},
+        {"x-request-id", "0123456789abcdef0123456789abcdef"},
+    };
+    
+    static int decoded;   // 防止解码结果被优化掉
+    
+    public static void main(String[] args) throws Exception {
+        Encoder encoder = new Encoder(0);
+        Decoder decoder = new Decoder(4096);
+        ByteBuffer block = ByteBuffer.allocate(4096);
+        DecodingCallback callback = (name, value) -> decoded += name.length() + value.length();
+        
+        run(encoder, decoder, block, callback, WARMUP);
+        
+        long bytes0 = allocatedBytes();
+        long t0 = System.nanoTime();
+        run(encoder, decoder, block, callback, ROUNDS);
+        long t1 = System.nanoTime();
+        long bytes1 = allocatedBytes();
+        
+        long headers = (long) ROUNDS * HEADERS.length;
+        System.out.printf("纳秒/头部(编码+解码)：%.1f%n", (double) (t1 - t0) / headers);
+        System.out.printf("字节/头部：%.1f%n", (double) (bytes1 - bytes0) / headers);
+        System.out.println("头部块大小：" + block.limit() + "字节");
+    }
+    
+    // 每一轮相当于在连接上发出一个新的流：编码整组请求头，再把得到的头部块解码
+    static void run(Encoder encoder, Decoder decoder, ByteBuffer block, DecodingCallback callback, int rounds) throws Exception {
+        for(int r = 0; r<rounds; r++) {
+            block.clear();
+            for(String[] header : HEADERS) {
+                encoder.header(header[0], header[1]);
+                if(!encoder.encode(block)) {
+                    throw new IllegalStateException("头部块缓冲区过小");
+                }
+            }
+            block.flip();
+            decoder.decode(block, true, callback);
+        }
+    }
+    
+    static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,113 @@
+package test.kang.httpclient;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+/*
+ * HttpClient(HTTP/1.1)吞吐量与内存分配测试
+ *
+ * 本地启动一个简易的HTTP/1.1服务端，每个响应一次写出，包含若干常见的响应头，
+ * 客户端同步发送大量请求，统计每秒请求数，以及平均每个请求在所有线程上分配的字节数
+ */
+public class HttpClientTest01 {
+    static final int WARMUP = 20_000;     // 预热请求数
+    static final int REQUESTS = 50_000;   // 统计的请求数
+    
+    static final byte[] RESPONSE = ("HTTP/1.1 200 OK\r\n"
+        + "Date: Thu, 01 Jan 1970 00:00:00 GMT\r\n"
+        + "Server: test\r\n"
+        + "Content-Type: text/plain\r\n"
+        + "Cache-Control: no-cache\r\n"
+        + "Vary: Accept-Encoding\r\n"
+        + "X-Request-Id: 0123456789abcdef\r\n"
+        + "Content-Length: 13\r\n"
+        + "\r\n"
+        + "Hello, World!").getBytes(StandardCharsets.ISO_8859_1);
+    
+    public static void main(String[] args) throws Exception {
+        ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(() -> serve(server));
+        acceptor.setDaemon(true);
+        acceptor.start();
+        
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getLocalPort() + "/")).build();
+        
+        run(client, request, WARMUP);
+        
+        long bytes0 = allocatedBytes();
+        long t0 = System.nanoTime();
+        run(client, request, REQUESTS);
+        long t1 = System.nanoTime();
+        long bytes1 = allocatedBytes();
+        
+        System.out.printf("请求/秒：%,d%n", (long) (REQUESTS * 1e9 / (t1 - t0)));
+        System.out.printf("字节/请求(客户端+服务端)：%,d%n", (bytes1 - bytes0) / REQUESTS);
+        
+        server.close();
+        System.exit(0);
+    }
+    
+    // 为每个连接启动一个线程，读到请求头的结尾(空行)时写出整个响应
+    static void serve(ServerSocket server) {
+        while(!server.isClosed()) {
+            Socket socket;
+            try {
+                socket = server.accept();
+                socket.setTcpNoDelay(true);
+            } catch(Exception e) {
+                return;
+            }
+            Thread t = new Thread(() -> {
+                try(Socket s = socket) {
+                    InputStream in = s.getInputStream();
+                    OutputStream out = s.getOutputStream();
+                    int state = 0, b;
+                    while((b = in.read()) != -1) {
+                        // 依次匹配\r\n\r\n
+                        state = (b == (state % 2 == 0 ? '\r' : '\n')) ? state + 1 : (b == '\r' ? 1 : 0);
+                        if(state == 4) {
+                            out.write(RESPONSE);
+                            out.flush();
+                            state = 0;
+                        }
+                    }
+                } catch(Exception e) {
+                    // 连接关闭
+                }
+            });
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+    
+    static void run(HttpClient client, HttpRequest request, int n) throws Exception {
+        for(int i = 0; i<n; i++) {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if(response.statusCode() != 200) {
+                throw new IllegalStateException("status " + response.statusCode());
+            }
+        }
+    }
+    
+    // 统计所有存活线程已分配的字节数
+    static long allocatedBytes() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long sum = 0;
+        for(long b : bean.getThreadAllocatedBytes(bean.getAllThreadIds())) {
+            if(b>0) {
+                sum += b;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,77 @@
+package test.kang.httpserver;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * HttpServer吞吐量测试：多个保持长连接(keep-alive)的客户端并发请求
+ *
+ * 分别以下面两种方式运行，比较每秒处理的请求数：
+ * 单分发线程模式(默认)：不加参数
+ * 多Reactor模式：-Dsun.net.httpserver.multiReactor=true [-Dsun.net.httpserver.selectorThreads=N]
+ */
+public class HttpServerTest01 {
+    static final int CLIENTS = 64;          // 客户端数量
+    static final int REQUESTS = 2000;       // 每个客户端发出的请求数
+    
+    public static void main(String[] args) throws Exception {
+        byte[] body = "Hello".getBytes();
+        
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.createContext("/", exchange -> {
+            try(InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try(OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()));
+        server.start();
+        
+        URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+        
+        AtomicLong count = new AtomicLong();
+        CountDownLatch latch = new CountDownLatch(CLIENTS);
+        
+        long start = System.nanoTime();
+        
+        for(int i = 0; i<CLIENTS; i++) {
+            new Thread(() -> {
+                try {
+                    for(int j = 0; j<REQUESTS; j++) {
+                        // HttpURLConnection默认复用长连接
+                        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                        try(InputStream in = conn.getInputStream()) {
+                            in.readAllBytes();
+                        }
+                        count.incrementAndGet();
+                    }
+                } catch(Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    latch.countDown();
+                }
+            }).start();
+        }
+        
+        latch.await();
+        
+        long elapsed = System.nanoTime() - start;
+        
+        System.out.println("请求总数：" + count.get());
+        System.out.println("耗时(ms)：" + elapsed / 1000000);
+        System.out.println("吞吐量(req/s)：" + count.get() * 1000000000L / elapsed);
+        
+        server.stop(0);
+        System.exit(0);
+    }
+}
@@ -0,0 +1,87 @@
+package test.kang.jfr;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/*
+ * 并行解析JFR记录文件
+ *
+ * 先录制一段包含多个chunk的记录，然后分别使用RecordingFile顺序读取、parallelEvents()并行解析，
+ * 以及带事件类型过滤的并行解析，比较三者的耗时
+ *
+ * 也可以通过参数指定一个已有的记录文件
+ */
+public class RecordingFileTest01 {
+    static final String TYPE = "jdk.ObjectAllocationInNewTLAB";
+    
+    public static void main(String[] args) throws Exception {
+        Path file;
+        if(args.length>0) {
+            file = Path.of(args[0]);
+        } else {
+            file = Files.createTempFile("recording", ".jfr");
+            record(file);
+        }
+        System.out.println("记录文件大小：" + Files.size(file) + "字节");
+        
+        for(int round = 0; round<3; round++) {
+            long t0 = System.nanoTime();
+            long all = 0;
+            try(RecordingFile recordingFile = new RecordingFile(file)) {
+                while(recordingFile.hasMoreEvents()) {
+                    recordingFile.readEvent();
+                    all++;
+                }
+            }
+            
+            long t1 = System.nanoTime();
+            long parallel;
+            try(Stream<RecordedEvent> events = RecordingFile.parallelEvents(file, null)) {
+                parallel = events.count();
+            }
+            
+            long t2 = System.nanoTime();
+            long filtered;
+            try(Stream<RecordedEvent> events = RecordingFile.parallelEvents(file, type -> type.getName().equals(TYPE))) {
+                filtered = events.count();
+            }
+            long t3 = System.nanoTime();
+            
+            System.out.printf("顺序读取：%d个事件，%dms%n", all, (t1 - t0) / 1_000_000);
+            System.out.printf("并行解析：%d个事件，%dms%n", parallel, (t2 - t1) / 1_000_000);
+            System.out.printf("并行解析(仅%s)：%d个事件，%dms%n", TYPE, filtered, (t3 - t2) / 1_000_000);
+        }
+        
+        if(args.length == 0) {
+            Files.delete(file);
+        }
+    }
+    
+    // 录制大约10秒的内存分配
+    // 运行时可添加-XX:FlightRecorderOptions:maxchunksize=1M，以产生多个chunk
+    static void record(Path file) throws Exception {
+        try(Recording recording = new Recording(Configuration.getConfiguration("profile"))) {
+            recording.setToDisk(true);
+            recording.setMaxSize(0);
+            recording.start();
+            List<Object> list = new ArrayList<>();
+            long end = System.currentTimeMillis() + 10_000;
+            while(System.currentTimeMillis()<end) {
+                for(int i = 0; i<10_000; i++) {
+                    list.add(new byte[100 + i % 1000]);
+                }
+                list.clear();
+                Thread.sleep(1);
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package test.kang.keepalivecache;
+
+import com.sun.management.HttpKeepAliveCacheMXBean;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+/*
+ * 观察HttpURLConnection的keep-alive连接缓存（按路由划分，由时间轮清理空闲连接）
+ *
+ * 本地启动ROUTES个HTTP服务端，响应头中声明"Keep-Alive: timeout=2"
+ * 1.每个路由并发发送CONNECTIONS个请求，使每个路由缓存多个空闲连接
+ * 2.每个路由再依次发送若干请求，这些请求复用缓存中的连接（命中）
+ * 3.停止发送请求，每隔50ms查询一次空闲连接数，观察空闲连接在超时后多久被关闭
+ *   时间轮的精度为1秒，连接应在空闲2~4秒之间被关闭，而不是等待时间轮转过一整圈(64秒)
+ */
+public class KeepAliveCacheTest01 {
+    static final int ROUTES = 4;
+    static final int CONNECTIONS = 4;
+    static final int TIMEOUT = 2;
+    
+    public static void main(String[] args) throws Exception {
+        HttpKeepAliveCacheMXBean cache = ManagementFactory.getPlatformMXBean(HttpKeepAliveCacheMXBean.class);
+        
+        HttpServer[] servers = new HttpServer[ROUTES];
+        URL[] urls = new URL[ROUTES];
+        for(int i = 0; i<ROUTES; i++) {
+            servers[i] = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            servers[i].createContext("/", exchange -> {
+                byte[] body = "hello".getBytes();
+                exchange.getResponseHeaders().set("Keep-Alive", "timeout=" + TIMEOUT);
+                exchange.sendResponseHeaders(200, body.length);
+                try(OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            servers[i].setExecutor(Executors.newCachedThreadPool());
+            servers[i].start();
+            urls[i] = new URL("http://127.0.0.1:" + servers[i].getAddress().getPort() + "/");
+        }
+        
+        // 每个路由并发请求，建立多个连接
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[ROUTES * CONNECTIONS];
+        for(int i = 0; i<threads.length; i++) {
+            URL url = urls[i % ROUTES];
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                    request(url);
+                } catch(Exception e) {
+                    e.printStackTrace();
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for(Thread t : threads) {
+            t.join();
+        }
+        print("并发请求后", cache);
+        
+        // 依次请求，复用缓存的连接
+        for(int r = 0; r<10; r++) {
+            for(URL url : urls) {
+                request(url);
+            }
+        }
+        print("依次请求后", cache);
+        
+        // 等待空闲连接超时
+        long idleStart = System.nanoTime();
+        int last = cache.getIdleConnectionCount();
+        while(last>0) {
+            Thread.sleep(50);
+            int idle = cache.getIdleConnectionCount();
+            if(idle != last) {
+                System.out.printf("空闲%.2f秒：空闲连接 %d -> %d%n", (System.nanoTime() - idleStart) / 1e9, last, idle);
+                last = idle;
+            }
+            if(System.nanoTime() - idleStart>90e9) {
+                System.out.println("空闲连接未在90秒内关闭");
+                break;
+            }
+        }
+        print("超时后", cache);
+        
+        for(HttpServer server : servers) {
+            server.stop(0);
+        }
+        System.exit(0);
+    }
+    
+    // 发送一个请求并读完响应，使连接回到缓存
+    static void request(URL url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try(InputStream in = connection.getInputStream()) {
+            in.readAllBytes();
+        }
+    }
+    
+    static void print(String stage, HttpKeepAliveCacheMXBean cache) {
+        System.out.printf("%s：命中 %d，未命中 %d，超时关闭 %d，空闲连接 %d，路由 %d%n", stage, cache.getHitCount(), cache.getMissCount(), cache.getEvictionCount(), cache.getIdleConnectionCount(), cache.getRouteCount());
+    }
+}
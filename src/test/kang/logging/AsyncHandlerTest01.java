@@ -0,0 +1,93 @@
+package test.kang.logging;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.AsyncHandler;
+import java.util.logging.FileHandler;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+
+/*
+ * 64个线程同时记录日志，比较直接使用FileHandler与使用AsyncHandler包装FileHandler时，单次日志调用的延迟
+ *
+ * FileHandler的publish()是同步方法，并在调用线程上完成格式化与写文件，线程之间互相等待；
+ * AsyncHandler只是把日志记录存入环形缓冲区，由后台线程批量写出
+ */
+public class AsyncHandlerTest01 {
+    static final int THREADS = 64;        // 线程数
+    static final int CALLS = 5_000;       // 每个线程的日志调用次数
+    
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("logging");
+        
+        for(int round = 0; round<2; round++) {
+            FileHandler fileHandler = newFileHandler(dir);
+            run("FileHandler", fileHandler);
+            fileHandler.close();
+            
+            AsyncHandler asyncHandler = new AsyncHandler(newFileHandler(dir), 8192, AsyncHandler.OverflowPolicy.BLOCK);
+            run("AsyncHandler(BLOCK)", asyncHandler);
+            asyncHandler.close();
+            
+            asyncHandler = new AsyncHandler(newFileHandler(dir), 8192, AsyncHandler.OverflowPolicy.DROP);
+            run("AsyncHandler(DROP)", asyncHandler);
+            asyncHandler.close();
+            System.out.println("丢弃的日志数：" + asyncHandler.getDroppedCount());
+            System.out.println();
+        }
+    }
+    
+    // 日志文件达到10MB时轮转，最多保留3个文件
+    static FileHandler newFileHandler(Path dir) throws Exception {
+        FileHandler handler = new FileHandler(dir.resolve("test%g.log").toString(), 10 * 1024 * 1024, 3);
+        handler.setFormatter(new SimpleFormatter());
+        return handler;
+    }
+    
+    static void run(String name, Handler handler) throws Exception {
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(handler);
+        
+        long[] latencies = new long[THREADS * CALLS];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for(int t = 0; t<THREADS; t++) {
+            int base = t * CALLS;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch(InterruptedException e) {
+                    return;
+                }
+                for(int i = 0; i<CALLS; i++) {
+                    long t0 = System.nanoTime();
+                    logger.log(Level.INFO, "request {0} handled", i);
+                    latencies[base + i] = System.nanoTime() - t0;
+                }
+            });
+            threads[t].start();
+        }
+        
+        long t0 = System.nanoTime();
+        start.countDown();
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        long t1 = System.nanoTime();
+        handler.flush();
+        logger.removeHandler(handler);
+        
+        Arrays.sort(latencies);
+        System.out.printf("%-20s 总耗时：%5dms  延迟(微秒) p50：%6.1f  p99：%8.1f  p99.9：%8.1f  最大：%8.1f%n",
+            name, (t1 - t0) / 1_000_000,
+            latencies[latencies.length / 2] / 1e3,
+            latencies[(int) (latencies.length * 0.99)] / 1e3,
+            latencies[(int) (latencies.length * 0.999)] / 1e3,
+            latencies[latencies.length - 1] / 1e3);
+    }
+}
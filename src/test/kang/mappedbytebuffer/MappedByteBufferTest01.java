@@ -0,0 +1,89 @@
+package test.kang.mappedbytebuffer;
+
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * 模拟滚动的日志段文件：显式解除映射与异步预读
+ *
+ * 依次映射SEGMENTS个段文件，每个段在被访问前先调用loadAsync()在后台预读，
+ * 访问完毕后立即调用unmap()解除映射，而不是等待GC
+ *
+ * 每轮打印"mapped"缓冲池的统计信息：解除映射后，映射的数量与内存立即回落
+ * 最后演示解除映射后，访问原缓冲区及其视图会抛出异常，而不是访问已释放的内存
+ */
+public class MappedByteBufferTest01 {
+    static final int SEGMENTS = 8;
+    static final int SEGMENT_SIZE = 64 << 20;
+
+    public static void main(String[] args) throws Exception {
+        BufferPoolMXBean mapped = null;
+        for(BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if(pool.getName().equals("mapped")) {
+                mapped = pool;
+            }
+        }
+
+        Path[] paths = new Path[SEGMENTS];
+        for(int i = 0; i<SEGMENTS; i++) {
+            paths[i] = Files.createTempFile("segment-" + i + "-", ".bin");
+        }
+
+        try {
+            // 预读第一个段
+            MappedByteBuffer next = map(paths[0]);
+            CompletableFuture<MappedByteBuffer> warming = next.loadAsync();
+
+            for(int i = 0; i<SEGMENTS; i++) {
+                MappedByteBuffer current = next;
+                long t0 = System.nanoTime();
+                warming.join();
+                long waited = System.nanoTime() - t0;
+
+                // 在访问当前段的同时，在后台预读下一个段
+                if(i + 1<SEGMENTS) {
+                    next = map(paths[i + 1]);
+                    warming = next.loadAsync();
+                }
+
+                long sum = 0;
+                IntBuffer ints = current.asIntBuffer();
+                for(int j = 0; j<ints.capacity(); j += 1024) {
+                    ints.put(j, j);
+                    sum += ints.get(j);
+                }
+
+                current.unmap();
+                System.out.printf("段%d：等待预读 %.1f ms，校验和 %d，mapped：数量=%d 内存=%d MB%n", i, waited / 1e6, sum, mapped.getCount(), mapped.getMemoryUsed() >> 20);
+            }
+
+            // 解除映射后访问缓冲区及其视图
+            MappedByteBuffer buffer = map(paths[0]);
+            IntBuffer view = buffer.slice().asIntBuffer();
+            buffer.unmap();
+            try {
+                view.get(0);
+            } catch(IndexOutOfBoundsException e) {
+                System.out.println("解除映射后访问视图：" + e);
+            }
+        } finally {
+            for(Path path : paths) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    static MappedByteBuffer map(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+        }
+    }
+}
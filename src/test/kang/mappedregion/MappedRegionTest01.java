@@ -0,0 +1,100 @@
+package test.kang.mappedregion;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.MappedRegion;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/*
+ * 映射超过2GB的文件
+ *
+ * 创建一个6GB的稀疏文件，在随机位置写入long，再随机读取并校验
+ *   MappedRegion   一次映射整个文件，直接使用long型偏移量读写
+ *   窗口           按1GB的窗口映射多个MappedByteBuffer，读写前先计算窗口与窗口内的偏移量
+ *
+ * 读取耗时取3轮中的最短值；随后加载整个区域并检查是否已加载（范围超过2GB）
+ * 最后显式关闭MappedRegion，立即释放映射内存
+ */
+public class MappedRegionTest01 {
+    static final long SIZE = 6L << 30;
+    static final int WINDOW_SHIFT = 30;
+    static final int COUNT = 2_000_000;
+    static final int REPEAT = 3;
+
+    static long sink;
+
+    public static void main(String[] args) throws IOException {
+        Path path = Files.createTempFile("MappedRegionTest01", ".bin");
+        long[] offsets = new long[COUNT];
+        Random random = new Random(42);
+        for(int i = 0; i<COUNT; i++) {
+            // 按8字节对齐，避免跨越窗口
+            offsets[i] = (random.nextLong() & (SIZE - 1)) & ~7L;
+        }
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedRegion region = channel.mapRegion(FileChannel.MapMode.READ_WRITE, 0, SIZE);
+            System.out.printf("映射区域：%d MB%n", region.size() >> 20);
+
+            for(long offset : offsets) {
+                region.putLong(offset, offset);
+            }
+
+            MappedByteBuffer[] windows = new MappedByteBuffer[(int) (SIZE >>> WINDOW_SHIFT)];
+            for(int i = 0; i<windows.length; i++) {
+                windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, (long) i << WINDOW_SHIFT, 1L << WINDOW_SHIFT);
+            }
+
+            for(int r = 0; r<2; r++) {
+                long regionTime = best(() -> {
+                    for(long offset : offsets) {
+                        sink += check(offset, region.getLong(offset));
+                    }
+                });
+                long windowTime = best(() -> {
+                    for(long offset : offsets) {
+                        ByteBuffer window = windows[(int) (offset >>> WINDOW_SHIFT)];
+                        sink += check(offset, window.getLong((int) (offset & ((1L << WINDOW_SHIFT) - 1))));
+                    }
+                });
+                System.out.printf("随机读取：MappedRegion %.1f ns/次，窗口 %.1f ns/次%n", (double) regionTime / COUNT, (double) windowTime / COUNT);
+            }
+
+            // 加载整个区域（超过2GB，按段加载与检查）
+            long t0 = System.nanoTime();
+            region.load(0, SIZE);
+            System.out.printf("加载整个区域：%.1f ms，isLoaded=%b%n", (System.nanoTime() - t0) / 1e6, region.isLoaded(0, SIZE));
+
+            // 跨越2GB边界的切片
+            ByteBuffer slice = region.slice((2L << 30) - 4, 8);
+            System.out.printf("跨越2GB边界的切片：%s%n", slice);
+
+            region.close();
+            System.out.printf("关闭后：isOpen=%b%n", region.isOpen());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    static long check(long offset, long value) {
+        if(value != offset) {
+            throw new AssertionError("offset " + offset + ": " + value);
+        }
+        return value;
+    }
+
+    static long best(Runnable task) {
+        long best = Long.MAX_VALUE;
+        for(int r = 0; r<REPEAT; r++) {
+            long t0 = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        return best;
+    }
+}
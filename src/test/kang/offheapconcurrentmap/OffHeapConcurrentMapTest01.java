@@ -0,0 +1,133 @@
+package test.kang.offheapconcurrentmap;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.OffHeapConcurrentMap;
+
+/*
+ * OffHeapConcurrentMap的基本用法：
+ *
+ * 1. 多线程并发写入与读取，观察映射数量与堆外内存占用
+ * 2. 设置字节预算，写入超出预算的数据，观察CLOCK算法淘汰的映射数量
+ * 3. 通过typedView以String作为键值存取
+ */
+public class OffHeapConcurrentMapTest01 {
+    static final int THREADS = 8;           // 线程数
+    static final int PER_THREAD = 100_000;  // 每个线程写入的映射数量
+    static final int VALUE_SIZE = 100;      // 值的字节数
+    
+    public static void main(String[] args) throws Exception {
+        testConcurrent();
+        testBudget();
+        testTypedView();
+    }
+    
+    // 多线程并发写入与读取
+    static void testConcurrent() throws InterruptedException {
+        try(OffHeapConcurrentMap map = new OffHeapConcurrentMap()) {
+            long t0 = System.nanoTime();
+            runThreads(map, true);
+            long t1 = System.nanoTime();
+            runThreads(map, false);
+            long t2 = System.nanoTime();
+            
+            System.out.println("映射数量：" + map.size());
+            System.out.println("映射占用字节：" + map.bytesUsed() + "，堆外内存总量：" + map.memoryUsed());
+            System.out.println("写入耗时(ms)：" + (t1 - t0) / 1000000 + "，读取耗时(ms)：" + (t2 - t1) / 1000000);
+        }
+        System.out.println();
+    }
+    
+    // 设置字节预算后写入超出预算的数据
+    static void testBudget() {
+        long budget = 1024 * 1024;
+        
+        try(OffHeapConcurrentMap map = new OffHeapConcurrentMap(budget)) {
+            ByteBuffer value = ByteBuffer.allocate(VALUE_SIZE);
+            for(int i = 0; i<100_000; i++) {
+                map.put(key(i), value);
+                
+                // 反复访问前100个键，使其在CLOCK算法中获得第二次机会
+                map.get(key(i % 100));
+            }
+            
+            int hot = 0;
+            for(int i = 0; i<100; i++) {
+                if(map.containsKey(key(i))) {
+                    hot++;
+                }
+            }
+            
+            System.out.println("字节预算：" + map.maxBytes() + "，映射占用字节：" + map.bytesUsed());
+            System.out.println("剩余映射数量：" + map.size() + "，淘汰数量：" + map.evictionCount());
+            System.out.println("频繁访问的100个键中仍存在：" + hot);
+        }
+        System.out.println();
+    }
+    
+    // 通过类型化视图存取String
+    static void testTypedView() {
+        OffHeapConcurrentMap.Codec<String> codec = new OffHeapConcurrentMap.Codec<>() {
+            @Override
+            public ByteBuffer encode(String object) {
+                return ByteBuffer.wrap(object.getBytes(StandardCharsets.UTF_8));
+            }
+            
+            @Override
+            public String decode(ByteBuffer buffer) {
+                return StandardCharsets.UTF_8.decode(buffer).toString();
+            }
+        };
+        
+        try(OffHeapConcurrentMap map = new OffHeapConcurrentMap()) {
+            ConcurrentMap<String, String> view = map.typedView(codec, codec);
+            view.put("语言", "Java");
+            view.put("版本", "11");
+            view.putIfAbsent("版本", "8");
+            view.merge("语言", "/堆外", String::concat);
+            
+            System.out.println(view);
+            System.out.println("底层映射数量：" + map.size());
+        }
+        
+        // 关闭之后的访问会抛出异常
+        OffHeapConcurrentMap map = new OffHeapConcurrentMap();
+        map.close();
+        try {
+            map.get(key(0));
+        } catch(IllegalStateException e) {
+            System.out.println("关闭后访问：" + e);
+        }
+    }
+    
+    // 并发写入(put为true)或读取所有键
+    static void runThreads(OffHeapConcurrentMap map, boolean put) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(THREADS);
+        
+        for(int t = 0; t<THREADS; t++) {
+            int base = t * PER_THREAD;
+            new Thread(() -> {
+                ByteBuffer value = ByteBuffer.allocate(VALUE_SIZE);
+                try {
+                    for(int i = base; i<base + PER_THREAD; i++) {
+                        if(put) {
+                            map.put(key(i), value);
+                        } else if(map.get(key(i)) == null) {
+                            System.out.println("丢失：" + i);
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            }).start();
+        }
+        
+        latch.await();
+    }
+    
+    static ByteBuffer key(int i) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(0, i);
+    }
+}
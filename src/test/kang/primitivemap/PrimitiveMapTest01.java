@@ -0,0 +1,80 @@
+package test.kang.primitivemap;
+
+import java.util.HashMap;
+import java.util.LongHashMap;
+import java.util.Random;
+
+/*
+ * 比较LongHashMap与HashMap<Long, Long>的存取耗时和内存占用
+ */
+public class PrimitiveMapTest01 {
+    static final int N = 2_000_000;   // 映射数量
+    static final int ROUNDS = 5;      // 测试轮数
+    
+    public static void main(String[] args) {
+        long[] keys = new long[N];
+        Random random = new Random(42);
+        for(int i = 0; i<N; i++) {
+            keys[i] = random.nextLong();
+        }
+        
+        for(int r = 0; r<ROUNDS; r++) {
+            System.out.println("第" + (r + 1) + "轮");
+            testLongHashMap(keys);
+            testHashMap(keys);
+        }
+    }
+    
+    static void testLongHashMap(long[] keys) {
+        long before = usedMemory();
+        long t0 = System.nanoTime();
+        
+        LongHashMap map = new LongHashMap();
+        for(long key : keys) {
+            map.merge(key, 1, Long::sum);
+        }
+        
+        long t1 = System.nanoTime();
+        long sum = 0;
+        for(long key : keys) {
+            sum += map.get(key);
+        }
+        long t2 = System.nanoTime();
+        
+        long after = usedMemory();
+        print("LongHashMap      ", map.size(), t1 - t0, t2 - t1, after - before, sum);
+    }
+    
+    static void testHashMap(long[] keys) {
+        long before = usedMemory();
+        long t0 = System.nanoTime();
+        
+        HashMap<Long, Long> map = new HashMap<>();
+        for(long key : keys) {
+            map.merge(key, 1L, Long::sum);
+        }
+        
+        long t1 = System.nanoTime();
+        long sum = 0;
+        for(long key : keys) {
+            sum += map.get(key);
+        }
+        long t2 = System.nanoTime();
+        
+        long after = usedMemory();
+        print("HashMap<Long,Long>", map.size(), t1 - t0, t2 - t1, after - before, sum);
+    }
+    
+    static void print(String name, int size, long putNanos, long getNanos, long bytes, long sum) {
+        System.out.printf("  %s size=%d put=%dms get=%dms 内存≈%dMB (sum=%d)%n", name, size, putNanos / 1_000_000, getNanos / 1_000_000, bytes >> 20, sum);
+    }
+    
+    // 粗略统计已用堆内存
+    static long usedMemory() {
+        Runtime rt = Runtime.getRuntime();
+        for(int i = 0; i<3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
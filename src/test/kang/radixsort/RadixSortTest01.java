@@ -0,0 +1,90 @@
+package test.kang.radixsort;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/*
+ * 比较sort、parallelSort、radixSort与parallelRadixSort对int[]和long[]排序的耗时
+ *
+ * 数据分布：均匀随机、小范围随机(0~999)、已排序、近似有序(1%的元素被打乱)
+ * 每种情形重复3次，取最短耗时(毫秒)
+ */
+public class RadixSortTest01 {
+    static final int[] SIZES = {10_000, 1_000_000, 10_000_000};
+    static final String[] DISTRIBUTIONS = {"均匀随机", "小范围随机", "已排序", "近似有序"};
+    static final int REPEAT = 3;
+    
+    public static void main(String[] args) {
+        System.out.printf("%-8s %-10s %-8s %10s %14s %12s %18s%n", "类型", "长度", "分布", "sort", "parallelSort", "radixSort", "parallelRadixSort");
+        for(int size : SIZES) {
+            for(int d = 0; d<DISTRIBUTIONS.length; d++) {
+                long[] data = generate(size, d);
+                int[] ints = new int[size];
+                for(int i = 0; i<size; i++) {
+                    ints[i] = (int) data[i];
+                }
+                System.out.printf("%-8s %-10d %-8s %10.2f %14.2f %12.2f %18.2f%n", "int", size, DISTRIBUTIONS[d],
+                    time(ints, Arrays::sort),
+                    time(ints, Arrays::parallelSort),
+                    time(ints, Arrays::radixSort),
+                    time(ints, Arrays::parallelRadixSort));
+                System.out.printf("%-8s %-10d %-8s %10.2f %14.2f %12.2f %18.2f%n", "long", size, DISTRIBUTIONS[d],
+                    time(data, Arrays::sort),
+                    time(data, Arrays::parallelSort),
+                    time(data, Arrays::radixSort),
+                    time(data, Arrays::parallelRadixSort));
+            }
+        }
+    }
+    
+    static long[] generate(int size, int distribution) {
+        Random random = new Random(42);
+        long[] a = new long[size];
+        for(int i = 0; i<size; i++) {
+            switch(distribution) {
+                case 0:
+                    a[i] = random.nextLong();
+                    break;
+                case 1:
+                    a[i] = random.nextInt(1000);
+                    break;
+                default:
+                    a[i] = i;
+            }
+        }
+        if(distribution == 3) {
+            for(int i = 0; i<size / 100; i++) {
+                int x = random.nextInt(size);
+                int y = random.nextInt(size);
+                long t = a[x];
+                a[x] = a[y];
+                a[y] = t;
+            }
+        }
+        return a;
+    }
+    
+    // 返回最短耗时(毫秒)，每次在副本上排序，复制不计入耗时
+    static double time(int[] source, Consumer<int[]> sort) {
+        long best = Long.MAX_VALUE;
+        for(int i = 0; i<REPEAT; i++) {
+            int[] a = source.clone();
+            long t0 = System.nanoTime();
+            sort.accept(a);
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        return best / 1e6;
+    }
+    
+    static double time(long[] source, Consumer<long[]> sort) {
+        long best = Long.MAX_VALUE;
+        for(int i = 0; i<REPEAT; i++) {
+            long[] a = source.clone();
+            long t0 = System.nanoTime();
+            sort.accept(a);
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        return best / 1e6;
+    }
+}
@@ -0,0 +1,151 @@
+package test.kang.regex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * 比较DFA快速路径与节点引擎在日志、URL语料上的吞吐量，以及在病态正则上的最坏耗时
+ *
+ * 在正则前加上空的正向预查"(?=)"不会改变匹配结果，但会使正则超出DFA支持的子集，因此可作为只使用节点引擎的对照组
+ *
+ * 吞吐量：对每条语料执行find()或matches()，重复5轮，取最短耗时，单位为千行/秒
+ * 最坏耗时：输入长度逐渐增长，节点引擎超过1秒后不再继续增长
+ */
+public class RegexTest01 {
+    static final String[] LEVELS = {"DEBUG", "INFO", "INFO", "INFO", "WARN", "ERROR"};
+    static final String[] HOSTS = {"example.com", "api.example.org", "cdn.static.net", "localhost"};
+    static final int LINES = 20_000;
+    static final int REPEAT = 5;
+    
+    static int sink;
+    
+    public static void main(String[] args) {
+        List<String> logs = logs(new Random(42));
+        List<String> urls = urls(new Random(42));
+        
+        System.out.printf("%-60s %-8s %12s %12s%n", "正则", "操作", "DFA", "节点引擎");
+        throughput("(\\d{4})-(\\d{2})-(\\d{2}) (\\d{2}):(\\d{2}):(\\d{2}) ERROR", logs, false);
+        throughput("ERROR|FATAL", logs, false);
+        throughput("user=(\\w+) .*latency=(\\d{4,})ms", logs, false);
+        throughput("(?:timeout|refused|reset) by peer", logs, false);
+        throughput("[a-z]+@[a-z]+\\.(?:com|org|net)", logs, false);
+        throughput("https?://([a-z0-9.-]+)(:\\d+)?(/[\\w./-]*)?(\\?[\\w=&%-]*)?", urls, true);
+        throughput("https?://[^/]+/api/v\\d+/users/\\d+", urls, false);
+        throughput("[^?]*\\.(?:png|jpg|gif)(?:\\?.*)?", urls, true);
+        
+        System.out.println();
+        System.out.printf("%-40s %8s %12s %12s%n", "病态正则", "长度", "DFA(ms)", "节点引擎(ms)");
+        worstCase("(?:(?:a|aa)+)+c", "a");
+        worstCase("(?:(a|b|ab)*)*c", "ab");
+        worstCase("((a*)*)*b", "a");
+        worstCase("(.*?,){11}P", "a,");
+    }
+    
+    static void throughput(String regex, List<String> corpus, boolean matches) {
+        Pattern dfa = Pattern.compile(regex);
+        Pattern nodes = Pattern.compile("(?=)(?:" + regex + ")");
+        System.out.printf("%-60s %-8s %12.1f %12.1f%n", regex, matches ? "matches" : "find", rate(dfa, corpus, matches), rate(nodes, corpus, matches));
+    }
+    
+    // 千行/秒
+    static double rate(Pattern pattern, List<String> corpus, boolean matches) {
+        Matcher matcher = pattern.matcher("");
+        long best = Long.MAX_VALUE;
+        for(int r = 0; r<REPEAT; r++) {
+            int n = 0;
+            long t0 = System.nanoTime();
+            for(String line : corpus) {
+                matcher.reset(line);
+                if(matches ? matcher.matches() : matcher.find()) {
+                    n += matcher.end();
+                }
+            }
+            best = Math.min(best, System.nanoTime() - t0);
+            sink += n;
+        }
+        return corpus.size() * 1e6 / best;
+    }
+    
+    static void worstCase(String regex, String unit) {
+        Pattern dfa = Pattern.compile(regex);
+        Pattern nodes = Pattern.compile("(?=)(?:" + regex + ")");
+        boolean slow = false;
+        for(int n : new int[]{8, 12, 16, 20, 24, 1 << 10, 1 << 16}) {
+            String input = unit.repeat(n) + "!";
+            long t0 = System.nanoTime();
+            boolean found = dfa.matcher(input).find();
+            double dfaMillis = (System.nanoTime() - t0) / 1e6;
+            
+            // 节点引擎的耗时随长度指数增长，超过1秒后不再测试更长的输入
+            String nodesMillis = "-";
+            if(!slow && n<=24) {
+                t0 = System.nanoTime();
+                if(nodes.matcher(input).find() != found) {
+                    throw new AssertionError(regex);
+                }
+                long nanos = System.nanoTime() - t0;
+                nodesMillis = String.format("%.2f", nanos / 1e6);
+                slow = nanos>1_000_000_000L;
+            }
+            System.out.printf("%-40s %8d %12.2f %12s%n", regex, n, dfaMillis, nodesMillis);
+        }
+    }
+    
+    static List<String> logs(Random random) {
+        List<String> lines = new ArrayList<>(LINES);
+        for(int i = 0; i<LINES; i++) {
+            String level = LEVELS[random.nextInt(LEVELS.length)];
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("2018-%02d-%02d %02d:%02d:%02d ", 1 + random.nextInt(12), 1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60)));
+            sb.append(level).append(" [worker-").append(random.nextInt(16)).append("] ");
+            sb.append("user=u").append(random.nextInt(100_000)).append(' ');
+            switch(random.nextInt(4)) {
+                case 0:
+                    sb.append("request completed path=/api/v1/items/").append(random.nextInt(1000));
+                    break;
+                case 1:
+                    sb.append("connection ").append(random.nextInt(50) == 0 ? "reset by peer" : "kept alive");
+                    break;
+                case 2:
+                    sb.append("mail sent to someone").append(random.nextInt(100)).append("@example.org");
+                    break;
+                default:
+                    sb.append("cache miss for key ").append(Long.toHexString(random.nextLong()));
+                    break;
+            }
+            sb.append(" latency=").append(random.nextInt(random.nextInt(10) == 0 ? 20_000 : 500)).append("ms");
+            lines.add(sb.toString());
+        }
+        return lines;
+    }
+    
+    static List<String> urls(Random random) {
+        List<String> lines = new ArrayList<>(LINES);
+        for(int i = 0; i<LINES; i++) {
+            StringBuilder sb = new StringBuilder(random.nextBoolean() ? "https://" : "http://");
+            sb.append(HOSTS[random.nextInt(HOSTS.length)]);
+            if(random.nextInt(4) == 0) {
+                sb.append(':').append(8000 + random.nextInt(100));
+            }
+            switch(random.nextInt(3)) {
+                case 0:
+                    sb.append("/api/v").append(1 + random.nextInt(3)).append("/users/").append(random.nextInt(1_000_000));
+                    break;
+                case 1:
+                    sb.append("/static/img/").append(Integer.toHexString(random.nextInt())).append(random.nextBoolean() ? ".png" : ".css");
+                    break;
+                default:
+                    sb.append("/search");
+                    break;
+            }
+            if(random.nextBoolean()) {
+                sb.append("?q=").append(Integer.toHexString(random.nextInt())).append("&page=").append(random.nextInt(10));
+            }
+            lines.add(sb.toString());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,106 @@
+package test.kang.regex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * 比较多关键字前缀过滤(Aho-Corasick)与逐位置尝试的Start节点在访问日志过滤上的吞吐量
+ *
+ * 正则由60个关键字组成的分支开头，带有\b或正向预查时DFA快速路径不可用，只能由节点引擎查找
+ * 在正则前加上空的正向预查"(?=)"后无法提取关键字前缀，可作为逐位置尝试的对照组
+ *
+ * 吞吐量：对每条日志执行一次find()，重复5轮，取最短耗时，单位为千行/秒
+ */
+public class RegexTest02 {
+    static final String[] KEYWORDS = {
+        "sqlmap", "nikto", "nmap", "masscan", "zgrab", "dirbuster", "gobuster", "wpscan", "acunetix", "nessus",
+        "openvas", "hydra", "medusa", "burpsuite", "havij", "netsparker", "w3af", "skipfish", "arachni", "jaeles",
+        "nuclei", "ffuf", "feroxbuster", "commix", "xsstrike", "joomscan", "droopescan", "whatweb", "wafw00f", "fimap",
+        "etc/passwd", "wp-login", "phpmyadmin", "cgi-bin", "shell.php", "eval(", "union select", "base64_decode", "xmlrpc", "boaform",
+        "actuator", "jndi:", "struts", "setup.cgi", "HNAP1", "webdav", "config.json", ".env", ".git/", "server-status",
+        "owa/auth", "vendor/phpunit", "solr/admin", "manager/html", "invoker", "jmx-console", "console.jsp", "adminer", "autodiscover", "mstshash"
+    };
+    static final String[] PATHS = {"/", "/index.html", "/api/v1/items", "/static/app.js", "/static/style.css", "/login", "/search?q=books", "/img/logo.png"};
+    static final String[] AGENTS = {
+        "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/70.0 Safari/537.36",
+        "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_14) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/12.0 Safari/605.1.15",
+        "curl/7.61.0", "Googlebot/2.1 (+http://www.google.com/bot.html)"
+    };
+    static final int LINES = 20_000;
+    static final int REPEAT = 5;
+    
+    static int sink;
+    
+    public static void main(String[] args) {
+        List<String> lines = accessLog(new Random(42));
+        StringJoiner keywords = new StringJoiner("|");
+        for(String keyword : KEYWORDS) {
+            keywords.add(Pattern.quote(keyword));
+        }
+        
+        System.out.printf("%-40s %10s %12s %12s%n", "正则", "命中行数", "前缀过滤", "逐位置尝试");
+        throughput("\\b(?:" + keywords + ")", "\\b(?:关键字x60)", lines);
+        throughput("(?i)\\b(?:" + keywords + ")", "(?i)\\b(?:关键字x60)", lines);
+        throughput("(" + keywords + ")(?=[\\s/\"?])", "(关键字x60)(?=[\\s/\"?])", lines);
+        throughput("\\b(?:GET|POST|HEAD|PUT|DELETE) /\\S*(?:" + keywords + ")", "\\b(?:GET|POST|HEAD|PUT|DELETE) /\\S*(?:关键字x60)", lines);
+    }
+    
+    static void throughput(String regex, String title, List<String> lines) {
+        Pattern prefilter = Pattern.compile(regex);
+        Pattern start = Pattern.compile("(?=)(?:" + regex + ")");
+        int hits = 0;
+        for(String line : lines) {
+            boolean found = prefilter.matcher(line).find();
+            if(found != start.matcher(line).find()) {
+                throw new AssertionError(line);
+            }
+            hits += found ? 1 : 0;
+        }
+        System.out.printf("%-40s %10d %12.1f %12.1f%n", title, hits, rate(prefilter, lines), rate(start, lines));
+    }
+    
+    // 千行/秒
+    static double rate(Pattern pattern, List<String> lines) {
+        Matcher matcher = pattern.matcher("");
+        long best = Long.MAX_VALUE;
+        for(int r = 0; r<REPEAT; r++) {
+            int n = 0;
+            long t0 = System.nanoTime();
+            for(String line : lines) {
+                matcher.reset(line);
+                if(matcher.find()) {
+                    n += matcher.end();
+                }
+            }
+            best = Math.min(best, System.nanoTime() - t0);
+            sink += n;
+        }
+        return lines.size() * 1e6 / best;
+    }
+    
+    // 组合日志格式，约2%的请求带有扫描器或攻击特征
+    static List<String> accessLog(Random random) {
+        List<String> lines = new ArrayList<>(LINES);
+        for(int i = 0; i<LINES; i++) {
+            String path = PATHS[random.nextInt(PATHS.length)];
+            String agent = AGENTS[random.nextInt(AGENTS.length)];
+            if(random.nextInt(50) == 0) {
+                String keyword = KEYWORDS[random.nextInt(KEYWORDS.length)];
+                if(random.nextBoolean()) {
+                    path = "/" + keyword + "?id=1";
+                } else {
+                    agent = keyword + "/1.0";
+                }
+            }
+            String method = random.nextInt(5) == 0 ? "POST" : "GET";
+            lines.add(String.format("10.%d.%d.%d - - [17/Oct/2018:%02d:%02d:%02d +0800] \"%s %s HTTP/1.1\" %d %d \"-\" \"%s\"",
+                random.nextInt(256), random.nextInt(256), random.nextInt(256), random.nextInt(24), random.nextInt(60), random.nextInt(60),
+                method, path, random.nextInt(10) == 0 ? 404 : 200, random.nextInt(100_000), agent));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,131 @@
+package test.kang.regex;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * 比较直接在NIO读取的字节上匹配与先解码为String再匹配的吞吐量和内存分配
+ *
+ * 从文件通道读入直接缓冲区，按'\n'切分出每一行：
+ * 字节匹配：通过limit/position圈定一行，复用线程缓存的Matcher，以字节偏移取出请求路径
+ * 解码匹配：将一行复制到byte[]并解码为String，再复用同一个Matcher进行匹配
+ *
+ * 吞吐量取3轮中的最短耗时，单位为MB/s；分配量为每行平均分配的字节数（依赖com.sun.management扩展）
+ */
+public class RegexTest03 {
+    static final int LINES = 200_000;
+    static final int REPEAT = 3;
+    static final Pattern REQUEST = Pattern.compile("^(\\S+) \\S+ \\S+ \\[([^\\]]+)\\] \"(GET|POST|PUT|DELETE) (\\S+) [^\"]*\" (\\d{3}) (\\d+)");
+    
+    static long sink;
+    
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("access", ".log");
+        try {
+            long size = write(file, new Random(42));
+            System.out.printf("%d行，%.1fMB%n", LINES, size / 1e6);
+            System.out.printf("%-12s %12s %16s%n", "方式", "MB/s", "每行分配(字节)");
+            for(int r = 0; r<2; r++) {
+                report("字节匹配", file, size, true);
+                report("解码匹配", file, size, false);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    static void report(String name, Path file, long size, boolean bytes) throws IOException {
+        long best = Long.MAX_VALUE;
+        long allocated = 0;
+        for(int r = 0; r<REPEAT; r++) {
+            long a0 = allocatedBytes();
+            long t0 = System.nanoTime();
+            long hits = scan(file, bytes);
+            best = Math.min(best, System.nanoTime() - t0);
+            allocated = allocatedBytes() - a0;
+            if(hits != LINES) {
+                throw new AssertionError(hits);
+            }
+        }
+        System.out.printf("%-12s %12.1f %16.1f%n", name, size * 1e3 / best, (double) allocated / LINES);
+    }
+    
+    // 逐行匹配文件中的内容，返回匹配成功的行数
+    static long scan(Path file, boolean bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+        byte[] line = new byte[1 << 16];
+        Matcher matcher = REQUEST.localMatcher();
+        long hits = 0;
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // 文件以'\n'结尾，读到末尾时缓冲区中不会剩下不完整的行
+            while(channel.read(buffer) >= 0) {
+                buffer.flip();
+                int start = buffer.position();
+                int limit = buffer.limit();
+                for(int i = start; i<limit; i++) {
+                    if(buffer.get(i) != '\n') {
+                        continue;
+                    }
+                    if(bytes) {
+                        buffer.limit(i).position(start);
+                        matcher.reset(buffer, StandardCharsets.UTF_8);
+                        if(matcher.lookingAt()) {
+                            hits++;
+                            sink += matcher.byteEnd(4) - matcher.byteStart(4);
+                        }
+                        buffer.limit(limit);
+                    } else {
+                        buffer.position(start);
+                        buffer.get(line, 0, i - start);
+                        matcher.reset(new String(line, 0, i - start, StandardCharsets.UTF_8));
+                        if(matcher.lookingAt()) {
+                            hits++;
+                            sink += matcher.group(4).length();
+                        }
+                    }
+                    start = i + 1;
+                }
+                buffer.position(start);
+                buffer.compact();
+                if(!buffer.hasRemaining()) {
+                    throw new IOException("line too long");
+                }
+            }
+        } finally {
+            // 交还线程缓存的Matcher，使其不再引用Pattern与缓冲区
+            Pattern.releaseLocalMatcher();
+        }
+        return hits;
+    }
+    
+    static long write(Path file, Random random) throws IOException {
+        String[] paths = {"/", "/index.html", "/api/v1/items/", "/static/app.js", "/搜索?q=图书", "/img/logo.png"};
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i<LINES; i++) {
+            sb.append("10.").append(random.nextInt(256)).append('.').append(random.nextInt(256)).append('.').append(random.nextInt(256));
+            sb.append(" - - [17/Oct/2018:").append(10 + random.nextInt(14)).append(":00:00 +0800] \"");
+            sb.append(random.nextInt(5) == 0 ? "POST " : "GET ").append(paths[random.nextInt(paths.length)]).append(random.nextInt(1000));
+            sb.append(" HTTP/1.1\" ").append(random.nextInt(10) == 0 ? 404 : 200).append(' ').append(random.nextInt(100_000)).append('\n');
+        }
+        byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
+        Files.write(file, data);
+        return data.length;
+    }
+    
+    static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if(bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
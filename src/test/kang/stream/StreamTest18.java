@@ -0,0 +1,66 @@
+package test.kang.stream;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/*
+ * 自适应并行流与自定义线程池测试
+ *
+ * 比较sequential()、parallel()、adaptiveParallel()以及parallel(ForkJoinPool)在廉价和昂贵的map操作下的耗时(微秒)
+ * 每种情形重复执行，取最短耗时
+ */
+public class StreamTest18 {
+    static final int[] CHEAP_SIZES = {1_000, 100_000, 10_000_000};
+    static final int[] EXPENSIVE_SIZES = {100, 10_000};
+    static final int REPEAT = 20;
+    
+    static double sink;
+    
+    public static void main(String[] args) {
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        
+        System.out.printf("%-10s %-10s %12s %12s %18s %16s%n", "操作", "长度", "sequential", "parallel", "adaptiveParallel", "parallel(pool)");
+        
+        for(int size : CHEAP_SIZES) {
+            print("廉价map", size, pool, StreamTest18::cheap);
+        }
+        
+        for(int size : EXPENSIVE_SIZES) {
+            print("昂贵map", size, pool, StreamTest18::expensive);
+        }
+        
+        pool.shutdown();
+    }
+    
+    static void print(String name, int size, ForkJoinPool pool, IntFunction<Double> op) {
+        System.out.printf("%-10s %-10d %12.1f %12.1f %18.1f %16.1f%n", name, size,
+            time(() -> IntStream.range(0, size).mapToDouble(op::apply).sum()),
+            time(() -> IntStream.range(0, size).parallel().mapToDouble(op::apply).sum()),
+            time(() -> IntStream.range(0, size).adaptiveParallel().mapToDouble(op::apply).sum()),
+            time(() -> IntStream.range(0, size).parallel(pool).mapToDouble(op::apply).sum()));
+    }
+    
+    static double cheap(int x) {
+        return x * 0.5;
+    }
+    
+    // 每个元素约执行数微秒的计算
+    static double expensive(int x) {
+        double d = x;
+        for(int i = 0; i<2_000; i++) {
+            d = Math.sin(d) + x;
+        }
+        return d;
+    }
+    
+    static double time(java.util.function.DoubleSupplier task) {
+        long best = Long.MAX_VALUE;
+        for(int i = 0; i<REPEAT; i++) {
+            long start = System.nanoTime();
+            sink += task.getAsDouble();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e3;
+    }
+}
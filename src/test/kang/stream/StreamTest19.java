@@ -0,0 +1,54 @@
+package test.kang.stream;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/*
+ * 批量Sink测试
+ *
+ * 数组流会将元素成批推送给sink链，map、filter、sum、reduce、count等阶段在一个循环内处理整批元素。
+ * 比较int[]流上sum、map+sum、filter+sum、map+toArray的耗时(微秒)，与手写循环对照
+ * 每种情形重复执行，取最短耗时
+ */
+public class StreamTest19 {
+    static final int[] SIZES = {1_000, 100_000, 10_000_000};
+    static final int REPEAT = 20;
+    
+    static long sink;
+    
+    public static void main(String[] args) {
+        System.out.printf("%-10s %10s %10s %12s %12s %12s %12s%n", "长度", "循环sum", "sum", "map.sum", "filter.sum", "map.toArray", "parallel.sum");
+        
+        Random random = new Random(42);
+        for(int size : SIZES) {
+            int[] a = random.ints(size, 0, 1000).toArray();
+            
+            System.out.printf("%-10d %10.1f %10.1f %12.1f %12.1f %12.1f %12.1f%n", size,
+                time(() -> loopSum(a)),
+                time(() -> Arrays.stream(a).sum()),
+                time(() -> Arrays.stream(a).map(x -> x * 3).sum()),
+                time(() -> Arrays.stream(a).filter(x -> (x & 1) == 0).sum()),
+                time(() -> Arrays.stream(a).map(x -> x + 1).toArray().length),
+                time(() -> Arrays.stream(a).parallel().map(x -> x * 3).sum()));
+        }
+    }
+    
+    static long loopSum(int[] a) {
+        int sum = 0;
+        for(int x : a) {
+            sum += x;
+        }
+        return sum;
+    }
+    
+    static double time(LongSupplier task) {
+        long best = Long.MAX_VALUE;
+        for(int i = 0; i<REPEAT; i++) {
+            long start = System.nanoTime();
+            sink += task.getAsLong();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e3;
+    }
+}
@@ -0,0 +1,113 @@
+package test.kang.stringbuilder;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.XMLFormatter;
+
+/*
+ * 比较构建字符串的几种方式的耗时与内存分配
+ *
+ * JSON：将一条记录格式化为JSON对象
+ *   new      每次新建StringBuilder，toString()复制内部数组
+ *   pooled   使用StringBuilder.pooled()取得线程缓存的StringBuilder，toStringAndClear()复制后交还
+ * 日志：String.format与XMLFormatter格式化日志（内部已改用线程缓存的StringBuilder）
+ *
+ * 每种方式取3轮中的最短耗时；分配量为每次操作平均分配的字节数（依赖com.sun.management扩展）
+ */
+public class StringBuilderTest01 {
+    static final int COUNT = 200_000;
+    static final int REPEAT = 3;
+    static final String[] NAMES = {"alice", "bob", "carol", "dave", "张三", "李四"};
+
+    static long sink;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        Item[] items = new Item[1024];
+        for(int i = 0; i<items.length; i++) {
+            items[i] = new Item(random.nextInt(1_000_000), NAMES[random.nextInt(NAMES.length)], random.nextInt(100_000) / 100.0, random.nextBoolean());
+        }
+
+        XMLFormatter xml = new XMLFormatter();
+        LogRecord record = new LogRecord(Level.INFO, "request served");
+        record.setLoggerName("test.kang.stringbuilder");
+        record.setSourceClassName("StringBuilderTest01");
+        record.setSourceMethodName("main");
+
+        System.out.printf("%-16s %12s %16s%n", "方式", "ns/次", "每次分配(字节)");
+        for(int r = 0; r<2; r++) {
+            report("JSON new", () -> {
+                for(int i = 0; i<COUNT; i++) {
+                    StringBuilder sb = new StringBuilder();
+                    sink += items[i & 1023].json(sb).toString().length();
+                }
+            });
+            report("JSON pooled", () -> {
+                for(int i = 0; i<COUNT; i++) {
+                    StringBuilder sb = StringBuilder.pooled();
+                    sink += items[i & 1023].json(sb).toStringAndClear().length();
+                }
+            });
+            report("String.format", () -> {
+                for(int i = 0; i<COUNT; i++) {
+                    Item item = items[i & 1023];
+                    sink += String.format("%08d %-6s %10.2f %b", item.id, item.name, item.price, item.active).length();
+                }
+            });
+            report("XMLFormatter", () -> {
+                for(int i = 0; i<COUNT / 10; i++) {
+                    sink += xml.format(record).length();
+                }
+            });
+            System.out.println();
+        }
+    }
+
+    static void report(String name, Runnable task) {
+        long best = Long.MAX_VALUE;
+        long allocated = 0;
+        for(int r = 0; r<REPEAT; r++) {
+            long a0 = allocatedBytes();
+            long t0 = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - t0);
+            allocated = allocatedBytes() - a0;
+        }
+        int ops = name.startsWith("XML") ? COUNT / 10 : COUNT;
+        System.out.printf("%-16s %12.1f %16.1f%n", name, (double) best / ops, (double) allocated / ops);
+    }
+
+    static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if(bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    static final class Item {
+        final int id;
+        final String name;
+        final double price;
+        final boolean active;
+        final String priceText;
+
+        Item(int id, String name, double price, boolean active) {
+            this.id = id;
+            this.name = name;
+            this.price = price;
+            this.active = active;
+            this.priceText = Double.toString(price);
+        }
+
+        StringBuilder json(StringBuilder sb) {
+            return sb.append("{\"id\":").append(id)
+                .append(",\"name\":\"").append(name)
+                .append("\",\"price\":").append(priceText)
+                .append(",\"active\":").append(active)
+                .append('}');
+        }
+    }
+}
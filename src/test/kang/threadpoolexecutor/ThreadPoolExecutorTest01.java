@@ -0,0 +1,71 @@
+package test.kang.threadpoolexecutor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/*
+ * 多个生产者向线程池提交大量微小任务，比较不同任务队列下的吞吐量
+ *
+ * 任务队列分别为LinkedBlockingQueue、ArrayBlockingQueue以及分条带的任务队列(Executors.newStripedThreadPool)
+ * 生产者数量依次为1、4、16、64
+ */
+public class ThreadPoolExecutorTest01 {
+    static final int TASKS = 2_000_000;     // 每轮提交的任务总数
+    static final int[] PRODUCERS = {1, 4, 16, 64};
+    
+    public static void main(String[] args) throws Exception {
+        int nThreads = Runtime.getRuntime().availableProcessors();
+        
+        for(int producers : PRODUCERS) {
+            System.out.println("生产者数量：" + producers);
+            run("LinkedBlockingQueue ", producers, () -> new ThreadPoolExecutor(nThreads, nThreads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()));
+            run("ArrayBlockingQueue  ", producers, () -> new ThreadPoolExecutor(nThreads, nThreads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(TASKS), new ThreadPoolExecutor.CallerRunsPolicy()));
+            run("StripedTaskQueue    ", producers, () -> Executors.newStripedThreadPool(nThreads));
+        }
+    }
+    
+    static void run(String name, int producers, Supplier<ExecutorService> supplier) throws InterruptedException {
+        ExecutorService pool = supplier.get();
+        LongAdder done = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(TASKS);
+        Runnable task = () -> {
+            done.increment();
+            finish.countDown();
+        };
+        
+        int perProducer = TASKS / producers;
+        Thread[] threads = new Thread[producers];
+        for(int i = 0; i<producers; i++) {
+            int n = (i == producers - 1) ? TASKS - perProducer * (producers - 1) : perProducer;
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch(InterruptedException e) {
+                    return;
+                }
+                for(int j = 0; j<n; j++) {
+                    pool.execute(task);
+                }
+            });
+            threads[i].start();
+        }
+        
+        long t0 = System.nanoTime();
+        start.countDown();
+        finish.await();
+        long t1 = System.nanoTime();
+        
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+        
+        System.out.printf("  %s %,d 任务/秒%n", name, (long) (TASKS * 1e9 / (t1 - t0)));
+    }
+}
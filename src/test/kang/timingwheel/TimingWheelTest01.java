@@ -0,0 +1,73 @@
+package test.kang.timingwheel;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimingWheelScheduledExecutor;
+
+/*
+ * 模拟大量请求超时定时器：挂起100万个定时任务，随后取消其中的90%，
+ * 比较ScheduledThreadPoolExecutor与TimingWheelScheduledExecutor的调度和取消耗时
+ */
+public class TimingWheelTest01 {
+    static final int TIMERS = 1_000_000;    // 定时任务数量
+    static final int CANCEL_PERCENT = 90;   // 取消比例
+    static final int THREADS = 4;           // 并发调度的线程数
+    
+    public static void main(String[] args) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        
+        for(int round = 0; round<3; round++) {
+            System.out.println("第" + (round + 1) + "轮");
+            
+            ScheduledThreadPoolExecutor stpe = new ScheduledThreadPoolExecutor(2);
+            stpe.setRemoveOnCancelPolicy(true);
+            run("ScheduledThreadPoolExecutor  ", stpe);
+            
+            run("TimingWheelScheduledExecutor ", new TimingWheelScheduledExecutor(workers));
+        }
+        
+        workers.shutdown();
+    }
+    
+    static void run(String name, ScheduledExecutorService ses) throws InterruptedException {
+        ScheduledFuture<?>[] futures = new ScheduledFuture<?>[TIMERS];
+        Runnable task = () -> {
+        };
+        
+        // 多个线程并发调度，超时时间为1~60秒
+        long t0 = System.nanoTime();
+        Thread[] threads = new Thread[THREADS];
+        for(int k = 0; k<THREADS; k++) {
+            int from = TIMERS / THREADS * k, to = TIMERS / THREADS * (k + 1);
+            threads[k] = new Thread(() -> {
+                Random random = new Random(from);
+                for(int i = from; i<to; i++) {
+                    futures[i] = ses.schedule(task, 1_000 + random.nextInt(59_000), TimeUnit.MILLISECONDS);
+                }
+            });
+            threads[k].start();
+        }
+        for(Thread t : threads) {
+            t.join();
+        }
+        long t1 = System.nanoTime();
+        
+        // 取消其中的大部分，模拟请求在超时之前完成
+        for(int i = 0; i<TIMERS; i++) {
+            if(i % 100<CANCEL_PERCENT) {
+                futures[i].cancel(false);
+            }
+        }
+        long t2 = System.nanoTime();
+        
+        int pending = ses.shutdownNow().size();
+        ses.awaitTermination(1, TimeUnit.MINUTES);
+        
+        System.out.printf("  %s 调度=%dms 取消=%dms 剩余=%d%n", name, (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000, pending);
+    }
+}
@@ -0,0 +1,101 @@
+package test.kang.utf8;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/*
+ * 测试UTF-8解码在不同语料上的吞吐量
+ *
+ * 语料：纯ASCII、拉丁文(ASCII中夹杂双字节字符)、中日韩文(以三字节字符为主)、emoji(以四字节字符为主)
+ * 解码方式：
+ * 数组：CharsetDecoder分批解码堆缓冲区
+ * 直接：CharsetDecoder分批解码直接缓冲区
+ * String：new String(byte[], UTF_8)
+ *
+ * 吞吐量取5轮中的最短耗时，单位为MB/s（按输入字节计）
+ */
+public class Utf8DecodeTest01 {
+    static final int SIZE = 4 << 20;
+    static final int REPEAT = 5;
+    static final int CHUNK = 8192;
+
+    static long sink;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        String[] names = {"ASCII", "拉丁文", "中日韩文", "emoji"};
+        byte[][] corpora = {
+            corpus(random, "The quick brown fox jumps over the lazy dog. 0123456789\n", 0, 0),
+            corpus(random, "Voix ambiguë d'un cœur qui au zéphyr préfère les jattes de kiwis. ", 0, 0),
+            corpus(random, "", 0x4e00, 0x9fa5),
+            corpus(random, "", 0x1f300, 0x1f64f)
+        };
+
+        System.out.printf("%-10s %10s %10s %10s%n", "语料", "数组", "直接", "String");
+        for(int r = 0; r<2; r++) {
+            for(int i = 0; i<corpora.length; i++) {
+                byte[] data = corpora[i];
+                ByteBuffer heap = ByteBuffer.wrap(data);
+                ByteBuffer direct = ByteBuffer.allocateDirect(data.length).put(data).flip();
+                System.out.printf("%-10s %10.1f %10.1f %10.1f%n", names[i], decoder(heap), decoder(direct), string(data));
+            }
+            System.out.println();
+        }
+    }
+
+    // 使用CharsetDecoder按CHUNK字节分批解码，返回吞吐量
+    static double decoder(ByteBuffer src) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        CharBuffer dst = CharBuffer.allocate(CHUNK);
+        long best = Long.MAX_VALUE;
+        for(int r = 0; r<REPEAT; r++) {
+            src.clear();
+            decoder.reset();
+            long t0 = System.nanoTime();
+            while(src.position()<src.capacity()) {
+                // 批次末尾不完整的字节序列留到下一批解码
+                src.limit(Math.min(src.position() + CHUNK, src.capacity()));
+                CoderResult result = decoder.decode(src, dst, src.limit() == src.capacity());
+                if(result.isError()) {
+                    throw new AssertionError(result);
+                }
+                sink += dst.position();
+                dst.clear();
+            }
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        return src.capacity() * 1e3 / best;
+    }
+
+    // 使用String的构造器解码，返回吞吐量
+    static double string(byte[] data) {
+        long best = Long.MAX_VALUE;
+        for(int r = 0; r<REPEAT; r++) {
+            long t0 = System.nanoTime();
+            String s = new String(data, StandardCharsets.UTF_8);
+            best = Math.min(best, System.nanoTime() - t0);
+            sink += s.length();
+        }
+        return data.length * 1e3 / best;
+    }
+
+    // 生成约SIZE字节的语料：text不为空时重复text，否则从[from, to]中随机选取码点
+    static byte[] corpus(Random random, String text, int from, int to) {
+        StringBuilder sb = new StringBuilder(SIZE);
+        while(sb.length()<SIZE / 3) {
+            if(!text.isEmpty()) {
+                sb.append(text);
+            } else {
+                sb.appendCodePoint(from + random.nextInt(to - from + 1));
+                if(random.nextInt(16) == 0) {
+                    sb.append(' ');
+                }
+            }
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
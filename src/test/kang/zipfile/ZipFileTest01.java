@@ -0,0 +1,78 @@
+package test.kang.zipfile;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/*
+ * 多线程并发读取同一个zip文件中的大量实体，观察吞吐量随线程数的变化
+ *
+ * 每个线程各自打开一个ZipFile(共享同一个Source)，读取全部实体
+ */
+public class ZipFileTest01 {
+    static final int ENTRIES = 5000;    // 实体数量
+    
+    public static void main(String[] args) throws Exception {
+        File file = File.createTempFile("ZipFileTest01", ".jar");
+        file.deleteOnExit();
+        
+        // 生成测试用的zip文件，一半实体压缩存储，一半不压缩
+        try(ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+            byte[] data = new byte[2048];
+            for(int i = 0; i<data.length; i++) {
+                data[i] = (byte) (i % 31);
+            }
+            
+            for(int i = 0; i<ENTRIES; i++) {
+                out.setLevel(i % 2 == 0 ? 0 : 6);
+                out.putNextEntry(new ZipEntry("pkg/Entry" + i + ".class"));
+                out.write(data);
+                out.closeEntry();
+            }
+        }
+        
+        for(int threads = 1; threads<=64; threads *= 2) {
+            long start = System.nanoTime();
+            run(file, threads);
+            long elapsed = System.nanoTime() - start;
+            System.out.println("线程数：" + threads + "，读取实体数：" + (long) threads * ENTRIES + "，耗时(ms)：" + elapsed / 1000000);
+        }
+    }
+    
+    private static void run(File file, int threads) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(threads);
+        
+        for(int t = 0; t<threads; t++) {
+            new Thread(() -> {
+                try(ZipFile zf = new ZipFile(file)) {
+                    List<ZipEntry> list = new ArrayList<>();
+                    Enumeration<? extends ZipEntry> en = zf.entries();
+                    while(en.hasMoreElements()) {
+                        list.add(en.nextElement());
+                    }
+                    
+                    byte[] buf = new byte[4096];
+                    for(ZipEntry e : list) {
+                        try(InputStream in = zf.getInputStream(e)) {
+                            while(in.read(buf)>0) {
+                            }
+                        }
+                    }
+                } catch(Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    latch.countDown();
+                }
+            }).start();
+        }
+        
+        latch.await();
+    }
+}